@@ -3,6 +3,7 @@ package org.corfudb.annotations;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
@@ -187,7 +188,9 @@ public class ObjectAnnotationProcessor extends AbstractProcessor {
                 conflictFunction = null;
             }
 
-            if (conflictFunction != null && hasConflictAnnotations) {
+            // A mutatorAccessor may have both: the conflict function generates the
+            // conflict params of the update, and the annotations those of the result.
+            if (conflictFunction != null && hasConflictAnnotations && mutatorAccessor == null) {
                 messager.printMessage(Diagnostic.Kind.ERROR, "Method "
                         + method.getSimpleName()
                         + " cannot have both conflict annotations and conflict function '"
@@ -475,6 +478,14 @@ public class ObjectAnnotationProcessor extends AbstractProcessor {
                         addConflictFieldToMethod(ms, conflictField, smrMethod);
                     }
 
+                    // The conflict params of reading the result of a mutatorAccessor are
+                    // its annotated params, even if a function generates those of the update.
+                    String resultConflictField = conflictField;
+                    if (m.conflictFunction != null && m.hasConflictAnnotations) {
+                        resultConflictField = "resultConflictField" + CORFUSMR_FIELD;
+                        addConflictFieldToMethod(ms, resultConflictField, smrMethod);
+                    }
+
                     // If a mutator, then log the update.
                     if (mutator != null || mutatorAccessor != null) {
                         ms.addStatement(
@@ -507,7 +518,7 @@ public class ObjectAnnotationProcessor extends AbstractProcessor {
                                     + ".getUpcallResult(address"
                                     + CORFUSMR_FIELD
                                     +  ", "
-                                    + (m.hasConflictAnnotations ? conflictField : "null")
+                                    + (m.hasConflictAnnotations ? resultConflictField : "null")
                                     + ")");
                         }
                     } else if (transactional != null) {
@@ -558,7 +569,7 @@ public class ObjectAnnotationProcessor extends AbstractProcessor {
                                         .collect(Collectors.joining(", ")),
                                 smrMethod.getReturnType().getKind().equals(TypeKind.VOID)
                                         ? "return null;" : "",
-                                (m.hasConflictAnnotations ? conflictField : "null")
+                                (hasConflictData ? conflictField : "null")
                         );
                     }
                     // Don't instrument methods not marked for instrumentation
@@ -571,6 +582,7 @@ public class ObjectAnnotationProcessor extends AbstractProcessor {
         addUndoRecordMap(typeSpecBuilder, originalName, interfacesToAdd, methodSet);
         addUndoMap(typeSpecBuilder, originalName, interfacesToAdd, methodSet);
         addResetSet(typeSpecBuilder, originalName, interfacesToAdd, methodSet);
+        addMethodNames(typeSpecBuilder, methodSet);
 
         typeSpecBuilder
                 .addSuperinterfaces(interfacesToAdd);
@@ -698,6 +710,35 @@ public class ObjectAnnotationProcessor extends AbstractProcessor {
 
     }
 
+    /** Add the SMR method names and the getter for them. The compact id of a method is
+     * its position in the sorted names, so it does not depend on the declaration order.
+     *
+     * @param typeSpecBuilder   The typespec builder to add the method names to
+     * @param methodSet         The set of methods to add for instrumentation.
+     */
+    private void addMethodNames(TypeSpec.Builder typeSpecBuilder, Set<SmrMethodInfo> methodSet) {
+        String namesString = methodSet.stream()
+                .filter(x -> x.method.getAnnotation(Mutator.class) != null
+                        || x.method.getAnnotation(MutatorAccessor.class) != null)
+                .map(x -> getSmrFunctionName(x.method))
+                .distinct()
+                .sorted()
+                .map(x -> "\"" + x + "\"")
+                .collect(Collectors.joining(", "));
+
+        FieldSpec methodNames = FieldSpec.builder(ArrayTypeName.of(String.class),
+                "methodNames" + CORFUSMR_FIELD, Modifier.FINAL, Modifier.PUBLIC)
+                .initializer("new $T[] {$L}", String.class, namesString)
+                .build();
+
+        typeSpecBuilder.addField(methodNames);
+        typeSpecBuilder.addMethod(MethodSpec.methodBuilder("getCorfuSMRMethodNames")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ArrayTypeName.of(String.class))
+                .addStatement("return $L", "methodNames" + CORFUSMR_FIELD)
+                .build());
+    }
+
     private void addUpcallMap(TypeSpec.Builder typeSpecBuilder, TypeName originalName,
                               Set<TypeName> interfacesToAdd, Set<SmrMethodInfo> methodSet) {
 
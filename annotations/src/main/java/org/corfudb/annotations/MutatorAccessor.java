@@ -32,7 +32,10 @@ public @interface MutatorAccessor {
     String undoRecordFunction() default "";
 
     /** The name of the function used to generate conflict parameters, which
-     * will be used to generate conflict information.
+     * will be used to generate conflict information. If parameters are also
+     * annotated as conflict parameters, the function generates the conflict
+     * parameters of the mutation, and the annotated parameters those of its
+     * result.
      * @return  The name of a conflict generation function.
      */
     String conflictParameterFunction() default "";
@@ -39,6 +39,14 @@ public interface ICorfuSMR<T> {
      */
     Set<String> getCorfuResetSet();
 
+    /** Get the names of the SMR methods, indexed by their compact method id.
+     * The ids are assigned in the order of the sorted method names.
+     * @return  The SMR method names.
+     */
+    default String[] getCorfuSMRMethodNames() {
+        return new String[0];
+    }
+
     /** Return the stream ID that this object belongs to.
      * @return The stream ID this object belongs to. */
     default UUID getCorfuStreamID() {
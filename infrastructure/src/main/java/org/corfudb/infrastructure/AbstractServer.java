@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -66,6 +67,26 @@ public abstract class AbstractServer {
         return sharedExecutor;
     }
 
+    /**
+     * Get the executor which handles a message type. Servers override this method to
+     * dispatch the message types with different costs or priorities to separate executors.
+     *
+     * @param type The message type.
+     * @return The executor the messages of the type are handled on.
+     */
+    public ExecutorService getExecutor(CorfuMsgType type) {
+        return getExecutor();
+    }
+
+    /**
+     * Get the admission control of the requests of this server.
+     *
+     * @return The admission control, or null if the requests are not controlled.
+     */
+    public AdmissionControl getAdmissionControl() {
+        return null;
+    }
+
     /**
      * Shutdown the server.
      */
@@ -0,0 +1,205 @@
+package org.corfudb.infrastructure;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import io.netty.channel.Channel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of requests of a server that are queued or being handled, so that the
+ * server sheds load instead of accumulating work during load spikes.
+ *
+ * <p>Only the request types given at construction (the data path of the server) are
+ * controlled, the other requests (seals, layout changes, pings) are always admitted.
+ * A controlled request is rejected, and the client gets a retriable server busy response,
+ * if the server is at its limit or if the client holds more than its fair share of the
+ * limit, which is split between the clients that have requests in flight.
+ *
+ * <p>When the number of requests in flight reaches the high watermark, the channels that
+ * carry new data path requests stop reading until it falls back to the low watermark, which
+ * pushes back on the clients through TCP flow control before requests have to be rejected.
+ * A channel is paused for a bounded time only, since it carries the control requests of the
+ * client too.
+ */
+@Slf4j
+public class AdmissionControl {
+
+    /**
+     * A client can always have this many requests in flight, whatever the number of clients.
+     */
+    static final int MIN_CLIENT_SHARE = 16;
+
+    /**
+     * The longest a channel is paused for, so that the control requests it carries are
+     * only delayed and never stalled behind the data path.
+     */
+    static final long MAX_PAUSE_MS = 100;
+
+    private static final double HIGH_WATERMARK = 0.75;
+
+    private static final double LOW_WATERMARK = 0.5;
+
+    /**
+     * The requests of the clients without a client id.
+     */
+    private static final UUID ANONYMOUS_CLIENT = new UUID(0L, 0L);
+
+    private final Set<CorfuMsgType> controlledTypes;
+
+    @Getter
+    private final int limit;
+
+    private final int highWatermark;
+
+    private final int lowWatermark;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The requests in flight of each client. A count is only changed inside a compute of
+     * the map, so that a client's entry is never dropped while a request is being admitted.
+     */
+    private final Map<UUID, Integer> clientsInFlight = new ConcurrentHashMap<>();
+
+    private final Set<Channel> pausedChannels = ConcurrentHashMap.newKeySet();
+
+    private final Meter rejections;
+
+    private final Meter pauses;
+
+    /**
+     * Create the admission control of a server.
+     *
+     * @param metricPrefix    the prefix of the metric names
+     * @param limit           the maximum number of controlled requests in flight
+     * @param controlledTypes the request types that are controlled
+     */
+    public AdmissionControl(String metricPrefix, int limit, Set<CorfuMsgType> controlledTypes) {
+        this.limit = limit;
+        this.highWatermark = (int) (limit * HIGH_WATERMARK);
+        this.lowWatermark = (int) (limit * LOW_WATERMARK);
+        this.controlledTypes = controlledTypes;
+
+        rejections = ServerContext.getMetrics().meter(metricPrefix + ".rejections");
+        pauses = ServerContext.getMetrics().meter(metricPrefix + ".pauses");
+        try {
+            ServerContext.getMetrics().register(metricPrefix + ".in-flight",
+                    (Gauge<Integer>) inFlight::get);
+        } catch (IllegalArgumentException e) {
+            // Re-registering metrics during test runs, not a problem
+        }
+    }
+
+    /**
+     * Admit a request, if the server and the client have room for it.
+     *
+     * @param msg the request
+     * @return false if the request must be rejected
+     */
+    public boolean tryAdmit(CorfuMsg msg) {
+        if (!controlledTypes.contains(msg.getMsgType())) {
+            return true;
+        }
+
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            rejections.mark();
+            return false;
+        }
+
+        UUID clientId = getClientId(msg);
+        AtomicBoolean overShare = new AtomicBoolean();
+        clientsInFlight.compute(clientId, (id, count) -> {
+            // The client counts among the clients with requests in flight
+            int clients = count == null ? clientsInFlight.size() + 1 : clientsInFlight.size();
+            int fairShare = Math.max(MIN_CLIENT_SHARE, limit / clients);
+            int current = count == null ? 0 : count;
+            if (current >= fairShare) {
+                overShare.set(true);
+                return count;
+            }
+            return current + 1;
+        });
+
+        if (overShare.get()) {
+            inFlight.decrementAndGet();
+            rejections.mark();
+            log.trace("tryAdmit: client {} is over its share of requests", clientId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release an admitted request, once it was handled.
+     *
+     * @param msg the request
+     */
+    public void release(CorfuMsg msg) {
+        if (!controlledTypes.contains(msg.getMsgType())) {
+            return;
+        }
+
+        UUID clientId = getClientId(msg);
+        clientsInFlight.computeIfPresent(clientId,
+                (id, count) -> count <= 1 ? null : count - 1);
+
+        if (inFlight.decrementAndGet() <= lowWatermark && !pausedChannels.isEmpty()) {
+            pausedChannels.forEach(this::resume);
+        }
+    }
+
+    /**
+     * Stop reading from a channel if a data path request was read from it while the server is
+     * above its high watermark. The channel is read from again once the server is back to its
+     * low watermark, or after {@link #MAX_PAUSE_MS} at the latest, since the control requests
+     * (seals, layout and sequencer requests) that share the channel are held back too.
+     *
+     * @param msg     the request read from the channel
+     * @param channel the channel the request was read from
+     */
+    public void applyBackpressure(CorfuMsg msg, Channel channel) {
+        if (!controlledTypes.contains(msg.getMsgType())
+                || inFlight.get() < highWatermark || !channel.config().isAutoRead()) {
+            return;
+        }
+
+        pauses.mark();
+        channel.config().setAutoRead(false);
+        pausedChannels.add(channel);
+        channel.eventLoop().schedule(() -> resume(channel), MAX_PAUSE_MS, TimeUnit.MILLISECONDS);
+
+        // The requests may have completed in between
+        if (inFlight.get() <= lowWatermark) {
+            resume(channel);
+        }
+    }
+
+    private void resume(Channel channel) {
+        if (pausedChannels.remove(channel)) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    /**
+     * @return the number of controlled requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private static UUID getClientId(CorfuMsg msg) {
+        return msg.getClientID() == null ? ANONYMOUS_CLIENT : msg.getClientID();
+    }
+}
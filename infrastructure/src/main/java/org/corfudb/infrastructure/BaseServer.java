@@ -38,7 +38,7 @@ public class BaseServer extends AbstractServer {
      * @param ctx   The channel context
      * @param r     The server router.
      */
-    @ServerHandler(type = CorfuMsgType.PING)
+    @ServerHandler(type = CorfuMsgType.PING, inline = true)
     private static void ping(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
         r.sendResponse(ctx, msg, CorfuMsgType.PONG.msg());
     }
@@ -50,7 +50,7 @@ public class BaseServer extends AbstractServer {
      * @param ctx   The channel context
      * @param r     The server router.
      */
-    @ServerHandler(type = CorfuMsgType.VERSION_REQUEST)
+    @ServerHandler(type = CorfuMsgType.VERSION_REQUEST, inline = true)
     private void getVersion(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
         VersionInfo vi = new VersionInfo(serverContext.getServerConfig(),
                                          serverContext.getNodeIdBase64());
@@ -20,7 +20,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.corfudb.infrastructure.BatchWriterOperation.Type;
 import org.corfudb.infrastructure.log.StreamLog;
 import org.corfudb.protocols.wireprotocol.LogData;
-import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
@@ -162,21 +161,6 @@ public class BatchWriter<K, V> implements CacheWriter<K, V>, AutoCloseable {
         }
     }
 
-    public TailsResponse queryTails(long epoch) {
-        try {
-            CompletableFuture<TailsResponse> cf = new CompletableFuture<>();
-            operationsQueue.add(new BatchWriterOperation(Type.TAILS_QUERY, null,
-                    null, epoch, null, cf));
-            return cf.get();
-        } catch (Exception e) {
-            if (e.getCause() instanceof RuntimeException) {
-                throw (RuntimeException) e.getCause();
-            } else {
-                throw new RuntimeException(e);
-            }
-        }
-    }
-
     @Override
     public void delete(K key, V value, RemovalCause removalCause) {
     }
@@ -258,10 +242,6 @@ public class BatchWriter<K, V> implements CacheWriter<K, V>, AutoCloseable {
                                 streamLog.reset();
                                 res.add(currOp);
                                 break;
-                            case TAILS_QUERY:
-                                TailsResponse tails = streamLog.getTails();
-                                currOp.getFuture().complete(tails);
-                                break;
                             default:
                                 log.warn("Unknown BatchWriterOperation {}", currOp);
                         }
@@ -19,8 +19,7 @@ public class BatchWriterOperation {
         RANGE_WRITE,
         PREFIX_TRIM,
         SEAL,
-        RESET,
-        TAILS_QUERY
+        RESET
     }
 
     private final Type type;
@@ -0,0 +1,193 @@
+package org.corfudb.infrastructure;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import lombok.EqualsAndHashCode;
+import org.corfudb.protocols.wireprotocol.ConflictHotSpot;
+import org.corfudb.protocols.wireprotocol.TokenResponse;
+import org.corfudb.protocols.wireprotocol.TokenType;
+import org.corfudb.util.CorfuComponent;
+import org.corfudb.util.Utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks the conflict parameters which make the most transactions abort at the sequencer, and
+ * the number of transactions aborted for each reason.
+ *
+ * <p>The conflicts are counted with the Space-Saving algorithm, in a bounded number of
+ * counters: a conflict which is not tracked replaces the tracked conflict with the lowest
+ * count, and inherits its count as the error of its own count. Any conflict which caused more
+ * than 1/{@code capacity} of the conflict aborts is tracked, and its count is overestimated by
+ * at most its error.
+ *
+ * <p>The number of aborts of each reason is also exposed as a meter, named
+ * {@code sequencer.conflict-hot-spots.aborts.<reason>}.
+ */
+public class ConflictHotSpots {
+
+    /**
+     * The default number of tracked conflicts.
+     */
+    static final int DEFAULT_CAPACITY = 256;
+
+    private static final String HOT_SPOTS_METRIC =
+            CorfuComponent.INFRA_SEQUENCER + "conflict-hot-spots";
+
+    private final int capacity;
+
+    private final Map<Conflict, Counter> counters = new HashMap<>();
+
+    private final Map<TokenType, Long> abortCounts = new EnumMap<>(TokenType.class);
+
+    private final Map<TokenType, Meter> abortMeters = new EnumMap<>(TokenType.class);
+
+    /**
+     * A conflict parameter of a stream, or the whole stream.
+     */
+    @EqualsAndHashCode
+    private static class Conflict {
+        final UUID streamId;
+        final long fingerprint;
+        final boolean wholeStream;
+
+        Conflict(UUID streamId, long fingerprint, boolean wholeStream) {
+            this.streamId = streamId;
+            this.fingerprint = fingerprint;
+            this.wholeStream = wholeStream;
+        }
+    }
+
+    private static class Counter {
+        long count;
+        long error;
+
+        Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    public ConflictHotSpots() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a ConflictHotSpots.
+     *
+     * @param capacity the number of tracked conflicts
+     */
+    public ConflictHotSpots(int capacity) {
+        this.capacity = capacity;
+        for (TokenType reason : TokenType.values()) {
+            if (reason != TokenType.NORMAL && reason != TokenType.QUERY) {
+                abortMeters.put(reason, ServerContext.getMetrics()
+                        .meter(HOT_SPOTS_METRIC + ".aborts." + reason.name().toLowerCase()));
+            }
+        }
+        try {
+            ServerContext.getMetrics().register(HOT_SPOTS_METRIC + ".tracked",
+                    (Gauge<Integer>) this::getTrackedCount);
+        } catch (IllegalArgumentException e) {
+            // Re-registering metrics during test runs, not a problem
+        }
+    }
+
+    /**
+     * Record that a transaction aborted.
+     *
+     * @param reason the abort reason
+     */
+    public synchronized void recordAbort(TokenType reason) {
+        abortCounts.merge(reason, 1L, Long::sum);
+        Meter meter = abortMeters.get(reason);
+        if (meter != null) {
+            meter.mark();
+        }
+    }
+
+    /**
+     * Record that a transaction aborted because of a conflict parameter.
+     *
+     * @param streamId    the stream of the conflict parameter
+     * @param fingerprint the fingerprint of the conflict parameter
+     */
+    public void recordConflict(UUID streamId, long fingerprint) {
+        record(new Conflict(streamId, fingerprint, false));
+    }
+
+    /**
+     * Record that a transaction aborted because of an update to a stream it read.
+     *
+     * @param streamId the stream
+     */
+    public void recordStreamConflict(UUID streamId) {
+        record(new Conflict(streamId, 0L, true));
+    }
+
+    private synchronized void record(Conflict conflict) {
+        Counter counter = counters.get(conflict);
+        if (counter != null) {
+            counter.count++;
+            return;
+        }
+
+        if (counters.size() < capacity) {
+            counters.put(conflict, new Counter(1L, 0L));
+            return;
+        }
+
+        // Replace the conflict with the lowest count. The scan only happens on the aborts
+        // caused by conflicts which are not tracked, so it is not on the commit path.
+        Iterator<Map.Entry<Conflict, Counter>> it = counters.entrySet().iterator();
+        Map.Entry<Conflict, Counter> min = it.next();
+        while (it.hasNext()) {
+            Map.Entry<Conflict, Counter> entry = it.next();
+            if (entry.getValue().count < min.getValue().count) {
+                min = entry;
+            }
+        }
+        long minCount = min.getValue().count;
+        counters.remove(min.getKey());
+        counters.put(conflict, new Counter(minCount + 1, minCount));
+    }
+
+    /**
+     * Get the conflicts which caused the most aborts.
+     *
+     * @param limit the maximal number of conflicts to return, none if it is not positive
+     * @return the conflicts, by decreasing number of aborts
+     */
+    public synchronized List<ConflictHotSpot> getHotSpots(int limit) {
+        List<ConflictHotSpot> hotSpots = new ArrayList<>(counters.size());
+        counters.forEach((conflict, counter) -> hotSpots.add(new ConflictHotSpot(
+                conflict.streamId,
+                conflict.wholeStream ? TokenResponse.NO_CONFLICT_KEY
+                        : Utils.longToBigEndianByteArray(conflict.fingerprint),
+                counter.count, counter.error)));
+        hotSpots.sort(Comparator.comparingLong(ConflictHotSpot::getCount).reversed());
+        // The limit comes from the client, so it is clamped rather than trusted
+        int count = Math.max(0, Math.min(limit, hotSpots.size()));
+        return new ArrayList<>(hotSpots.subList(0, count));
+    }
+
+    /**
+     * Get the number of aborted transactions of each reason.
+     *
+     * @return the abort counts, by reason
+     */
+    public synchronized Map<TokenType, Long> getAbortCounts() {
+        return new EnumMap<>(abortCounts);
+    }
+
+    private synchronized int getTrackedCount() {
+        return counters.size();
+    }
+}
@@ -19,6 +19,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -31,7 +32,9 @@ import java.util.Set;
  *
  * <p>For maximum performance, make the handlers static whenever possible.
  * Handlers should be as short as possible (not block), since handler threads come from a
- * shared pool used by all servers. Blocking operations should be offloaded to I/O threads.
+ * shared pool used by all servers, unless the server dispatches the message type to its own
+ * executor. Handlers registered as inline run on the Netty event loop and must never block.
+ * Blocking operations should be offloaded to I/O threads.
  *
  * <p>Created by mwei on 7/26/16.
  */
@@ -56,6 +59,9 @@ public class CorfuMsgHandler {
     /** The handler map. */
     private Map<CorfuMsgType, Handler> handlerMap;
 
+    /** The types which are handled on the Netty event loop. */
+    private final Set<CorfuMsgType> inlineTypes = EnumSet.noneOf(CorfuMsgType.class);
+
     /** Get the types this handler will handle.
      *
      * @return  A set containing the types this handler will handle.
@@ -74,6 +80,15 @@ public class CorfuMsgHandler {
         return handlerMap.get(type);
     }
 
+    /** Check whether a message type is handled inline, on the Netty event loop.
+     *
+     * @param type  The message type.
+     * @return      True, if the handler of the type was registered as inline.
+     */
+    public boolean isInline(CorfuMsgType type) {
+        return inlineTypes.contains(type);
+    }
+
     /** Construct a new instance of CorfuMsgHandler. */
     public CorfuMsgHandler() {
         handlerMap = new EnumMap<>(CorfuMsgType.class);
@@ -193,6 +208,9 @@ public class CorfuMsgHandler {
                     generateConditionalHandler(server, annotation.type(), h);
             // Install the handler in the map
             handlerMap.put(annotation.type(), handler);
+            if (annotation.inline()) {
+                inlineTypes.add(annotation.type());
+            }
         } catch (Throwable e) {
             log.error("Exception during message handler registration", e);
             throw new UnrecoverableCorfuError(e);
@@ -86,6 +86,12 @@ public class CorfuServer {
                     + "[-e [-u <keystore> -f <keystore_password_file>] [-r <truststore> -w "
                     + "<truststore_password_file>] [-b] [-g -o <username_file> -j <password_file>] "
                     + "[-k <seqcache>] [-T <threads>] [-B <size>] [-i <channel-implementation>] "
+                    + "[--state-transfer-chunks=<chunks>] [--state-transfer-rate=<mbps>] "
+                    + "[--log-segment-records=<records>] [--log-segment-preallocation=<mb>] "
+                    + "[--log-open-segments=<segments>] [--log-compaction-rate=<mbps>] "
+                    + "[--log-sync-mode=<mode>] [--log-dirs=<paths>] [--log-cold-tier=<path>] "
+                    + "[--read-ahead=<records>] [--read-ahead-buffer=<mb>] "
+                    + "[--admission-limit=<requests>] "
                     + "[-H <seconds>] [-I <cluster-id>] [-x <ciphers>] [-z <tls-protocols>]] "
                     + "[-P <prefix>] [-R <retention>] [--agent] <port>\n"
                     + "\n"
@@ -138,6 +144,12 @@ public class CorfuServer {
                     + "               The size of the sequencer's cache. [default: 250000].\n    "
                     + " -B <size> --batch-size=<size>                                            "
                     + "              The read/write batch size used for data transfer operations [default: 100].\n"
+                    + " --state-transfer-chunks=<chunks>                                         "
+                    + "              The number of batches a state transfer reads and writes "
+                    + "concurrently [default: 4].\n"
+                    + " --state-transfer-rate=<mbps>                                             "
+                    + "              The maximum rate in MB/s at which a state transfer copies "
+                    + "data, or 0 for no limit [default: 0].\n"
                     + " -R <retention>, --metadata-retention=<retention>                         "
                     + "              Maximum number of system reconfigurations (i.e. layouts)    "
                     + "retained for debugging purposes [default: 100].\n"
@@ -153,6 +165,42 @@ public class CorfuServer {
                     + "              Disable checksum computation and verification.\n"
                     + " -N, --no-sync                                                            "
                     + "              Disable syncing writes to secondary storage.\n"
+                    + " --log-segment-records=<records>                                          "
+                    + "              The number of addresses stored in a log segment file. Only "
+                    + "used when the log is created [default: 10000].\n"
+                    + " --log-segment-preallocation=<mb>                                         "
+                    + "              The size in MB by which log segment files are extended "
+                    + "ahead of the writes, or 0 to disable preallocation [default: 4].\n"
+                    + " --log-open-segments=<segments>                                           "
+                    + "              The maximum number of log segment files kept open "
+                    + "[default: 256].\n"
+                    + " --log-compaction-rate=<mbps>                                             "
+                    + "              The rate in MB/s at which log segments are rewritten to "
+                    + "reclaim the space of trimmed and checkpointed entries, or 0 to only "
+                    + "delete trimmed segments [default: 0].\n"
+                    + " --log-sync-mode=<mode>                                                   "
+                    + "              How log writes are made durable: fsync (data and metadata), "
+                    + "data (data only, best with preallocated segments) or dsync (every write "
+                    + "is synchronous) [default: fsync].\n"
+                    + " --log-dirs=<paths>                                                       "
+                    + "              Comma separated directories, in addition to the log path, "
+                    + "that the log segments are striped across. Each directory should be on "
+                    + "its own device. Directories can be added, but not removed once the log "
+                    + "is written.\n"
+                    + " --log-cold-tier=<path>                                                   "
+                    + "              Directory of the cold tier, which the log segments that are "
+                    + "covered by checkpoints are moved to until they are trimmed.\n"
+                    + " --read-ahead=<records>                                                   "
+                    + "              The number of addresses loaded ahead of the clients that "
+                    + "read the log sequentially, or 0 to disable read-ahead [default: 256].\n"
+                    + " --read-ahead-buffer=<mb>                                                 "
+                    + "              The size in MB of the buffer of the addresses loaded ahead, "
+                    + "separate from the cache [default: 64].\n"
+                    + " --admission-limit=<requests>                                             "
+                    + "              The maximum number of data requests that the log unit and "
+                    + "the sequencer queue, beyond which they reject the requests with a "
+                    + "retriable server busy error, or 0 to disable admission control "
+                    + "[default: 4096].\n"
                     + " -e, --enable-tls                                                         "
                     + "              Enable TLS.\n"
                     + " -u <keystore>, --keystore=<keystore>                                     "
@@ -0,0 +1,236 @@
+package org.corfudb.infrastructure;
+
+import com.codahale.metrics.Meter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.infrastructure.log.StreamLog;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.util.CorfuComponent;
+
+import javax.annotation.Nullable;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * Detects the clients that scan the log sequentially, and asynchronously loads the next
+ * addresses of their scan from the stream log into a scan buffer.
+ *
+ * <p>The scan buffer is separate from the data cache of the log unit, so that the
+ * prefetched entries don't evict the hot entries. The log unit takes an entry out of the
+ * scan buffer when it misses the data cache, instead of reading it from the stream log.
+ *
+ * <p>Only entries that can't change are prefetched: unwritten addresses and entries written
+ * with a rank (which a higher rank can still overwrite) are skipped.
+ */
+@Slf4j
+public class LogUnitReadAhead implements AutoCloseable {
+
+    /**
+     * The number of consecutive addresses a client reads before its reads are considered
+     * a scan.
+     */
+    static final int SEQUENTIAL_THRESHOLD = 4;
+
+    private static final int MAX_PENDING_LOADS = 16;
+
+    private static final int MAX_TRACKED_CLIENTS = 1024;
+
+    private static final String READ_AHEAD_METRIC = CorfuComponent.INFRA_LOG_UNIT + "read-ahead";
+
+    private final StreamLog streamLog;
+
+    /**
+     * The number of addresses loaded ahead of a scan.
+     */
+    private final int window;
+
+    /**
+     * The addresses already in the data cache, which are not loaded again.
+     */
+    private final LongPredicate isCached;
+
+    private final Cache<Long, ILogData> scanBuffer;
+
+    private final Cache<UUID, ScanState> scans = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_CLIENTS)
+            .expireAfterAccess(1, TimeUnit.MINUTES)
+            .build();
+
+    private final ExecutorService loader = new ThreadPoolExecutor(1, 1, 0L,
+            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_PENDING_LOADS),
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("LogUnit-ReadAhead-%d")
+                    .build(),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    /**
+     * Incremented when the scan buffer is invalidated, so that the loads that started before
+     * are discarded.
+     */
+    private long generation = 0;
+
+    private final Meter hits = ServerContext.getMetrics().meter(READ_AHEAD_METRIC + ".hits");
+    private final Meter misses = ServerContext.getMetrics().meter(READ_AHEAD_METRIC + ".misses");
+    private final Meter loads = ServerContext.getMetrics().meter(READ_AHEAD_METRIC + ".loads");
+    private final Meter unused = ServerContext.getMetrics().meter(READ_AHEAD_METRIC + ".unused");
+
+    /**
+     * Create the read-ahead of a log unit.
+     *
+     * @param streamLog  the stream log the entries are loaded from
+     * @param window     the number of addresses loaded ahead of a scan
+     * @param bufferSize the maximum size of the scan buffer in bytes
+     * @param isCached   tells whether an address is already in the data cache
+     */
+    public LogUnitReadAhead(StreamLog streamLog, int window, long bufferSize,
+                            LongPredicate isCached) {
+        this.streamLog = streamLog;
+        this.window = window;
+        this.isCached = isCached;
+        this.scanBuffer = Caffeine.newBuilder()
+                .<Long, ILogData>weigher((k, v) -> ((LogData) v).getData() == null
+                        ? 1 : ((LogData) v).getData().length)
+                .maximumWeight(bufferSize)
+                .removalListener((Long address, ILogData entry, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        unused.mark();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Record a read of a range of addresses by a client, and load the addresses after the
+     * range if the client is scanning the log.
+     *
+     * @param clientId the client that reads
+     * @param first    the first address read
+     * @param last     the last address read
+     */
+    public void onRead(@Nullable UUID clientId, long first, long last) {
+        if (clientId == null) {
+            return;
+        }
+
+        long from;
+        long to;
+        ScanState scan = scans.get(clientId, id -> new ScanState());
+        synchronized (scan) {
+            if (first == scan.nextAddress) {
+                scan.runLength += last - first + 1;
+            } else {
+                scan.runLength = last - first + 1;
+                scan.loadedUpTo = last;
+            }
+            scan.nextAddress = last + 1;
+
+            // Load the next window once half of the previous one was read
+            if (scan.runLength < SEQUENTIAL_THRESHOLD || scan.loadedUpTo - last > window / 2) {
+                return;
+            }
+
+            from = Math.max(last, scan.loadedUpTo) + 1;
+            to = last + window;
+            scan.loadedUpTo = to;
+        }
+
+        long loadGeneration = getGeneration();
+        loader.execute(() -> load(from, to, loadGeneration));
+    }
+
+    private void load(long from, long to, long loadGeneration) {
+        long tail = streamLog.getTails(Long.MAX_VALUE).getLogTail();
+        for (long address = from; address <= Math.min(to, tail); address++) {
+            if (isCached.test(address) || scanBuffer.getIfPresent(address) != null) {
+                continue;
+            }
+
+            LogData entry;
+            try {
+                entry = streamLog.read(address);
+            } catch (RuntimeException e) {
+                log.debug("load: stopping read-ahead at {}", address, e);
+                return;
+            }
+
+            if (entry == null || entry.getRank() != null) {
+                continue;
+            }
+
+            synchronized (this) {
+                if (generation != loadGeneration) {
+                    return;
+                }
+                scanBuffer.put(address, entry);
+            }
+            loads.mark();
+        }
+    }
+
+    /**
+     * Take an entry out of the scan buffer.
+     *
+     * @param address the address of the entry
+     * @return the entry, or null if it was not loaded ahead
+     */
+    @Nullable
+    public ILogData take(long address) {
+        ILogData entry = scanBuffer.asMap().remove(address);
+        if (entry == null || address < streamLog.getTrimMark()) {
+            misses.mark();
+            return null;
+        }
+        hits.mark();
+        return entry;
+    }
+
+    /**
+     * Drop an address from the scan buffer, when it is written to.
+     *
+     * @param address the address written to
+     */
+    public void invalidate(long address) {
+        scanBuffer.invalidate(address);
+    }
+
+    /**
+     * Drop all the entries of the scan buffer, and the loads in progress.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        scanBuffer.invalidateAll();
+    }
+
+    @VisibleForTesting
+    boolean isLoaded(long address) {
+        return scanBuffer.getIfPresent(address) != null;
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * The sequential reads of a client.
+     */
+    private static class ScanState {
+        long nextAddress = -1;
+        long runLength = 0;
+        long loadedUpTo = -1;
+    }
+}
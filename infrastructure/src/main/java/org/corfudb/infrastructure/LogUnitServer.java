@@ -22,6 +22,7 @@ import org.corfudb.protocols.wireprotocol.MultipleReadRequest;
 import org.corfudb.protocols.wireprotocol.RangeWriteMsg;
 import org.corfudb.protocols.wireprotocol.ReadRequest;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.protocols.wireprotocol.TailsRequest;
 import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.protocols.wireprotocol.TrimRequest;
@@ -31,11 +32,16 @@ import org.corfudb.runtime.exceptions.DataOutrankedException;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.ValueAdoptedException;
+import org.corfudb.runtime.view.Address;
+import org.corfudb.util.CorfuComponent;
 import org.corfudb.util.Utils;
 
 import java.lang.invoke.MethodHandles;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 
@@ -88,6 +94,32 @@ public class LogUnitServer extends AbstractServer {
     private final StreamLogCompaction logCleaner;
     private final BatchWriter<Long, ILogData> batchWriter;
 
+    /**
+     * Loads the entries ahead of the clients that scan the log, or null if disabled.
+     */
+    private final LogUnitReadAhead readAhead;
+
+    /**
+     * Sheds the data path requests when the log unit is overloaded, or null if disabled.
+     */
+    private final AdmissionControl admissionControl;
+
+    /**
+     * The writes block until their batch is synced, so they are handled on their own pool
+     * which is sized to fill a batch, and don't hold up the reads.
+     */
+    private final ExecutorService writeExecutor = Executors.newFixedThreadPool(
+            BatchWriter.BATCH_SIZE, new ServerThreadFactory("LogUnit-Write-",
+                    new ServerThreadFactory.ExceptionHandler()));
+
+    /**
+     * The reads that miss the cache go to disk, so they are handled on their own pool, and
+     * don't queue behind the writes.
+     */
+    private final ExecutorService readExecutor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors() * 2, new ServerThreadFactory(
+                    "LogUnit-Read-", new ServerThreadFactory.ExceptionHandler()));
+
     /**
      * Returns a new LogUnitServer.
      * @param serverContext context object providing settings and objects
@@ -117,22 +149,62 @@ public class LogUnitServer extends AbstractServer {
                 .writer(batchWriter)
                 .build(this::handleRetrieval);
 
+        readAhead = config.isMemoryMode() || config.getReadAheadWindow() == 0 ? null
+                : new LogUnitReadAhead(streamLog, config.getReadAheadWindow(),
+                config.getReadAheadBufferSize(),
+                address -> dataCache.getIfPresent(address) != null);
+
+        admissionControl = config.getAdmissionLimit() == 0 ? null
+                : new AdmissionControl(CorfuComponent.INFRA_LOG_UNIT + "admission",
+                config.getAdmissionLimit(), EnumSet.of(CorfuMsgType.WRITE,
+                CorfuMsgType.RANGE_WRITE, CorfuMsgType.FILL_HOLE, CorfuMsgType.READ_REQUEST,
+                CorfuMsgType.MULTIPLE_READ_REQUEST, CorfuMsgType.TAIL_REQUEST,
+                CorfuMsgType.TAIL_SINCE_REQUEST));
+
         logCleaner = new StreamLogCompaction(streamLog, 10, 45, TimeUnit.MINUTES, ServerContext.SHUTDOWN_TIMER);
     }
 
     /**
      * Service an incoming request for maximum global address the log unit server has written.
+     * The tails are read from a snapshot of the log metadata, so this request doesn't
+     * have to wait behind the pending writes in the batch writer.
      */
     @ServerHandler(type = CorfuMsgType.TAIL_REQUEST)
     public void handleTailRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
-        TailsResponse tails = batchWriter.queryTails(msg.getEpoch());
+        sendTails(msg, Address.NON_ADDRESS, ctx, r);
+    }
+
+    /**
+     * Service an incoming request for maximum global address the log unit server has written,
+     * and the tails of the streams written after an address.
+     */
+    @ServerHandler(type = CorfuMsgType.TAIL_SINCE_REQUEST)
+    public void handleTailSinceRequest(CorfuPayloadMsg<TailsRequest> msg,
+                                       ChannelHandlerContext ctx, IServerRouter r) {
+        sendTails(msg, msg.getPayload().getSinceAddress(), ctx, r);
+    }
+
+    /**
+     * Send the tails of the log, unless the server was sealed in another epoch than the one of
+     * the request. The epoch is checked after the tails are read, so the tails sent for an
+     * epoch were read before the server was sealed in the next one.
+     */
+    private void sendTails(CorfuMsg msg, long sinceAddress, ChannelHandlerContext ctx,
+                           IServerRouter r) {
+        TailsResponse tails = streamLog.getTails(sinceAddress);
+        long serverEpoch = serverContext.getServerEpoch();
+        if (msg.getEpoch() != serverEpoch) {
+            r.sendResponse(ctx, msg, new CorfuPayloadMsg<>(CorfuMsgType.WRONG_EPOCH,
+                    serverEpoch));
+            return;
+        }
         r.sendResponse(ctx, msg, CorfuMsgType.TAIL_RESPONSE.payloadMsg(tails));
     }
 
     /**
      * Service an incoming request to retrieve the starting address of this logging unit.
      */
-    @ServerHandler(type = CorfuMsgType.TRIM_MARK_REQUEST)
+    @ServerHandler(type = CorfuMsgType.TRIM_MARK_REQUEST, inline = true)
     public void handleHeadRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
         r.sendResponse(ctx, msg, CorfuMsgType.TRIM_MARK_RESPONSE.payloadMsg(streamLog.getTrimMark()));
     }
@@ -148,6 +220,7 @@ public class LogUnitServer extends AbstractServer {
         try {
             LogData logData = (LogData) msg.getPayload().getData();
             logData.setEpoch(msg.getEpoch());
+            invalidateReadAhead(msg.getPayload().getGlobalAddress());
             dataCache.put(msg.getPayload().getGlobalAddress(), logData);
             r.sendResponse(ctx, msg, CorfuMsgType.WRITE_OK.msg());
 
@@ -165,6 +238,10 @@ public class LogUnitServer extends AbstractServer {
     private void read(CorfuPayloadMsg<ReadRequest> msg, ChannelHandlerContext ctx, IServerRouter r) {
         log.trace("read: {}", msg.getPayload().getRange());
         ReadResponse rr = new ReadResponse();
+        if (readAhead != null) {
+            readAhead.onRead(msg.getClientID(), msg.getPayload().getRange().lowerEndpoint(),
+                    msg.getPayload().getRange().upperEndpoint());
+        }
         try {
             for (Long l = msg.getPayload().getRange().lowerEndpoint();
                     l < msg.getPayload().getRange().upperEndpoint() + 1L; l++) {
@@ -188,6 +265,9 @@ public class LogUnitServer extends AbstractServer {
         ReadResponse rr = new ReadResponse();
         try {
             for (Long l : msg.getPayload().getAddresses()) {
+                if (readAhead != null) {
+                    readAhead.onRead(msg.getClientID(), l, l);
+                }
                 ILogData e = dataCache.get(l);
                 if (e == null) {
                     rr.put(l, LogData.getEmpty(l));
@@ -209,6 +289,7 @@ public class LogUnitServer extends AbstractServer {
             log.debug("fillHole: filling address {}, epoch {}", address, msg.getEpoch());
             LogData hole = LogData.getHole(address.getSequence());
             hole.setEpoch(msg.getEpoch());
+            invalidateReadAhead(address.getSequence());
             dataCache.put(address.getSequence(), hole);
             r.sendResponse(ctx, msg, CorfuMsgType.WRITE_OK.msg());
 
@@ -251,6 +332,9 @@ public class LogUnitServer extends AbstractServer {
     private void flushCache(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
         try {
             dataCache.invalidateAll();
+            if (readAhead != null) {
+                readAhead.invalidateAll();
+            }
         } catch (RuntimeException e) {
             log.error("Encountered error while flushing cache {}", e);
         }
@@ -265,6 +349,9 @@ public class LogUnitServer extends AbstractServer {
     private void rangeWrite(CorfuPayloadMsg<RangeWriteMsg> msg,
                                   ChannelHandlerContext ctx, IServerRouter r) {
         List<LogData> entries = msg.getPayload().getEntries();
+        for (LogData entry : entries) {
+            invalidateReadAhead(entry.getGlobalAddress());
+        }
         batchWriter.bulkWrite(entries, msg.getEpoch());
         r.sendResponse(ctx, msg, CorfuMsgType.WRITE_OK.msg());
     }
@@ -302,6 +389,9 @@ public class LogUnitServer extends AbstractServer {
             serverContext.setLogUnitEpochWaterMark(msg.getPayload());
             batchWriter.reset(msg.getPayload());
             dataCache.invalidateAll();
+            if (readAhead != null) {
+                readAhead.invalidateAll();
+            }
             log.info("LogUnit Server Reset.");
         } else {
             log.info("LogUnit Server Reset request received but reset already done.");
@@ -320,11 +410,25 @@ public class LogUnitServer extends AbstractServer {
      *     unwritten (null).
      */
     public synchronized ILogData handleRetrieval(long address) {
+        if (readAhead != null) {
+            ILogData prefetched = readAhead.take(address);
+            if (prefetched != null) {
+                log.trace("Retrieved[{}] from the scan buffer", address);
+                return prefetched;
+            }
+        }
+
         LogData entry = streamLog.read(address);
         log.trace("Retrieved[{} : {}]", address, entry);
         return entry;
     }
 
+    private void invalidateReadAhead(long address) {
+        if (readAhead != null) {
+            readAhead.invalidate(address);
+        }
+    }
+
     public synchronized void handleEviction(long address, ILogData entry, RemovalCause cause) {
         log.trace("Eviction[{}]: {}", address, cause);
         streamLog.release(address, (LogData) entry);
@@ -338,6 +442,33 @@ public class LogUnitServer extends AbstractServer {
         super.shutdown();
         logCleaner.shutdown();
         batchWriter.close();
+        writeExecutor.shutdownNow();
+        readExecutor.shutdownNow();
+        if (readAhead != null) {
+            readAhead.close();
+        }
+    }
+
+    @Override
+    public ExecutorService getExecutor(CorfuMsgType type) {
+        switch (type) {
+            case WRITE:
+            case RANGE_WRITE:
+            case FILL_HOLE:
+                return writeExecutor;
+            case READ_REQUEST:
+            case MULTIPLE_READ_REQUEST:
+            case TAIL_REQUEST:
+            case TAIL_SINCE_REQUEST:
+                return readExecutor;
+            default:
+                return getExecutor();
+        }
+    }
+
+    @Override
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
     }
 
     @VisibleForTesting
@@ -345,6 +476,11 @@ public class LogUnitServer extends AbstractServer {
         return dataCache;
     }
 
+    @VisibleForTesting
+    LogUnitReadAhead getReadAhead() {
+        return readAhead;
+    }
+
     @VisibleForTesting
     long getMaxCacheSize() {
         return config.getMaxCacheSize();
@@ -361,6 +497,9 @@ public class LogUnitServer extends AbstractServer {
         private final boolean memoryMode;
         private final boolean noVerify;
         private final boolean noSync;
+        private final int readAheadWindow;
+        private final long readAheadBufferSize;
+        private final int admissionLimit;
 
         /**
          * Parse legacy configuration options
@@ -377,6 +516,10 @@ public class LogUnitServer extends AbstractServer {
                     .memoryMode(Boolean.valueOf(opts.get("--memory").toString()))
                     .noVerify((Boolean) opts.get("--no-verify"))
                     .noSync((Boolean) opts.get("--no-sync"))
+                    .readAheadWindow(Integer.parseInt((String) opts.get("--read-ahead")))
+                    .readAheadBufferSize(Long.parseLong(
+                            (String) opts.get("--read-ahead-buffer")) * 1024L * 1024L)
+                    .admissionLimit(Integer.parseInt((String) opts.get("--admission-limit")))
                     .build();
         }
     }
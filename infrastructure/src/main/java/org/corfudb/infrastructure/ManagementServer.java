@@ -23,6 +23,8 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 
@@ -64,6 +66,15 @@ public class ManagementServer extends AbstractServer {
 
     private Orchestrator orchestrator;
 
+    /**
+     * The priority lane of the failure detection messages, so that the heartbeats are not
+     * delayed behind the data traffic on the shared executor, and nodes are not suspected
+     * only because they are busy.
+     */
+    private final ExecutorService heartbeatExecutor = Executors.newSingleThreadExecutor(
+            new ServerThreadFactory("management-heartbeat-",
+                    new ServerThreadFactory.ExceptionHandler()));
+
     /**
      * System down handler to break out of live-locks if the runtime cannot reach the cluster for a
      * certain amount of time. This handler can be invoked at anytime if the Runtime is stuck and
@@ -314,6 +325,14 @@ public class ManagementServer extends AbstractServer {
         }
     }
 
+    @Override
+    public ExecutorService getExecutor(CorfuMsgType type) {
+        if (type == CorfuMsgType.HEARTBEAT_REQUEST) {
+            return heartbeatExecutor;
+        }
+        return getExecutor();
+    }
+
     /**
      * Handles the heartbeat request.
      * It accumulates the metrics required to build
@@ -358,6 +377,7 @@ public class ManagementServer extends AbstractServer {
         super.shutdown();
         orchestrator.shutdown();
         managementAgent.shutdown();
+        heartbeatExecutor.shutdownNow();
 
         // Shut down the Corfu Runtime.
         corfuRuntime.cleanup(CorfuRuntime::shutdown);
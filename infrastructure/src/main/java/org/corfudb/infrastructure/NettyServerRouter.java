@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -135,7 +136,14 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter implements I
                         log.trace("Message routed to {}: {}", handler.getClass().getSimpleName(), msg);
                     }
 
-                    handler.getExecutor().submit(() -> {
+                    // Shed the request if the server is overloaded, the client retries it
+                    AdmissionControl admissionControl = handler.getAdmissionControl();
+                    if (admissionControl != null && !admissionControl.tryAdmit(m)) {
+                        sendResponse(ctx, m, CorfuMsgType.ERROR_SERVER_BUSY.msg());
+                        return;
+                    }
+
+                    Runnable dispatch = () -> {
                         try {
                             handler.handleMessage(m, ctx, this);
                         } catch (Throwable t) {
@@ -144,8 +152,32 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter implements I
                                     t.getClass().getSimpleName(),
                                     t.getMessage(),
                                     t);
+                        } finally {
+                            if (admissionControl != null) {
+                                admissionControl.release(m);
+                            }
+                        }
+                    };
+
+                    // Cheap handlers run on the event loop, the others on the executor
+                    // the server picked for the message type.
+                    if (handler.getHandler().isInline(m.getMsgType())) {
+                        dispatch.run();
+                    } else {
+                        try {
+                            handler.getExecutor(m.getMsgType()).submit(dispatch);
+                        } catch (RejectedExecutionException e) {
+                            log.warn("channelRead: Executor rejected {}, dropping", m);
+                            if (admissionControl != null) {
+                                admissionControl.release(m);
+                            }
+                            return;
                         }
-                    });
+                    }
+
+                    if (admissionControl != null) {
+                        admissionControl.applyBackpressure(m, ctx.channel());
+                    }
                 }
             }
         } catch (Exception e) {
@@ -3,6 +3,7 @@ package org.corfudb.infrastructure;
 import static org.corfudb.protocols.wireprotocol.TokenType.TX_ABORT_NEWSEQ;
 import static org.corfudb.protocols.wireprotocol.TokenType.TX_ABORT_SEQ_OVERFLOW;
 
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Timer;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
@@ -13,13 +14,17 @@ import io.netty.channel.ChannelHandlerContext;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.protocols.wireprotocol.ConflictHotSpotsResponse;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics.SequencerStatus;
 import org.corfudb.protocols.wireprotocol.SequencerTailsRecoveryMsg;
+import org.corfudb.protocols.wireprotocol.TailSubscriptionRequest;
 import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.protocols.wireprotocol.TokenBatchRequest;
+import org.corfudb.protocols.wireprotocol.TokenBatchResponse;
 import org.corfudb.protocols.wireprotocol.TokenRequest;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.protocols.wireprotocol.TokenType;
@@ -33,6 +38,7 @@ import org.corfudb.util.Utils;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +58,8 @@ import java.util.concurrent.atomic.AtomicReference;
  *
  * <p>TOKEN_REQ - Request the next address.
  *
+ * <p>TOKEN_BATCH_REQ - Several token requests served in order, and answered together.
+ *
  * <p>The sequencer server maintains the current tail of the log, the current
  * tail of every stream, and a cache of timestamps of updates on recent
  * conflict-parameters.
@@ -131,7 +139,15 @@ public class SequencerServer extends AbstractServer {
      * the primary sequencer. This means that any snapshot timestamp below this
      * actual threshold would abort due to NEW_SEQUENCER cause.
      */
-    private final Cache<String, Long> conflictToGlobalTailCache;
+    private final Cache<Long, Long> conflictToGlobalTailCache;
+
+    /**
+     * The multipliers and shift of the 64-bit finalizer of MurmurHash3, which mixes the
+     * stream ID and the fingerprint of a conflict parameter into a conflict key.
+     */
+    private static final long MIX_MULTIPLIER_1 = 0xff51afd7ed558ccdL;
+    private static final long MIX_MULTIPLIER_2 = 0xc4ceb9fe1a85ec53L;
+    private static final int MIX_SHIFT = 33;
 
     private long maxConflictWildcard = Address.NOT_FOUND;
 
@@ -175,6 +191,33 @@ public class SequencerServer extends AbstractServer {
         return executor;
     }
 
+    /**
+     * Sheds the token requests when the sequencer is overloaded, or null if disabled.
+     */
+    private final AdmissionControl admissionControl;
+
+    @Override
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    /**
+     * The number of token requests of each batch request.
+     */
+    private final Histogram batchSizes = ServerContext.getMetrics()
+            .histogram(CorfuComponent.INFRA_SEQUENCER + "batch-size");
+
+    /**
+     * Pushes the tail advances of streams to the subscribed clients.
+     */
+    private final StreamTailNotifier tailNotifier = new StreamTailNotifier();
+
+    /**
+     * The conflict parameters which made the most transactions abort, and the abort reasons.
+     */
+    @Getter
+    private final ConflictHotSpots conflictHotSpots = new ConflictHotSpots();
+
     /**
      * Returns a new SequencerServer.
      * @param serverContext context object providing parameters and objects
@@ -195,9 +238,17 @@ public class SequencerServer extends AbstractServer {
             cacheSize = Long.parseLong((String) opts.get("--sequencer-cache-size"));
 
         }
+        int admissionLimit = 0;
+        if (opts.get("--admission-limit") != null) {
+            admissionLimit = Integer.parseInt((String) opts.get("--admission-limit"));
+        }
+        admissionControl = admissionLimit == 0 ? null
+                : new AdmissionControl(CorfuComponent.INFRA_SEQUENCER + "admission",
+                admissionLimit, EnumSet.of(CorfuMsgType.TOKEN_REQ, CorfuMsgType.TOKEN_BATCH_REQ));
+
         conflictToGlobalTailCache = Caffeine.newBuilder()
                 .maximumSize(cacheSize)
-                .removalListener((String k, Long v, RemovalCause cause) -> {
+                .removalListener((Long k, Long v, RemovalCause cause) -> {
                     if (!RemovalCause.REPLACED.equals(cause)) {
                          log.trace("Updating maxConflictWildcard. Old value = '{}', new value='{}'"
                                         + " conflictParam = '{}'. Removal cause = '{}'",
@@ -225,12 +276,26 @@ public class SequencerServer extends AbstractServer {
     /**
     * Get the conflict hash code for a stream ID and conflict param.
     *
+    * <p>Two conflict params sharing a hash code only cause false aborts, which the
+    * transactions retry.</p>
+    *
     * @param streamId      The stream ID.
-    * @param conflictParam The conflict parameter.
+    * @param conflictParam The fingerprint of the conflict parameter.
     * @return A conflict hash code.
     */
-    private String getConflictHashCode(UUID streamId, byte[] conflictParam) {
-        return streamId.toString() + Utils.bytesToHex(conflictParam);
+    private static long getConflictHashCode(UUID streamId, long conflictParam) {
+        long h = mix(streamId.getMostSignificantBits());
+        h = mix(h ^ streamId.getLeastSignificantBits());
+        return mix(h ^ conflictParam);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> MIX_SHIFT;
+        h *= MIX_MULTIPLIER_1;
+        h ^= h >>> MIX_SHIFT;
+        h *= MIX_MULTIPLIER_2;
+        h ^= h >>> MIX_SHIFT;
+        return h;
     }
 
     /**
@@ -269,20 +334,20 @@ public class SequencerServer extends AbstractServer {
 
         AtomicReference<TokenType> response = new AtomicReference<>(TokenType.NORMAL);
 
-        for (Map.Entry<UUID, Set<byte[]>> entry : txInfo.getConflictSet().entrySet()) {
+        for (Map.Entry<UUID, long[]> entry : txInfo.getConflictSet().entrySet()) {
             if (response.get() != TokenType.NORMAL) {
                 break;
             }
 
             // if conflict-parameters are present, check for conflict based on conflict-parameter
             // updates
-            Set<byte[]> conflictParamSet = entry.getValue();
-            if (conflictParamSet != null && conflictParamSet.size() > 0) {
+            long[] conflictParamSet = entry.getValue();
+            if (conflictParamSet != null && conflictParamSet.length > 0) {
                 // for each key pair, check for conflict;
                 // if not present, check against the wildcard
-                for (byte[] conflictParam : conflictParamSet) {
+                for (long conflictParam : conflictParamSet) {
 
-                    String conflictKeyHash = getConflictHashCode(entry.getKey(),
+                    long conflictKeyHash = getConflictHashCode(entry.getKey(),
                             conflictParam);
                     Long v = conflictToGlobalTailCache.getIfPresent(conflictKeyHash);
 
@@ -290,7 +355,8 @@ public class SequencerServer extends AbstractServer {
 
                     if (v != null && v > txSnapshotTimestamp.getSequence()) {
                         log.debug("ABORT[{}] conflict-key[{}](ts={})", txInfo, conflictParam, v);
-                        conflictKey.set(conflictParam);
+                        conflictHotSpots.recordConflict(entry.getKey(), conflictParam);
+                        conflictKey.set(Utils.longToBigEndianByteArray(conflictParam));
                         response.set(TokenType.TX_ABORT_CONFLICT);
                         break;
                     }
@@ -326,6 +392,7 @@ public class SequencerServer extends AbstractServer {
                     if (v > txSnapshotTimestamp.getSequence()) {
                         log.debug("ABORT[{}] conflict-stream[{}](ts={})",
                                 txInfo, Utils.toReadableId(streamId), v);
+                        conflictHotSpots.recordStreamConflict(streamId);
                         response.set(TokenType.TX_ABORT_CONFLICT);
                     }
                     return v;
@@ -342,13 +409,10 @@ public class SequencerServer extends AbstractServer {
      * <p>This returns information about the tail of the
      * log and/or streams without changing/allocating anything.
      *
-     * @param msg corfu message containing token query
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @param req the token query
+     * @return the token response
      */
-    private void handleTokenQuery(CorfuPayloadMsg<TokenRequest> msg,
-                                  ChannelHandlerContext ctx, IServerRouter r) {
-        TokenRequest req = msg.getPayload();
+    private TokenResponse handleTokenQuery(TokenRequest req) {
         List<UUID> streams = req.getStreams();
         List<Long> streamTails;
         Token token;
@@ -370,10 +434,8 @@ public class SequencerServer extends AbstractServer {
             }
         }
 
-        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
-                TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token, Collections.emptyMap(),
-                streamTails)));
-
+        return new TokenResponse(TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token,
+                Collections.emptyMap(), streamTails);
     }
 
 
@@ -387,7 +449,7 @@ public class SequencerServer extends AbstractServer {
         }
 
         long entries = 0;
-        for (Map.Entry<String, Long> entry : conflictToGlobalTailCache.asMap().entrySet()) {
+        for (Map.Entry<Long, Long> entry : conflictToGlobalTailCache.asMap().entrySet()) {
             if (entry.getValue() < trimMark) {
                 conflictToGlobalTailCache.invalidate(entry.getKey());
                 entries++;
@@ -463,6 +525,25 @@ public class SequencerServer extends AbstractServer {
         r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
     }
 
+    /**
+     * Service an incoming request to subscribe to the tail advances of streams.
+     */
+    @ServerHandler(type = CorfuMsgType.TAIL_SUBSCRIPTION_REQUEST)
+    public void subscribeTails(CorfuPayloadMsg<TailSubscriptionRequest> msg,
+                               ChannelHandlerContext ctx, IServerRouter r) {
+        Set<UUID> streams = msg.getPayload().getStreams();
+        Map<UUID, Long> currentTails = new HashMap<>();
+        for (UUID stream : streams) {
+            Long tail = streamTailToGlobalTailMap.get(stream);
+            if (tail != null) {
+                currentTails.put(stream, tail);
+            }
+        }
+
+        r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+        tailNotifier.subscribe(msg, streams, currentTails, ctx, r);
+    }
+
     /**
      * Service an incoming metrics request with the metrics response.
      */
@@ -475,33 +556,65 @@ public class SequencerServer extends AbstractServer {
                 sequencerMetrics));
     }
 
+    /**
+     * Service an incoming request for the conflict parameters which made the most transactions
+     * abort, up to the requested number of hot spots.
+     */
+    @ServerHandler(type = CorfuMsgType.CONFLICT_HOT_SPOTS_REQUEST)
+    public void handleConflictHotSpotsRequest(CorfuPayloadMsg<Integer> msg,
+                                              ChannelHandlerContext ctx, IServerRouter r) {
+        ConflictHotSpotsResponse response = new ConflictHotSpotsResponse(
+                conflictHotSpots.getHotSpots(msg.getPayload()),
+                conflictHotSpots.getAbortCounts());
+        r.sendResponse(ctx, msg, CorfuMsgType.CONFLICT_HOT_SPOTS_RESPONSE.payloadMsg(response));
+    }
+
     /**
      * Service an incoming token request.
      */
     @ServerHandler(type = CorfuMsgType.TOKEN_REQ)
     public synchronized void tokenRequest(CorfuPayloadMsg<TokenRequest> msg,
                                           ChannelHandlerContext ctx, IServerRouter r) {
-        TokenRequest req = msg.getPayload();
+        TokenResponse response = serveTokenRequest(msg.getPayload());
+        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(response));
+    }
+
+    /**
+     * Service a batch of token requests, in order, and answer them in a single response.
+     *
+     * <p>The requests are served exactly as if they had been sent one after the other: a
+     * transaction of the batch is checked against the transactions before it in the batch.
+     */
+    @ServerHandler(type = CorfuMsgType.TOKEN_BATCH_REQ)
+    public synchronized void tokenBatchRequest(CorfuPayloadMsg<TokenBatchRequest> msg,
+                                               ChannelHandlerContext ctx, IServerRouter r) {
+        List<TokenRequest> requests = msg.getPayload().getRequests();
+        List<TokenResponse> responses = new ArrayList<>(requests.size());
+        for (TokenRequest req : requests) {
+            responses.add(serveTokenRequest(req));
+        }
+        batchSizes.update(requests.size());
+        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_BATCH_RES.payloadMsg(
+                new TokenBatchResponse(responses)));
+    }
+
+    private TokenResponse serveTokenRequest(TokenRequest req) {
         final Timer timer = getTimer(req.getReqType());
 
         // dispatch request handler according to request type while collecting the timer metrics
         try (Timer.Context context = MetricsUtils.getConditionalContext(timer)) {
             switch (req.getReqType()) {
                 case TokenRequest.TK_QUERY:
-                    handleTokenQuery(msg, ctx, r);
-                    return;
+                    return handleTokenQuery(req);
 
                 case TokenRequest.TK_RAW:
-                    handleRawToken(msg, ctx, r);
-                    return;
+                    return handleRawToken(req);
 
                 case TokenRequest.TK_TX:
-                    handleTxToken(msg, ctx, r);
-                    return;
+                    return handleTxToken(req);
 
                 default:
-                    handleAllocation(msg, ctx, r);
-                    return;
+                    return handleAllocation(req);
             }
         }
     }
@@ -523,18 +636,13 @@ public class SequencerServer extends AbstractServer {
      * this method serves log-tokens for a raw log implementation.
      * it simply extends the global log tail and returns the global-log token
      *
-     * @param msg corfu message containing raw token
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @param req the raw token request
+     * @return the token response
      */
-    private void handleRawToken(CorfuPayloadMsg<TokenRequest> msg,
-                                ChannelHandlerContext ctx, IServerRouter r) {
-        final TokenRequest req = msg.getPayload();
-
+    private TokenResponse handleRawToken(TokenRequest req) {
         Token token = new Token(sequencerEpoch, globalLogTail.getAndAdd(req.getNumTokens()));
-        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
-                TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token, Collections.emptyMap(), Collections.emptyList())));
-
+        return new TokenResponse(TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token,
+                Collections.emptyMap(), Collections.emptyList());
     }
 
     /**
@@ -546,14 +654,10 @@ public class SequencerServer extends AbstractServer {
      * - if the transaction may commit,
      * then a normal allocation of log position(s) is pursued.
      *
-     * @param msg corfu message containing transaction token
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @param req the transaction token request
+     * @return the token response
      */
-    private void handleTxToken(CorfuPayloadMsg<TokenRequest> msg,
-                               ChannelHandlerContext ctx, IServerRouter r) {
-        final TokenRequest req = msg.getPayload();
-
+    private TokenResponse handleTxToken(TokenRequest req) {
         // Since Java does not allow an easy way for a function to return multiple values, this
         // variable is passed to the consumer that will use it to indicate to us if/what key was
         // responsible for an aborted transaction.
@@ -564,17 +668,17 @@ public class SequencerServer extends AbstractServer {
         // First, we check if the transaction can commit.
         TokenType tokenType = txnCanCommit(req.getTxnResolution(), conflictKey);
         if (tokenType != TokenType.NORMAL) {
+            conflictHotSpots.recordAbort(tokenType);
             // If the txn aborts, then DO NOT hand out a token.
             Token token = new Token(sequencerEpoch, Address.ABORTED);
-            r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(tokenType,
-                    conflictKey.get(), token, Collections.emptyMap(), Collections.emptyList())));
-            return;
+            return new TokenResponse(tokenType, conflictKey.get(), token,
+                    Collections.emptyMap(), Collections.emptyList());
         }
 
         // if we get here, this means the transaction can commit.
         // handleAllocation() does the actual allocation of log position(s)
         // and returns the reponse
-        handleAllocation(msg, ctx, r);
+        return handleAllocation(req);
     }
 
     /**
@@ -582,14 +686,10 @@ public class SequencerServer extends AbstractServer {
      * it also maintains stream-tails, returns a map of stream-tails for backpointers,
      * and maintains a conflict-parameters map.
      *
-     * @param msg corfu message containing allocation
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @param req the token request to allocate
+     * @return the token response
      */
-    private void handleAllocation(CorfuPayloadMsg<TokenRequest> msg,
-                                  ChannelHandlerContext ctx, IServerRouter r) {
-        final TokenRequest req = msg.getPayload();
-
+    private TokenResponse handleAllocation(TokenRequest req) {
         // extend the tail of the global log by the requested # of tokens
         // currentTail is the first available position in the global log
         long currentTail = globalLogTail.getAndAdd(req.getNumTokens());
@@ -614,21 +714,24 @@ public class SequencerServer extends AbstractServer {
             });
         }
 
+        tailNotifier.onTailAdvanced(req.getStreams(), newTail - 1);
+
         // update the cache of conflict parameters
         if (req.getTxnResolution() != null) {
             req.getTxnResolution().getWriteConflictParams().entrySet()
                     .stream()
                     // for each entry
-                    .forEach(txEntry ->
-                            // and for each conflict param
-                            txEntry.getValue().stream().forEach(conflictParam ->
-                                    // insert an entry with the new timestamp
-                                    // using the hash code based on the param
-                                    // and the stream id.
-                                    conflictToGlobalTailCache.put(
-                                            getConflictHashCode(txEntry
-                                                    .getKey(), conflictParam),
-                                            newTail - 1)));
+                    .forEach(txEntry -> {
+                        // and for each conflict param
+                        for (long conflictParam : txEntry.getValue()) {
+                            // insert an entry with the new timestamp
+                            // using the hash code based on the param
+                            // and the stream id.
+                            conflictToGlobalTailCache.put(
+                                    getConflictHashCode(txEntry.getKey(), conflictParam),
+                                    newTail - 1);
+                        }
+                    });
         }
 
         log.trace("token {} backpointers {}",
@@ -636,19 +739,19 @@ public class SequencerServer extends AbstractServer {
         // return the token response with the new global tail
         // and the streams backpointers
         Token token = new Token(sequencerEpoch, currentTail);
-        r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(
-                TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token,
-                backPointerMap.build(), Collections.emptyList())));
+        return new TokenResponse(TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token,
+                backPointerMap.build(), Collections.emptyList());
     }
 
     @Override
     public void shutdown() {
         super.shutdown();
         executor.shutdownNow();
+        tailNotifier.close();
     }
 
     @VisibleForTesting
-    public Cache<String, Long> getConflictToGlobalTailCache() {
+    public Cache<Long, Long> getConflictToGlobalTailCache() {
         return conflictToGlobalTailCache;
     }
 }
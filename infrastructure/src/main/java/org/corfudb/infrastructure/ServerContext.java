@@ -13,6 +13,7 @@ import org.corfudb.comm.ChannelImplementation;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
 import org.corfudb.runtime.exceptions.WrongEpochException;
+import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.ConservativeFailureHandlerPolicy;
 import org.corfudb.runtime.view.IReconfigurationHandlerPolicy;
 import org.corfudb.runtime.view.Layout;
@@ -22,6 +23,7 @@ import org.corfudb.util.MetricsUtils;
 import org.corfudb.util.UuidUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.nio.file.Files;
 import java.time.Duration;
@@ -69,6 +71,10 @@ public class ServerContext implements AutoCloseable {
     private static final String KEY_TAIL_SEGMENT = "CURRENT";
     private static final String PREFIX_STARTING_ADDRESS = "STARTING_ADDRESS";
     private static final String KEY_STARTING_ADDRESS = "CURRENT";
+    private static final String PREFIX_SEGMENT_RECORDS = "SEGMENT_RECORDS";
+    private static final String KEY_SEGMENT_RECORDS = "CURRENT";
+    private static final String PREFIX_LOG_DIRS = "LOG_DIRS";
+    private static final String KEY_LOG_DIRS = "CURRENT";
     private static final String KEY_SEQUENCER = "SEQUENCER";
     private static final String PREFIX_SEQUENCER_EPOCH = "EPOCH";
 
@@ -80,6 +86,9 @@ public class ServerContext implements AutoCloseable {
     private static final String PREFIX_LOGUNIT = "LOGUNIT";
     private static final String EPOCH_WATER_MARK = "EPOCH_WATER_MARK";
 
+    // Orchestrator
+    private static final String PREFIX_STATE_TRANSFER = "STATE_TRANSFER";
+
     /** The node Id, stored as a base64 string. */
     private static final String NODE_ID = "NODE_ID";
 
@@ -429,6 +438,37 @@ public class ServerContext implements AutoCloseable {
         dataStore.put(Long.class, PREFIX_TAIL_SEGMENT, KEY_TAIL_SEGMENT, tailSegment);
     }
 
+    /**
+     * Returns the number of addresses per log segment the log was created with.
+     *
+     * @return the number of addresses per segment, or 0 if it was not recorded
+     */
+    public int getLogSegmentRecords() {
+        Integer segmentRecords = dataStore.get(Integer.class, PREFIX_SEGMENT_RECORDS,
+                KEY_SEGMENT_RECORDS);
+        return segmentRecords == null ? 0 : segmentRecords;
+    }
+
+    public void setLogSegmentRecords(int segmentRecords) {
+        dataStore.put(Integer.class, PREFIX_SEGMENT_RECORDS, KEY_SEGMENT_RECORDS, segmentRecords);
+    }
+
+    /**
+     * Returns the directories the log segments are striped across.
+     *
+     * @return the absolute paths of the segment directories, or null if they were not recorded
+     */
+    @Nullable
+    public List<String> getLogDirs() {
+        String[] logDirs = dataStore.get(String[].class, PREFIX_LOG_DIRS, KEY_LOG_DIRS);
+        return logDirs == null ? null : Arrays.asList(logDirs);
+    }
+
+    public void setLogDirs(List<String> logDirs) {
+        dataStore.put(String[].class, PREFIX_LOG_DIRS, KEY_LOG_DIRS,
+                logDirs.toArray(new String[0]));
+    }
+
     /**
      * Returns the dataStore starting address.
      *
@@ -444,6 +484,25 @@ public class ServerContext implements AutoCloseable {
         dataStore.put(Long.class, PREFIX_STARTING_ADDRESS, KEY_STARTING_ADDRESS, startingAddress);
     }
 
+    /**
+     * Fetch the address up to which (exclusive) a state transfer has completed.
+     *
+     * @param transferId identifies the transferred segment and its destinations
+     * @return the persisted progress, or Address.NON_ADDRESS if nothing was transferred
+     */
+    public long getStateTransferProgress(@Nonnull String transferId) {
+        Long progress = dataStore.get(Long.class, PREFIX_STATE_TRANSFER, transferId);
+        return progress == null ? Address.NON_ADDRESS : progress;
+    }
+
+    public void setStateTransferProgress(@Nonnull String transferId, long address) {
+        dataStore.put(Long.class, PREFIX_STATE_TRANSFER, transferId, address);
+    }
+
+    public void clearStateTransferProgress(@Nonnull String transferId) {
+        dataStore.delete(Long.class, PREFIX_STATE_TRANSFER, transferId);
+    }
+
     /**
      * Persists the sequencer epoch. This is set only by the SequencerServer in the resetServer.
      * No lock required as it relies on the resetServer lock.
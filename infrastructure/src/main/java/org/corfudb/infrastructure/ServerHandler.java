@@ -20,4 +20,11 @@ public @interface ServerHandler {
      * @return the type of corfu message
      */
     CorfuMsgType type();
+
+    /**
+     * Whether the handler is cheap enough to run on the Netty event loop, instead of being
+     * dispatched to an executor of the server. Inline handlers must never block.
+     * @return true if the message is handled on the event loop
+     */
+    boolean inline() default false;
 }
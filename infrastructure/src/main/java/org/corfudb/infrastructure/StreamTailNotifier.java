@@ -0,0 +1,201 @@
+package org.corfudb.infrastructure;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.StreamTailsNotification;
+import org.corfudb.util.CorfuComponent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the tail advances of streams to the clients subscribed to them, so that the clients
+ * tailing a stream don't have to poll the sequencer.
+ *
+ * <p>A subscription belongs to a connection: it is replaced by the next subscription request
+ * on the same connection, and dropped when the connection is closed. The advances of the
+ * subscribed streams are coalesced for {@link #NOTIFICATION_DELAY_MS}, and then sent to the
+ * client in a single notification holding the latest tail of each stream that advanced.
+ */
+@Slf4j
+public class StreamTailNotifier implements AutoCloseable {
+
+    /**
+     * The time a tail advance waits for other advances to be sent with it.
+     */
+    static final long NOTIFICATION_DELAY_MS = 2;
+
+    private static final String NOTIFIER_METRIC = CorfuComponent.INFRA_SEQUENCER + "tail-notifier";
+
+    /**
+     * The subscriptions, by the connection they were made on.
+     */
+    private final Map<ChannelHandlerContext, Subscription> subscriptions =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The subscriptions to each stream.
+     */
+    private final Map<UUID, Set<Subscription>> streamSubscribers = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService notifier = Executors.newSingleThreadScheduledExecutor(
+            new ServerThreadFactory("sequencer-notifier-",
+                    new ServerThreadFactory.ExceptionHandler()));
+
+    private final Meter notifications = ServerContext.getMetrics()
+            .meter(NOTIFIER_METRIC + ".notifications");
+
+    public StreamTailNotifier() {
+        try {
+            ServerContext.getMetrics().register(NOTIFIER_METRIC + ".subscriptions",
+                    (Gauge<Integer>) subscriptions::size);
+        } catch (IllegalArgumentException e) {
+            // Re-registering metrics during test runs, not a problem
+        }
+    }
+
+    /**
+     * Subscribe a client to the tail advances of a set of streams, replacing its previous
+     * subscription on the same connection. The current tails of the streams are sent to the
+     * client right away.
+     *
+     * @param request      the subscription request, whose base fields are used for the
+     *                     notifications
+     * @param streams      the streams to subscribe to, or an empty set to unsubscribe
+     * @param currentTails the current tails of the streams
+     * @param ctx          the connection of the client
+     * @param r            the server router
+     */
+    public void subscribe(CorfuMsg request, Set<UUID> streams, Map<UUID, Long> currentTails,
+                          ChannelHandlerContext ctx, IServerRouter r) {
+        Subscription previous = subscriptions.remove(ctx);
+        if (previous != null) {
+            removeSubscriber(previous);
+        }
+
+        if (streams.isEmpty()) {
+            log.debug("subscribe: client {} unsubscribed", request.getClientID());
+            return;
+        }
+
+        Subscription subscription = new Subscription(request, streams, ctx, r);
+        subscriptions.put(ctx, subscription);
+        for (UUID stream : streams) {
+            streamSubscribers.computeIfAbsent(stream, s -> ConcurrentHashMap.newKeySet())
+                    .add(subscription);
+        }
+
+        Channel channel = ctx.channel();
+        if (channel != null) {
+            channel.closeFuture().addListener(f -> {
+                if (subscriptions.remove(ctx, subscription)) {
+                    removeSubscriber(subscription);
+                }
+            });
+        }
+
+        currentTails.forEach(subscription::advance);
+        log.debug("subscribe: client {} subscribed to {} streams", request.getClientID(),
+                streams.size());
+    }
+
+    /**
+     * Notify the subscribers of streams that the tails of the streams advanced.
+     *
+     * @param streams the streams
+     * @param tail    the new tail of the streams
+     */
+    public void onTailAdvanced(Iterable<UUID> streams, long tail) {
+        if (streamSubscribers.isEmpty()) {
+            return;
+        }
+
+        for (UUID stream : streams) {
+            Set<Subscription> subscribers = streamSubscribers.get(stream);
+            if (subscribers != null) {
+                for (Subscription subscription : subscribers) {
+                    subscription.advance(stream, tail);
+                }
+            }
+        }
+    }
+
+    private void removeSubscriber(Subscription subscription) {
+        for (UUID stream : subscription.streams) {
+            streamSubscribers.computeIfPresent(stream, (s, subscribers) -> {
+                subscribers.remove(subscription);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        notifier.shutdownNow();
+    }
+
+    /**
+     * The subscription of a client, and the tail advances not sent to it yet.
+     */
+    private class Subscription {
+        final CorfuMsg request;
+        final Set<UUID> streams;
+        final ChannelHandlerContext ctx;
+        final IServerRouter router;
+
+        /**
+         * The latest tail of the streams which advanced since the last notification.
+         */
+        private Map<UUID, Long> pendingTails = new HashMap<>();
+
+        Subscription(CorfuMsg request, Set<UUID> streams, ChannelHandlerContext ctx,
+                     IServerRouter router) {
+            this.request = request;
+            this.streams = streams;
+            this.ctx = ctx;
+            this.router = router;
+        }
+
+        synchronized void advance(UUID stream, long tail) {
+            boolean flushScheduled = !pendingTails.isEmpty();
+            pendingTails.merge(stream, tail, Math::max);
+            if (flushScheduled) {
+                return;
+            }
+
+            try {
+                notifier.schedule(this::flush, NOTIFICATION_DELAY_MS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.trace("advance: notifier is shut down");
+            }
+        }
+
+        void flush() {
+            Map<UUID, Long> tails;
+            synchronized (this) {
+                tails = pendingTails;
+                pendingTails = new HashMap<>();
+            }
+
+            if (subscriptions.get(ctx) != this) {
+                return;
+            }
+            router.sendResponse(ctx, request, CorfuMsgType.STREAM_TAILS_NOTIFICATION
+                    .payloadMsg(new StreamTailsNotification(Collections.unmodifiableMap(tails))));
+            notifications.mark();
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package org.corfudb.infrastructure.log;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.infrastructure.ServerContext;
+import org.corfudb.util.CorfuComponent;
+import org.corfudb.util.MetricsUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The cold tier of the stream log: segments that are no longer needed locally are moved
+ * to an {@link ObjectStore}, and a small local index of the addresses of each offloaded
+ * segment is kept so that their entries can still be read. The index also keeps the tails
+ * of the segment, which are replayed into the log metadata when the log is opened instead
+ * of reading the segment back.
+ *
+ * <p>Reads fetch the whole chunk of the segment that holds the entry, and keep the recently
+ * fetched chunks in memory, so that the scans of the old parts of the log (which read
+ * consecutive addresses) only go to the object store once per chunk.
+ */
+@Slf4j
+class ColdTier {
+
+    static final String INDEX_SUFFIX = ".cold";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * An index record: the address, the offset and the length of the entry, and its checksum.
+     */
+    private static final int INDEX_RECORD_SIZE = Long.BYTES * 2 + Integer.BYTES * 2;
+
+    /**
+     * A tail record of the index: the stream id, and the address.
+     */
+    private static final int TAIL_RECORD_SIZE = Long.BYTES * 3;
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final long CHUNK_CACHE_SIZE = 64L * CHUNK_SIZE;
+
+    private static final String COLD_TIER_METRIC = CorfuComponent.INFRA_STREAM_OPS + "cold-tier";
+
+    private final ObjectStore store;
+
+    /**
+     * The index of each offloaded segment.
+     */
+    private final Map<Long, Map<Long, AddressMetaData>> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * The tails of each offloaded segment.
+     */
+    private final Map<Long, LogMetadata> metadata = new ConcurrentHashMap<>();
+
+    private final Cache<ChunkKey, ByteBuffer> chunks = CacheBuilder.newBuilder()
+            .maximumWeight(CHUNK_CACHE_SIZE)
+            .<ChunkKey, ByteBuffer>weigher((key, chunk) -> chunk.capacity())
+            .build();
+
+    private final Counter offloadedSegments = ServerContext.getMetrics()
+            .counter(COLD_TIER_METRIC + ".offloaded-segments");
+    private final Meter offloadedBytes = ServerContext.getMetrics()
+            .meter(COLD_TIER_METRIC + ".offloaded-bytes");
+    private final Meter reads = ServerContext.getMetrics()
+            .meter(COLD_TIER_METRIC + ".reads");
+    private final Timer chunkFetches = ServerContext.getMetrics()
+            .timer(COLD_TIER_METRIC + ".chunk-fetch");
+
+    ColdTier(ObjectStore store) {
+        this.store = store;
+    }
+
+    boolean isOffloaded(long segment) {
+        return indexes.containsKey(segment);
+    }
+
+    /**
+     * Upload a segment to the object store. The segment is only offloaded once its index
+     * is committed.
+     *
+     * @param segment     the segment number
+     * @param segmentFile the segment file
+     */
+    void upload(long segment, Path segmentFile) throws IOException {
+        store.put(getKey(segment), segmentFile);
+    }
+
+    /**
+     * Get the tails of an offloaded segment.
+     *
+     * @param segment the segment number
+     * @return the tails of the entries of the segment
+     */
+    LogMetadata getMetadata(long segment) {
+        return metadata.get(segment);
+    }
+
+    /**
+     * Write the local index of an uploaded segment, after which its entries are read from
+     * the object store.
+     *
+     * @param segment         the segment number
+     * @param records         the records of the segment
+     * @param segmentMetadata the tails of the entries of the segment
+     * @param indexFile       the local index file
+     */
+    void commit(long segment, Map<Long, AddressMetaData> records, LogMetadata segmentMetadata,
+                Path indexFile) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(Integer.BYTES
+                + records.size() * INDEX_RECORD_SIZE
+                + Long.BYTES
+                + Integer.BYTES + segmentMetadata.getStreamTails().size() * TAIL_RECORD_SIZE
+                + Integer.BYTES
+                + segmentMetadata.getCheckpointStarts().size() * TAIL_RECORD_SIZE);
+        long bytes = 0;
+        buf.putInt(records.size());
+        for (Map.Entry<Long, AddressMetaData> record : records.entrySet()) {
+            buf.putLong(record.getKey());
+            buf.putLong(record.getValue().offset);
+            buf.putInt(record.getValue().length);
+            buf.putInt(record.getValue().checksum);
+            bytes += StreamLogFiles.METADATA_SIZE + record.getValue().length;
+        }
+        buf.putLong(segmentMetadata.getGlobalTail());
+        putTails(buf, segmentMetadata.getStreamTails());
+        putTails(buf, segmentMetadata.getCheckpointStarts());
+        buf.flip();
+
+        Path temp = Paths.get(indexFile + TEMP_SUFFIX);
+        try (FileChannel fc = FileChannel.open(temp, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                fc.write(buf);
+            }
+            fc.force(true);
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        indexes.put(segment, new HashMap<>(records));
+        metadata.put(segment, segmentMetadata);
+        offloadedSegments.inc();
+        offloadedBytes.mark(bytes);
+    }
+
+    /**
+     * Load the local index of an offloaded segment.
+     *
+     * @param segment   the segment number
+     * @param indexFile the local index file
+     */
+    void load(long segment, Path indexFile) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        Map<Long, AddressMetaData> index = new HashMap<>();
+        LogMetadata segmentMetadata = new LogMetadata();
+        try {
+            int records = buf.getInt();
+            checkRemaining(buf, records, INDEX_RECORD_SIZE, indexFile);
+            for (int i = 0; i < records; i++) {
+                long address = buf.getLong();
+                long offset = buf.getLong();
+                int length = buf.getInt();
+                int checksum = buf.getInt();
+                index.put(address, new AddressMetaData(checksum, length, offset));
+            }
+
+            segmentMetadata.updateGlobalTail(buf.getLong());
+            getTails(buf, indexFile).forEach(segmentMetadata::updateStreamTail);
+            getTails(buf, indexFile).forEach(segmentMetadata::updateCheckpointStart);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Cold index " + indexFile + " is truncated", e);
+        }
+
+        if (buf.hasRemaining()) {
+            throw new IOException("Cold index " + indexFile + " has " + buf.remaining()
+                    + " trailing bytes");
+        }
+        indexes.put(segment, index);
+        metadata.put(segment, segmentMetadata);
+    }
+
+    private static void putTails(ByteBuffer buf, Map<UUID, Long> tails) {
+        buf.putInt(tails.size());
+        for (Map.Entry<UUID, Long> tail : tails.entrySet()) {
+            buf.putLong(tail.getKey().getMostSignificantBits());
+            buf.putLong(tail.getKey().getLeastSignificantBits());
+            buf.putLong(tail.getValue());
+        }
+    }
+
+    private static Map<UUID, Long> getTails(ByteBuffer buf, Path indexFile)
+            throws IOException {
+        int count = buf.getInt();
+        checkRemaining(buf, count, TAIL_RECORD_SIZE, indexFile);
+        Map<UUID, Long> tails = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            tails.put(new UUID(buf.getLong(), buf.getLong()), buf.getLong());
+        }
+        return tails;
+    }
+
+    /**
+     * Check that the index holds as many records as its header says, before reading them.
+     */
+    private static void checkRemaining(ByteBuffer buf, int count, int recordSize,
+                                       Path indexFile) throws IOException {
+        if (count < 0 || (long) count * recordSize > buf.remaining()) {
+            throw new IOException("Cold index " + indexFile + " is truncated, expected "
+                    + count + " records of " + recordSize + " bytes, found "
+                    + buf.remaining() + " bytes");
+        }
+    }
+
+    /**
+     * Read the payload of an entry of an offloaded segment.
+     *
+     * @param segment the segment number
+     * @param address the address of the entry
+     * @return the metadata and the payload of the entry, or null if it is not in the segment
+     */
+    @Nullable
+    ColdRecord read(long segment, long address) throws IOException {
+        Map<Long, AddressMetaData> index = indexes.get(segment);
+        AddressMetaData metaData = index == null ? null : index.get(address);
+        if (metaData == null) {
+            return null;
+        }
+
+        reads.mark();
+        ByteBuffer payload = ByteBuffer.allocate(metaData.length);
+        long position = metaData.offset;
+        while (payload.hasRemaining()) {
+            long chunkIndex = position / CHUNK_SIZE;
+            ByteBuffer chunk = getChunk(segment, chunkIndex).duplicate();
+            int chunkOffset = (int) (position - chunkIndex * CHUNK_SIZE);
+            if (chunkOffset >= chunk.limit()) {
+                throw new IOException("Segment " + segment + " is shorter than its index");
+            }
+
+            chunk.position(chunkOffset);
+            chunk.limit(Math.min(chunk.limit(), chunkOffset + payload.remaining()));
+            position += chunk.remaining();
+            payload.put(chunk);
+        }
+
+        return new ColdRecord(metaData, payload.array());
+    }
+
+    private ByteBuffer getChunk(long segment, long chunkIndex) throws IOException {
+        try {
+            return chunks.get(new ChunkKey(segment, chunkIndex), () -> {
+                try (Timer.Context context = MetricsUtils.getConditionalContext(chunkFetches)) {
+                    ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+                    store.read(getKey(segment), chunkIndex * CHUNK_SIZE, chunk);
+                    chunk.flip();
+                    return chunk;
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Delete an offloaded segment, and its cached chunks. The local index file is deleted
+     * by the caller.
+     *
+     * @param segment the segment number
+     */
+    void delete(long segment) {
+        metadata.remove(segment);
+        if (indexes.remove(segment) == null) {
+            return;
+        }
+
+        chunks.asMap().keySet().removeIf(key -> key.getSegment() == segment);
+        try {
+            store.delete(getKey(segment));
+        } catch (IOException e) {
+            log.error("delete: failed to delete offloaded segment {}", segment, e);
+        }
+        offloadedSegments.dec();
+    }
+
+    /**
+     * Delete the offloaded segments up to and including a segment.
+     *
+     * @param endSegment the last segment to delete
+     */
+    void deleteUpTo(long endSegment) {
+        for (Long segment : indexes.keySet()) {
+            if (segment <= endSegment) {
+                delete(segment);
+            }
+        }
+    }
+
+    private static String getKey(long segment) {
+        return segment + ".log";
+    }
+
+    @Value
+    private static class ChunkKey {
+        long segment;
+        long chunk;
+    }
+
+    /**
+     * An entry read from the cold tier.
+     */
+    @Value
+    static class ColdRecord {
+        AddressMetaData metaData;
+        byte[] payload;
+    }
+}
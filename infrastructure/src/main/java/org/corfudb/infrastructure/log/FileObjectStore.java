@@ -0,0 +1,70 @@
+package org.corfudb.infrastructure.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import static org.corfudb.infrastructure.utils.Persistence.syncDirectory;
+
+/**
+ * An object store that keeps the objects as files of a local directory, for instance on a
+ * large and cheap disk, or on a mounted remote file system.
+ */
+public class FileObjectStore implements ObjectStore {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path dir;
+
+    /**
+     * Create an object store in a directory.
+     *
+     * @param dir the directory of the objects, created if it doesn't exist
+     */
+    public FileObjectStore(String dir) {
+        File file = new File(dir);
+        if (!file.exists()) {
+            file.mkdirs();
+        }
+        this.dir = Paths.get(dir);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = dir.resolve(key);
+        Path temp = dir.resolve(key + TEMP_SUFFIX);
+        Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(dir.toString());
+    }
+
+    @Override
+    public int read(String key, long offset, ByteBuffer dst) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.resolve(key), StandardOpenOption.READ)) {
+            int total = 0;
+            while (dst.hasRemaining()) {
+                int read = channel.read(dst, offset + total);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total;
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(dir.resolve(key));
+    }
+}
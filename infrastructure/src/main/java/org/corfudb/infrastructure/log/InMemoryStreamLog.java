@@ -4,7 +4,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
@@ -77,12 +76,8 @@ public class InMemoryStreamLog implements StreamLog, StreamLogWithRankedAddressS
     }
 
     @Override
-    public synchronized TailsResponse getTails() {
-        Map<UUID, Long> tails = new HashMap<>(logMetadata.getStreamTails().size());
-        for (Map.Entry<UUID, Long> entry : logMetadata.getStreamTails().entrySet()) {
-            tails.put(entry.getKey(), entry.getValue());
-        }
-        return new TailsResponse(logMetadata.getGlobalTail(), tails);
+    public TailsResponse getTails(long sinceAddress) {
+        return logMetadata.getTails(sinceAddress);
     }
 
     @Override
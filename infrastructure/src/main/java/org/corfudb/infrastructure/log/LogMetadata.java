@@ -3,24 +3,31 @@ package org.corfudb.infrastructure.log;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.protocols.logprotocol.CheckpointEntry;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.runtime.view.Address;
 
-import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A container object that holds log tail offsets and the global
  * log tail that has been seen. Note that holes don't belong to any
  * stream therefore the globalTail needs to be tracked separately.
  *
+ * <p>Updates are expected to come from a single writer, but the tails can
+ * be read concurrently (i.e. without going through the write path) by
+ * taking a snapshot with {@link #getTails(long)}.
+ *
  * <p>Created by maithem on 10/15/18.
  */
 
-@NotThreadSafe
+@ThreadSafe
 @ToString
 @Slf4j
 public class LogMetadata {
@@ -31,9 +38,24 @@ public class LogMetadata {
     @Getter
     private final Map<UUID, Long> streamTails;
 
+    /**
+     * The start address of the latest completed checkpoint of each stream. The entries of a
+     * stream below this address are covered by the checkpoint.
+     */
+    @Getter
+    private final Map<UUID, Long> checkpointStarts;
+
+    /**
+     * Incremented every time a checkpoint start address advances.
+     */
+    @Getter
+    private volatile long checkpointGeneration;
+
     public LogMetadata() {
         this.globalTail = Address.NON_ADDRESS;
-        this.streamTails = new HashMap();
+        this.streamTails = new ConcurrentHashMap<>();
+        this.checkpointStarts = new ConcurrentHashMap<>();
+        this.checkpointGeneration = 0;
     }
 
     public void update(List<LogData> entries) {
@@ -46,8 +68,7 @@ public class LogMetadata {
         long entryAddress = entry.getGlobalAddress();
         updateGlobalTail(entryAddress);
         for (UUID streamId : entry.getStreams()) {
-            long currentStreamTail = streamTails.getOrDefault(streamId, Address.NON_ADDRESS);
-            streamTails.put(streamId, Math.max(currentStreamTail, entryAddress));
+            streamTails.merge(streamId, entryAddress, Math::max);
         }
 
         // We should also consider checkpoint metadata while updating the tails.
@@ -66,14 +87,58 @@ public class LogMetadata {
                 // "think" that the tail is not empty and return Address.Non_ADDRESS
                 // instead of NON_EXIST. The sequencer, should handle both cases,
                 // but that can be addressed in another issue.
-                long currentStreamTail = streamTails.getOrDefault(streamId, Address.NON_ADDRESS);
-                streamTails.put(streamId, Math.max(currentStreamTail, streamTailAtCP));
+                streamTails.merge(streamId, streamTailAtCP, Math::max);
+
+                if (entry.getCheckpointType() == CheckpointEntry.CheckpointEntryType.END) {
+                    updateCheckpointStart(streamId, streamTailAtCP);
+                }
             }
         }
     }
 
+    /**
+     * Merge the tails of a part of the log, such as an offloaded segment, into this metadata.
+     *
+     * @param other the metadata of the part of the log
+     */
+    public void merge(LogMetadata other) {
+        updateGlobalTail(other.getGlobalTail());
+        other.getStreamTails().forEach(this::updateStreamTail);
+        other.getCheckpointStarts().forEach(this::updateCheckpointStart);
+    }
+
+    void updateStreamTail(UUID streamId, long tail) {
+        streamTails.merge(streamId, tail, Math::max);
+    }
+
+    void updateCheckpointStart(UUID streamId, long startAddress) {
+        Long previous = checkpointStarts.get(streamId);
+        if (previous == null || previous < startAddress) {
+            checkpointStarts.put(streamId, startAddress);
+            checkpointGeneration++;
+        }
+    }
+
     public void updateGlobalTail(long newTail) {
         globalTail = Math.max(globalTail, newTail);
     }
 
+    /**
+     * Take a snapshot of the tails. Since the global tail is always updated before
+     * the stream tails, it is read last so that the returned global tail is never
+     * smaller than any of the returned stream tails.
+     *
+     * @param sinceAddress only streams with a tail greater than this address are returned
+     * @return the global tail and the stream tails that advanced past sinceAddress
+     */
+    public TailsResponse getTails(long sinceAddress) {
+        Map<UUID, Long> tails = new HashMap<>();
+        for (Map.Entry<UUID, Long> entry : streamTails.entrySet()) {
+            if (entry.getValue() > sinceAddress) {
+                tails.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new TailsResponse(globalTail, tails);
+    }
+
 }
@@ -0,0 +1,44 @@
+package org.corfudb.infrastructure.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * A store of immutable objects, used as the cold tier of the stream log. Log segments
+ * that are no longer written to are moved to the object store as a whole, and are read
+ * back in ranges.
+ *
+ * <p>Implementations must be thread safe.
+ */
+public interface ObjectStore {
+
+    /**
+     * Store the content of a file under a key, replacing the object with the same key if
+     * there is one. The object is durable once this method returns.
+     *
+     * @param key    the key of the object
+     * @param source the file to store
+     * @throws IOException if the object could not be stored
+     */
+    void put(String key, Path source) throws IOException;
+
+    /**
+     * Read a range of an object.
+     *
+     * @param key    the key of the object
+     * @param offset the offset of the range in the object
+     * @param dst    the buffer to read into, up to its remaining bytes
+     * @return the number of bytes read, which is less than requested at the end of the object
+     * @throws IOException if the object doesn't exist or could not be read
+     */
+    int read(String key, long offset, ByteBuffer dst) throws IOException;
+
+    /**
+     * Delete an object, if it exists.
+     *
+     * @param key the key of the object
+     * @throws IOException if the object could not be deleted
+     */
+    void delete(String key) throws IOException;
+}
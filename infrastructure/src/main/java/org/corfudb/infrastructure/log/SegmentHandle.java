@@ -39,6 +39,18 @@ class SegmentHandle {
     private final Set<Long> pendingTrims = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private volatile int refCount = 0;
 
+    /**
+     * Logical time of the last time this handle was acquired, used to close the least
+     * recently used segments.
+     */
+    private volatile long lastAccess = 0;
+
+
+    /**
+     * Set when the segment file was replaced by a compacted copy. The handle keeps serving
+     * the reads that are using it, and closes once it is released by all of them.
+     */
+    private volatile boolean retired = false;
 
     public synchronized void retain() {
         refCount++;
@@ -49,6 +61,19 @@ class SegmentHandle {
             throw new IllegalStateException("refCount cannot be less than 0, segment " + segment);
         }
         refCount--;
+        if (retired && refCount == 0) {
+            close();
+        }
+    }
+
+    /**
+     * Retire this handle, closing it as soon as it is not in use.
+     */
+    public synchronized void retire() {
+        retired = true;
+        if (refCount == 0) {
+            close();
+        }
     }
 
     public void close() {
@@ -6,6 +6,7 @@ import java.util.List;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.runtime.exceptions.OverwriteCause;
+import org.corfudb.runtime.view.Address;
 
 /**
  * An interface definition that specifies an api to interact with a StreamLog.
@@ -52,7 +53,17 @@ public interface StreamLog {
     /**
      * Get the global tail and stream tails.
      */
-    TailsResponse getTails();
+    default TailsResponse getTails() {
+        return getTails(Address.NON_ADDRESS);
+    }
+
+    /**
+     * Get the global tail and the tails of the streams that have advanced past
+     * an address. This method can be called concurrently with appends.
+     *
+     * @param sinceAddress only stream tails greater than this address are returned
+     */
+    TailsResponse getTails(long sinceAddress);
 
     /**
      * Get the first untrimmed address in the address space.
@@ -1,13 +1,22 @@
 package org.corfudb.infrastructure.log;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import com.google.protobuf.UnsafeByteOperations;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -24,6 +33,8 @@ import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
 import org.corfudb.runtime.exceptions.OverwriteCause;
 import org.corfudb.runtime.exceptions.OverwriteException;
+import org.corfudb.util.CorfuComponent;
+import org.corfudb.util.MetricsUtils;
 
 import javax.annotation.Nullable;
 import java.io.File;
@@ -43,6 +54,7 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -51,8 +63,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static org.corfudb.infrastructure.utils.Persistence.syncDirectory;
 
@@ -74,22 +92,124 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
             .setLength(-1)
             .build()
             .getSerializedSize();
-    public static int VERSION = 2;
+    public static int VERSION = 3;
+
+    /**
+     * Size of a record of the backpointer table of an entry: the stream id and its backpointer.
+     */
+    static final int BACKPOINTER_RECORD_SIZE = Long.BYTES * 3;
+
+    /**
+     * Write buffers larger than this are not kept for reuse after a write.
+     */
+    private static final int WRITE_BUFFER_MAX_RETAINED = 4 * 1024 * 1024;
+
+    /**
+     * Direct buffers the records are serialized into before they are written, reused across
+     * writes so that an entry is serialized once and copied to the file without an extra copy.
+     */
+    private static final ThreadLocal<ByteBuffer> writeBuffers = new ThreadLocal<>();
+    /**
+     * The number of addresses per segment of logs created before it was configurable.
+     */
     public static int RECORDS_PER_LOG_FILE = 10000;
-    public static int TRIM_THRESHOLD = (int) (.25 * RECORDS_PER_LOG_FILE);
+    private static final double TRIM_THRESHOLD_RATIO = .25;
     public final String logDir;
     private final boolean noVerify;
     private final ServerContext serverContext;
     private Map<String, SegmentHandle> writeChannels;
-    private Set<FileChannel> channelsToSync;
+
+    /**
+     * The channels written to since the last sync, and the directory of their segment.
+     */
+    private Map<FileChannel, SegmentDirectory> channelsToSync;
+
+    /**
+     * The directories the segments are striped across, the first one is logDir.
+     */
+    private final List<SegmentDirectory> segmentDirectories;
+
+    /**
+     * The segments that are not in the directory they are striped to, because the log
+     * directories changed since they were created.
+     */
+    private final Map<Long, SegmentDirectory> relocatedSegments = new ConcurrentHashMap<>();
+
+    /**
+     * Syncs the directories in parallel, or null if there is a single directory.
+     */
+    private final ExecutorService syncExecutor;
+
+    /**
+     * The segments moved to the object store, or null if there is no cold tier.
+     */
+    @Nullable
+    private final ColdTier coldTier;
     private MultiReadWriteLock segmentLocks = new MultiReadWriteLock();
 
+    /**
+     * The size of the blocks in which a range of a segment file is checked for zeros.
+     */
+    private static final int ZERO_CHECK_BLOCK_SIZE = 64 * 1024;
+
+    @Getter
+    private final StreamLogConfig config;
+
+    /**
+     * The number of addresses per segment.
+     */
+    private final int recordsPerSegment;
+
+    /**
+     * A quarter of the addresses of a segment.
+     */
+    @Getter
+    private final int trimThreshold;
+
+    /**
+     * Logical clock of the segment handle accesses, guarded by this.
+     */
+    private long segmentAccesses = 0;
+
+    /**
+     * Segments are only rewritten when at least this fraction of their bytes can be reclaimed.
+     */
+    private static final double COMPACTION_MIN_RECLAIMABLE = 0.25;
+
+    private static final String COMPACTED_SEGMENT_SUFFIX = ".compact";
+
+    /**
+     * Serializes the compactions, which can be triggered by the scheduler and by clients.
+     */
+    private final Object compactionLock = new Object();
+
+    /**
+     * Limits the number of bytes read and written per second by the segment compaction, or
+     * null if segment compaction is disabled.
+     */
+    private final RateLimiter compactionRateLimiter;
+
+    /**
+     * The checkpoint generation and trim mark at which each segment was last inspected by the
+     * compaction, so that segments are only inspected again when more of them can be dropped.
+     */
+    private final Map<Long, CompactionStamp> compactionStamps = new ConcurrentHashMap<>();
+
+    private final Timer compactSegmentTimer = ServerContext.getMetrics()
+            .timer(StreamLogCompaction.STREAM_COMPACT_METRIC + ".segment");
+    private final Counter compactedSegments = ServerContext.getMetrics()
+            .counter(StreamLogCompaction.STREAM_COMPACT_METRIC + ".segments");
+    private final Meter reclaimedBytes = ServerContext.getMetrics()
+            .meter(StreamLogCompaction.STREAM_COMPACT_METRIC + ".reclaimed-bytes");
+    private final Timer syncTimer = ServerContext.getMetrics()
+            .timer(CorfuComponent.INFRA_STREAM_OPS + "sync");
+
     //=================Log Metadata=================
     // TODO(Maithem) this should effectively be final, but it is used
     // by a reset API that clears the state of this class, on reset
     // a new instance of this class should be created after deleting
     // the files of the old instance
-    private LogMetadata logMetadata;
+    private volatile LogMetadata logMetadata;
     private long lastSegment;
     private volatile long startingAddress;
 
@@ -101,21 +221,57 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
      * @param noVerify       Disable checksum if true
      */
     public StreamLogFiles(ServerContext serverContext, boolean noVerify) {
+        this(serverContext, noVerify, getColdTierStore(serverContext.getServerConfig()));
+    }
+
+    /**
+     * Returns a file-based stream log object with a cold tier.
+     * @param serverContext  Context object that provides server state such as epoch,
+     *                       segment and start address
+     * @param noVerify       Disable checksum if true
+     * @param coldTierStore  The object store the segments that are covered by checkpoints
+     *                       are moved to, or null to keep all the segments locally
+     */
+    public StreamLogFiles(ServerContext serverContext, boolean noVerify,
+                          @Nullable ObjectStore coldTierStore) {
         logDir = serverContext.getServerConfig().get("--log-path") + File.separator + "log";
-        File dir = new File(logDir);
-        if (!dir.exists()) {
-            dir.mkdirs();
+        this.config = StreamLogConfig.parse(serverContext.getServerConfig());
+
+        List<String> dirs = new ArrayList<>();
+        dirs.add(logDir);
+        for (String extraDir : config.getExtraLogDirs()) {
+            dirs.add(extraDir + File.separator + "log");
+        }
+        segmentDirectories = new ArrayList<>(dirs.size());
+        for (int index = 0; index < dirs.size(); index++) {
+            File dir = new File(dirs.get(index));
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            segmentDirectories.add(new SegmentDirectory(index, dirs.get(index)));
         }
+        syncExecutor = segmentDirectories.size() > 1
+                ? Executors.newFixedThreadPool(segmentDirectories.size(),
+                        new ThreadFactoryBuilder().setDaemon(true)
+                                .setNameFormat("LogUnit-Sync-%d").build())
+                : null;
 
         writeChannels = new ConcurrentHashMap();
-        channelsToSync = new HashSet<>();
+        channelsToSync = new ConcurrentHashMap<>();
         this.noVerify = noVerify;
         this.serverContext = serverContext;
+        this.compactionRateLimiter = config.getCompactionRate() > 0
+                ? RateLimiter.create(config.getCompactionRate()) : null;
+        this.coldTier = coldTierStore == null ? null : new ColdTier(coldTierStore);
+        verifyLogDirectories();
         verifyLogs();
+        locateSegments();
+        this.recordsPerSegment = initializeRecordsPerSegment();
+        this.trimThreshold = (int) (TRIM_THRESHOLD_RATIO * recordsPerSegment);
         // Starting address initialization should happen before
         // initializing the tail segment (i.e. initializeMaxGlobalAddress)
         startingAddress = serverContext.getStartingAddress();
-        long firstSegment = startingAddress / RECORDS_PER_LOG_FILE;
+        long firstSegment = startingAddress / recordsPerSegment;
         lastSegment = serverContext.getTailSegment();
         logMetadata = initializeLogMetadata(firstSegment, lastSegment);
 
@@ -126,6 +282,32 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         }
     }
 
+    /**
+     * The addresses of a segment are derived from its file name, so the number of addresses
+     * per segment can only be chosen when the log is created. Logs that were created before
+     * it was recorded use the legacy segment size.
+     *
+     * @return the number of addresses per segment of this log
+     */
+    private int initializeRecordsPerSegment() {
+        int recorded = serverContext.getLogSegmentRecords();
+        if (recorded == 0) {
+            boolean existingLog = segmentDirectories.stream().anyMatch(dir -> {
+                String[] segments = new File(dir.getPath()).list(
+                        (parent, name) -> name.endsWith(".log"));
+                return segments != null && segments.length > 0;
+            });
+            recorded = existingLog ? RECORDS_PER_LOG_FILE : config.getSegmentRecords();
+            serverContext.setLogSegmentRecords(recorded);
+        }
+
+        if (recorded != config.getSegmentRecords()) {
+            log.warn("initializeRecordsPerSegment: log was created with {} records per segment, "
+                    + "ignoring configured {}", recorded, config.getSegmentRecords());
+        }
+        return recorded;
+    }
+
     /**
      * This method will scan the log (i.e. read all log segment files)
      * on this LU and create a map of stream offsets and the global
@@ -139,9 +321,14 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         LogMetadata metadata = new LogMetadata();
         long start = System.currentTimeMillis();
         for (long currentSegment = startSegment; currentSegment <= endSegment; currentSegment++) {
+            if (coldTier != null && coldTier.isOffloaded(currentSegment)) {
+                // Offloaded segments are not read back, their tails are kept in their index
+                metadata.merge(coldTier.getMetadata(currentSegment));
+                continue;
+            }
             // TODO(Maithem): factor out getSegmentHandleForAddress to allow getting
             // segments by segment number
-            SegmentHandle sh = getSegmentHandleForAddress(currentSegment * RECORDS_PER_LOG_FILE + 1);
+            SegmentHandle sh = getSegmentHandleForAddress(currentSegment * recordsPerSegment + 1);
             try {
                 for (Map.Entry<Long, AddressMetaData> record : sh.getKnownAddresses().entrySet()) {
                     // skip trimmed entries
@@ -183,31 +370,47 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
     }
 
     public static Metadata getMetadata(AbstractMessage message) {
+        return getMetadata(message.toByteArray());
+    }
+
+    /**
+     * Get the metadata of a serialized message.
+     *
+     * @param serializedMessage the serialized message
+     * @return the metadata to write before the message
+     */
+    public static Metadata getMetadata(byte[] serializedMessage) {
         return Metadata.newBuilder()
-                .setPayloadChecksum(getChecksum(message.toByteArray()))
-                .setLengthChecksum(getChecksum(message.getSerializedSize()))
-                .setLength(message.getSerializedSize())
+                .setPayloadChecksum(getChecksum(serializedMessage))
+                .setLengthChecksum(getChecksum(serializedMessage.length))
+                .setLength(serializedMessage.length)
                 .build();
     }
 
     public static ByteBuffer getByteBuffer(Metadata metadata, AbstractMessage message) {
+        return getByteBuffer(metadata, message.toByteArray());
+    }
+
+    /**
+     * Get a buffer holding a metadata and the serialized message it describes.
+     *
+     * @param metadata          the metadata of the message
+     * @param serializedMessage the serialized message
+     * @return the buffer to write, flipped
+     */
+    public static ByteBuffer getByteBuffer(Metadata metadata, byte[] serializedMessage) {
         ByteBuffer buf = ByteBuffer.allocate(metadata.getSerializedSize()
-                + message.getSerializedSize());
+                + serializedMessage.length);
         buf.put(metadata.toByteArray());
-        buf.put(message.toByteArray());
+        buf.put(serializedMessage);
         buf.flip();
         return buf;
     }
 
     public static ByteBuffer getByteBufferWithMetaData(AbstractMessage message) {
-        Metadata metadata = getMetadata(message);
-
-        ByteBuffer buf = ByteBuffer.allocate(metadata.getSerializedSize()
-                + message.getSerializedSize());
-        buf.put(metadata.toByteArray());
-        buf.put(message.toByteArray());
-        buf.flip();
-        return buf;
+        // Serialize the message once, for both the checksum and the buffer.
+        byte[] serializedMessage = message.toByteArray();
+        return getByteBuffer(getMetadata(serializedMessage), serializedMessage);
     }
 
     /**
@@ -216,12 +419,17 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
      * @return       checksum of bytes
      */
     public static int getChecksum(byte[] bytes) {
-        Hasher hasher = Hashing.crc32c().newHasher();
-        for (byte a : bytes) {
-            hasher.putByte(a);
-        }
+        return Hashing.crc32c().hashBytes(bytes).asInt();
+    }
 
-        return hasher.hash().asInt();
+    /**
+     * Returns checksum used for log, over the remaining bytes of a buffer.
+     * The position of the buffer is not changed.
+     * @param buf  data over which to compute the checksum
+     * @return     checksum of the remaining bytes of buf
+     */
+    public static int getChecksum(ByteBuffer buf) {
+        return Hashing.crc32c().hashBytes(buf.duplicate()).asInt();
     }
 
     static int getChecksum(long num) {
@@ -235,13 +443,8 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
     }
 
     @Override
-    public TailsResponse getTails() {
-        Map<UUID, Long> tails = new HashMap<>(logMetadata.getStreamTails().size());
-
-        for (Map.Entry<UUID, Long> entry : logMetadata.getStreamTails().entrySet()) {
-            tails.put(entry.getKey(), entry.getValue());
-        }
-        return new TailsResponse(logMetadata.getGlobalTail(), tails);
+    public TailsResponse getTails(long sinceAddress) {
+        return logMetadata.getTails(sinceAddress);
     }
 
     private void syncTailSegment(long address) {
@@ -249,7 +452,7 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         // an atomic operation, it is possible to set an incorrect tail segment. In
         // that case we will need to scan more than one segment
         logMetadata.updateGlobalTail(address);
-        long segment = address / RECORDS_PER_LOG_FILE;
+        long segment = address / recordsPerSegment;
         if (lastSegment < segment) {
             serverContext.setTailSegment(segment);
             lastSegment = segment;
@@ -280,10 +483,41 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         return false;
     }
 
+    /**
+     * The segments are striped across the log directories, so a directory the log was
+     * written to can't be left out of the configuration without losing its segments.
+     * Directories can be added or reordered, the segments are then found where they are.
+     */
+    private void verifyLogDirectories() {
+        List<String> dirs = segmentDirectories.stream()
+                .map(dir -> new File(dir.getPath()).getAbsolutePath())
+                .collect(Collectors.toList());
+        List<String> recorded = serverContext.getLogDirs();
+
+        if (recorded != null) {
+            List<String> missing = recorded.stream()
+                    .filter(dir -> !dirs.contains(dir))
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                String msg = String.format("Log directories %s hold segments of this log "
+                        + "but are missing from --log-dirs", missing);
+                throw new RuntimeException(msg);
+            }
+        }
+
+        if (!dirs.equals(recorded)) {
+            serverContext.setLogDirs(dirs);
+        }
+    }
+
     private void verifyLogs() {
         String[] extension = {"log"};
-        File dir = new File(logDir);
+        for (SegmentDirectory segmentDirectory : segmentDirectories) {
+            verifyLogs(new File(segmentDirectory.getPath()), extension);
+        }
+    }
 
+    private void verifyLogs(File dir, String[] extension) {
         if (dir.exists()) {
             Collection<File> files = FileUtils.listFiles(dir, extension, true);
 
@@ -304,6 +538,10 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
                 if (header.getVersion() != VERSION) {
                     String msg = String.format("Log version %s for %s should match the logunit log version %s",
                             header.getVersion(), file.getAbsoluteFile(), VERSION);
+                    if (header.getVersion() == VERSION - 1) {
+                        msg += String.format(", migrate the log with org.corfudb.migration.LogFormat2to3 %s",
+                                dir.getParent());
+                    }
                     throw new RuntimeException(msg);
                 }
 
@@ -316,20 +554,432 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         }
     }
 
+    /**
+     * Find the segments that are not in the directory they are striped to, which happens
+     * when log directories are added or reordered.
+     */
+    private void locateSegments() {
+        for (SegmentDirectory dir : segmentDirectories) {
+            String[] segments = new File(dir.getPath()).list(
+                    (parent, name) -> name.endsWith(".log"));
+            if (segments == null) {
+                continue;
+            }
+
+            for (String segmentFile : segments) {
+                long segment;
+                try {
+                    segment = Long.parseLong(segmentFile.split("\\.")[0]);
+                } catch (NumberFormatException e) {
+                    log.warn("locateSegments: ignoring file {}", segmentFile);
+                    continue;
+                }
+
+                if (getStripedDirectory(segment) != dir) {
+                    relocatedSegments.put(segment, dir);
+                }
+            }
+        }
+
+        if (!relocatedSegments.isEmpty()) {
+            log.info("locateSegments: {} segments are not in their striped directory",
+                    relocatedSegments.size());
+        }
+
+        for (SegmentDirectory dir : segmentDirectories) {
+            String[] indexes = new File(dir.getPath()).list(
+                    (parent, name) -> name.endsWith(ColdTier.INDEX_SUFFIX));
+            if (indexes != null) {
+                for (String indexFile : indexes) {
+                    loadColdIndex(dir, indexFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Load the index of a segment that was moved to the cold tier.
+     */
+    private void loadColdIndex(SegmentDirectory dir, String indexFile) {
+        long segment = Long.parseLong(indexFile.split("\\.")[0]);
+        File index = new File(dir.getPath(), indexFile);
+        if (new File(dir.getPath(), segment + ".log").exists()) {
+            // The offload didn't complete, the local segment is still authoritative
+            log.info("loadColdIndex: ignoring index of local segment {}", segment);
+            if (!index.delete()) {
+                log.warn("loadColdIndex: couldn't delete {}", index);
+            }
+            return;
+        }
+
+        if (coldTier == null) {
+            throw new IllegalStateException("Segment " + segment + " was moved to the cold "
+                    + "tier, but no cold tier is configured");
+        }
+
+        try {
+            coldTier.load(segment, index.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private SegmentDirectory getStripedDirectory(long segment) {
+        return segmentDirectories.get((int) (segment % segmentDirectories.size()));
+    }
+
+    /**
+     * Get the directory of a segment. Segments are striped across the log directories
+     * round-robin, so that consecutive segments are written to different devices.
+     *
+     * @param segment the segment number
+     * @return the directory that holds the segment
+     */
+    private SegmentDirectory getSegmentDirectory(long segment) {
+        SegmentDirectory dir = relocatedSegments.get(segment);
+        return dir != null ? dir : getStripedDirectory(segment);
+    }
+
     @Override
     public void sync(boolean force) throws IOException {
-        if (force) {
-            for (FileChannel ch : channelsToSync) {
-                ch.force(true);
+        if (force && config.getSyncMode() != SyncMode.DSYNC) {
+            boolean syncMetadata = config.getSyncMode() == SyncMode.FSYNC;
+            try (Timer.Context context = MetricsUtils.getConditionalContext(syncTimer)) {
+                if (syncExecutor == null) {
+                    syncChannels(segmentDirectories.get(0), channelsToSync.keySet(),
+                            syncMetadata);
+                } else {
+                    syncDirectoriesInParallel(syncMetadata);
+                }
             }
         }
         log.debug("Sync'd {} channels", channelsToSync.size());
         channelsToSync.clear();
     }
 
+    /**
+     * Sync the channels of each directory on its own thread, so that the devices are
+     * flushed concurrently.
+     */
+    private void syncDirectoriesInParallel(boolean syncMetadata) throws IOException {
+        Map<SegmentDirectory, List<FileChannel>> channelsByDirectory = new HashMap<>();
+        for (Map.Entry<FileChannel, SegmentDirectory> entry : channelsToSync.entrySet()) {
+            channelsByDirectory.computeIfAbsent(entry.getValue(), dir -> new ArrayList<>())
+                    .add(entry.getKey());
+        }
+
+        List<Future<Void>> syncs = new ArrayList<>(channelsByDirectory.size());
+        for (Map.Entry<SegmentDirectory, List<FileChannel>> entry
+                : channelsByDirectory.entrySet()) {
+            syncs.add(syncExecutor.submit(() -> {
+                syncChannels(entry.getKey(), entry.getValue(), syncMetadata);
+                return null;
+            }));
+        }
+
+        for (Future<Void> sync : syncs) {
+            try {
+                sync.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while syncing the log", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    private static void syncChannels(SegmentDirectory dir, Collection<FileChannel> channels,
+                                     boolean syncMetadata) throws IOException {
+        if (channels.isEmpty()) {
+            return;
+        }
+
+        try (Timer.Context context = MetricsUtils.getConditionalContext(dir.getSyncTimer())) {
+            for (FileChannel ch : channels) {
+                ch.force(syncMetadata);
+            }
+        }
+    }
+
     @Override
-    public synchronized void compact() {
-        trimPrefix();
+    public void compact() {
+        synchronized (compactionLock) {
+            synchronized (this) {
+                trimPrefix();
+            }
+
+            if (compactionRateLimiter != null || coldTier != null) {
+                compactSegments();
+            }
+        }
+    }
+
+    /**
+     * Rewrite the segments below the tail segment that hold enough entries that are no longer
+     * needed: entries below the trim mark are dropped, and the data entries that are covered
+     * by a completed checkpoint of all their streams are replaced by compacted entries that
+     * keep the backpointers (so that the stream tails can still be recovered from the log).
+     * The compacted addresses stay readable: readers of the address space skip them, and the
+     * stream views resolve their streams from the checkpoints.
+     *
+     * <p>The segments are rewritten to a new file while they keep serving reads and writes,
+     * and the new file atomically replaces the segment if it was not written to meanwhile.
+     *
+     * <p>With a cold tier, the covered entries are kept, and the segments that only hold
+     * covered entries and holes are moved to the cold tier instead.
+     */
+    private void compactSegments() {
+        long firstSegment = startingAddress / recordsPerSegment;
+        long tailSegment = Math.max(logMetadata.getGlobalTail(), 0L) / recordsPerSegment;
+
+        for (long segment = firstSegment; segment < tailSegment; segment++) {
+            CompactionStamp stamp = new CompactionStamp(
+                    logMetadata.getCheckpointGeneration(), startingAddress);
+            if (stamp.equals(compactionStamps.get(segment))
+                    || !new File(getSegmentFileName(segment)).exists()) {
+                continue;
+            }
+
+            try (Timer.Context context = MetricsUtils.getConditionalContext(compactSegmentTimer)) {
+                if (compactSegment(segment)) {
+                    compactionStamps.put(segment, stamp);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("compactSegments: failed to compact segment {}", segment, e);
+            }
+        }
+
+        compactionStamps.keySet().removeIf(segment -> segment < firstSegment);
+    }
+
+    /**
+     * Compact a segment if enough of it can be reclaimed.
+     *
+     * @param segment the segment to compact
+     * @return false if the segment was written to while it was compacted
+     */
+    private boolean compactSegment(long segment) throws IOException {
+        SegmentHandle sh = getSegmentHandleForAddress(segment * recordsPerSegment);
+        try {
+            long writePosition;
+            TreeMap<Long, AddressMetaData> records;
+            try (MultiReadWriteLock.AutoCloseableLock ignored =
+                         segmentLocks.acquireWriteLock(segment)) {
+                writePosition = sh.getWriteChannel().position();
+                records = new TreeMap<>(sh.getKnownAddresses());
+            }
+
+            // Find the records that can be dropped or compacted, and how much that reclaims
+            Map<Long, LogData> compactedRecords = new HashMap<>();
+            long totalBytes = 0;
+            long reclaimableBytes = 0;
+            long liveRecords = 0;
+            LogMetadata segmentMetadata = new LogMetadata();
+            boolean cold = coldTier != null && sh.getPendingTrims().isEmpty();
+            for (Map.Entry<Long, AddressMetaData> record : records.entrySet()) {
+                long address = record.getKey();
+                long recordSize = METADATA_SIZE + record.getValue().length;
+                totalBytes += recordSize;
+
+                if (address < startingAddress) {
+                    reclaimableBytes += recordSize;
+                    continue;
+                }
+
+                liveRecords++;
+                throttleCompaction(record.getValue().length);
+                LogData entry = readRecord(sh, address);
+                if (entry != null) {
+                    segmentMetadata.update(entry);
+                }
+                boolean covered = entry != null && isCoveredByCheckpoint(entry);
+                cold &= covered || (entry != null && entry.isHole());
+                if (covered && coldTier == null) {
+                    LogData compacted = LogData.getCompacted(address,
+                            entry.getBackpointerMap());
+                    compactedRecords.put(address, compacted);
+                    reclaimableBytes += recordSize - METADATA_SIZE
+                            - getLogEntry(address, compacted).getSerializedSize();
+                }
+            }
+
+            // Only complete segments are offloaded, so that they are never written to again
+            long firstLiveAddress = Math.max(segment * recordsPerSegment, startingAddress);
+            if (cold && liveRecords == (segment + 1) * recordsPerSegment - firstLiveAddress) {
+                return offloadSegment(sh, writePosition, records.tailMap(startingAddress),
+                        segmentMetadata);
+            }
+
+            if (compactionRateLimiter == null
+                    || reclaimableBytes < totalBytes * COMPACTION_MIN_RECLAIMABLE) {
+                return true;
+            }
+
+            String compactedFileName = sh.getFileName() + COMPACTED_SEGMENT_SUFFIX;
+            writeCompactedSegment(sh, records, compactedRecords, compactedFileName);
+
+            try (MultiReadWriteLock.AutoCloseableLock ignored =
+                         segmentLocks.acquireWriteLock(segment)) {
+                synchronized (this) {
+                    if (isSegmentChanged(sh, writePosition)) {
+                        log.info("compactSegment: segment {} changed during compaction", segment);
+                        Files.deleteIfExists(Paths.get(compactedFileName));
+                        return false;
+                    }
+
+                    Files.move(Paths.get(compactedFileName), Paths.get(sh.getFileName()),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    syncDirectory(getSegmentDirectory(segment).getPath());
+
+                    // New requests open the compacted file, while the reads in progress
+                    // complete on the old one.
+                    retireSegmentHandle(sh);
+                }
+            }
+
+            compactedSegments.inc();
+            reclaimedBytes.mark(reclaimableBytes);
+            log.info("compactSegment: compacted segment {}, reclaimed {} of {} bytes", segment,
+                    reclaimableBytes, totalBytes);
+            return true;
+        } finally {
+            sh.release();
+        }
+    }
+
+    /**
+     * Move a segment to the cold tier. The segment is uploaded while it keeps serving reads,
+     * and it is only removed locally if it was not written to meanwhile.
+     *
+     * @param sh            the segment handle
+     * @param writePosition the position of the segment when its records were read
+     * @param records       the records of the segment above the trim mark
+     * @param metadata      the tails of the records of the segment above the trim mark
+     * @return false if the segment was written to while it was uploaded
+     */
+    private boolean offloadSegment(SegmentHandle sh, long writePosition,
+                                   Map<Long, AddressMetaData> records,
+                                   LogMetadata metadata) throws IOException {
+        long segment = sh.getSegment();
+        coldTier.upload(segment, Paths.get(sh.getFileName()));
+
+        try (MultiReadWriteLock.AutoCloseableLock ignored =
+                     segmentLocks.acquireWriteLock(segment)) {
+            synchronized (this) {
+                if (isSegmentChanged(sh, writePosition)) {
+                    log.info("offloadSegment: segment {} changed during upload", segment);
+                    return false;
+                }
+
+                String dir = getSegmentDirectory(segment).getPath();
+                coldTier.commit(segment, records, metadata,
+                        Paths.get(dir, segment + ColdTier.INDEX_SUFFIX));
+                Files.delete(Paths.get(sh.getFileName()));
+                syncDirectory(dir);
+                retireSegmentHandle(sh);
+            }
+        }
+
+        log.info("offloadSegment: moved segment {} to the cold tier", segment);
+        return true;
+    }
+
+    private boolean isSegmentChanged(SegmentHandle sh, long writePosition) throws IOException {
+        return writeChannels.get(sh.getFileName()) != sh
+                || sh.getWriteChannel().position() != writePosition;
+    }
+
+    /**
+     * Stop handing out a segment handle, it is closed once the reads using it are done.
+     */
+    private void retireSegmentHandle(SegmentHandle sh) {
+        writeChannels.remove(sh.getFileName());
+        channelsToSync.remove(sh.getWriteChannel());
+        sh.retire();
+    }
+
+    private void throttleCompaction(int bytes) {
+        if (compactionRateLimiter != null) {
+            compactionRateLimiter.acquire(Math.max(bytes, 1));
+        }
+    }
+
+    /**
+     * Write the records of a segment that are still needed to a new file.
+     */
+    private void writeCompactedSegment(SegmentHandle sh, Map<Long, AddressMetaData> records,
+                                       Map<Long, LogData> compactedRecords,
+                                       String compactedFileName) throws IOException {
+        try (FileChannel out = FileChannel.open(Paths.get(compactedFileName),
+                EnumSet.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING))) {
+            writeHeader(out, VERSION, !noVerify);
+
+            for (Map.Entry<Long, AddressMetaData> record : records.entrySet()) {
+                long address = record.getKey();
+                AddressMetaData metaData = record.getValue();
+                if (address < startingAddress) {
+                    continue;
+                }
+
+                ByteBuffer buf;
+                LogData compacted = compactedRecords.get(address);
+                if (compacted != null) {
+                    LogEntry logEntry = getLogEntry(address, compacted);
+                    buf = getWriteBuffer(METADATA_SIZE + logEntry.getSerializedSize());
+                    putRecord(buf, logEntry);
+                    buf.flip();
+                } else {
+                    // Copy the record as is, with its metadata
+                    throttleCompaction(metaData.length);
+                    buf = getWriteBuffer(METADATA_SIZE + metaData.length);
+                    buf.limit(METADATA_SIZE + metaData.length);
+                    long offset = metaData.offset - METADATA_SIZE;
+                    while (buf.hasRemaining()) {
+                        if (sh.getReadChannel().read(buf, offset + buf.position()) < 0) {
+                            throw new DataCorruptionException();
+                        }
+                    }
+                    buf.flip();
+                }
+
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+            }
+
+            out.force(true);
+        }
+    }
+
+    /**
+     * A data entry is covered by checkpoints if all its streams have a completed checkpoint
+     * that starts after it.
+     */
+    private boolean isCoveredByCheckpoint(LogData entry) {
+        if (entry.getType() != org.corfudb.protocols.wireprotocol.DataType.DATA
+                || entry.hasCheckpointMetadata() || entry.getBackpointerMap().isEmpty()) {
+            return false;
+        }
+
+        Map<UUID, Long> checkpointStarts = logMetadata.getCheckpointStarts();
+        for (UUID streamId : entry.getBackpointerMap().keySet()) {
+            Long checkpointStart = checkpointStarts.get(streamId);
+            if (checkpointStart == null || entry.getGlobalAddress() >= checkpointStart) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Value
+    private static class CompactionStamp {
+        long checkpointGeneration;
+        long trimMark;
     }
 
     @Override
@@ -340,7 +990,7 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
     private void trimPrefix() {
         // Trim all segments up till the segment that contains the starting address
         // (i.e. trim only complete segments)
-        long endSegment = (startingAddress / RECORDS_PER_LOG_FILE) - 1;
+        long endSegment = (startingAddress / recordsPerSegment) - 1;
 
         if (endSegment <= 0) {
             log.debug("Only one segment detected, ignoring trim");
@@ -360,15 +1010,19 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
             }
         });
 
+        relocatedSegments.keySet().removeIf(segment -> segment < endSegment);
+        if (coldTier != null) {
+            coldTier.deleteUpTo(endSegment - 1);
+        }
         log.info("trimPrefix: completed, end segment {}", endSegment);
     }
 
     private LogData getLogData(LogEntry entry) {
-        ByteBuf data = Unpooled.wrappedBuffer(entry.getData().toByteArray());
-        LogData logData = new LogData(org.corfudb.protocols.wireprotocol
-                .DataType.typeMap.get((byte) entry.getDataType().getNumber()), data);
+        LogData logData = LogData.fromSerializedData(org.corfudb.protocols.wireprotocol
+                .DataType.typeMap.get((byte) entry.getDataType().getNumber()),
+                entry.getData().toByteArray());
 
-        logData.setBackpointerMap(getUUIDLongMap(entry.getBackpointersMap()));
+        logData.setBackpointerMap(getBackpointerMap(entry.getBackpointerTable()));
         logData.setGlobalAddress(entry.getGlobalAddress());
         logData.setRank(createDataRank(entry));
 
@@ -566,8 +1220,29 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
 
         while (fc.size() - fc.position() > 0) {
             long channelOffset = fc.position();
-            Metadata metadata = parseMetadata(fc);
-            LogEntry entry = parseEntry(fc, metadata);
+            Metadata metadata;
+            LogEntry entry;
+            try {
+                metadata = parseMetadata(fc);
+                entry = parseEntry(fc, metadata);
+            } catch (DataCorruptionException e) {
+                if (isZero(fc, channelOffset, 1)) {
+                    // A record never starts with a zero byte, the rest of the file was
+                    // preallocated and never written.
+                    log.debug("readAddressSpace: dropping preallocated space of {} at {}",
+                            sh.getFileName(), channelOffset);
+                    fc.truncate(channelOffset);
+                    fc.force(true);
+                    return;
+                }
+
+                if (!isTornWrite(fc, channelOffset)) {
+                    throw e;
+                }
+                metadata = null;
+                entry = null;
+                fc.position(channelOffset);
+            }
 
             if (entry == null) {
                 // Metadata or Entry were partially written
@@ -590,6 +1265,78 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         }
     }
 
+    /**
+     * Check if a range of a file only holds zeros.
+     *
+     * @param fc     the file to read
+     * @param offset the start of the range
+     * @param length the length of the range
+     * @return true if all the bytes of the range are zero
+     */
+    private static boolean isZero(FileChannel fc, long offset, long length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.min(length, ZERO_CHECK_BLOCK_SIZE));
+        long position = offset;
+        while (position < offset + length) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), offset + length - position));
+            int read = fc.read(buf, position);
+            if (read <= 0) {
+                return true;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) != 0) {
+                    return false;
+                }
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * A corrupted record followed by preallocated space that was never written can only be a
+     * write that was interrupted, like a partially written record at the end of the file.
+     *
+     * @param fc     the segment file
+     * @param offset the offset of the corrupted record
+     * @return true if nothing was written after the record
+     */
+    private boolean isTornWrite(FileChannel fc, long offset) throws IOException {
+        long recordEnd = offset + METADATA_SIZE;
+        ByteBuffer buf = ByteBuffer.allocate(METADATA_SIZE);
+        fc.read(buf, offset);
+        try {
+            Metadata metadata = Metadata.parseFrom(buf.array());
+            if (metadata.getLengthChecksum() == getChecksum(metadata.getLength())) {
+                recordEnd += metadata.getLength();
+            }
+        } catch (InvalidProtocolBufferException e) {
+            // The metadata itself was partially written.
+        }
+
+        return recordEnd < fc.size() && isZero(fc, recordEnd, fc.size() - recordEnd);
+    }
+
+    /**
+     * Extend a segment file ahead of a write, so that the appends don't have to update the size
+     * of the file. Only the last byte of the new size is written, the file system leaves the
+     * space before it as a hole that reads as zeros, so the extension costs a single write.
+     *
+     * @param fc     the write channel of the segment, positioned where the write starts
+     * @param length the number of bytes about to be written
+     */
+    private void preallocate(FileChannel fc, long length) throws IOException {
+        long preallocation = config.getSegmentPreallocation();
+        long writeEnd = fc.position() + length;
+        long size = fc.size();
+        if (preallocation == 0 || writeEnd <= size) {
+            return;
+        }
+
+        long newSize = writeEnd + preallocation;
+        fc.write(ByteBuffer.allocate(1), newSize - 1);
+    }
+
     /**
      * Read a log entry in a file.
      *
@@ -632,6 +1379,9 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
                             StandardOpenOption.READ, StandardOpenOption.WRITE,
                             StandardOpenOption.CREATE_NEW, StandardOpenOption.SPARSE
                     );
+                    if (config.getSyncMode() == SyncMode.DSYNC) {
+                        options.add(StandardOpenOption.DSYNC);
+                    }
                     FileChannel channel = FileChannel.open(FileSystems.getDefault().getPath(filePath), options);
 
                     // First time creating this segment file, need to sync the parent directory
@@ -639,8 +1389,12 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
                     syncDirectory(segFile.getParent());
                     return channel;
                 } catch (FileAlreadyExistsException ex) {
-                    return FileChannel.open(FileSystems.getDefault().getPath(filePath),
-                            EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE));
+                    EnumSet<StandardOpenOption> options = EnumSet.of(
+                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    if (config.getSyncMode() == SyncMode.DSYNC) {
+                        options.add(StandardOpenOption.DSYNC);
+                    }
+                    return FileChannel.open(FileSystems.getDefault().getPath(filePath), options);
                 }
             }
         } catch (IOException e) {
@@ -659,11 +1413,10 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
      */
     @VisibleForTesting
     synchronized SegmentHandle getSegmentHandleForAddress(long address) {
-        String filePath = logDir + File.separator;
-        long segment = address / RECORDS_PER_LOG_FILE;
-        filePath += segment;
-        filePath += ".log";
+        long segment = address / recordsPerSegment;
+        String filePath = getSegmentFileName(segment);
 
+        boolean opened = !writeChannels.containsKey(filePath);
         SegmentHandle handle = writeChannels.computeIfAbsent(filePath, a -> {
             FileChannel writeCh = null;
             FileChannel readCh = null;
@@ -692,41 +1445,98 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         });
 
         handle.retain();
+        handle.setLastAccess(++segmentAccesses);
+        if (opened) {
+            try {
+                closeLeastRecentlyUsedSegments();
+            } catch (IOException e) {
+                handle.release();
+                throw new RuntimeException(e);
+            }
+        }
         return handle;
     }
 
-    Map<String, Long> getStrLongMap(Map<UUID, Long> uuidLongMap) {
-        Map<String, Long> stringLongMap = new HashMap();
+    private String getSegmentFileName(long segment) {
+        return getSegmentDirectory(segment).getPath() + File.separator + segment + ".log";
+    }
 
-        for (Map.Entry<UUID, Long> entry : uuidLongMap.entrySet()) {
-            stringLongMap.put(entry.getKey().toString(), entry.getValue());
-        }
+    /**
+     * Close the least recently used segments that are not in use, until at most
+     * maxOpenSegments segments are open. A closed segment is opened again (and its address
+     * space is read again) the next time it is accessed.
+     *
+     * @throws IOException if the pending writes of a segment could not be synced, in which
+     *                     case the segment is left open
+     */
+    private synchronized void closeLeastRecentlyUsedSegments() throws IOException {
+        while (writeChannels.size() > config.getMaxOpenSegments()) {
+            SegmentHandle lru = null;
+            for (SegmentHandle sh : writeChannels.values()) {
+                if (sh.getRefCount() == 0
+                        && (lru == null || sh.getLastAccess() < lru.getLastAccess())) {
+                    lru = sh;
+                }
+            }
+
+            if (lru == null) {
+                // All the open segments are in use
+                return;
+            }
 
-        return stringLongMap;
+            log.debug("closeLeastRecentlyUsedSegments: closing segment {}", lru.getSegment());
+            SegmentDirectory dir = channelsToSync.get(lru.getWriteChannel());
+            if (dir != null && config.getSyncMode() != SyncMode.DSYNC) {
+                // Closing the segment doesn't report a failed sync, so sync it first
+                syncChannels(dir, Collections.singleton(lru.getWriteChannel()),
+                        config.getSyncMode() == SyncMode.FSYNC);
+            }
+            writeChannels.remove(lru.getFileName());
+            channelsToSync.remove(lru.getWriteChannel());
+            lru.close();
+        }
     }
 
-    @Deprecated // TODO: Add replacement method that conforms to style
-    @SuppressWarnings("checkstyle:abbreviationaswordinname")  // Due to deprecation
-    Map<UUID, Long> getUUIDLongMap(Map<String, Long> stringLongMap) {
-        Map<UUID, Long> uuidLongMap = new HashMap();
+    /**
+     * Encode a backpointer map as a table of fixed-width records.
+     *
+     * @param backpointerMap the backpointers, keyed by stream id
+     * @return the backpointer table
+     */
+    static ByteString getBackpointerTable(Map<UUID, Long> backpointerMap) {
+        if (backpointerMap.isEmpty()) {
+            return ByteString.EMPTY;
+        }
 
-        for (Map.Entry<String, Long> entry : stringLongMap.entrySet()) {
-            uuidLongMap.put(UUID.fromString(entry.getKey()), entry.getValue());
+        ByteBuffer table = ByteBuffer.allocate(backpointerMap.size() * BACKPOINTER_RECORD_SIZE);
+        for (Map.Entry<UUID, Long> entry : backpointerMap.entrySet()) {
+            table.putLong(entry.getKey().getMostSignificantBits());
+            table.putLong(entry.getKey().getLeastSignificantBits());
+            table.putLong(entry.getValue());
         }
 
-        return uuidLongMap;
+        return UnsafeByteOperations.unsafeWrap(table.array());
     }
 
-    @Deprecated  // TODO: Add replacement method that conforms to style
-    @SuppressWarnings("checkstyle:abbreviationaswordinname") // Due to deprecation
-    Set<String> getStrUUID(Set<UUID> uuids) {
-        Set<String> strUUIds = new HashSet();
+    /**
+     * Decode a table of fixed-width backpointer records.
+     *
+     * @param backpointerTable the backpointer table
+     * @return the backpointers, keyed by stream id
+     */
+    static Map<UUID, Long> getBackpointerMap(ByteString backpointerTable) {
+        if (backpointerTable.size() % BACKPOINTER_RECORD_SIZE != 0) {
+            throw new DataCorruptionException();
+        }
 
-        for (UUID uuid : uuids) {
-            strUUIds.add(uuid.toString());
+        Map<UUID, Long> backpointerMap = new HashMap<>();
+        ByteBuffer table = backpointerTable.asReadOnlyByteBuffer();
+        while (table.hasRemaining()) {
+            UUID streamId = new UUID(table.getLong(), table.getLong());
+            backpointerMap.put(streamId, table.getLong());
         }
 
-        return strUUIds;
+        return backpointerMap;
     }
 
     LogEntry getLogEntry(long address, LogData entry) {
@@ -738,10 +1548,10 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
 
         LogEntry.Builder logEntryBuilder = LogEntry.newBuilder()
                 .setDataType(Types.DataType.forNumber(entry.getType().ordinal()))
-                .setData(ByteString.copyFrom(data))
+                // The payload of a LogData is never modified, so it can be shared.
+                .setData(UnsafeByteOperations.unsafeWrap(data))
                 .setGlobalAddress(address)
-                .addAllStreams(getStrUUID(entry.getStreams()))
-                .putAllBackpointers(getStrLongMap(entry.getBackpointerMap()));
+                .setBackpointerTable(getBackpointerTable(entry.getBackpointerMap()));
 
         Optional<Types.DataRank> rank = createProtobufsDataRank(entry);
         if (rank.isPresent()) {
@@ -798,7 +1608,7 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
     }
 
     /**
-     * Write a list of LogData entries to the log file.
+     * Write a list of LogData entries to the log file. The caller holds the segment lock.
      * @param sh segment handle to the logfile
      * @param entries list of LogData entries to write.
      * @return A map of AddressMetaData for the written records
@@ -808,47 +1618,53 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
                                              List<LogData> entries) throws IOException {
         Map<Long, AddressMetaData> recordsMap = new HashMap<>();
 
-        List<ByteBuffer> entryBuffs = new ArrayList<>();
+        List<LogEntry> logEntries = new ArrayList<>(entries.size());
         int totalBytes = 0;
 
-        List<Metadata> metadataList = new ArrayList<>();
-
         for (int ind = 0; ind < entries.size(); ind++) {
             LogData curr = entries.get(ind);
             LogEntry logEntry = getLogEntry(curr.getGlobalAddress(), curr);
-            Metadata metadata = getMetadata(logEntry);
-            metadataList.add(metadata);
-            ByteBuffer record = getByteBuffer(metadata, logEntry);
-            totalBytes += record.limit();
-            entryBuffs.add(record);
+            logEntries.add(logEntry);
+            totalBytes += METADATA_SIZE + logEntry.getSerializedSize();
         }
 
-        ByteBuffer allRecordsBuf = ByteBuffer.allocate(totalBytes);
-
-        try (MultiReadWriteLock.AutoCloseableLock ignored =
-                     segmentLocks.acquireWriteLock(sh.getSegment())) {
-            for (int ind = 0; ind < entryBuffs.size(); ind++) {
-                long channelOffset = sh.getWriteChannel().position()
-                        + allRecordsBuf.position() + METADATA_SIZE;
-                allRecordsBuf.put(entryBuffs.get(ind));
-                Metadata metadata = metadataList.get(ind);
-                recordsMap.put(entries.get(ind).getGlobalAddress(),
-                        new AddressMetaData(metadata.getPayloadChecksum(),
-                                metadata.getLength(), channelOffset));
-            }
+        ByteBuffer allRecordsBuf = getWriteBuffer(totalBytes);
+        List<Metadata> metadataList = new ArrayList<>(entries.size());
+        for (LogEntry logEntry : logEntries) {
+            metadataList.add(putRecord(allRecordsBuf, logEntry));
+        }
+        allRecordsBuf.flip();
 
-            allRecordsBuf.flip();
-            safeWrite(sh.getWriteChannel(), allRecordsBuf);
-            channelsToSync.add(sh.getWriteChannel());
-            // Sync the global and stream tail(s)
-            // TODO(Maithem): on ioexceptions the StreamLogFiles needs to be reinitialized
-            syncTailSegment(entries.get(entries.size() - 1).getGlobalAddress());
-            logMetadata.update(entries);
+        preallocate(sh.getWriteChannel(), allRecordsBuf.remaining());
+        long recordOffset = sh.getWriteChannel().position();
+        for (int ind = 0; ind < metadataList.size(); ind++) {
+            Metadata metadata = metadataList.get(ind);
+            recordsMap.put(entries.get(ind).getGlobalAddress(),
+                    new AddressMetaData(metadata.getPayloadChecksum(),
+                            metadata.getLength(), recordOffset + METADATA_SIZE));
+            recordOffset += METADATA_SIZE + metadata.getLength();
         }
 
+        int writtenBytes = allRecordsBuf.remaining();
+        safeWrite(sh.getWriteChannel(), allRecordsBuf);
+        markWrite(sh, writtenBytes);
+        // Sync the global and stream tail(s)
+        // TODO(Maithem): on ioexceptions the StreamLogFiles needs to be reinitialized
+        syncTailSegment(entries.get(entries.size() - 1).getGlobalAddress());
+        logMetadata.update(entries);
+
         return recordsMap;
     }
 
+    /**
+     * Record a write to a segment, so that its channel is synced with the next sync.
+     */
+    private void markWrite(SegmentHandle sh, int bytes) {
+        SegmentDirectory dir = getSegmentDirectory(sh.getSegment());
+        dir.getWrittenBytes().mark(bytes);
+        channelsToSync.put(sh.getWriteChannel(), dir);
+    }
+
     /**
      *
      * Attempts to write a buffer to a file channel, if write fails with an
@@ -881,7 +1697,7 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
     }
 
     /**
-     * Write a log entry record to a file.
+     * Write a log entry record to a file. The caller holds the segment lock.
      *
      * @param fh      The file handle to use.
      * @param address The address of the entry.
@@ -891,25 +1707,76 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
     private AddressMetaData writeRecord(SegmentHandle fh, long address,
                                         LogData entry) throws IOException {
         LogEntry logEntry = getLogEntry(address, entry);
-        Metadata metadata = getMetadata(logEntry);
+        ByteBuffer record = getWriteBuffer(METADATA_SIZE + logEntry.getSerializedSize());
+        Metadata metadata = putRecord(record, logEntry);
+        record.flip();
+
+        preallocate(fh.getWriteChannel(), record.remaining());
+        long channelOffset = fh.getWriteChannel().position() + METADATA_SIZE;
+        int writtenBytes = record.remaining();
+        safeWrite(fh.getWriteChannel(), record);
+        markWrite(fh, writtenBytes);
+        syncTailSegment(address);
+        logMetadata.update(entry);
 
-        ByteBuffer record = getByteBuffer(metadata, logEntry);
-        long channelOffset;
+        return new AddressMetaData(metadata.getPayloadChecksum(), metadata.getLength(), channelOffset);
+    }
 
-        try (MultiReadWriteLock.AutoCloseableLock ignored =
-                     segmentLocks.acquireWriteLock(fh.getSegment())) {
-            channelOffset = fh.getWriteChannel().position() + METADATA_SIZE;
-            safeWrite(fh.getWriteChannel(), record);
-            channelsToSync.add(fh.getWriteChannel());
-            syncTailSegment(address);
-            logMetadata.update(entry);
+    /**
+     * Get this thread's write buffer, cleared and with room for at least size bytes.
+     *
+     * @param size the number of bytes to be written
+     * @return a direct buffer
+     */
+    private static ByteBuffer getWriteBuffer(int size) {
+        ByteBuffer buf = writeBuffers.get();
+        if (buf == null || buf.capacity() < size) {
+            buf = ByteBuffer.allocateDirect(size);
+            if (size <= WRITE_BUFFER_MAX_RETAINED) {
+                writeBuffers.set(buf);
+            }
         }
+        buf.clear();
+        return buf;
+    }
 
-        return new AddressMetaData(metadata.getPayloadChecksum(), metadata.getLength(), channelOffset);
+    /**
+     * Serialize a record, an entry preceded by its metadata, at the position of a buffer.
+     * The entry is serialized once, straight into the buffer, and its checksum is
+     * computed over the serialized bytes.
+     *
+     * @param buf   the buffer to write the record to
+     * @param entry the entry to write
+     * @return the metadata of the record
+     * @throws IOException if the buffer is too small
+     */
+    private static Metadata putRecord(ByteBuffer buf, LogEntry entry) throws IOException {
+        final int metadataOffset = buf.position();
+        final int entryOffset = metadataOffset + METADATA_SIZE;
+        final int length = entry.getSerializedSize();
+
+        buf.position(entryOffset);
+        ByteBuffer serializedEntry = buf.slice();
+        serializedEntry.limit(length);
+        CodedOutputStream out = CodedOutputStream.newInstance(serializedEntry);
+        entry.writeTo(out);
+        out.flush();
+        serializedEntry.flip();
+
+        Metadata metadata = Metadata.newBuilder()
+                .setPayloadChecksum(getChecksum(serializedEntry))
+                .setLengthChecksum(getChecksum(length))
+                .setLength(length)
+                .build();
+
+        buf.position(metadataOffset);
+        buf.put(metadata.toByteArray());
+        buf.position(entryOffset + length);
+        return metadata;
     }
 
     long getSegment(LogData entry) {
-        return entry.getGlobalAddress() / RECORDS_PER_LOG_FILE;
+        return entry.getGlobalAddress() / recordsPerSegment;
     }
 
     /**
@@ -965,8 +1832,8 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
 
         // Check if the range spans more than two segments
         long lastAddress = range.get(range.size() - 1).getGlobalAddress();
-        long firstSegment = firstAddress / RECORDS_PER_LOG_FILE;
-        long endSegment = lastAddress / RECORDS_PER_LOG_FILE;
+        long firstSegment = firstAddress / recordsPerSegment;
+        long endSegment = lastAddress / recordsPerSegment;
 
         if (endSegment - firstSegment > 1) {
             return false;
@@ -993,6 +1860,27 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         // check if the entries range cross a segment
         LogData first = entries.get(0);
         LogData last = entries.get(entries.size() - 1);
+
+        // Hold the segment locks from the handle lookup on, so that a compaction can't
+        // replace the segments in between
+        try (MultiReadWriteLock.AutoCloseableLock firstLock =
+                     segmentLocks.acquireWriteLock(getSegment(first));
+             MultiReadWriteLock.AutoCloseableLock lastLock =
+                     segmentLocks.acquireWriteLock(getSegment(last))) {
+            if (coldTier != null) {
+                // Offloaded segments are complete, their addresses are already written
+                entries.removeIf(entry -> coldTier.isOffloaded(getSegment(entry)));
+                if (entries.isEmpty()) {
+                    return;
+                }
+                first = entries.get(0);
+                last = entries.get(entries.size() - 1);
+            }
+            appendToSegments(entries, first, last);
+        }
+    }
+
+    private void appendToSegments(List<LogData> entries, LogData first, LogData last) {
         SegmentHandle firstSh = getSegmentHandleForAddress(first.getGlobalAddress());
         SegmentHandle lastSh = getSegmentHandleForAddress(last.getGlobalAddress());
 
@@ -1037,6 +1925,19 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
             throw new OverwriteException(OverwriteCause.TRIM);
         }
 
+        // Hold the segment lock from the handle lookup on, so that a compaction can't
+        // replace the segment in between
+        try (MultiReadWriteLock.AutoCloseableLock ignored =
+                     segmentLocks.acquireWriteLock(address / recordsPerSegment)) {
+            if (coldTier != null && coldTier.isOffloaded(address / recordsPerSegment)) {
+                // Offloaded segments are complete, the address is already written
+                throw new OverwriteException(getOverwriteCauseForAddress(address, entry));
+            }
+            appendToSegment(address, entry);
+        }
+    }
+
+    private void appendToSegment(long address, LogData entry) {
         SegmentHandle fh = getSegmentHandleForAddress(address);
 
         try {
@@ -1072,7 +1973,10 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         if (isTrimmed(address)) {
             return LogData.getTrimmed(address);
         }
-        SegmentHandle sh = getSegmentHandleForAddress(address);
+        SegmentHandle sh = getLocalSegmentHandle(address);
+        if (sh == null) {
+            return readOffloaded(address);
+        }
 
         try {
             if (sh.getPendingTrims().contains(address)) {
@@ -1086,6 +1990,51 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         }
     }
 
+    /**
+     * Get the handle of a segment, unless the segment was moved to the cold tier.
+     *
+     * @param address an address of the segment
+     * @return the segment handle, or null if the segment is offloaded
+     */
+    @Nullable
+    private SegmentHandle getLocalSegmentHandle(long address) {
+        if (coldTier == null) {
+            return getSegmentHandleForAddress(address);
+        }
+
+        // Hold the segment lock until the handle is acquired, so that the segment can't be
+        // offloaded in between (which would create a new, empty, segment file)
+        long segment = address / recordsPerSegment;
+        try (MultiReadWriteLock.AutoCloseableLock ignored =
+                     segmentLocks.acquireReadLock(segment)) {
+            return coldTier.isOffloaded(segment) ? null : getSegmentHandleForAddress(address);
+        }
+    }
+
+    private LogData readOffloaded(long address) {
+        try {
+            ColdTier.ColdRecord record = coldTier.read(address / recordsPerSegment, address);
+            if (record == null) {
+                // The segment may have been deleted by a prefix trim since it was looked up
+                return isTrimmed(address) ? LogData.getTrimmed(address) : null;
+            }
+
+            if (!noVerify && record.getMetaData().checksum != getChecksum(record.getPayload())) {
+                log.error("readOffloaded: checksum mismatch for address {}", address);
+                throw new DataCorruptionException();
+            }
+            return getLogData(LogEntry.parseFrom(record.getPayload()));
+        } catch (InvalidProtocolBufferException e) {
+            throw new DataCorruptionException();
+        } catch (IOException e) {
+            if (isTrimmed(address)) {
+                log.debug("readOffloaded: address {} was trimmed during the read", address);
+                return LogData.getTrimmed(address);
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public void close() {
         for (SegmentHandle fh : writeChannels.values()) {
@@ -1093,6 +2042,9 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         }
 
         writeChannels = new HashMap<>();
+        if (syncExecutor != null) {
+            syncExecutor.shutdown();
+        }
     }
 
     @Override
@@ -1126,16 +2078,23 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
     private void deleteFilesMatchingFilter(FileFilter fileFilter) {
         int numFiles = 0;
         long freedBytes = 0;
-        File dir = new File(logDir);
-        File[] files = dir.listFiles(fileFilter);
-        for (File file : files) {
-            long delta = file.length();
+        for (SegmentDirectory segmentDirectory : segmentDirectories) {
+            File dir = new File(segmentDirectory.getPath());
+            File[] files = dir.listFiles(fileFilter);
+            if (files == null) {
+                continue;
+            }
 
-            if (!file.delete()) {
-                log.error("deleteFilesMatchingFilter: Couldn't delete file {}", file.getName());
-            } else {
-                freedBytes += delta;
-                numFiles++;
+            for (File file : files) {
+                long delta = file.length();
+
+                if (!file.delete()) {
+                    log.error("deleteFilesMatchingFilter: Couldn't delete file {}",
+                            file.getName());
+                } else {
+                    freedBytes += delta;
+                    numFiles++;
+                }
             }
         }
         log.info("deleteFilesMatchingFilter: completed, deleted {} files, freed {} bytes",
@@ -1153,7 +2112,7 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
     @Override
     public void reset() {
         // Trim all segments
-        long endSegment = (Math.max(logMetadata.getGlobalTail(), 0L) / RECORDS_PER_LOG_FILE);
+        long endSegment = (Math.max(logMetadata.getGlobalTail(), 0L) / recordsPerSegment);
         log.warn("Global Tail:{}, endSegment={}", logMetadata.getGlobalTail(), endSegment);
 
         // Close segments before deleting their corresponding log files
@@ -1175,16 +2134,112 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         lastSegment = 0L;
         logMetadata = new LogMetadata();
         writeChannels.clear();
+        relocatedSegments.clear();
+        if (coldTier != null) {
+            coldTier.deleteUpTo(endSegment);
+        }
         log.info("reset: Completed, end segment {}", endSegment);
     }
 
+    private static ObjectStore getColdTierStore(Map<String, Object> opts) {
+        String path = (String) opts.get("--log-cold-tier");
+        return path == null ? null : new FileObjectStore(path);
+    }
+
     @VisibleForTesting
     Set<FileChannel> getChannelsToSync() {
-        return channelsToSync;
+        return channelsToSync.keySet();
+    }
+
+    /**
+     * A directory the segments are striped across, usually on its own device, and its metrics.
+     */
+    @Getter
+    private static class SegmentDirectory {
+        private final String path;
+        private final Timer syncTimer;
+        private final Meter writtenBytes;
+
+        SegmentDirectory(int index, String path) {
+            this.path = path;
+            String prefix = CorfuComponent.INFRA_STREAM_OPS + "dir-" + index;
+            this.syncTimer = ServerContext.getMetrics().timer(prefix + ".sync");
+            this.writtenBytes = ServerContext.getMetrics().meter(prefix + ".written-bytes");
+        }
     }
 
     @VisibleForTesting
     Collection<SegmentHandle> getSegmentHandles() {
         return writeChannels.values();
     }
+
+    /**
+     * How the writes are made durable when the log is synced.
+     */
+    public enum SyncMode {
+        /**
+         * Sync the data and the metadata of the files (fsync).
+         */
+        FSYNC,
+        /**
+         * Only sync the data, and the metadata needed to read it back (fdatasync). This is
+         * cheaper on preallocated segments, since the appends don't change their size.
+         */
+        DATA,
+        /**
+         * Open the segments with O_DSYNC, so that every write is durable when it returns,
+         * and syncs are not needed.
+         */
+        DSYNC
+    }
+
+    /**
+     * Stream log configuration class.
+     *
+     * <p>The segments are bounded by their number of addresses only: an address maps to its
+     * segment by division, so a segment can't be closed early when it reaches a size in bytes.
+     */
+    @Builder
+    @Getter
+    public static class StreamLogConfig {
+        private static final String DEFAULT_SEGMENT_RECORDS = "10000";
+        private static final String DEFAULT_SEGMENT_PREALLOCATION = "4";
+        private static final String DEFAULT_OPEN_SEGMENTS = "256";
+        private static final String DEFAULT_COMPACTION_RATE = "0";
+        private static final String DEFAULT_SYNC_MODE = "fsync";
+
+        private final int segmentRecords;
+        private final long segmentPreallocation;
+        private final int maxOpenSegments;
+        private final long compactionRate;
+        private final SyncMode syncMode;
+        private final List<String> extraLogDirs;
+
+        /**
+         * Parse legacy configuration options, the options which are not set take their
+         * default value.
+         *
+         * @param opts legacy config
+         * @return stream log configuration
+         */
+        public static StreamLogConfig parse(Map<String, Object> opts) {
+            final long bytesPerMegabyte = 1024L * 1024L;
+            return StreamLogConfig.builder()
+                    .segmentRecords(Integer.parseInt((String) opts.getOrDefault(
+                            "--log-segment-records", DEFAULT_SEGMENT_RECORDS)))
+                    .segmentPreallocation(Long.parseLong((String) opts.getOrDefault(
+                            "--log-segment-preallocation", DEFAULT_SEGMENT_PREALLOCATION))
+                            * bytesPerMegabyte)
+                    .maxOpenSegments(Integer.parseInt((String) opts.getOrDefault(
+                            "--log-open-segments", DEFAULT_OPEN_SEGMENTS)))
+                    .compactionRate(Long.parseLong((String) opts.getOrDefault(
+                            "--log-compaction-rate", DEFAULT_COMPACTION_RATE)) * bytesPerMegabyte)
+                    .syncMode(SyncMode.valueOf(((String) opts.getOrDefault(
+                            "--log-sync-mode", DEFAULT_SYNC_MODE)).toUpperCase()))
+                    .extraLogDirs(opts.get("--log-dirs") == null ? Collections.emptyList()
+                            : Splitter.on(',').trimResults().omitEmptyStrings()
+                            .splitToList((String) opts.get("--log-dirs")))
+                    .build();
+        }
+    }
 }
@@ -66,10 +66,16 @@ public class Orchestrator {
 
     final ExecutorService executor;
 
+    /**
+     * Copies segments to new or healed log units for the add and heal node workflows.
+     */
+    final StateTransfer stateTransfer;
+
     public Orchestrator(@Nonnull SingletonResource<CorfuRuntime> runtime,
                         @Nonnull ServerContext serverContext) {
         this.serverContext = serverContext;
         this.getRuntime = runtime;
+        this.stateTransfer = new StateTransfer(serverContext);
 
         executor = Executors.newFixedThreadPool(Runtime.getRuntime()
                 .availableProcessors(), new ThreadFactory() {
@@ -108,7 +114,8 @@ public class Orchestrator {
                 query(msg, ctx, r);
                 break;
             case ADD_NODE:
-                workflow = new AddNodeWorkflow((AddNodeRequest) orchReq.getRequest());
+                workflow = new AddNodeWorkflow((AddNodeRequest) orchReq.getRequest(),
+                        stateTransfer);
                 dispatch(workflow, msg, ctx, r);
                 break;
             case REMOVE_NODE:
@@ -116,7 +123,8 @@ public class Orchestrator {
                 dispatch(workflow, msg, ctx, r);
                 break;
             case HEAL_NODE:
-                workflow = new HealNodeWorkflow((HealNodeRequest) orchReq.getRequest());
+                workflow = new HealNodeWorkflow((HealNodeRequest) orchReq.getRequest(),
+                        stateTransfer);
                 dispatch(workflow, msg, ctx, r);
                 break;
             case FORCE_REMOVE_NODE:
@@ -258,6 +266,7 @@ public class Orchestrator {
      */
     public void shutdown() {
         executor.shutdownNow();
+        stateTransfer.shutdown();
         try {
             executor.awaitTermination(ServerContext.SHUTDOWN_TIMER.getSeconds(), TimeUnit.SECONDS);
         } catch (InterruptedException ie) {
@@ -0,0 +1,318 @@
+package org.corfudb.infrastructure.orchestrator;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Range;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.infrastructure.ServerContext;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.view.Layout;
+import org.corfudb.runtime.view.RuntimeLayout;
+import org.corfudb.util.CFUtils;
+import org.corfudb.util.CorfuComponent;
+import org.corfudb.util.MetricsUtils;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Transfers a range of the address space from the log units of a segment to a set of
+ * destination log units.
+ *
+ * <p>The range is split into chunks of bulkReadSize addresses. Every chunk is read with a
+ * single range read from the chain and then written to all the destinations concurrently.
+ * Up to maxChunksInFlight chunks are read and written at the same time, and the bandwidth
+ * used by the transfer can be capped to protect the foreground traffic.
+ *
+ * <p>The address up to which all chunks have been written is persisted in the
+ * {@link ServerContext}, so a transfer that failed (or whose orchestrator restarted) resumes
+ * from where it stopped instead of starting over. The progress is keyed by the destinations
+ * and the address range, so it survives the reconfigurations that retry the transfer. A
+ * destination can be reset in between (a healed node is wiped), so the progress is only
+ * trusted if the destinations still hold the last address it covers.
+ */
+@Slf4j
+public class StateTransfer {
+
+    private static final String STATE_TRANSFER_METRIC = CorfuComponent.INFRA_STATE_TRANSFER.toString();
+
+    private final ServerContext serverContext;
+
+    @Getter
+    private final StateTransferConfig config;
+
+    /**
+     * Limits the number of bytes transferred per second, or null if the rate is not limited.
+     */
+    private final RateLimiter rateLimiter;
+
+    private final ExecutorService transferExecutor;
+
+    private final Timer readTimer = ServerContext.getMetrics()
+            .timer(STATE_TRANSFER_METRIC + "read-chunk");
+    private final Timer writeTimer = ServerContext.getMetrics()
+            .timer(STATE_TRANSFER_METRIC + "write-chunk");
+    private final Meter transferredEntries = ServerContext.getMetrics()
+            .meter(STATE_TRANSFER_METRIC + "entries");
+    private final Meter transferredBytes = ServerContext.getMetrics()
+            .meter(STATE_TRANSFER_METRIC + "bytes");
+    private final Counter resumedAddresses = ServerContext.getMetrics()
+            .counter(STATE_TRANSFER_METRIC + "resumed-addresses");
+
+    public StateTransfer(@Nonnull ServerContext serverContext) {
+        this.serverContext = serverContext;
+        this.config = StateTransferConfig.parse(serverContext.getServerConfig());
+        this.rateLimiter = config.getMaxBytesPerSecond() > 0
+                ? RateLimiter.create(config.getMaxBytesPerSecond()) : null;
+        this.transferExecutor = Executors.newFixedThreadPool(config.getMaxChunksInFlight(),
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat(serverContext.getThreadPrefix() + "state-transfer-%d")
+                        .build());
+    }
+
+    /**
+     * Transfer the addresses [start, end) to all the destination endpoints. Blocks until all
+     * the chunks are written, or throws if any of them failed.
+     *
+     * @param runtime   runtime used to read the range from the current replicas
+     * @param layout    layout used to stamp the writes to the destinations
+     * @param endpoints destination log units
+     * @param start     first address to transfer
+     * @param end       address to stop at (exclusive)
+     */
+    public void transfer(@Nonnull CorfuRuntime runtime, @Nonnull Layout layout,
+                         @Nonnull Set<String> endpoints, long start, long end)
+            throws ExecutionException, InterruptedException {
+        final String transferId = getTransferId(endpoints, start, end);
+        final RuntimeLayout runtimeLayout = runtime.getLayoutView().getRuntimeLayout(layout);
+        long resumeAddress = Math.max(start, serverContext.getStateTransferProgress(transferId));
+
+        if (resumeAddress > start && !isTransferred(runtimeLayout, endpoints, resumeAddress - 1)) {
+            log.warn("transfer: destinations {} lost the addresses below {}, restarting the "
+                    + "transfer of [{}, {})", endpoints, resumeAddress, start, end);
+            serverContext.clearStateTransferProgress(transferId);
+            resumeAddress = start;
+        }
+
+        if (resumeAddress > start) {
+            log.info("transfer: resuming transfer of [{}, {}) to {} from {}", start, end,
+                    endpoints, resumeAddress);
+            resumedAddresses.inc(resumeAddress - start);
+        }
+
+        final int chunkSize = runtime.getParameters().getBulkReadSize();
+        final int maxInFlight = config.getMaxChunksInFlight();
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final ProgressTracker progress = new ProgressTracker(transferId, resumeAddress);
+        final AtomicLong lastChunkBytes = new AtomicLong(1);
+
+        for (long chunkStart = resumeAddress; chunkStart < end && failure.get() == null;
+             chunkStart += chunkSize) {
+            final long chunkFirst = chunkStart;
+            final long chunkLast = Math.min(chunkStart + chunkSize, end) - 1;
+
+            inFlight.acquire();
+            CompletableFuture
+                    .supplyAsync(() -> readChunk(runtime, chunkFirst, chunkLast,
+                            lastChunkBytes), transferExecutor)
+                    .thenCompose(entries -> writeChunk(runtimeLayout, endpoints, entries))
+                    .whenComplete((ignored, ex) -> {
+                        if (ex == null) {
+                            progress.completed(chunkFirst, chunkLast + 1);
+                        } else {
+                            log.error("transfer: failed to transfer [{}, {}] to {}", chunkFirst,
+                                    chunkLast, endpoints, ex);
+                            failure.compareAndSet(null, ex);
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        // Wait for all the outstanding chunks to complete.
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+
+        if (failure.get() != null) {
+            Throwable cause = failure.get() instanceof CompletionException
+                    ? failure.get().getCause() : failure.get();
+            throw new ExecutionException("State transfer failed", cause);
+        }
+
+        serverContext.clearStateTransferProgress(transferId);
+        log.info("transfer: transferred [{}, {}) to {}", start, end, endpoints);
+    }
+
+    /**
+     * Read a chunk of consecutive addresses from the current replicas of the segment. The
+     * size of a chunk is only known once it is read, so the read waits for the size of the
+     * previous chunk, and the difference with the actual size is acquired after the read.
+     */
+    private List<LogData> readChunk(CorfuRuntime runtime, long chunkFirst, long chunkLast,
+                                    AtomicLong lastChunkBytes) {
+        final long estimatedBytes = lastChunkBytes.get();
+        if (rateLimiter != null) {
+            rateLimiter.acquire((int) Math.min(estimatedBytes, Integer.MAX_VALUE));
+        }
+
+        Map<Long, ILogData> dataMap;
+        try (Timer.Context context = MetricsUtils.getConditionalContext(readTimer)) {
+            dataMap = runtime.getAddressSpaceView().cacheFetch(ContiguousSet.create(
+                    Range.closed(chunkFirst, chunkLast), DiscreteDomain.longs()));
+        }
+
+        List<LogData> entries = new ArrayList<>();
+        long bytes = 0;
+        for (long x = chunkFirst; x <= chunkLast; x++) {
+            ILogData entry = dataMap.get(x);
+            if (entry == null) {
+                log.error("Missing address {} in range {}-{}", x, chunkFirst, chunkLast);
+                throw new IllegalStateException("Missing address");
+            }
+            bytes += entry.getSizeEstimate();
+            entries.add((LogData) entry);
+        }
+
+        if (rateLimiter != null && bytes > estimatedBytes) {
+            rateLimiter.acquire((int) Math.min(bytes - estimatedBytes, Integer.MAX_VALUE));
+        }
+        lastChunkBytes.set(Math.max(bytes, 1));
+        transferredEntries.mark(entries.size());
+        transferredBytes.mark(bytes);
+        return entries;
+    }
+
+    /**
+     * Write a chunk to all the destinations concurrently.
+     */
+    private CompletableFuture<Void> writeChunk(RuntimeLayout runtimeLayout, Set<String> endpoints,
+                                               List<LogData> entries) {
+        final Timer.Context context = MetricsUtils.getConditionalContext(writeTimer);
+        List<CompletableFuture<Boolean>> writes = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            writes.add(runtimeLayout.getLogUnitClient(endpoint).writeRange(entries));
+        }
+
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[writes.size()]))
+                .whenComplete((ignored, ex) -> MetricsUtils.stopConditionalContext(context))
+                .thenApply(ignored -> {
+                    for (CompletableFuture<Boolean> write : writes) {
+                        if (!write.join()) {
+                            throw new IllegalStateException("Failed to transfer!");
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Check that all the destinations hold an address, which they don't once they are reset.
+     */
+    private boolean isTransferred(RuntimeLayout runtimeLayout, Set<String> endpoints,
+                                  long address) {
+        for (String endpoint : endpoints) {
+            LogData entry = CFUtils.getUninterruptibly(runtimeLayout.getLogUnitClient(endpoint)
+                    .read(address)).getAddresses().get(address);
+            if (entry == null || entry.getType() == DataType.EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @VisibleForTesting
+    static String getTransferId(Set<String> endpoints, long start, long end) {
+        return String.join(",", new TreeSet<>(endpoints)) + "_" + start + "_" + end;
+    }
+
+    /**
+     * Shuts down the transfer executor.
+     */
+    public void shutdown() {
+        transferExecutor.shutdownNow();
+    }
+
+    /**
+     * Tracks the chunks that completed out of order, and persists the address up to which
+     * all the chunks have completed.
+     */
+    private class ProgressTracker {
+        private final String transferId;
+        private final NavigableMap<Long, Long> completedChunks = new TreeMap<>();
+        private long watermark;
+
+        ProgressTracker(String transferId, long watermark) {
+            this.transferId = transferId;
+            this.watermark = watermark;
+        }
+
+        synchronized void completed(long chunkStart, long chunkEnd) {
+            completedChunks.put(chunkStart, chunkEnd);
+            long newWatermark = watermark;
+            while (completedChunks.containsKey(newWatermark)) {
+                newWatermark = completedChunks.remove(newWatermark);
+            }
+
+            if (newWatermark != watermark) {
+                watermark = newWatermark;
+                serverContext.setStateTransferProgress(transferId, watermark);
+            }
+        }
+    }
+
+    /**
+     * State transfer configuration class.
+     */
+    @Builder
+    @Getter
+    public static class StateTransferConfig {
+        private static final String DEFAULT_CHUNKS_IN_FLIGHT = "4";
+        private static final String DEFAULT_RATE = "0";
+
+        private final int maxChunksInFlight;
+        private final long maxBytesPerSecond;
+
+        /**
+         * Parse legacy configuration options, the options which are not set take their
+         * default value.
+         *
+         * @param opts legacy config
+         * @return state transfer configuration
+         */
+        public static StateTransferConfig parse(Map<String, Object> opts) {
+            final long bytesPerMegabyte = 1024L * 1024L;
+            return StateTransferConfig.builder()
+                    .maxChunksInFlight(Integer.parseInt((String) opts.getOrDefault(
+                            "--state-transfer-chunks", DEFAULT_CHUNKS_IN_FLIGHT)))
+                    .maxBytesPerSecond(Long.parseLong((String) opts.getOrDefault(
+                            "--state-transfer-rate", DEFAULT_RATE)) * bytesPerMegabyte)
+                    .build();
+        }
+    }
+}
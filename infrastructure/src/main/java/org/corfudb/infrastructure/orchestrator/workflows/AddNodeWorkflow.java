@@ -1,15 +1,11 @@
 package org.corfudb.infrastructure.orchestrator.workflows;
 
-import com.google.common.collect.ContiguousSet;
-import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Range;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.infrastructure.orchestrator.Action;
 import org.corfudb.infrastructure.orchestrator.IWorkflow;
-import org.corfudb.protocols.wireprotocol.ILogData;
-import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.infrastructure.orchestrator.StateTransfer;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.protocols.wireprotocol.orchestrator.AddNodeRequest;
 import org.corfudb.runtime.CorfuRuntime;
@@ -20,10 +16,8 @@ import org.corfudb.util.CFUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
@@ -44,6 +38,11 @@ public class AddNodeWorkflow implements IWorkflow {
 
     private final AddNodeRequest request;
 
+    /**
+     * Copies segments to the new log units.
+     */
+    protected final StateTransfer transfer;
+
     Layout newLayout;
 
     @Getter
@@ -56,10 +55,12 @@ public class AddNodeWorkflow implements IWorkflow {
      * Creates a new add node workflow from a request.
      *
      * @param request request to add a node
+     * @param transfer state transfer used to copy the segments to the new node
      */
-    public AddNodeWorkflow(AddNodeRequest request) {
+    public AddNodeWorkflow(AddNodeRequest request, StateTransfer transfer) {
         this.id = UUID.randomUUID();
         this.request = request;
+        this.transfer = transfer;
         actions = ImmutableList.of(new BootstrapNode(),
                 new AddNodeToLayout(),
                 new RestoreRedundancy());
@@ -134,8 +135,6 @@ public class AddNodeWorkflow implements IWorkflow {
     protected void stateTransfer(Set<String> endpoints, CorfuRuntime runtime,
                                  Layout.LayoutSegment segment) throws ExecutionException, InterruptedException {
 
-        int batchSize = runtime.getParameters().getBulkReadSize();
-
         long trimMark = runtime.getAddressSpaceView().getTrimMark().getSequence();
         // Send the trimMark to the new/healing nodes.
         // If this times out or fails, the Action performing the stateTransfer fails and retries.
@@ -159,48 +158,12 @@ public class AddNodeWorkflow implements IWorkflow {
         // State transfer should start from segment start address or trim mark whichever is lower.
         long segmentStart = Math.max(trimMark, segment.getStart());
 
-        for (long chunkStart = segmentStart; chunkStart < segment.getEnd()
-                ; chunkStart = chunkStart + batchSize) {
-            long chunkEnd = Math.min((chunkStart + batchSize - 1), segment.getEnd() - 1);
-
-            long ts1 = System.currentTimeMillis();
-
-            Map<Long, ILogData> dataMap = runtime.getAddressSpaceView()
-                    .cacheFetch(ContiguousSet.create(
-                            Range.closed(chunkStart, chunkEnd),
-                            DiscreteDomain.longs()));
-
-            long ts2 = System.currentTimeMillis();
-
-            log.info("stateTransfer: read {}-{} in {} ms", chunkStart, chunkEnd, (ts2 - ts1));
+        long ts1 = System.currentTimeMillis();
+        transfer.transfer(runtime, newLayout, endpoints, segmentStart, segment.getEnd());
+        long ts2 = System.currentTimeMillis();
 
-            List<LogData> entries = new ArrayList<>();
-            for (long x = chunkStart; x <= chunkEnd; x++) {
-                if (dataMap.get(x) == null) {
-                    log.error("Missing address {} in range {}-{}", x, chunkStart, chunkEnd);
-                    throw new IllegalStateException("Missing address");
-                }
-                entries.add((LogData) dataMap.get(x));
-            }
-
-            for (String endpoint : endpoints) {
-                // Write segment chunk to the new logunit
-                ts1 = System.currentTimeMillis();
-                boolean transferSuccess = runtime.getLayoutView().getRuntimeLayout(newLayout)
-                        .getLogUnitClient(endpoint)
-                        .writeRange(entries).get();
-                ts2 = System.currentTimeMillis();
-
-                if (!transferSuccess) {
-                    log.error("stateTransfer: Failed to transfer {}-{} to {}", chunkStart,
-                            chunkEnd, endpoint);
-                    throw new IllegalStateException("Failed to transfer!");
-                }
-
-                log.info("stateTransfer: Transferred address chunk [{}, {}] to {} in {} ms",
-                        chunkStart, chunkEnd, endpoint, (ts2 - ts1));
-            }
-        }
+        log.info("stateTransfer: Transferred segment [{}, {}) to {} in {} ms", segmentStart,
+                segment.getEnd(), endpoints, (ts2 - ts1));
     }
 
 
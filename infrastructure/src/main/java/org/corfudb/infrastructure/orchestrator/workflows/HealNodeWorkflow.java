@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.infrastructure.orchestrator.Action;
+import org.corfudb.infrastructure.orchestrator.StateTransfer;
 import org.corfudb.protocols.wireprotocol.orchestrator.AddNodeRequest;
 import org.corfudb.protocols.wireprotocol.orchestrator.HealNodeRequest;
 import org.corfudb.runtime.CorfuRuntime;
@@ -29,8 +30,8 @@ public class HealNodeWorkflow extends AddNodeWorkflow {
 
     private final HealNodeRequest request;
 
-    public HealNodeWorkflow(HealNodeRequest healNodeRequest) {
-        super(new AddNodeRequest(healNodeRequest.getEndpoint()));
+    public HealNodeWorkflow(HealNodeRequest healNodeRequest, StateTransfer transfer) {
+        super(new AddNodeRequest(healNodeRequest.getEndpoint()), transfer);
         this.request = healNodeRequest;
         this.actions = ImmutableList.of(new HealNodeToLayout(),
                 new RestoreRedundancyAndMergeSegments());
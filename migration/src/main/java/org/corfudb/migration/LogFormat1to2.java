@@ -4,7 +4,7 @@ import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
-import org.corfudb.format.Types;
+import org.corfudb.migration.format.Types;
 
 import java.io.File;
 import java.io.FilenameFilter;
@@ -261,12 +261,7 @@ public class LogFormat1to2 {
      * @return checksum of bytes
      */
     static int getChecksum(byte[] bytes) {
-        Hasher hasher = Hashing.crc32c().newHasher();
-        for (byte a : bytes) {
-            hasher.putByte(a);
-        }
-
-        return hasher.hash().asInt();
+        return Hashing.crc32c().hashBytes(bytes).asInt();
     }
 
     static int getChecksum(int num) {
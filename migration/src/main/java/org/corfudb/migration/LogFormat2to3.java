@@ -0,0 +1,201 @@
+package org.corfudb.migration;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
+import org.corfudb.migration.format.Types;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.corfudb.migration.LogFormat1to2.getByteBufferWithMetaData;
+import static org.corfudb.migration.LogFormat1to2.getChecksum;
+
+/**
+ * This migration tool will migrate the log segment files from version 2 to 3. This migration
+ * replaces the string keyed streams and backpointers of every entry by a table of fixed-width
+ * binary records. As a result, checksums will be recomputed. The local data store files are
+ * not changed by this migration.
+ *
+ * To run this tool, execute the following steps:
+ *
+ * 1. cd migration; mvn clean install
+ * 2. cd target; java -cp migration-0.1-SNAPSHOT-shaded.jar org.corfudb.migration.LogFormat2to3
+ *    corfuDataDir
+ */
+
+public class LogFormat2to3 {
+
+    static final int srcVersion = 2;
+
+    static final int destVersion = 3;
+
+    static final int BACKPOINTER_RECORD_SIZE = Long.BYTES * 3;
+
+    public static final int METADATA_SIZE = Types.Metadata.newBuilder()
+            .setLengthChecksum(-1)
+            .setPayloadChecksum(-1)
+            .setLength(-1)
+            .build()
+            .getSerializedSize();
+
+    /**
+     * Migrates the log segments.
+     *
+     * @param args Accepts the CorfuDB data directory.
+     * @throws Exception if migration fails.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Expected parameters: CorfuDB data directory");
+        }
+
+        migrateLUData(args[0]);
+    }
+
+    public static void migrateLUData(String dir) throws IOException {
+        String luDir = dir + File.separator + "log";
+        File path = new File(luDir);
+        File[] files = path.listFiles((file, name) -> name.endsWith(".log"));
+
+        if (files == null) {
+            throw new IllegalArgumentException("Invalid directory " + dir);
+        }
+
+        for (File file : files) {
+            processSegment(file.getAbsolutePath());
+        }
+    }
+
+    public static void processSegment(String path) throws IOException {
+
+        Path srcPath = Paths.get(path);
+        Path destPath = Paths.get(path + ".tmp");
+
+        FileChannel src = FileChannel.open(srcPath, EnumSet.of(StandardOpenOption.READ));
+
+        if (src.size() == 0) {
+            src.close();
+            return;
+        }
+
+        FileChannel dest = FileChannel.open(destPath, EnumSet.of(StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SPARSE));
+
+        // Parse header
+        Types.Metadata headerMetadata = readMetadata(src);
+        ByteBuffer buf = readPayload(headerMetadata, src, path);
+
+        Types.LogHeader header;
+
+        try {
+            header = Types.LogHeader.parseFrom(buf.array());
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Can't parse log header for " + path);
+        }
+
+        if (header.getVersion() != srcVersion) {
+            throw new IllegalStateException("Segment version must be " + srcVersion +
+                    " but found " + header.getVersion() + " in file " + path);
+        }
+
+        // Write header with the new format
+        Types.LogHeader newHeader = header.toBuilder().setVersion(destVersion).build();
+        dest.write(getByteBufferWithMetaData(newHeader));
+
+        // Parse segment entries, a partially written last entry is dropped
+        while (src.size() - src.position() >= METADATA_SIZE) {
+            Types.Metadata entryMetadata = readMetadata(src);
+            if (src.size() - src.position() < entryMetadata.getLength()) {
+                break;
+            }
+
+            ByteBuffer serializedEntry = readPayload(entryMetadata, src, path);
+            Types.LogEntry entry = Types.LogEntry.parseFrom(serializedEntry.array());
+
+            // Write the entry in the new format
+            dest.write(getByteBufferWithMetaData(convertEntry(entry)));
+        }
+
+        dest.force(true);
+        src.close();
+        dest.close();
+
+        Files.move(destPath, srcPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replace the streams and backpointers of an entry by its backpointer table.
+     *
+     * @param entry a version 2 entry
+     * @return the version 3 entry
+     */
+    static Types.LogEntry convertEntry(Types.LogEntry entry) {
+        Map<String, Long> backpointers = entry.getBackpointersMap();
+        ByteBuffer table = ByteBuffer.allocate(backpointers.size() * BACKPOINTER_RECORD_SIZE);
+        for (Map.Entry<String, Long> backpointer : backpointers.entrySet()) {
+            UUID streamId = UUID.fromString(backpointer.getKey());
+            table.putLong(streamId.getMostSignificantBits());
+            table.putLong(streamId.getLeastSignificantBits());
+            table.putLong(backpointer.getValue());
+        }
+
+        return entry.toBuilder()
+                .clearStreams()
+                .clearBackpointers()
+                .setBackpointerTable(UnsafeByteOperations.unsafeWrap(table.array()))
+                .build();
+    }
+
+    static Types.Metadata readMetadata(FileChannel fc) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(METADATA_SIZE);
+        readFully(fc, buf);
+        Types.Metadata metadata = Types.Metadata.parseFrom(buf.array());
+
+        if (metadata.getLengthChecksum() != getChecksum(metadata.getLength())) {
+            throw new IllegalStateException("Corrupted metadata at " + fc.position());
+        }
+
+        return metadata;
+    }
+
+    static ByteBuffer readPayload(Types.Metadata metadata, FileChannel fc,
+                                  String path) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(metadata.getLength());
+        readFully(fc, buf);
+
+        if (metadata.getPayloadChecksum() != getChecksum(buf.array())) {
+            throw new IllegalStateException("Data corruption detected while reading " + path);
+        }
+
+        return buf;
+    }
+
+    /**
+     * Fill a buffer from the channel, a single read can return fewer bytes than requested.
+     *
+     * @param fc  the channel to read from
+     * @param buf the buffer to fill, flipped on return
+     * @throws IOException if the channel ends before the buffer is full
+     */
+    static void readFully(FileChannel fc, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (fc.read(buf) < 0) {
+                throw new IOException("Unexpected end of file at " + fc.position());
+            }
+        }
+
+        buf.flip();
+    }
+}
@@ -51,6 +51,9 @@ public class MultiSMREntry extends LogEntry implements ISMRConsumable {
     /**
      * This function provides the remaining buffer.
      *
+     * <p>A negative number of updates, -(n + 1), is followed by the fingerprint of the method
+     * table and n updates written with their compact method id.
+     *
      * @param b The remaining buffer.
      */
     @Override
@@ -59,6 +62,17 @@ public class MultiSMREntry extends LogEntry implements ISMRConsumable {
 
         int numUpdates = b.readInt();
         updates = new ArrayList<>();
+        if (numUpdates < 0) {
+            numUpdates = -(numUpdates + 1);
+            long methodTableFingerprint = b.readLong();
+            for (int i = 0; i < numUpdates; i++) {
+                SMREntry update = (SMREntry) LogEntry.deserialize(b, rt);
+                update.setMethodTableFingerprint(methodTableFingerprint);
+                updates.add(update);
+            }
+            return;
+        }
+
         for (int i = 0; i < numUpdates; i++) {
             updates.add(
                     (SMREntry) Serializers.CORFU.deserialize(b, rt));
@@ -68,11 +82,33 @@ public class MultiSMREntry extends LogEntry implements ISMRConsumable {
     @Override
     public void serialize(ByteBuf b) {
         super.serialize(b);
+        if (hasCompactMethodIds()) {
+            b.writeInt(-(updates.size() + 1));
+            b.writeLong(updates.get(0).getMethodTableFingerprint());
+            updates.forEach(x -> x.serialize(b, true));
+            return;
+        }
+
         b.writeInt(updates.size());
         updates.stream()
                 .forEach(x -> Serializers.CORFU.serialize(x, b));
     }
 
+    /**
+     * Whether the updates can be written with their compact method id: they all have one,
+     * from the same method table.
+     */
+    private boolean hasCompactMethodIds() {
+        synchronized (updates) {
+            if (updates.isEmpty()) {
+                return false;
+            }
+            long methodTableFingerprint = updates.get(0).getMethodTableFingerprint();
+            return updates.stream().allMatch(x -> x.hasCompactMethodId()
+                    && x.getMethodTableFingerprint() == methodTableFingerprint);
+        }
+    }
+
     @Override
     public void setEntry(ILogData entry) {
         super.setEntry(entry);
@@ -5,7 +5,9 @@ import io.netty.buffer.ByteBuf;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -24,14 +26,41 @@ import org.corfudb.util.serializer.Serializers;
 @NoArgsConstructor
 public class SMREntry extends LogEntry implements ISMRConsumable {
 
+    /**
+     * The method id of an entry which only carries the name of its SMR method.
+     */
+    public static final int NO_METHOD_ID = -1;
+
+    /**
+     * The method tables known to this process, method names indexed by method id and keyed
+     * by the fingerprint of the table. Used to name entries read with a compact method id
+     * before they are applied to their object.
+     */
+    private static final Map<Long, String[]> knownMethodTables = new ConcurrentHashMap<>();
+
     /**
      * The name of the SMR method. Note that this is limited to the size of a short.
+     * Null for an entry read with a compact method id, until the method is resolved.
      */
     @Deprecated // TODO: Add replacement method that conforms to style
     @SuppressWarnings("checkstyle:MemberName") // Due to deprecation
-    @Getter
     private String SMRMethod;
 
+    /**
+     * The compact id of the SMR method in the method table of the object,
+     * or {@link #NO_METHOD_ID} if the entry is identified by the method name.
+     */
+    @Getter
+    private int methodId = NO_METHOD_ID;
+
+    /**
+     * The fingerprint of the method table the compact id belongs to. It is written once for
+     * all the updates of a {@link MultiSMREntry}, so that a reader with a different method
+     * table rejects the ids instead of applying the wrong methods.
+     */
+    @Getter
+    private long methodTableFingerprint;
+
     /**
      * The arguments to the SMR method, which could be 0.
      */
@@ -87,12 +116,88 @@ public class SMREntry extends LogEntry implements ISMRConsumable {
 
     /** SMREntry constructor. */
     public SMREntry(String smrMethod, @NonNull Object[] smrArguments, ISerializer serializer) {
+        this(smrMethod, NO_METHOD_ID, 0L, smrArguments, serializer);
+    }
+
+    /**
+     * SMREntry constructor for an entry which can be written with a compact method id.
+     *
+     * @param smrMethod              The name of the SMR method.
+     * @param methodId               The id of the method in the method table of the object,
+     *                               or {@link #NO_METHOD_ID} to write the method name.
+     * @param methodTableFingerprint The fingerprint of the method table of the object.
+     * @param smrArguments           The arguments to the SMR method.
+     * @param serializer             The serializer used to serialize the SMR arguments.
+     */
+    public SMREntry(String smrMethod, int methodId, long methodTableFingerprint,
+                    @NonNull Object[] smrArguments, ISerializer serializer) {
         super(LogEntryType.SMR);
         this.SMRMethod = smrMethod;
+        this.methodId = methodId;
+        this.methodTableFingerprint = methodTableFingerprint;
         this.SMRArguments = smrArguments;
         this.serializerType = serializer;
     }
 
+    /**
+     * Get the name of the SMR method. An entry read with a compact method id is named
+     * after the method with that id in the registered table it was written with.
+     *
+     * @return The name of the SMR method, or null if it is not known yet.
+     */
+    @Deprecated // TODO: Add replacement method that conforms to style
+    @SuppressWarnings("checkstyle:abbreviation") // Due to deprecation
+    public String getSMRMethod() {
+        if (SMRMethod == null && methodId != NO_METHOD_ID) {
+            String[] names = knownMethodTables.get(methodTableFingerprint);
+            if (names != null && methodId < names.length) {
+                SMRMethod = names[methodId];
+            }
+        }
+        return SMRMethod;
+    }
+
+    /**
+     * Set the name of the SMR method of an entry read with a compact method id, once it is
+     * resolved against the method table of its object.
+     *
+     * @param smrMethod The name of the SMR method.
+     */
+    public void resolveMethod(String smrMethod) {
+        if (SMRMethod == null) {
+            SMRMethod = smrMethod;
+        }
+    }
+
+    /**
+     * Set the fingerprint of the method table of an entry read with a compact method id.
+     *
+     * @param methodTableFingerprint The fingerprint written by the enclosing entry.
+     */
+    void setMethodTableFingerprint(long methodTableFingerprint) {
+        this.methodTableFingerprint = methodTableFingerprint;
+    }
+
+    /**
+     * Whether the entry can be written with its compact method id.
+     *
+     * @return True, if the entry has a method id from a method table.
+     */
+    boolean hasCompactMethodId() {
+        return methodId != NO_METHOD_ID;
+    }
+
+    /**
+     * Register a method table, so that entries read with a compact method id can be named
+     * before they are applied to their object.
+     *
+     * @param methodTableFingerprint The fingerprint of the method table.
+     * @param methodNames            The method names, indexed by method id.
+     */
+    public static void registerMethodTable(long methodTableFingerprint, String[] methodNames) {
+        knownMethodTables.putIfAbsent(methodTableFingerprint, methodNames);
+    }
+
     /**
      * This function provides the remaining buffer. Child entries
      * should initialize their contents based on the buffer.
@@ -103,9 +208,14 @@ public class SMREntry extends LogEntry implements ISMRConsumable {
     void deserializeBuffer(ByteBuf b, CorfuRuntime rt) {
         super.deserializeBuffer(b, rt);
         short methodLength = b.readShort();
-        byte[] methodBytes = new byte[methodLength];
-        b.readBytes(methodBytes, 0, methodLength);
-        SMRMethod = new String(methodBytes);
+        if (methodLength < 0) {
+            // A compact method id, the name is resolved against the method table of the object.
+            methodId = -(methodLength + 1);
+        } else {
+            byte[] methodBytes = new byte[methodLength];
+            b.readBytes(methodBytes, 0, methodLength);
+            SMRMethod = new String(methodBytes);
+        }
         serializerType = Serializers.getSerializer(b.readByte());
         byte numArguments = b.readByte();
         Object[] arguments = new Object[numArguments];
@@ -118,11 +228,37 @@ public class SMREntry extends LogEntry implements ISMRConsumable {
         SMRArguments = arguments;
     }
 
+    /**
+     * Serialize the entry with the name of its method. The compact method id is only written
+     * by {@link MultiSMREntry}, which writes the fingerprint of the method table once for all
+     * its updates.
+     *
+     * @param b The buffer to serialize into.
+     */
     @Override
     public void serialize(ByteBuf b) {
+        serialize(b, false);
+    }
+
+    /**
+     * Serialize the entry.
+     *
+     * @param b       The buffer to serialize into.
+     * @param compact True, to write the compact method id instead of the method name.
+     */
+    void serialize(ByteBuf b, boolean compact) {
         super.serialize(b);
-        b.writeShort(SMRMethod.length());
-        b.writeBytes(SMRMethod.getBytes());
+        if (compact) {
+            b.writeShort(-(methodId + 1));
+        } else {
+            String smrMethod = getSMRMethod();
+            if (smrMethod == null) {
+                throw new IllegalStateException("Method " + methodId + " of an unknown "
+                        + "method table can't be written by name");
+            }
+            b.writeShort(smrMethod.length());
+            b.writeBytes(smrMethod.getBytes());
+        }
         b.writeByte(serializerType.getType());
         b.writeByte(SMRArguments.length);
         Arrays.stream(SMRArguments)
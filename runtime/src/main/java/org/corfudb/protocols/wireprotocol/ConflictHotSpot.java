@@ -0,0 +1,52 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A conflict parameter which made transactions abort, and the number of aborts it caused.
+ */
+@Data
+@AllArgsConstructor
+public class ConflictHotSpot implements ICorfuPayload<ConflictHotSpot> {
+
+    /**
+     * The stream of the conflict.
+     */
+    private final UUID streamId;
+
+    /**
+     * The fingerprint of the conflict parameter, or {@link TokenResponse#NO_CONFLICT_KEY} if
+     * the transactions conflicted on the whole stream.
+     */
+    private final byte[] conflictKey;
+
+    /**
+     * The estimated number of aborts caused by the conflict.
+     */
+    private final long count;
+
+    /**
+     * The maximal overestimation of the count.
+     */
+    private final long error;
+
+    public ConflictHotSpot(ByteBuf buf) {
+        streamId = ICorfuPayload.fromBuffer(buf, UUID.class);
+        conflictKey = ICorfuPayload.fromBuffer(buf, byte[].class);
+        count = buf.readLong();
+        error = buf.readLong();
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, streamId);
+        ICorfuPayload.serialize(buf, conflictKey);
+        buf.writeLong(count);
+        buf.writeLong(error);
+    }
+}
@@ -0,0 +1,48 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The conflict parameters which made the most transactions abort at the sequencer, and the
+ * number of transactions aborted for each reason.
+ */
+@Data
+@AllArgsConstructor
+public class ConflictHotSpotsResponse implements ICorfuPayload<ConflictHotSpotsResponse> {
+
+    /**
+     * The hot spots, by decreasing number of aborts.
+     */
+    private final List<ConflictHotSpot> hotSpots;
+
+    /**
+     * The number of aborted transactions, by abort reason.
+     */
+    private final Map<TokenType, Long> abortCounts;
+
+    public ConflictHotSpotsResponse(ByteBuf buf) {
+        hotSpots = ICorfuPayload.listFromBuffer(buf, ConflictHotSpot.class);
+        abortCounts = new EnumMap<>(TokenType.class);
+        int numReasons = buf.readInt();
+        for (int i = 0; i < numReasons; i++) {
+            abortCounts.put(TokenType.typeMap.get(buf.readByte()), buf.readLong());
+        }
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, hotSpots);
+        buf.writeInt(abortCounts.size());
+        abortCounts.forEach((reason, count) -> {
+            reason.doSerialize(buf);
+            buf.writeLong(count);
+        });
+    }
+}
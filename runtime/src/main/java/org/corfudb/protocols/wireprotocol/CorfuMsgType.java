@@ -51,6 +51,13 @@ public enum CorfuMsgType {
     SEQUENCER_TRIM_REQ(23, new TypeToken<CorfuPayloadMsg<Long>>() {}),
     SEQUENCER_METRICS_REQUEST(24, TypeToken.of(CorfuMsg.class), true),
     SEQUENCER_METRICS_RESPONSE(25, new TypeToken<CorfuPayloadMsg<SequencerMetrics>>(){}, true),
+    TAIL_SUBSCRIPTION_REQUEST(26, new TypeToken<CorfuPayloadMsg<TailSubscriptionRequest>>(){}),
+    STREAM_TAILS_NOTIFICATION(27, new TypeToken<CorfuPayloadMsg<StreamTailsNotification>>(){}),
+    TOKEN_BATCH_REQ(28, new TypeToken<CorfuPayloadMsg<TokenBatchRequest>>(){}),
+    TOKEN_BATCH_RES(29, new TypeToken<CorfuPayloadMsg<TokenBatchResponse>>(){}),
+    CONFLICT_HOT_SPOTS_REQUEST(63, new TypeToken<CorfuPayloadMsg<Integer>>(){}, true),
+    CONFLICT_HOT_SPOTS_RESPONSE(64, new TypeToken<CorfuPayloadMsg<ConflictHotSpotsResponse>>(){},
+            true),
 
     // Logging Unit Messages
     WRITE(30, new TypeToken<CorfuPayloadMsg<WriteRequest>>() {}),
@@ -66,6 +73,7 @@ public enum CorfuMsgType {
     TRIM_MARK_REQUEST(45, TypeToken.of(CorfuMsg.class)),
     TRIM_MARK_RESPONSE(46, new TypeToken<CorfuPayloadMsg<Long>>(){}),
     RESET_LOGUNIT(47, new TypeToken<CorfuPayloadMsg<Long>>(){}, true),
+    TAIL_SINCE_REQUEST(48, new TypeToken<CorfuPayloadMsg<TailsRequest>>(){}),
 
     WRITE_OK(50, TypeToken.of(CorfuMsg.class)),
     ERROR_TRIMMED(51, TypeToken.of(CorfuMsg.class)),
@@ -97,6 +105,7 @@ public enum CorfuMsgType {
     MANAGEMENT_LAYOUT_REQUEST(79, TypeToken.of(CorfuMsg.class), true),
 
     ERROR_SERVER_EXCEPTION(200, new TypeToken<CorfuPayloadMsg<ExceptionMsg>>() {}, true),
+    ERROR_SERVER_BUSY(201, TypeToken.of(CorfuMsg.class), true),
 
     // Handshake Messages
     HANDSHAKE_INITIATE(80, new TypeToken<CorfuPayloadMsg<HandshakeMsg>>() {}, true),
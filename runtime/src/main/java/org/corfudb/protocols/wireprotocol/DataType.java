@@ -19,7 +19,12 @@ public enum DataType implements ICorfuPayload<DataType> {
     EMPTY(1, true),
     HOLE(2, true),
     TRIMMED(3, true),
-    RANK_ONLY(4, true);
+    RANK_ONLY(4, true),
+    /**
+     * A data entry which was compacted away by the log unit because all its streams are
+     * checkpointed past it. Only its backpointers are kept.
+     */
+    COMPACTED(5, true);
 
     final int val;
 
@@ -128,6 +128,15 @@ public interface ILogData extends IMetadata, Comparable<ILogData> {
         return getType() == DataType.TRIMMED;
     }
 
+    /**
+     * Return true if and only if the entry was compacted by the log unit: the address is
+     * still readable, but its payload is only available through the checkpoints of its
+     * streams.
+     */
+    default boolean isCompacted() {
+        return getType() == DataType.COMPACTED;
+    }
+
     /**
      * Return the serialized size of an object
      * @param obj the entry's payload object
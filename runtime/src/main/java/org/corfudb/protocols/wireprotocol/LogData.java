@@ -4,6 +4,8 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
 import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
 import lombok.Getter;
@@ -16,6 +18,12 @@ import org.corfudb.util.serializer.Serializers;
 
 /**
  * Created by mwei on 8/15/16.
+ *
+ * <p>The serialized payload held by a LogData is never modified once the LogData is built, so
+ * it is shared (and not copied) with the log unit cache and the on-disk format. The buffer
+ * acquired through {@link #acquireBuffer()} is a heap buffer sized from the last serialized
+ * size. It is not pooled: a write that timed out can release it while the event loop still
+ * serializes the LogData, and a pooled buffer would then be reused under the serialization.
  */
 @Slf4j
 public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
@@ -40,12 +48,40 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
         return logData;
     }
 
+    /**
+     * Get the marker of an entry compacted by the log unit.
+     *
+     * @param address          the address of the entry
+     * @param backpointerMap   the backpointers of the entry, which are kept
+     * @return the compacted entry
+     */
+    public static LogData getCompacted(long address, Map<UUID, Long> backpointerMap) {
+        LogData logData = new LogData(DataType.COMPACTED);
+        logData.setGlobalAddress(address);
+        logData.setBackpointerMap(backpointerMap);
+        return logData;
+    }
+
     public static LogData getHole(long address) {
         LogData logData = new LogData(DataType.HOLE);
         logData.setGlobalAddress(address);
         return logData;
     }
 
+    /**
+     * Build a LogData which holds an already serialized payload, without copying it.
+     * The caller must not modify the array afterwards.
+     *
+     * @param type The type of log data to instantiate.
+     * @param data The serialized payload.
+     * @return The LogData.
+     */
+    public static LogData fromSerializedData(DataType type, byte[] data) {
+        LogData logData = new LogData(type);
+        logData.data = data;
+        return logData;
+    }
+
     public static LogData getEmpty(long address) {
         LogData logData = new LogData(DataType.EMPTY);
         logData.setGlobalAddress(address);
@@ -87,20 +123,18 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
 
     @Override
     public synchronized void releaseBuffer() {
-        if (serializedCache != null) {
-            serializedCache.release();
-            if (serializedCache.refCnt() == 0) {
-                serializedCache = null;
-            }
+        if (serializedCache != null && serializedCache.release()) {
+            serializedCache = null;
         }
     }
 
     @Override
     public synchronized void acquireBuffer() {
         if (serializedCache == null) {
-            serializedCache = Unpooled.buffer();
+            serializedCache = lastKnownSize == NOT_KNOWN
+                    ? Unpooled.buffer() : Unpooled.buffer(lastKnownSize);
             doSerializeInternal(serializedCache);
-            lastKnownSize = serializedCache.array().length;
+            lastKnownSize = serializedCache.readableBytes();
         } else {
             serializedCache.retain();
         }
@@ -196,8 +230,12 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
         return outArray;
     }
 
+    /**
+     * Serialize the LogData, from the acquired buffer if there is one. Synchronized with
+     * {@link #releaseBuffer()}, so that the buffer is not released while it is copied.
+     */
     @Override
-    public void doSerialize(ByteBuf buf) {
+    public synchronized void doSerialize(ByteBuf buf) {
         if (serializedCache != null) {
             serializedCache.resetReaderIndex();
             buf.writeBytes(serializedCache);
@@ -0,0 +1,29 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Pushed by the sequencer to the subscribed clients: the latest tails of the subscribed streams
+ * which advanced since the previous notification.
+ */
+@Data
+@AllArgsConstructor
+public class StreamTailsNotification implements ICorfuPayload<StreamTailsNotification> {
+
+    private Map<UUID, Long> streamTails;
+
+    public StreamTailsNotification(ByteBuf buf) {
+        streamTails = ICorfuPayload.mapFromBuffer(buf, UUID.class, Long.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, streamTails);
+    }
+}
@@ -0,0 +1,29 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Set;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A request to be notified of the tail advances of a set of streams. It replaces the previous
+ * subscription of the client on the same connection, and an empty set of streams cancels it.
+ */
+@Data
+@AllArgsConstructor
+public class TailSubscriptionRequest implements ICorfuPayload<TailSubscriptionRequest> {
+
+    private Set<UUID> streams;
+
+    public TailSubscriptionRequest(ByteBuf buf) {
+        streams = ICorfuPayload.setFromBuffer(buf, UUID.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, streams);
+    }
+}
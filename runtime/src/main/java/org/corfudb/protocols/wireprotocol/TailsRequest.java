@@ -0,0 +1,28 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A request for the log tails of a log unit. Only stream tails that have advanced past
+ * sinceAddress are returned, which allows a caller that has already collected tails up to
+ * some address (for example, the global tail it observed in a previous epoch) to fetch an
+ * incremental update instead of the whole stream tail map.
+ */
+@CorfuPayload
+@Data
+@RequiredArgsConstructor
+public class TailsRequest implements ICorfuPayload<TailsRequest> {
+
+    final long sinceAddress;
+
+    public TailsRequest(ByteBuf buf) {
+        sinceAddress = ICorfuPayload.fromBuffer(buf, Long.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, sinceAddress);
+    }
+}
@@ -0,0 +1,27 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The responses of the sequencer to a {@link TokenBatchRequest}, in the order of the requests.
+ */
+@Data
+@AllArgsConstructor
+public class TokenBatchResponse implements ICorfuPayload<TokenBatchResponse> {
+
+    private List<TokenResponse> responses;
+
+    public TokenBatchResponse(ByteBuf buf) {
+        responses = ICorfuPayload.listFromBuffer(buf, TokenResponse.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, responses);
+    }
+}
@@ -6,7 +6,6 @@ import io.netty.buffer.ByteBuf;
 
 import java.util.Collections;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 
 import lombok.Getter;
@@ -31,10 +30,10 @@ public class TxResolutionInfo implements ICorfuPayload<TxResolutionInfo> {
     /** A set of poisoned streams, which have a conflict against all updates. */
 
     @Getter
-    final Map<UUID, Set<byte[]>> conflictSet;
+    final Map<UUID, long[]> conflictSet;
 
     @Getter
-    final Map<UUID, Set<byte[]>>  writeConflictParams;
+    final Map<UUID, long[]> writeConflictParams;
 
     /**
      * Constructor for TxResolutionInfo.
@@ -57,8 +56,8 @@ public class TxResolutionInfo implements ICorfuPayload<TxResolutionInfo> {
      * @param conflictMap map of conflict parameters, arranged by stream IDs
      * @param writeConflictParams map of write conflict parameters, arranged by stream IDs
      */
-    public TxResolutionInfo(UUID txId, Token snapshotTimestamp, Map<UUID, Set<byte[]>>
-            conflictMap, Map<UUID, Set<byte[]>> writeConflictParams) {
+    public TxResolutionInfo(UUID txId, Token snapshotTimestamp, Map<UUID, long[]>
+            conflictMap, Map<UUID, long[]> writeConflictParams) {
         this.TXid = txId;
         this.snapshotTimestamp = snapshotTimestamp;
         this.conflictSet = conflictMap;
@@ -70,8 +69,8 @@ public class TxResolutionInfo implements ICorfuPayload<TxResolutionInfo> {
      *
      * <p>The first entry is a long, the snapshot timestamp.
      * The second is an int, the size of the map.
-     * Next, entries are serialized one by one, first the key, then each value,
-     * itself a set of objects.</p>
+     * Next, entries are serialized one by one, first the key, then the number
+     * of fingerprints of the key, followed by the fingerprints.</p>
      *
      * @param buf        The buffer to deserialize.
      */
@@ -81,26 +80,8 @@ public class TxResolutionInfo implements ICorfuPayload<TxResolutionInfo> {
         final long sequence = buf.readLong();
         snapshotTimestamp = new Token(epoch, sequence);
 
-        // conflictSet
-        int numEntries = buf.readInt();
-        ImmutableMap.Builder<UUID, Set<byte[]>> conflictMapBuilder = new ImmutableMap.Builder<>();
-        for (int i = 0; i < numEntries; i++) {
-            UUID k = ICorfuPayload.fromBuffer(buf, UUID.class);
-            Set<byte[]> v = ICorfuPayload.setFromBuffer(buf, byte[].class);
-            conflictMapBuilder.put(k, v);
-        }
-        conflictSet = conflictMapBuilder.build();
-
-        // writeConflictParams
-        numEntries = buf.readInt();
-        ImmutableMap.Builder<UUID, Set<byte[]>> writeMapBuilder = new ImmutableMap.Builder<>();
-        for (int i = 0; i < numEntries; i++) {
-            UUID k = ICorfuPayload.fromBuffer(buf, UUID.class);
-            Set<byte[]> v = ICorfuPayload.setFromBuffer(buf, byte[].class);
-            writeMapBuilder.put(k, v);
-        }
-
-        writeConflictParams = writeMapBuilder.build();
+        conflictSet = fingerprintsFromBuffer(buf);
+        writeConflictParams = fingerprintsFromBuffer(buf);
     }
 
     /**
@@ -114,19 +95,33 @@ public class TxResolutionInfo implements ICorfuPayload<TxResolutionInfo> {
         buf.writeLong(snapshotTimestamp.getEpoch());
         buf.writeLong(snapshotTimestamp.getSequence());
 
-        // conflictSet
-        buf.writeInt(conflictSet.size());
-        conflictSet.entrySet().stream().forEach(x -> {
-            ICorfuPayload.serialize(buf, x.getKey());
-            ICorfuPayload.serialize(buf, x.getValue());
-        });
-
-        // writeConflictParams
-        buf.writeInt(writeConflictParams.size());
-        writeConflictParams.entrySet().stream().forEach(x -> {
-            ICorfuPayload.serialize(buf, x.getKey());
-            ICorfuPayload.serialize(buf, x.getValue());
-        });
+        serializeFingerprints(buf, conflictSet);
+        serializeFingerprints(buf, writeConflictParams);
+    }
+
+    private static Map<UUID, long[]> fingerprintsFromBuffer(ByteBuf buf) {
+        int numEntries = buf.readInt();
+        ImmutableMap.Builder<UUID, long[]> builder = new ImmutableMap.Builder<>();
+        for (int i = 0; i < numEntries; i++) {
+            UUID k = ICorfuPayload.fromBuffer(buf, UUID.class);
+            long[] v = new long[buf.readInt()];
+            for (int j = 0; j < v.length; j++) {
+                v[j] = buf.readLong();
+            }
+            builder.put(k, v);
+        }
+        return builder.build();
+    }
+
+    private static void serializeFingerprints(ByteBuf buf, Map<UUID, long[]> fingerprints) {
+        buf.writeInt(fingerprints.size());
+        for (Map.Entry<UUID, long[]> entry : fingerprints.entrySet()) {
+            ICorfuPayload.serialize(buf, entry.getKey());
+            buf.writeInt(entry.getValue().length);
+            for (long fingerprint : entry.getValue()) {
+                buf.writeLong(fingerprint);
+            }
+        }
     }
 
     @Override
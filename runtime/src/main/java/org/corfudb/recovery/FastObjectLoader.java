@@ -522,6 +522,12 @@ public class FastObjectLoader {
                 break;
             case TRIMMED:
                 break;
+            case COMPACTED:
+                // The checkpoints of all its streams start after it
+                if (logHasNoCheckPoint) {
+                    fail("Address " + address + " is compacted, but the log has no checkpoints");
+                }
+                break;
             case EMPTY:
                 log.warn("applyForEachAddress[address={}] is empty");
                 break;
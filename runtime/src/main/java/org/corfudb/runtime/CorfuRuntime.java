@@ -54,9 +54,11 @@ import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.LayoutManagementView;
 import org.corfudb.runtime.view.LayoutView;
 import org.corfudb.runtime.view.ManagementView;
+import org.corfudb.runtime.view.GroupCommitter;
 import org.corfudb.runtime.view.ObjectsView;
 import org.corfudb.runtime.view.SequencerView;
 import org.corfudb.runtime.view.StreamsView;
+import org.corfudb.runtime.view.replication.AdaptiveHoleFillPolicy;
 import org.corfudb.util.CFUtils;
 import org.corfudb.util.GitRepositoryState;
 import org.corfudb.util.MetricsUtils;
@@ -96,6 +98,14 @@ public class CorfuRuntime {
         @Default
         boolean optimisticUndoDisabled = false;
 
+        /**
+         * True, if the SMR updates of a transaction are written with compact method ids
+         * instead of the method names. Clients which cannot read compact ids fail to read
+         * these updates, so only set this once all the clients sharing the log can.
+         */
+        @Default
+        boolean compactSmrMethodsEnabled = false;
+
         /**
          * Max size for a write request.
          */
@@ -126,6 +136,41 @@ public class CorfuRuntime {
          */
         @Default
         Duration fastLoaderTimeout = Duration.ofMinutes(30);
+
+        /**
+         * The number of threads which commit the transactions ended with
+         * {@link ObjectsView#TXEndAsync()}.
+         */
+        @Default
+        int asyncCommitThreads = 4;
+
+        /**
+         * The maximum number of transactions ended with {@link ObjectsView#TXEndAsync()}
+         * which are not committed yet. Ending another transaction blocks until one completes.
+         */
+        @Default
+        int maxAsyncCommits = 256;
+
+        /**
+         * The number of threads which sync the objects of {@link ObjectsView#syncAll(Object...)}
+         * in parallel, after their entries are read.
+         */
+        @Default
+        int syncThreads = 4;
+
+        /**
+         * True, if the tokens of the transactions committed concurrently are acquired from
+         * the sequencer in batches, by a {@link GroupCommitter}.
+         */
+        @Default
+        boolean groupCommitEnabled = false;
+
+        /**
+         * The maximum number of transactions whose tokens are acquired in a single batch,
+         * when group commit is enabled.
+         */
+        @Default
+        int groupCommitMaxBatchSize = 64;
         // endregion
 
         // region Address Space Parameters
@@ -139,6 +184,19 @@ public class CorfuRuntime {
         /** Time to wait between read requests reattempts before hole filling. */
         @Default Duration holeFillRetryThreshold = Duration.ofSeconds(1L);
 
+        /**
+         * Whether the time to wait before hole filling adapts to the latency of the writes,
+         * instead of always being {@literal requestTimeout}.
+         */
+        @Default
+        boolean adaptiveHoleFillEnabled = false;
+
+        /**
+         * The minimum time to wait before hole filling, when the wait is adaptive.
+         */
+        @Default
+        Duration holeFillMinWait = Duration.ofMillis(100);
+
         /**
          * Whether or not to disable the cache.
          */
@@ -273,6 +331,13 @@ public class CorfuRuntime {
         @Default
         Duration connectionRetryRate = Duration.ofSeconds(1);
 
+        /**
+         * {@link Duration} before retrying a request shed by a busy server. The backoff is
+         * doubled on each retry, up to {@literal connectionRetryRate}.
+         */
+        @Default
+        Duration serverBusyRetryRate = Duration.ofMillis(10);
+
         /**
          * The period at which the runtime will run garbage collection
          */
@@ -479,6 +544,20 @@ public class CorfuRuntime {
     @Getter(lazy = true)
     private final ManagementView managementView = new ManagementView(this);
 
+    /**
+     * Acquires the tokens of the transactions in batches, when group commit is enabled.
+     */
+    @Getter(lazy = true)
+    private final GroupCommitter groupCommitter = new GroupCommitter(this);
+
+    /**
+     * The hole fill policy of the runtime, when hole filling adapts to the write latency.
+     */
+    @Getter(lazy = true)
+    private final AdaptiveHoleFillPolicy adaptiveHoleFillPolicy = new AdaptiveHoleFillPolicy(
+            getParameters().getHoleFillMinWait(), getParameters().getRequestTimeout(),
+            getParameters().getHoleFillRetryThreshold(), getMetrics());
+
     /**
      * A list of known layout servers.
      */
@@ -678,6 +757,11 @@ public class CorfuRuntime {
         // Stopping async task from fetching layout.
         isShutdown = true;
         garbageCollector.stop();
+        getObjectsView().shutdown();
+        getStreamsView().shutdown();
+        if (parameters.isGroupCommitEnabled()) {
+            getGroupCommitter().close();
+        }
         if (layout != null) {
             try {
                 layout.cancel(true);
@@ -803,6 +887,9 @@ public class CorfuRuntime {
         }
         layout = fetchLayout(latestLayout == null
                 ? layoutServers : latestLayout.getLayoutServers());
+
+        // The tail subscriptions don't follow a change of the primary sequencer
+        layout.thenAccept(l -> getStreamsView().onLayoutChange(l));
     }
 
     /**
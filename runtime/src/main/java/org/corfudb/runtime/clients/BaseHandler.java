@@ -14,6 +14,7 @@ import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.ExceptionMsg;
 import org.corfudb.protocols.wireprotocol.JSONPayloadMsg;
 import org.corfudb.protocols.wireprotocol.VersionInfo;
+import org.corfudb.runtime.exceptions.ServerBusyException;
 import org.corfudb.runtime.exceptions.ServerNotReadyException;
 import org.corfudb.runtime.exceptions.ShutdownException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
@@ -129,6 +130,15 @@ public class BaseHandler implements IClient {
         throw new ServerNotReadyException();
     }
 
+    /**
+     * Handle a request shed by an overloaded server.
+     */
+    @ClientHandler(type = CorfuMsgType.ERROR_SERVER_BUSY)
+    private static Object handleServerBusy(CorfuMsg msg, ChannelHandlerContext ctx,
+                                           IClientRouter r) {
+        throw new ServerBusyException();
+    }
+
     /**
      * Generic handler for a server exception.
      */
@@ -20,6 +20,7 @@ import org.corfudb.protocols.wireprotocol.RangeWriteMsg;
 import org.corfudb.protocols.wireprotocol.ReadRequest;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
 import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.protocols.wireprotocol.TailsRequest;
 import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.protocols.wireprotocol.TrimRequest;
 import org.corfudb.protocols.wireprotocol.WriteMode;
@@ -221,6 +222,19 @@ public class LogUnitClient extends AbstractClient {
         return sendMessageWithFuture(CorfuMsgType.TAIL_REQUEST.msg());
     }
 
+    /**
+     * Get the global tail and the tails of the streams that have been written to
+     * after a given address. Log units which predate this request don't know
+     * its message type, {@link #getTail()} has to be used with them.
+     *
+     * @param sinceAddress only stream tails greater than this address are returned
+     * @return A CompletableFuture which will complete with the tails once received.
+     */
+    public CompletableFuture<TailsResponse> getTail(long sinceAddress) {
+        return sendMessageWithFuture(CorfuMsgType.TAIL_SINCE_REQUEST
+                .payloadMsg(new TailsRequest(sinceAddress)));
+    }
+
     /**
      * Get the starting address of a log unit.
      * @return A CompletableFuture for the starting address
@@ -20,18 +20,22 @@ import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.HashedWheelTimer;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nonnull;
@@ -58,7 +62,6 @@ import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterrupte
 import org.corfudb.security.sasl.SaslUtils;
 import org.corfudb.security.sasl.plaintext.PlainTextSaslNettyClient;
 import org.corfudb.security.tls.SslContextConstructor;
-import org.corfudb.util.CFUtils;
 import org.corfudb.util.CorfuComponent;
 import org.corfudb.util.MetricsUtils;
 import org.corfudb.util.NodeLocator;
@@ -75,6 +78,11 @@ import org.corfudb.util.Sleep;
 public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         implements IClientRouter {
 
+    /**
+     * The tick of the timer of the request timeouts (milliseconds).
+     */
+    private static final long TIMEOUT_TICK_MS = 10;
+
     /**
      * New connection timeout (milliseconds).
      */
@@ -115,7 +123,30 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
     /**
      * The outstanding requests on this router.
      */
-    public Map<Long, CompletableFuture> outstandingRequests;
+    final OutstandingRequestTable outstandingRequests = new OutstandingRequestTable();
+
+    /**
+     * The timer of the request timeouts, shared by all the routers. A hashed wheel is much
+     * cheaper than a scheduled future per request, at the cost of a timeout precision of
+     * one tick.
+     */
+    private static final HashedWheelTimer timeoutTimer = new HashedWheelTimer(
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("client-timeout-%d")
+                    .build(),
+            TIMEOUT_TICK_MS, TimeUnit.MILLISECONDS);
+
+    /**
+     * The messages waiting to be written to the channel. The messages sent by all the threads
+     * are written by a single task on the event loop, and flushed once.
+     */
+    private final Queue<CorfuMsg> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a task to write the pending messages is scheduled on the event loop.
+     */
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
 
     /**
      * The currently registered channel.
@@ -186,7 +217,6 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         handlerMap = new ConcurrentHashMap<>();
         clientList = new ArrayList<>();
         requestID = new AtomicLong();
-        outstandingRequests = new ConcurrentHashMap<>();
         shutdown = true;
 
         if (parameters.isTlsEnabled()) {
@@ -319,12 +349,11 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
             // Remove the current completion future, forcing clients to wait for reconnection.
             connectionFuture = new CompletableFuture<>();
             // Exceptionally complete all requests that were waiting for a completion.
-            outstandingRequests.forEach((reqId, reqCompletableFuture) -> {
-                reqCompletableFuture.completeExceptionally(
-                        new NetworkException("Disconnected", node));
-            // And also remove them.
-            outstandingRequests.remove(reqId);
-            });
+            for (OutstandingRequestTable.PendingRequest request
+                    : outstandingRequests.removeAll()) {
+                request.cancelTimeout();
+                request.future.completeExceptionally(new NetworkException("Disconnected", node));
+            }
             // If we aren't shutdown, reconnect.
             if (!shutdown) {
                 Sleep.sleepUninterruptibly(parameters.getConnectionRetryRate());
@@ -438,35 +467,65 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         message.setClientID(parameters.getClientId());
         message.setRequestID(thisRequest);
 
-        // Generate a future and put it in the completion table.
+        // Generate a future and put it in the completion table, then schedule a timeout
+        // which exceptionally completes it if there is no response. The request is in the
+        // table first, so that a timeout firing early finds it.
         final CompletableFuture<T> cf = new CompletableFuture<>();
-        outstandingRequests.put(thisRequest, cf);
+        final OutstandingRequestTable.PendingRequest request =
+                new OutstandingRequestTable.PendingRequest(cf, roundTripMsgContext);
+        outstandingRequests.put(thisRequest, request);
+        request.setTimeout(timeoutTimer.newTimeout(t -> {
+            if (tryCompleteExceptionally(thisRequest, new TimeoutException())) {
+                log.debug("Remove request {} to {} due to timeout! Message:{}",
+                        thisRequest, node, message);
+            }
+        }, timeoutResponse, TimeUnit.MILLISECONDS));
 
         // Write the message out to the channel.
         if (ctx == null) {
-            channel.writeAndFlush(message, channel.voidPromise());
+            write(message);
         } else {
             ctx.writeAndFlush(message, ctx.voidPromise());
         }
         log.trace("Sent message: {}", message);
+        return cf;
+    }
 
-        // Generate a benchmarked future to measure the underlying request
-        final CompletableFuture<T> cfBenchmarked = cf.thenApply(x -> {
-            MetricsUtils.stopConditionalContext(roundTripMsgContext);
-            return x;
-        });
+    /**
+     * Queue a message to be written to the channel. The first message queued schedules a
+     * task on the event loop, which writes all the messages queued until it runs and flushes
+     * the channel once.
+     *
+     * @param message The message to write.
+     */
+    private void write(CorfuMsg message) {
+        pendingWrites.add(message);
+        if (writeScheduled.compareAndSet(false, true)) {
+            final Channel ch = channel;
+            try {
+                ch.eventLoop().execute(() -> writePending(ch));
+            } catch (RejectedExecutionException e) {
+                // Reset before draining, a message queued after the drain is failed by its writer.
+                // The requests of the queued messages fail instead of waiting for their timeout.
+                writeScheduled.set(false);
+                CorfuMsg dropped;
+                while ((dropped = pendingWrites.poll()) != null) {
+                    tryCompleteExceptionally(dropped.getRequestID(),
+                            new NetworkException("Event loop shut down", node));
+                }
+                log.warn("write: event loop of {} is shut down, dropping messages", node);
+            }
+        }
+    }
 
-        // Generate a timeout future, which will complete exceptionally
-        // if the main future is not completed.
-        final CompletableFuture<T> cfTimeout =
-            CFUtils.within(cfBenchmarked, Duration.ofMillis(timeoutResponse));
-        cfTimeout.exceptionally(e -> {
-            outstandingRequests.remove(thisRequest);
-            log.debug("Remove request {} to {} due to timeout! Message:{}",
-                    thisRequest, node, message);
-            return null;
-        });
-        return cfTimeout;
+    private void writePending(Channel ch) {
+        // Reset before draining, so that a message queued after the drain schedules a new task
+        writeScheduled.set(false);
+        CorfuMsg message;
+        while ((message = pendingWrites.poll()) != null) {
+            ch.write(message, ch.voidPromise());
+        }
+        ch.flush();
     }
 
     /**
@@ -482,7 +541,7 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         message.setClientID(parameters.getClientId());
         message.setRequestID(thisRequest);
         // Write this message out on the channel.
-        channel.writeAndFlush(message, channel.voidPromise());
+        write(message);
         log.trace("Sent one-way message: {}", message);
     }
 
@@ -508,10 +567,11 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      * @param <T>        The type of the completion.
      */
     public <T> void completeRequest(long requestId, T completion) {
-        CompletableFuture<T> cf;
-        if ((cf = (CompletableFuture<T>) outstandingRequests.get(requestId)) != null) {
-            cf.complete(completion);
-            outstandingRequests.remove(requestId);
+        OutstandingRequestTable.PendingRequest request = outstandingRequests.remove(requestId);
+        if (request != null) {
+            request.cancelTimeout();
+            MetricsUtils.stopConditionalContext(request.roundTripContext);
+            ((CompletableFuture<T>) request.future).complete(completion);
         } else {
             log.warn("Attempted to complete request {}, but request not outstanding!", requestId);
         }
@@ -524,16 +584,22 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      * @param cause     The cause to give for the exceptional completion.
      */
     public void completeExceptionally(long requestID, Throwable cause) {
-        CompletableFuture cf;
-        if ((cf = outstandingRequests.get(requestID)) != null) {
-            cf.completeExceptionally(cause);
-            outstandingRequests.remove(requestID);
-        } else {
+        if (!tryCompleteExceptionally(requestID, cause)) {
             log.warn("Attempted to exceptionally complete request {}, but request not outstanding!",
                 requestID);
         }
     }
 
+    private boolean tryCompleteExceptionally(long requestId, Throwable cause) {
+        OutstandingRequestTable.PendingRequest request = outstandingRequests.remove(requestId);
+        if (request == null) {
+            return false;
+        }
+        request.cancelTimeout();
+        request.future.completeExceptionally(cause);
+        return true;
+    }
+
     /**
      * Validate the clientID of a CorfuMsg.
      *
@@ -0,0 +1,127 @@
+package org.corfudb.runtime.clients;
+
+import com.codahale.metrics.Timer;
+
+import io.netty.util.Timeout;
+import io.netty.util.collection.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The requests of a router which are waiting for a response, keyed by their request id.
+ *
+ * <p>The table is split in stripes of primitive keyed maps, each guarded by its own lock.
+ * The request ids are sequential, so consecutive requests land on different stripes, and
+ * the keys are never boxed.
+ */
+class OutstandingRequestTable {
+
+    private static final int STRIPES = 16;
+
+    private final LongObjectHashMap<PendingRequest>[] stripes;
+
+    /**
+     * A request waiting for its response.
+     */
+    @RequiredArgsConstructor
+    static class PendingRequest {
+        /** The future completed by the response. */
+        final CompletableFuture future;
+
+        /** The round trip timer of the request, or null if metrics are disabled. */
+        @Nullable
+        final Timer.Context roundTripContext;
+
+        /** The timeout of the request, set once the request is in the table. */
+        @Nullable
+        private volatile Timeout timeout;
+
+        /**
+         * Set the timeout of the request, which is cancelled right away if the request
+         * completed before its timeout was scheduled.
+         *
+         * @param timeout the timeout of the request
+         */
+        void setTimeout(Timeout timeout) {
+            this.timeout = timeout;
+            if (future.isDone()) {
+                timeout.cancel();
+            }
+        }
+
+        /**
+         * Cancel the timeout of the request, if it is scheduled.
+         */
+        void cancelTimeout() {
+            Timeout t = timeout;
+            if (t != null) {
+                t.cancel();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    OutstandingRequestTable() {
+        stripes = new LongObjectHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LongObjectHashMap<>();
+        }
+    }
+
+    private LongObjectHashMap<PendingRequest> getStripe(long requestId) {
+        return stripes[(int) (requestId & (STRIPES - 1))];
+    }
+
+    void put(long requestId, PendingRequest request) {
+        LongObjectHashMap<PendingRequest> stripe = getStripe(requestId);
+        synchronized (stripe) {
+            stripe.put(requestId, request);
+        }
+    }
+
+    /**
+     * Remove a request, which can then be completed by the caller.
+     *
+     * @param requestId the request id
+     * @return the request, or null if it is not outstanding anymore
+     */
+    @Nullable
+    PendingRequest remove(long requestId) {
+        LongObjectHashMap<PendingRequest> stripe = getStripe(requestId);
+        synchronized (stripe) {
+            return stripe.remove(requestId);
+        }
+    }
+
+    /**
+     * Remove all the outstanding requests.
+     *
+     * @return the removed requests
+     */
+    List<PendingRequest> removeAll() {
+        List<PendingRequest> requests = new ArrayList<>();
+        for (LongObjectHashMap<PendingRequest> stripe : stripes) {
+            synchronized (stripe) {
+                requests.addAll(stripe.values());
+                stripe.clear();
+            }
+        }
+        return requests;
+    }
+
+    int size() {
+        int size = 0;
+        for (LongObjectHashMap<PendingRequest> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+}
@@ -2,12 +2,16 @@ package org.corfudb.runtime.clients;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
+import org.corfudb.protocols.wireprotocol.ConflictHotSpotsResponse;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics;
 import org.corfudb.protocols.wireprotocol.SequencerTailsRecoveryMsg;
+import org.corfudb.protocols.wireprotocol.TailSubscriptionRequest;
+import org.corfudb.protocols.wireprotocol.TokenBatchRequest;
 import org.corfudb.protocols.wireprotocol.TokenRequest;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
@@ -33,6 +37,17 @@ public class SequencerClient extends AbstractClient {
         return sendMessageWithFuture(CorfuMsgType.SEQUENCER_METRICS_REQUEST.msg());
     }
 
+    /**
+     * Requests the conflict parameters which made the most transactions abort at the sequencer,
+     * and the number of transactions aborted for each reason.
+     *
+     * @param limit The maximal number of hot spots to return.
+     * @return A completable future with the hot spots, by decreasing number of aborts.
+     */
+    public CompletableFuture<ConflictHotSpotsResponse> getConflictHotSpots(int limit) {
+        return sendMessageWithFuture(CorfuMsgType.CONFLICT_HOT_SPOTS_REQUEST.payloadMsg(limit));
+    }
+
     /**
      * Fetches the next available token from the sequencer.
      *
@@ -59,6 +74,31 @@ public class SequencerClient extends AbstractClient {
                 new TokenRequest(numTokens, streamIDs, conflictInfo)));
     }
 
+    /**
+     * Sends several token requests to the sequencer in a single message. The sequencer serves
+     * them in order, as if they had been sent one after the other.
+     *
+     * @param requests The token requests.
+     * @return A completable future with the token responses, in the order of the requests.
+     */
+    public CompletableFuture<List<TokenResponse>> nextTokens(List<TokenRequest> requests) {
+        return sendMessageWithFuture(CorfuMsgType.TOKEN_BATCH_REQ.payloadMsg(
+                new TokenBatchRequest(requests)));
+    }
+
+    /**
+     * Subscribes to the tail advances of a set of streams, which the sequencer pushes to the
+     * tail listeners of the {@link SequencerHandler}. The subscription replaces the previous
+     * one on this connection, and lasts until the connection is closed.
+     *
+     * @param streamIDs The streams to subscribe to, or an empty set to unsubscribe.
+     * @return A completable future which completes once subscribed.
+     */
+    public CompletableFuture<Boolean> subscribeTails(Set<UUID> streamIDs) {
+        return sendMessageWithFuture(CorfuMsgType.TAIL_SUBSCRIPTION_REQUEST.payloadMsg(
+                new TailSubscriptionRequest(streamIDs)));
+    }
+
     public CompletableFuture<Void> trimCache(Long address) {
         return sendMessageWithFuture(CorfuMsgType.SEQUENCER_TRIM_REQ.payloadMsg(address));
     }
@@ -3,22 +3,33 @@ package org.corfudb.runtime.clients;
 import io.netty.channel.ChannelHandlerContext;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
+import org.corfudb.protocols.wireprotocol.ConflictHotSpotsResponse;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics;
+import org.corfudb.protocols.wireprotocol.StreamTailsNotification;
+import org.corfudb.protocols.wireprotocol.TokenBatchResponse;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 
 
 /**
  * A sequencer handler client.
- * This client handles the token responses from the sequencer server.
+ * This client handles the token responses from the sequencer server, and hands the
+ * stream tail advances pushed by the sequencer to the tail listeners.
  *
  * <p>Created by zlokhandwala on 2/20/18.
  */
+@Slf4j
 public class SequencerHandler implements IClient, IHandler<SequencerClient> {
 
 
@@ -26,6 +37,11 @@ public class SequencerHandler implements IClient, IHandler<SequencerClient> {
     @Getter
     IClientRouter router;
 
+    /**
+     * The listeners of the stream tail advances pushed by the sequencer.
+     */
+    private final Set<Consumer<Map<UUID, Long>>> tailListeners = ConcurrentHashMap.newKeySet();
+
     @Override
     public SequencerClient getClient(long epoch) {
         return new SequencerClient(router, epoch);
@@ -44,9 +60,57 @@ public class SequencerHandler implements IClient, IHandler<SequencerClient> {
         return msg.getPayload();
     }
 
+    @ClientHandler(type = CorfuMsgType.CONFLICT_HOT_SPOTS_RESPONSE)
+    private static Object handleConflictHotSpotsResponse(
+            CorfuPayloadMsg<ConflictHotSpotsResponse> msg, ChannelHandlerContext ctx,
+            IClientRouter r) {
+        return msg.getPayload();
+    }
+
     @ClientHandler(type = CorfuMsgType.TOKEN_RES)
     private static Object handleTokenResponse(CorfuPayloadMsg<TokenResponse> msg,
                                               ChannelHandlerContext ctx, IClientRouter r) {
         return msg.getPayload();
     }
+
+    @ClientHandler(type = CorfuMsgType.TOKEN_BATCH_RES)
+    private static Object handleTokenBatchResponse(CorfuPayloadMsg<TokenBatchResponse> msg,
+                                                   ChannelHandlerContext ctx, IClientRouter r) {
+        return msg.getPayload().getResponses();
+    }
+
+    @ClientHandler(type = CorfuMsgType.STREAM_TAILS_NOTIFICATION)
+    private Object handleStreamTailsNotification(CorfuPayloadMsg<StreamTailsNotification> msg,
+                                                 ChannelHandlerContext ctx, IClientRouter r) {
+        Map<UUID, Long> streamTails = msg.getPayload().getStreamTails();
+        for (Consumer<Map<UUID, Long>> listener : tailListeners) {
+            try {
+                listener.accept(streamTails);
+            } catch (RuntimeException e) {
+                log.error("handleStreamTailsNotification: listener failed", e);
+            }
+        }
+        // A notification doesn't complete any request
+        return null;
+    }
+
+    /**
+     * Add a listener of the stream tail advances pushed by the sequencer, once subscribed
+     * with {@link SequencerClient#subscribeTails(Set)}.
+     *
+     * @param listener the listener, which receives the latest tail of the streams which
+     *                 advanced
+     */
+    public void addTailListener(Consumer<Map<UUID, Long>> listener) {
+        tailListeners.add(listener);
+    }
+
+    /**
+     * Remove a listener of the stream tail advances.
+     *
+     * @param listener the listener
+     */
+    public void removeTailListener(Consumer<Map<UUID, Long>> listener) {
+        tailListeners.remove(listener);
+    }
 }
@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
 
+import java.nio.ByteBuffer;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,9 +29,13 @@ import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import net.openhft.hashing.LongHashFunction;
+
 import org.corfudb.annotations.Accessor;
 import org.corfudb.annotations.ConflictParameter;
 import org.corfudb.annotations.CorfuObject;
@@ -38,7 +43,9 @@ import org.corfudb.annotations.DontInstrument;
 import org.corfudb.annotations.Mutator;
 import org.corfudb.annotations.MutatorAccessor;
 import org.corfudb.annotations.TransactionalMethod;
+import org.corfudb.runtime.object.transactions.TransactionalContext;
 import org.corfudb.util.ImmuableListSetWrapper;
+import org.corfudb.util.serializer.ICorfuHashable;
 
 /** The CorfuTable implements a simple key-value store.
  *
@@ -150,6 +157,52 @@ public class CorfuTable<K ,V> implements ICorfuMap<K, V> {
         }
     }
 
+    /**
+     * The conflict parameter of a secondary index value.
+     *
+     * <p>A transaction which looks up an index value conflicts on it, and on the primary keys
+     * of the records it found. A write conflicts on the index values of the value it writes, and
+     * on its primary key. So the lookup conflicts with the writes which map a record to the
+     * index value, and with the writes and removes of the records it found, but not with the
+     * writes of the other records of the table.
+     */
+    @EqualsAndHashCode
+    @ToString
+    static class IndexConflict implements ICorfuHashable {
+        private final String indexName;
+        private final Comparable<?> indexKey;
+
+        IndexConflict(String indexName, Comparable<?> indexKey) {
+            this.indexName = indexName;
+            this.indexKey = indexKey;
+        }
+
+        /**
+         * The hash of the index value must be the same on every client: strings and enums are
+         * hashed by value, and other index values must have a value-based hash code.
+         */
+        @Override
+        public byte[] generateCorfuHash() {
+            final long keyHash;
+            if (indexKey == null) {
+                keyHash = 0L;
+            } else if (indexKey instanceof String) {
+                keyHash = LongHashFunction.xx().hashChars((String) indexKey);
+            } else if (indexKey instanceof Enum) {
+                keyHash = LongHashFunction.xx().hashChars(((Enum<?>) indexKey).name());
+            } else if (indexKey instanceof ICorfuHashable) {
+                keyHash = LongHashFunction.xx()
+                        .hashBytes(((ICorfuHashable) indexKey).generateCorfuHash());
+            } else {
+                keyHash = indexKey.hashCode();
+            }
+            return ByteBuffer.allocate(Long.BYTES * 2)
+                    .putLong(LongHashFunction.xx().hashChars(indexName))
+                    .putLong(keyHash)
+                    .array();
+        }
+    }
+
     /**
      * Registry hosting of a collection of {@link CorfuTable.Index}.
      *
@@ -341,7 +394,7 @@ public class CorfuTable<K ,V> implements ICorfuMap<K, V> {
      * @return A collection of Map.Entry<K, V>
      */
     @SuppressWarnings("unchecked")
-    @Accessor
+    @Accessor(conflictParameterFunction = "getByIndexConflictFunction")
     public @Nonnull
     <I extends Comparable<I>>
     Collection<Entry<K, V>> getByIndex(@Nonnull IndexName indexName, I indexKey) {
@@ -370,7 +423,7 @@ public class CorfuTable<K ,V> implements ICorfuMap<K, V> {
      * @param indexKey       A collection of Map.Entry<K, V>
      * @return
      */
-    @Accessor
+    @Accessor(conflictParameterFunction = "getByIndexAndFilterConflictFunction")
     public @Nonnull
     <I extends Comparable<I>>
     Collection<Map.Entry<K, V>> getByIndexAndFilter(@Nonnull IndexName indexName,
@@ -399,7 +452,8 @@ public class CorfuTable<K ,V> implements ICorfuMap<K, V> {
 
     /** {@inheritDoc} */
     @Override
-    @MutatorAccessor(name = "put", undoFunction = "undoPut", undoRecordFunction = "undoPutRecord")
+    @MutatorAccessor(name = "put", undoFunction = "undoPut", undoRecordFunction = "undoPutRecord",
+            conflictParameterFunction = "putConflictFunction")
     public V put(@ConflictParameter K key, V value) {
         V previous = mainMap.put(key, value);
         // If we have index functions, update the secondary indexes.
@@ -423,9 +477,96 @@ public class CorfuTable<K ,V> implements ICorfuMap<K, V> {
 
     @DontInstrument
     Object[] putAllConflictFunction(Map<? extends K, ? extends V> m) {
-        return m.keySet().stream()
-                .map(Object::hashCode)
-                .toArray(Object[]::new);
+        List<Object> conflicts = new ArrayList<>();
+        m.forEach((k, v) -> {
+            conflicts.add(k);
+            addIndexConflicts(conflicts, k, v);
+        });
+        return conflicts.toArray();
+    }
+
+    /** Generate the conflict parameters of a put: its key, and the index values of
+     * the value it puts.
+     */
+    @DontInstrument
+    Object[] putConflictFunction(K key, V value) {
+        if (indexSpec.isEmpty()) {
+            return new Object[]{key};
+        }
+        List<Object> conflicts = new ArrayList<>();
+        conflicts.add(key);
+        addIndexConflicts(conflicts, key, value);
+        return conflicts.toArray();
+    }
+
+    /** Add the conflict parameters of the index values of a record.
+     *
+     * @param conflicts     The conflict parameters to add to.
+     * @param key           The key of the record.
+     * @param value         The value of the record.
+     */
+    @DontInstrument
+    @SuppressWarnings("unchecked")
+    void addIndexConflicts(List<Object> conflicts, K key, V value) {
+        if (value == null) {
+            return;
+        }
+        try {
+            for (Index<K, V, ? extends Comparable> index : indexSpec) {
+                for (Comparable<?> indexKey : index.getMultiValueIndexFunction().apply(key, value)) {
+                    conflicts.add(new IndexConflict(index.getName().get(), indexKey));
+                }
+            }
+        } catch (Exception e) {
+            // The index generation fails the same way when the put is applied,
+            // which disables the indexes.
+            log.warn("addIndexConflicts: Exception indexing {}, {}", key, value, e);
+        }
+    }
+
+    /** Generate the conflict parameters of an index lookup: the index value, and, in a
+     * transaction, the keys of the records mapped to it.
+     */
+    @DontInstrument
+    <I extends Comparable<I>> Object[] getByIndexConflictFunction(@Nonnull IndexName indexName,
+                                                                  I indexKey) {
+        IndexConflict indexConflict = new IndexConflict(indexName.get(), indexKey);
+        if (!TransactionalContext.isInTransaction()) {
+            return new Object[]{indexConflict};
+        }
+        // This is called on the proxied table, so the keys are read at the
+        // snapshot of the transaction, as the lookup will be.
+        Set<K> keys = getIndexedKeys(indexName, indexKey);
+        Object[] conflicts = new Object[keys.size() + 1];
+        conflicts[0] = indexConflict;
+        int i = 1;
+        for (K key : keys) {
+            conflicts[i++] = key;
+        }
+        return conflicts;
+    }
+
+    /** Generate the conflict parameters of an index lookup with a filter, which are
+     * those of the lookup.
+     */
+    @DontInstrument
+    <I extends Comparable<I>> Object[] getByIndexAndFilterConflictFunction(
+            @Nonnull IndexName indexName, @Nonnull Predicate<? super Entry<K, V>> entryPredicate,
+            I indexKey) {
+        return getByIndexConflictFunction(indexName, indexKey);
+    }
+
+    /** Get the keys of the records mapped to an index value.
+     *
+     * @param indexName     The name of the secondary index.
+     * @param indexKey      The index value.
+     * @return              The keys of the records mapped to the index value.
+     */
+    @Accessor
+    protected Set<K> getIndexedKeys(@Nonnull IndexName indexName, Comparable<?> indexKey) {
+        Map<Comparable, Map<K, V>> secondaryMap = secondaryIndexes.get(indexName.get());
+        Map<K, V> slot = secondaryMap == null ? null : secondaryMap.get(indexKey);
+        return slot == null ? Collections.emptySet() : new HashSet<>(slot.keySet());
     }
 
     enum UndoNullable {
@@ -473,8 +614,8 @@ public class CorfuTable<K ,V> implements ICorfuMap<K, V> {
 
     /** {@inheritDoc} */
     @Override
-    @Mutator(name = "put", noUpcall = true)
-    public void insert(@ConflictParameter K key, V value) {
+    @Mutator(name = "put", noUpcall = true, conflictParameterFunction = "putConflictFunction")
+    public void insert(K key, V value) {
         V previous = mainMap.put(key, value);
         // If we have index functions, update the secondary indexes.
         if (!secondaryIndexes.isEmpty()) {
@@ -1,11 +1,15 @@
 package org.corfudb.runtime.collections;
 
+import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.zip.CRC32;
@@ -15,7 +19,12 @@ import org.corfudb.annotations.CorfuObject;
 import org.corfudb.annotations.ObjectType;
 import org.corfudb.annotations.PassThrough;
 import org.corfudb.annotations.TransactionalMethod;
+import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.runtime.object.AbstractCorfuWrapper;
+import org.corfudb.runtime.object.transactions.TransactionType;
+import org.corfudb.runtime.object.transactions.TransactionalContext;
+import org.corfudb.runtime.view.ObjectBuilder;
+import org.corfudb.runtime.view.ObjectsView;
 import sun.misc.CRC16;
 
 /**
@@ -98,6 +107,46 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
                 .collect(Collectors.toSet());
     }
 
+    @PassThrough
+    ObjectsView getObjectsView() {
+        return ((ObjectBuilder<?>) getBuilder()).getRuntime().getObjectsView();
+    }
+
+    /**
+     * Scan all the partitions at a single snapshot.
+     *
+     * <p>The partitions are synced together first, instead of one at a time by the scan: their
+     * tails are queried in a single request, their entries are read in batches, and they are
+     * synced in parallel by the sync threads of the runtime. The scan then runs in a snapshot
+     * transaction at the snapshot they were synced to. Inside a transaction, the entries of the
+     * partitions are only prefetched, and the scan runs in the transaction.
+     *
+     * @param scan the scan of the partitions
+     * @param <R>  the type of the result of the scan
+     * @return the result of the scan
+     * @see ObjectsView#syncAll(Object...)
+     */
+    @PassThrough
+    <R> R scanPartitions(Function<List<Map<K, V>>, R> scan) {
+        List<Map<K, V>> partitions = getAllPartitionMaps();
+        ObjectsView objectsView = getObjectsView();
+        Token snapshot = objectsView.syncAll(partitions.toArray());
+        if (TransactionalContext.isInTransaction()) {
+            return scan.apply(partitions);
+        }
+
+        objectsView.TXBuild()
+                .type(TransactionType.SNAPSHOT)
+                .snapshot(snapshot)
+                .build()
+                .begin();
+        try {
+            return scan.apply(partitions);
+        } finally {
+            objectsView.TXEnd();
+        }
+    }
+
     /**
      * Returns the number of key-value mappings in this map.  If the
      * map contains more than <tt>Integer.MAX_VALUE</tt> elements, returns
@@ -106,11 +155,11 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
      * @return the number of key-value mappings in this map
      */
     @Override
-    @TransactionalMethod(readOnly = true)
+    @PassThrough
     public int size() {
-        return getAllPartitionMaps().stream()
+        return scanPartitions(partitions -> partitions.stream()
                 .mapToInt(Map::size)
-                .sum();
+                .sum());
     }
 
     /**
@@ -119,10 +168,10 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
      * @return <tt>true</tt> if this map contains no key-value mappings
      */
     @Override
-    @TransactionalMethod(readOnly = true)
+    @PassThrough
     public boolean isEmpty() {
-        return getAllPartitionMaps().stream()
-                .allMatch(Map::isEmpty);
+        return scanPartitions(partitions -> partitions.stream()
+                .allMatch(Map::isEmpty));
     }
 
     /**
@@ -166,10 +215,10 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
      *                              (<a href="{@docRoot}/java/util/Collection.html#optional-restrictions">optional</a>)
      */
     @Override
-    @TransactionalMethod(readOnly = true)
+    @PassThrough
     public boolean containsValue(Object value) {
-        return getAllPartitionMaps().stream()
-                .anyMatch(x -> x.containsValue(value));
+        return scanPartitions(partitions -> partitions.stream()
+                .anyMatch(x -> x.containsValue(value)));
     }
 
     /**
@@ -276,6 +325,10 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
      * specified map.  The behavior of this operation is undefined if the
      * specified map is modified while the operation is in progress.
      *
+     * <p>The mappings are grouped by partition, and each partition is updated with a
+     * single putAll, which does not read the partition. The transaction of this
+     * operation then acquires a single token for all the partitions it updates.
+     *
      * @param m mappings to be stored in this map
      * @throws UnsupportedOperationException if the <tt>putAll</tt> operation
      *                                       is not supported by this map
@@ -290,8 +343,12 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
     @Override
     @TransactionalMethod(modifiedStreamsFunction = "putAllGetStreams")
     public void putAll(Map<? extends K, ? extends V> m) {
-        m.entrySet().stream()
-                .forEach(e -> getPartition(e.getKey()).put(e.getKey(), e.getValue()));
+        Map<Integer, Map<K, V>> partitionUpdates = new HashMap<>();
+        m.forEach((k, v) -> partitionUpdates
+                .computeIfAbsent(getPartitionNumber(k), p -> new HashMap<>())
+                .put(k, v));
+        partitionUpdates.forEach((partition, updates) ->
+                getPartitionMap(partition).putAll(updates));
     }
 
     /**
@@ -338,12 +395,19 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
      * @return a set view of the keys contained in this map
      */
     @Override
-    @TransactionalMethod(readOnly = true)
+    @PassThrough
     public Set<K> keySet() {
-        return getAllPartitionMaps().stream()
-                .map(Map::keySet)
-                .flatMap(Set::stream)
-                .collect(Collectors.toSet());
+        return scanPartitions(partitions -> {
+            // The partitions are disjoint, so the set is sized for all the keys up front
+            List<Set<K>> keySets = partitions.stream()
+                    .map(Map::keySet)
+                    .collect(Collectors.toList());
+            Set<K> keys = Sets.newHashSetWithExpectedSize(keySets.stream()
+                    .mapToInt(Set::size)
+                    .sum());
+            keySets.forEach(keys::addAll);
+            return keys;
+        });
     }
 
     /**
@@ -362,12 +426,18 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
      * @return a collection view of the values contained in this map
      */
     @Override
-    @TransactionalMethod(readOnly = true)
+    @PassThrough
     public Collection<V> values() {
-        return getAllPartitionMaps().stream()
-                .map(Map::values)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        return scanPartitions(partitions -> {
+            List<Collection<V>> partitionValues = partitions.stream()
+                    .map(Map::values)
+                    .collect(Collectors.toList());
+            List<V> values = new ArrayList<>(partitionValues.stream()
+                    .mapToInt(Collection::size)
+                    .sum());
+            partitionValues.forEach(values::addAll);
+            return values;
+        });
     }
 
     /**
@@ -387,11 +457,17 @@ public class FGMap<K, V> extends AbstractCorfuWrapper<FGMap<K,V>> implements Map
      * @return a set view of the mappings contained in this map
      */
     @Override
-    @TransactionalMethod(readOnly = true)
+    @PassThrough
     public Set<Entry<K, V>> entrySet() {
-        return getAllPartitionMaps().stream()
-                .map(Map::entrySet)
-                .flatMap(Set::stream)
-                .collect(Collectors.toSet());
+        return scanPartitions(partitions -> {
+            List<Set<Entry<K, V>>> entrySets = partitions.stream()
+                    .map(Map::entrySet)
+                    .collect(Collectors.toList());
+            Set<Entry<K, V>> entries = Sets.newHashSetWithExpectedSize(entrySets.stream()
+                    .mapToInt(Set::size)
+                    .sum());
+            entrySets.forEach(entries::addAll);
+            return entries;
+        });
     }
 }
@@ -0,0 +1,11 @@
+package org.corfudb.runtime.exceptions;
+
+/**
+ * Thrown when a server sheds a request because it is overloaded. The request was not
+ * handled, and can be retried after a backoff.
+ */
+public class ServerBusyException extends RuntimeException {
+
+    public ServerBusyException() {
+    }
+}
@@ -0,0 +1,196 @@
+package org.corfudb.runtime.object;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import lombok.Getter;
+import net.openhft.hashing.LongHashFunction;
+import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.util.serializer.ISerializer;
+
+/**
+ * The SMR methods of an object, indexed by their compact method id.
+ *
+ * <p>The ids are the positions of the method names in the sorted list of names generated by
+ * the annotation processor, so they are stable as long as the set of SMR methods of the
+ * object does not change. An id is a short, the updates of a {@link
+ * org.corfudb.protocols.logprotocol.MultiSMREntry} carry the 64-bit fingerprint of the
+ * method table once for all of them. Ids are only trusted if that fingerprint matches the
+ * fingerprint of this table, otherwise the entries are rejected.
+ *
+ * <p>Compact ids are only written when they are enabled. Entries that only carry the method
+ * name (the default, single updates, and always for the checkpoint writer) are looked up by
+ * name.
+ *
+ * @param <T> The type of the underlying object.
+ */
+public class SMRMethodTable<T> {
+
+    /**
+     * The method names, indexed by method id.
+     */
+    private final String[] names;
+
+    /**
+     * The fingerprint of the method names, in method id order.
+     */
+    @Getter
+    private final long fingerprint;
+
+    /**
+     * The method ids, keyed by method name.
+     */
+    private final Map<String, Integer> ids;
+
+    /**
+     * The upcalls, indexed by method id.
+     */
+    private final ICorfuSMRUpcallTarget<T>[] upcalls;
+
+    /**
+     * The undo record functions, indexed by method id.
+     */
+    private final IUndoRecordFunction<T>[] undoRecordFunctions;
+
+    /**
+     * The undo functions, indexed by method id.
+     */
+    private final IUndoFunction<T>[] undoFunctions;
+
+    /**
+     * Whether the method resets the object, indexed by method id.
+     */
+    private final boolean[] resets;
+
+    /**
+     * True, if updates are written with their compact method id. False if compact ids are
+     * not enabled, or if the object has too many methods for a short id.
+     */
+    @Getter
+    private final boolean compact;
+
+    /**
+     * Build the method table of an object.
+     *
+     * @param methodNames       Method names generated by the annotation processor.
+     * @param upcallTargets     UpCall map for this object.
+     * @param undoRecordTargets Undo record function map for this object.
+     * @param undoTargets       Undo functions map.
+     * @param resetSet          Reset set for this object.
+     * @param compactEnabled    True, if updates should be written with the compact id.
+     */
+    @SuppressWarnings("unchecked")
+    public SMRMethodTable(String[] methodNames,
+                          Map<String, ICorfuSMRUpcallTarget<T>> upcallTargets,
+                          Map<String, IUndoRecordFunction<T>> undoRecordTargets,
+                          Map<String, IUndoFunction<T>> undoTargets,
+                          Set<String> resetSet,
+                          boolean compactEnabled) {
+        // The generated names already cover the maps, this only protects hand written objects.
+        Set<String> allNames = new TreeSet<>(Arrays.asList(methodNames));
+        allNames.addAll(upcallTargets.keySet());
+        allNames.addAll(undoRecordTargets.keySet());
+        allNames.addAll(undoTargets.keySet());
+        allNames.addAll(resetSet);
+
+        names = allNames.toArray(new String[0]);
+        fingerprint = LongHashFunction.xx().hashChars(String.join("\0", names));
+        ids = new HashMap<>();
+        upcalls = new ICorfuSMRUpcallTarget[names.length];
+        undoRecordFunctions = new IUndoRecordFunction[names.length];
+        undoFunctions = new IUndoFunction[names.length];
+        resets = new boolean[names.length];
+
+        for (int id = 0; id < names.length; id++) {
+            String name = names[id];
+            ids.put(name, id);
+            upcalls[id] = upcallTargets.get(name);
+            undoRecordFunctions[id] = undoRecordTargets.get(name);
+            undoFunctions[id] = undoTargets.get(name);
+            resets[id] = resetSet.contains(name);
+        }
+        SMREntry.registerMethodTable(fingerprint, names);
+
+        compact = compactEnabled && names.length < Short.MAX_VALUE;
+    }
+
+    /**
+     * Create an entry for an update to this object, with the compact id of the method
+     * if it is known.
+     *
+     * @param smrMethod  The name of the SMR method.
+     * @param args       The arguments to the SMR method.
+     * @param serializer The serializer used to serialize the arguments.
+     * @return The SMR entry.
+     */
+    public SMREntry newEntry(String smrMethod, Object[] args, ISerializer serializer) {
+        Integer id = compact ? ids.get(smrMethod) : null;
+        return id == null ? new SMREntry(smrMethod, args, serializer)
+                : new SMREntry(smrMethod, id, fingerprint, args, serializer);
+    }
+
+    /**
+     * Get the id of the method of an entry in this table, and name the entry after it.
+     *
+     * @param entry The SMR entry.
+     * @return The method id, or {@link SMREntry#NO_METHOD_ID} if the method is unknown.
+     */
+    public int getMethodId(SMREntry entry) {
+        int id = entry.getMethodId();
+        if (id == SMREntry.NO_METHOD_ID) {
+            Integer namedId = ids.get(entry.getSMRMethod());
+            return namedId == null ? SMREntry.NO_METHOD_ID : namedId;
+        }
+
+        if (entry.getMethodTableFingerprint() != fingerprint || id >= names.length) {
+            // The entry was written with a different method table, its id can't be trusted.
+            return SMREntry.NO_METHOD_ID;
+        }
+
+        entry.resolveMethod(names[id]);
+        return id;
+    }
+
+    /**
+     * Get the upcall of a method.
+     *
+     * @param id The method id.
+     * @return The upcall, or null if the method is unknown or has no upcall.
+     */
+    public ICorfuSMRUpcallTarget<T> getUpcall(int id) {
+        return id == SMREntry.NO_METHOD_ID ? null : upcalls[id];
+    }
+
+    /**
+     * Get the undo record function of a method.
+     *
+     * @param id The method id.
+     * @return The undo record function, or null if there is none.
+     */
+    public IUndoRecordFunction<T> getUndoRecordFunction(int id) {
+        return id == SMREntry.NO_METHOD_ID ? null : undoRecordFunctions[id];
+    }
+
+    /**
+     * Get the undo function of a method.
+     *
+     * @param id The method id.
+     * @return The undo function, or null if there is none.
+     */
+    public IUndoFunction<T> getUndoFunction(int id) {
+        return id == SMREntry.NO_METHOD_ID ? null : undoFunctions[id];
+    }
+
+    /**
+     * Whether a method resets the object.
+     *
+     * @param id The method id.
+     * @return True, if the method resets the object.
+     */
+    public boolean isReset(int id) {
+        return id != SMREntry.NO_METHOD_ID && resets[id];
+    }
+}
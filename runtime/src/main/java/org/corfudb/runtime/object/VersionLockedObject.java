@@ -88,24 +88,9 @@ public class VersionLockedObject<T> {
     private WriteSetSMRStream optimisticStream;
 
     /**
-     * The upcall map for this object.
+     * The SMR methods of this object, indexed by method id.
      */
-    private final Map<String, ICorfuSMRUpcallTarget<T>> upcallTargetMap;
-
-    /**
-     * The undo record function map for this object.
-     */
-    private final Map<String, IUndoRecordFunction<T>> undoRecordFunctionMap;
-
-    /**
-     * The undo target map for this object.
-     */
-    private final Map<String, IUndoFunction<T>> undoFunctionMap;
-
-    /**
-     * The reset set for this object.
-     */
-    private final Set<String> resetSet;
+    private final SMRMethodTable<T> methodTable;
 
     /**
      * A function that generates a new instance of this object.
@@ -123,23 +108,14 @@ public class VersionLockedObject<T> {
      *
      * @param newObjectFn       A function passed to instantiate a new instance of this object.
      * @param smrStream         Stream View backing this object.
-     * @param upcallTargets     UpCall map for this object.
-     * @param undoRecordTargets Undo record function map for this object.
-     * @param undoTargets       Undo functions map.
-     * @param resetSet          Reset set for this object.
+     * @param methodTable       SMR methods of this object.
      */
     public VersionLockedObject(Supplier<T> newObjectFn,
                                StreamViewSMRAdapter smrStream,
-                               Map<String, ICorfuSMRUpcallTarget<T>> upcallTargets,
-                               Map<String, IUndoRecordFunction<T>> undoRecordTargets,
-                               Map<String, IUndoFunction<T>> undoTargets,
-                               Set<String> resetSet) {
+                               SMRMethodTable<T> methodTable) {
         this.smrStream = smrStream;
 
-        this.upcallTargetMap = upcallTargets;
-        this.undoRecordFunctionMap = undoRecordTargets;
-        this.undoFunctionMap = undoTargets;
-        this.resetSet = resetSet;
+        this.methodTable = methodTable;
 
         this.newObjectFn = newObjectFn;
         this.object = newObjectFn.get();
@@ -488,14 +464,14 @@ public class VersionLockedObject<T> {
         log.trace("Undo[{}] of {}@{} ({})", this, record.getSMRMethod(),
                 record.getEntry() != null ? record.getEntry().getGlobalAddress() : "OPT",
                 record.getUndoRecord());
-        IUndoFunction<T> undoFunction =
-                undoFunctionMap.get(record.getSMRMethod());
+        final int methodId = methodTable.getMethodId(record);
+        IUndoFunction<T> undoFunction = methodTable.getUndoFunction(methodId);
         // If the undo function exists, apply it.
         if (undoFunction != null) {
             undoFunction.doUndo(object, record.getUndoRecord(),
                     record.getSMRArguments());
             return;
-        } else if (resetSet.contains(record.getSMRMethod())) {
+        } else if (methodTable.isReset(methodId)) {
             // If this is a reset, undo by restoring the
             // previous state.
             object = (T) record.getUndoRecord();
@@ -518,11 +494,12 @@ public class VersionLockedObject<T> {
      * @param entry The entry to apply.
      */
     public Object applyUpdateUnsafe(SMREntry entry) {
+        final int methodId = methodTable.getMethodId(entry);
         log.trace("Apply[{}] of {}@{} ({})", this, entry.getSMRMethod(),
                 entry.getEntry() != null ? entry.getEntry().getGlobalAddress() : "OPT",
                 entry.getSMRArguments());
 
-        ICorfuSMRUpcallTarget<T> target = upcallTargetMap.get(entry.getSMRMethod());
+        ICorfuSMRUpcallTarget<T> target = methodTable.getUpcall(methodId);
         if (target == null) {
             throw new RuntimeException("Unknown upcall " + entry.getSMRMethod());
         }
@@ -537,15 +514,14 @@ public class VersionLockedObject<T> {
         if (!entry.isUndoable() || entry.getEntry() == null) {
             // Can we generate an undo record?
             IUndoRecordFunction<T> undoRecordTarget =
-                    undoRecordFunctionMap
-                            .get(entry.getSMRMethod());
+                    methodTable.getUndoRecordFunction(methodId);
             // If there was no previously calculated undo entry
             if (undoRecordTarget != null) {
                 // calculate the undo record
                 entry.setUndoRecord(undoRecordTarget
                         .getUndoRecord(object, entry.getSMRArguments()));
                 log.trace("Apply[{}] Undo->{}", this, entry.getUndoRecord());
-            } else if (resetSet.contains(entry.getSMRMethod())) {
+            } else if (methodTable.isReset(methodId)) {
                 // This entry actually resets the object. So here
                 // we can safely get a new instance, and add the
                 // previous instance to the undo log.
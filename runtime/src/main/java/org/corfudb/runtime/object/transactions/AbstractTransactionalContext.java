@@ -19,7 +19,6 @@ import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
@@ -322,7 +321,7 @@ public abstract class AbstractTransactionalContext implements
      *
      * @return A set of longs representing all the conflict params
      */
-    Map<UUID, Set<byte[]>> collectWriteConflictParams() {
+    Map<UUID, long[]> collectWriteConflictParams() {
         return getWriteSetInfo().getHashedConflictSet();
     }
 
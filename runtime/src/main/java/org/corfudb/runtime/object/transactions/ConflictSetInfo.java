@@ -6,7 +6,6 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import org.corfudb.runtime.object.ICorfuSMRProxyInternal;
 
@@ -23,30 +22,54 @@ public class ConflictSetInfo {
     /** Set of objects this conflict set conflicts with. */
     protected Map<ICorfuSMRProxyInternal, Set<Object>> conflicts = new HashMap<>();
 
-    /** Get a hash for the object, given a proxy. */
-    public static byte[] generateHashFromObject(ICorfuSMRProxyInternal p, Object o) {
-        return p.getSerializer().hash(o);
+    /** Get a fingerprint for the object, given a proxy. */
+    public static long generateFingerprint(ICorfuSMRProxyInternal p, Object o) {
+        return p.getSerializer().fingerprint(o);
     }
 
-    /** Get the hashed conflict set.
-     * @return              The hashed conflict set.
+    /** Get the fingerprinted conflict set.
+     *
+     * <p>The fingerprints of each stream are sorted and without duplicates, so that
+     * the objects which share a fingerprint are only sent to the sequencer once.</p>
+     *
+     * @return              The fingerprinted conflict set.
      */
-    public Map<UUID, Set<byte[]>> getHashedConflictSet() {
-        return conflicts.entrySet().stream()
-                .collect(Collectors.toMap(
-                        // Key = UUID
-                        e -> e.getKey().getStreamID(),
-                        // Value = Generated hash.
-                        e -> e.getValue().stream()
-                                .map(o -> ConflictSetInfo.generateHashFromObject(e.getKey(), o))
-                                .collect(Collectors.toSet()),
-                        // Merge function, in case key was already mapped
-                        // (If two proxies have the same stream).
-                        (v1,v2) -> {
-                            // Combine the two sets.
-                            v1.addAll(v2);
-                            return v1;
-                        }));
+    public Map<UUID, long[]> getHashedConflictSet() {
+        Map<UUID, long[]> hashedConflictSet = new HashMap<>();
+        conflicts.forEach((proxy, objects) -> {
+            long[] fingerprints = new long[objects.size()];
+            int i = 0;
+            for (Object o : objects) {
+                fingerprints[i++] = generateFingerprint(proxy, o);
+            }
+            // Merge, in case two proxies have the same stream.
+            hashedConflictSet.merge(proxy.getStreamID(), fingerprints, (v1, v2) -> {
+                long[] merged = Arrays.copyOf(v1, v1.length + v2.length);
+                System.arraycopy(v2, 0, merged, v1.length, v2.length);
+                return merged;
+            });
+        });
+        hashedConflictSet.replaceAll((stream, fingerprints) -> sortedUnique(fingerprints));
+        return hashedConflictSet;
+    }
+
+    /** Sort fingerprints and remove the duplicates.
+     * @param fingerprints  The fingerprints, which are sorted in place.
+     * @return              The sorted fingerprints, without duplicates.
+     */
+    private static long[] sortedUnique(long[] fingerprints) {
+        if (fingerprints.length == 0) {
+            return fingerprints;
+        }
+        Arrays.sort(fingerprints);
+        int unique = 1;
+        for (int i = 1; i < fingerprints.length; i++) {
+            if (fingerprints[i] != fingerprints[unique - 1]) {
+                fingerprints[unique++] = fingerprints[i];
+            }
+        }
+        return unique == fingerprints.length
+                ? fingerprints : Arrays.copyOf(fingerprints, unique);
     }
 
     /** Merge a conflict set into this conflict set.
@@ -10,6 +10,7 @@ import javax.annotation.Nonnull;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.NetworkException;
+import org.corfudb.runtime.exceptions.ServerBusyException;
 import org.corfudb.runtime.exceptions.ServerNotReadyException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
@@ -104,6 +105,7 @@ public abstract class AbstractView {
      * Helper function for view to retrieve layouts.
      * This function will retry the given function indefinitely,
      * invalidating the view if there was a exception contacting the endpoint.
+     * Requests shed by a busy server are retried with a backoff, a bounded number of times.
      *
      * There is a flag to set if we want the caller to handle Runtime Exceptions. For some
      * special cases (like writes), we need to do a bit more work upon a Runtime Exception than just retry.
@@ -125,6 +127,8 @@ public abstract class AbstractView {
         runtime.getParameters().getBeforeRpcHandler().run();
         final Duration retryRate = runtime.getParameters().getConnectionRetryRate();
         int systemDownTriggerCounter = 0;
+        Duration busyBackoff = runtime.getParameters().getServerBusyRetryRate();
+        int busyRetries = 0;
         while (true) {
 
             final Layout layout = getLayoutUninterruptibly();
@@ -136,6 +140,21 @@ public abstract class AbstractView {
                     }
                     return rLayout;
                 }));
+            } catch (ServerBusyException sbe) {
+                // The layout is still valid, the server shed the request because it is
+                // overloaded, so back off and retry on the same layout. Once the backoff
+                // reached the connection retry rate, a server that stays busy is retried as
+                // many times as an unavailable system before the caller gets the exception.
+                if (busyBackoff.compareTo(retryRate) >= 0 && ++busyRetries
+                        >= runtime.getParameters().getSystemDownHandlerTriggerLimit()) {
+                    log.warn("layoutHelper: Server still busy after {} retries", busyRetries);
+                    throw sbe;
+                }
+                log.debug("layoutHelper: Server busy, retrying in {}", busyBackoff);
+                Sleep.sleepUninterruptibly(busyBackoff);
+                busyBackoff = busyBackoff.multipliedBy(2).compareTo(retryRate) < 0
+                        ? busyBackoff.multipliedBy(2) : retryRate;
+                continue;
             } catch (RuntimeException re) {
                 if (re.getCause() instanceof TimeoutException) {
                     log.warn("Timeout executing remote call, invalidating view and retrying "
@@ -38,6 +38,7 @@ import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.runtime.exceptions.NetworkException;
 import org.corfudb.runtime.exceptions.OverwriteCause;
 import org.corfudb.runtime.exceptions.OverwriteException;
+import org.corfudb.runtime.exceptions.ServerBusyException;
 import org.corfudb.runtime.exceptions.StaleTokenException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.WriteSizeException;
@@ -151,6 +152,26 @@ public class AddressSpaceView extends AbstractView {
     public void write(@Nonnull IToken token, @Nonnull Object data, @Nonnull CacheOption cacheOption) {
         final ILogData ld = new LogData(DataType.DATA, data);
 
+        if (runtime.getParameters().isAdaptiveHoleFillEnabled()) {
+            final long startTime = System.nanoTime();
+            try {
+                writeWithLayout(token, ld);
+            } catch (OverwriteException oe) {
+                runtime.getAdaptiveHoleFillPolicy().recordOverwrite();
+                throw oe;
+            }
+            runtime.getAdaptiveHoleFillPolicy().recordWrite(System.nanoTime() - startTime);
+        } else {
+            writeWithLayout(token, ld);
+        }
+
+        // Cache the successful write
+        if (!runtime.getParameters().isCacheDisabled() && cacheOption == CacheOption.WRITE_THROUGH) {
+            readCache.put(token.getSequence(), ld);
+        }
+    }
+
+    private void writeWithLayout(@Nonnull IToken token, @Nonnull ILogData ld) {
         layoutHelper(e -> {
             Layout l = e.getLayout();
             // Check if the token issued is in the same
@@ -183,18 +204,14 @@ public class AddressSpaceView extends AbstractView {
                     // Large writes are also rejected right away.
                     throw ex;
                 }
-            } catch (WriteSizeException we) {
-                throw we;
+            } catch (WriteSizeException | ServerBusyException ex) {
+                // A busy server didn't handle the write, which is retried as is
+                throw ex;
             } catch (RuntimeException re) {
                 validateStateOfWrittenEntry(token.getSequence(), ld);
             }
             return null;
         }, true);
-
-        // Cache the successful write
-        if (!runtime.getParameters().isCacheDisabled() && cacheOption == CacheOption.WRITE_THROUGH) {
-            readCache.put(token.getSequence(), ld);
-        }
     }
 
     /**
@@ -0,0 +1,164 @@
+package org.corfudb.runtime.view;
+
+import com.codahale.metrics.Histogram;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.protocols.wireprotocol.TokenRequest;
+import org.corfudb.protocols.wireprotocol.TokenResponse;
+import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.util.CFUtils;
+import org.corfudb.util.CorfuComponent;
+
+/**
+ * Acquires the tokens of the transactions committed by the threads of a runtime in batches.
+ *
+ * <p>The token requests of the transactions are queued, and a single committer thread sends
+ * them to the sequencer in batches of up to {@code groupCommitMaxBatchSize}: the requests
+ * queued while a batch is at the sequencer are sent together in the next batch. The sequencer
+ * checks each transaction of a batch individually, including against the transactions before
+ * it in the same batch, so each transaction commits or aborts on its own.
+ *
+ * <p>Each transaction then writes its entry from its own thread. The writes of a batch are
+ * issued at the same time, and share the flushes of the connections to the log units.
+ */
+@Slf4j
+public class GroupCommitter implements AutoCloseable {
+
+    private static final String GROUP_COMMIT_METRIC =
+            CorfuComponent.CLIENT_SEQUENCER + "group-commit";
+
+    private final SequencerView sequencerView;
+
+    private final int maxBatchSize;
+
+    /**
+     * The token requests waiting for the next batch.
+     */
+    private final Queue<PendingToken> pendingTokens = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a batch is scheduled to be sent.
+     */
+    private final AtomicBoolean batchScheduled = new AtomicBoolean();
+
+    private final ExecutorService committer = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("group-commit-%d")
+                    .build());
+
+    private final Histogram batchSizes;
+
+    /**
+     * A token request, and the future of its response.
+     */
+    private static class PendingToken {
+        final TokenRequest request;
+        final CompletableFuture<TokenResponse> response = new CompletableFuture<>();
+
+        PendingToken(TokenRequest request) {
+            this.request = request;
+        }
+    }
+
+    /**
+     * Create a GroupCommitter.
+     *
+     * @param runtime The runtime whose transactions are committed.
+     */
+    public GroupCommitter(CorfuRuntime runtime) {
+        this.sequencerView = runtime.getSequencerView();
+        this.maxBatchSize = runtime.getParameters().getGroupCommitMaxBatchSize();
+        this.batchSizes = runtime.getMetrics().histogram(GROUP_COMMIT_METRIC + ".batch-size");
+    }
+
+    /**
+     * Acquire a token for a transaction if it has no conflicts, together with the tokens of
+     * the other transactions being committed.
+     *
+     * @param conflictInfo transaction conflict info
+     * @param streamIds    streams to acquire the token for
+     * @return the token of the transaction, or an abort token if it conflicts
+     * @see SequencerView#next(TxResolutionInfo, UUID...)
+     */
+    public TokenResponse next(TxResolutionInfo conflictInfo, UUID... streamIds) {
+        PendingToken pending = new PendingToken(
+                new TokenRequest(1L, Arrays.asList(streamIds), conflictInfo));
+        pendingTokens.add(pending);
+        if (batchScheduled.compareAndSet(false, true)) {
+            try {
+                committer.execute(this::sendBatches);
+            } catch (RejectedExecutionException e) {
+                // Shut down, send the queued requests from this thread
+                sendBatches();
+            }
+        }
+        return CFUtils.getUninterruptibly(pending.response);
+    }
+
+    /**
+     * Send the queued token requests to the sequencer, in batches of up to maxBatchSize.
+     */
+    private void sendBatches() {
+        batchScheduled.set(false);
+
+        List<PendingToken> batch = new ArrayList<>(maxBatchSize);
+        PendingToken pending;
+        while ((pending = pendingTokens.poll()) != null) {
+            batch.add(pending);
+            if (batch.size() == maxBatchSize) {
+                sendBatch(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            sendBatch(batch);
+        }
+    }
+
+    private void sendBatch(List<PendingToken> batch) {
+        List<TokenRequest> requests = new ArrayList<>(batch.size());
+        for (PendingToken pending : batch) {
+            requests.add(pending.request);
+        }
+
+        try {
+            List<TokenResponse> responses = sequencerView.nextBatch(requests);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).response.complete(responses.get(i));
+            }
+            batchSizes.update(batch.size());
+            log.trace("sendBatch: acquired {} tokens", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("sendBatch: failed to acquire {} tokens", batch.size(), e);
+            for (PendingToken pending : batch) {
+                pending.response.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Stop the committer thread once the scheduled batches are sent. The tokens requested
+     * afterwards are sent by the requesting threads.
+     */
+    @Override
+    public void close() {
+        committer.shutdown();
+    }
+}
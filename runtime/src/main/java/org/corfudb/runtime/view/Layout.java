@@ -353,6 +353,8 @@ public class Layout {
             public IReplicationProtocol getReplicationProtocol(CorfuRuntime r) {
                 if (r.getParameters().isHoleFillingDisabled()) {
                     return new ChainReplicationProtocol(new NeverHoleFillPolicy(100));
+                } else if (r.getParameters().isAdaptiveHoleFillEnabled()) {
+                    return new ChainReplicationProtocol(r.getAdaptiveHoleFillPolicy());
                 } else {
                     return new ChainReplicationProtocol(
                             new ReadWaitHoleFillPolicy(r.getParameters().getRequestTimeout(),
@@ -396,6 +398,8 @@ public class Layout {
             public IReplicationProtocol getReplicationProtocol(CorfuRuntime r) {
                 if (r.getParameters().isHoleFillingDisabled()) {
                     return new QuorumReplicationProtocol(new NeverHoleFillPolicy(100));
+                } else if (r.getParameters().isAdaptiveHoleFillEnabled()) {
+                    return new QuorumReplicationProtocol(r.getAdaptiveHoleFillPolicy());
                 } else {
                     return new QuorumReplicationProtocol(
                             new ReadWaitHoleFillPolicy(r.getParameters().getRequestTimeout(),
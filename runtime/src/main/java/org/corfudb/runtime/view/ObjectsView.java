@@ -1,31 +1,50 @@
 package org.corfudb.runtime.view;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 import javax.annotation.Nonnull;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.AbortCause;
 import org.corfudb.runtime.exceptions.NetworkException;
 import org.corfudb.runtime.exceptions.TransactionAbortedException;
+import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.WriteSizeException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
 import org.corfudb.runtime.object.CorfuCompileProxy;
 import org.corfudb.runtime.object.ICorfuSMR;
+import org.corfudb.runtime.object.VersionLockedObject;
 import org.corfudb.runtime.object.transactions.AbstractTransactionalContext;
 import org.corfudb.runtime.object.transactions.Transaction;
 import org.corfudb.runtime.object.transactions.Transaction.TransactionBuilder;
 import org.corfudb.runtime.object.transactions.TransactionType;
 import org.corfudb.runtime.object.transactions.TransactionalContext;
+import org.corfudb.util.CFUtils;
 import sun.nio.ch.Net;
 
 /**
@@ -49,10 +68,77 @@ public class ObjectsView extends AbstractView {
     @Getter
     Map<ObjectID, Object> objectCache = new ConcurrentHashMap<>();
 
+    /**
+     * The threads which commit the transactions ended with {@link #TXEndAsync()}, created
+     * by the first asynchronous commit.
+     */
+    private ExecutorService commitExecutor;
+
+    /**
+     * The threads which sync the objects of {@link #syncAll(Object...)} in parallel, created
+     * by the first parallel sync.
+     */
+    private ExecutorService syncExecutor;
+
+    /**
+     * True, once the view is shut down. No threads are created after that.
+     */
+    private boolean shutdown = false;
+
+    /**
+     * The permits of the transactions ended with {@link #TXEndAsync()} which are not
+     * committed yet.
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final Semaphore asyncCommitPermits =
+            new Semaphore(runtime.getParameters().getMaxAsyncCommits());
+
     public ObjectsView(@Nonnull final CorfuRuntime runtime) {
         super(runtime);
     }
 
+    /**
+     * Get the threads which commit the transactions ended with {@link #TXEndAsync()}.
+     *
+     * @return The commit threads.
+     * @throws RejectedExecutionException If the view is shut down.
+     */
+    private synchronized ExecutorService getCommitExecutor() {
+        if (shutdown) {
+            throw new RejectedExecutionException("ObjectsView is shut down");
+        }
+        if (commitExecutor == null) {
+            commitExecutor = Executors.newFixedThreadPool(
+                    runtime.getParameters().getAsyncCommitThreads(),
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("commit-%d")
+                            .build());
+        }
+        return commitExecutor;
+    }
+
+    /**
+     * Get the threads which sync the objects of {@link #syncAll(Object...)} in parallel.
+     *
+     * @return The sync threads.
+     * @throws RejectedExecutionException If the view is shut down.
+     */
+    private synchronized ExecutorService getSyncExecutor() {
+        if (shutdown) {
+            throw new RejectedExecutionException("ObjectsView is shut down");
+        }
+        if (syncExecutor == null) {
+            syncExecutor = Executors.newFixedThreadPool(
+                    runtime.getParameters().getSyncThreads(),
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("sync-%d")
+                            .build());
+        }
+        return syncExecutor;
+    }
+
     /**
      * Return an object builder which builds a new object.
      *
@@ -140,50 +226,349 @@ public class ObjectsView extends AbstractView {
         if (context == null) {
             log.warn("Attempted to end a transaction, but no transaction active!");
             return AbstractTransactionalContext.UNCOMMITTED_ADDRESS;
-        } else {
-            long totalTime = System.currentTimeMillis() - context.getStartTime();
-            log.trace("TXEnd[{}] time={} ms", context, totalTime);
+        }
+        return commit(context);
+    }
+
+    /**
+     * End a transaction on the current thread, without waiting for it to commit.
+     *
+     * <p>The transaction is removed from the current thread and committed by one of
+     * {@code asyncCommitThreads} threads, so the current thread can start other work or
+     * transactions while the commit is written. If {@code maxAsyncCommits} transactions are
+     * already being committed, this blocks until one of them completes.
+     *
+     * <p>A transaction started on the current thread before the returned future completes may
+     * not observe the updates of this transaction. A nested transaction is folded into its
+     * parent before this returns.
+     *
+     * @return A future completed with the address of the transaction, if it commits, or
+     *         completed exceptionally with a {@link TransactionAbortedException} if it aborts.
+     */
+    @SuppressWarnings({"checkstyle:methodname", "checkstyle:abbreviation"})
+    public CompletableFuture<Long> TXEndAsync() {
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        final AbstractTransactionalContext context = TransactionalContext.getCurrentContext();
+        if (context == null || TransactionalContext.isInNestedTransaction()) {
             try {
-                return TransactionalContext.getCurrentContext().commitTransaction();
+                future.complete(TXEnd());
             } catch (TransactionAbortedException e) {
-                log.warn("TXEnd[{}] Aborted Exception {}", context, e);
-                TransactionalContext.getCurrentContext().abortTransaction(e);
-                throw e;
-            } catch (NetworkException | WriteSizeException e) {
-
-                Token snapshotTimestamp;
-                try {
-                    snapshotTimestamp = context.getSnapshotTimestamp();
-                } catch (NetworkException ne) {
-                    snapshotTimestamp = Token.UNINITIALIZED;
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        final Semaphore permits = getAsyncCommitPermits();
+        try {
+            permits.acquire();
+        } catch (InterruptedException ie) {
+            throw new UnrecoverableCorfuInterruptedError(ie);
+        }
+
+        // The commit thread takes over the transaction, and with it the ownership of the
+        // optimistic updates of the objects it modified
+        TransactionalContext.removeContext();
+        AsyncCommit asyncCommit = new AsyncCommit(context, permits, future);
+        try {
+            getCommitExecutor().execute(asyncCommit);
+        } catch (RejectedExecutionException e) {
+            asyncCommit.reject(e);
+        }
+        return future;
+    }
+
+    /**
+     * A transaction ended with {@link #TXEndAsync()}, committed by one of the commit threads.
+     */
+    @AllArgsConstructor
+    private class AsyncCommit implements Runnable {
+        private final AbstractTransactionalContext context;
+        private final Semaphore permits;
+        private final CompletableFuture<Long> future;
+
+        @Override
+        public void run() {
+            TransactionalContext.newContext(context);
+            try {
+                long address = commit(context);
+                permits.release();
+                future.complete(address);
+            } catch (Throwable t) {
+                permits.release();
+                future.completeExceptionally(t);
+            }
+        }
+
+        /**
+         * Abort the transaction, because the commit threads did not accept or run it.
+         *
+         * @param e The reason the commit was rejected.
+         */
+        void reject(RejectedExecutionException e) {
+            log.warn("TXEndAsync[{}]: commit rejected, aborting", context);
+            permits.release();
+            TransactionAbortedException tae = new TransactionAbortedException(
+                    new TxResolutionInfo(context.getTransactionID(), Token.UNINITIALIZED),
+                    null, null, AbortCause.UNDEFINED, e, context);
+            context.abortTransaction(tae);
+            future.completeExceptionally(tae);
+        }
+    }
+
+    /**
+     * Commit the transaction of the current thread, and remove it from the thread.
+     *
+     * @param context The context of the transaction.
+     * @return The address of the transaction, if it commits.
+     * @throws TransactionAbortedException If the transaction could not be executed successfully.
+     */
+    private long commit(AbstractTransactionalContext context)
+            throws TransactionAbortedException {
+        long totalTime = System.currentTimeMillis() - context.getStartTime();
+        log.trace("TXEnd[{}] time={} ms", context, totalTime);
+        try {
+            return TransactionalContext.getCurrentContext().commitTransaction();
+        } catch (TransactionAbortedException e) {
+            log.warn("TXEnd[{}] Aborted Exception {}", context, e);
+            TransactionalContext.getCurrentContext().abortTransaction(e);
+            throw e;
+        } catch (NetworkException | WriteSizeException e) {
+
+            Token snapshotTimestamp;
+            try {
+                snapshotTimestamp = context.getSnapshotTimestamp();
+            } catch (NetworkException ne) {
+                snapshotTimestamp = Token.UNINITIALIZED;
+            }
+            TxResolutionInfo txInfo = new TxResolutionInfo(context.getTransactionID(),
+                    snapshotTimestamp);
+
+            AbortCause cause = AbortCause.UNDEFINED;
+            if (e instanceof NetworkException) {
+                log.warn("TXEnd[{}] Network Exception {}", context, e);
+                cause = AbortCause.NETWORK;
+            } else if (e instanceof WriteSizeException) {
+                log.error("TXEnd[{}] transaction size limit exceeded {}", context, e);
+                cause = AbortCause.SIZE_EXCEEDED;
+            }
+
+            TransactionAbortedException tae = new TransactionAbortedException(txInfo,
+                    null, null, cause, e, context);
+            context.abortTransaction(tae);
+            throw tae;
+
+        } catch (Exception e) {
+            log.error("TXEnd[{}]: Unexpected exception", context, e);
+            TxResolutionInfo txInfo = new TxResolutionInfo(context.getTransactionID(),
+                    Token.UNINITIALIZED);
+            TransactionAbortedException tae = new TransactionAbortedException(txInfo,
+                    null, null, AbortCause.UNDEFINED, e, context);
+            context.abortTransaction(tae);
+            throw new UnrecoverableCorfuError("Unexpected exception during commit", e);
+        } finally {
+            TransactionalContext.removeContext();
+        }
+    }
+
+    /**
+     * Sync a group of objects to a single snapshot in one pass.
+     *
+     * <p>The tails of the streams of all the objects are queried from the sequencer in a
+     * single request, instead of one request per object. The backpointers of the streams are
+     * then walked together, reading the entries of all the streams at each step in a single
+     * batch, so that an entry which belongs to several of the streams is only read once, and
+     * the objects are synced from the read cache, in parallel on up to {@code syncThreads}
+     * threads.
+     *
+     * <p>Inside a transaction, the objects are synced by the transaction when they are
+     * accessed: this only fetches their tails and entries up to the snapshot of the
+     * transaction. A transaction built with the returned snapshot also reads the objects
+     * without querying the sequencer again.
+     *
+     * @param objects The objects to sync, opened with the object builder.
+     * @return The snapshot the objects were synced to.
+     */
+    public Token syncAll(@Nonnull Object... objects) {
+        List<VersionLockedObject<?>> underlyingObjects = new ArrayList<>();
+        Map<UUID, VersionLockedObject<?>> streams = new HashMap<>();
+        for (Object object : objects) {
+            CorfuCompileProxy<?> proxy = (CorfuCompileProxy<?>) ((ICorfuSMR<?>) object)
+                    .getCorfuSMRProxy();
+            underlyingObjects.add(proxy.getUnderlyingObject());
+            streams.put(proxy.getStreamID(), proxy.getUnderlyingObject());
+        }
+
+        UUID[] streamIds = streams.keySet().toArray(new UUID[0]);
+        TokenResponse tails = runtime.getSequencerView().queryStreamTails(streamIds);
+        Token snapshot = TransactionalContext.isInTransaction()
+                ? TransactionalContext.getCurrentContext().getSnapshotTimestamp()
+                : tails.getToken();
+
+        if (!runtime.getParameters().isCacheDisabled()) {
+            Map<UUID, Long> nextAddresses = new HashMap<>();
+            for (int i = 0; i < streamIds.length; i++) {
+                long tail = tails.getStreamTails().get(i);
+                if (Address.isAddress(tail) && tail <= snapshot.getSequence()
+                        && tail > streams.get(streamIds[i]).getVersionUnsafe()) {
+                    nextAddresses.put(streamIds[i], tail);
                 }
-                TxResolutionInfo txInfo = new TxResolutionInfo(context.getTransactionID(),
-                        snapshotTimestamp);
-
-                AbortCause cause = AbortCause.UNDEFINED;
-                if (e instanceof NetworkException) {
-                    log.warn("TXEnd[{}] Network Exception {}", context, e);
-                    cause = AbortCause.NETWORK;
-                } else if (e instanceof WriteSizeException) {
-                    log.error("TXEnd[{}] transaction size limit exceeded {}", context, e);
-                    cause = AbortCause.SIZE_EXCEEDED;
+            }
+            prefetch(nextAddresses, streams);
+        }
+
+        if (!TransactionalContext.isInTransaction()) {
+            syncObjects(underlyingObjects, snapshot.getSequence());
+        }
+        log.debug("syncAll: synced {} objects to {}", objects.length, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Sync several objects to a timestamp. The objects are independent, so they are synced
+     * in parallel by the sync threads, and the caller waits for all of them.
+     *
+     * @param objects   the objects to sync
+     * @param timestamp the timestamp to sync to
+     */
+    private void syncObjects(List<VersionLockedObject<?>> objects, long timestamp) {
+        if (objects.size() <= 1 || runtime.getParameters().getSyncThreads() <= 1) {
+            objects.forEach(object -> syncObject(object, timestamp));
+            return;
+        }
+
+        List<SyncTask> tasks = new ArrayList<>(objects.size());
+        try {
+            for (VersionLockedObject<?> object : objects) {
+                SyncTask task = new SyncTask(object, timestamp, new CompletableFuture<>());
+                getSyncExecutor().execute(task);
+                tasks.add(task);
+            }
+        } catch (RejectedExecutionException e) {
+            // Shut down, sync the remaining objects from this thread
+            log.trace("syncObjects: sync rejected, syncing {} objects from the caller",
+                    objects.size() - tasks.size());
+            objects.subList(tasks.size(), objects.size())
+                    .forEach(object -> syncObject(object, timestamp));
+        }
+
+        for (SyncTask task : tasks) {
+            try {
+                CFUtils.getUninterruptibly(task.future, RejectedExecutionException.class);
+            } catch (RejectedExecutionException e) {
+                // Dropped by a shutdown before it ran, sync the object from this thread
+                syncObject(task.object, timestamp);
+            }
+        }
+    }
+
+    /**
+     * An object synced by one of the sync threads, for {@link #syncObjects(List, long)}.
+     */
+    @AllArgsConstructor
+    private class SyncTask implements Runnable {
+        private final VersionLockedObject<?> object;
+        private final long timestamp;
+        private final CompletableFuture<Void> future;
+
+        @Override
+        public void run() {
+            try {
+                syncObject(object, timestamp);
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+
+    /**
+     * Walk the backpointers of several streams together, from their tails down to the
+     * versions of their objects, and read the entries of each step in a single batch into
+     * the read cache. The walk stops early if it would evict the entries it read.
+     *
+     * @param nextAddresses the next address to read of each stream
+     * @param streams       the object of each stream
+     */
+    private void prefetch(Map<UUID, Long> nextAddresses,
+                          Map<UUID, VersionLockedObject<?>> streams) {
+        final long maxEntries = runtime.getParameters().getNumCacheEntries() / 2;
+        long prefetched = 0;
+        while (!nextAddresses.isEmpty() && prefetched < maxEntries) {
+            Map<Long, ILogData> entries;
+            try {
+                entries = runtime.getAddressSpaceView()
+                        .read(new HashSet<>(nextAddresses.values()));
+            } catch (TrimmedException te) {
+                // The objects are synced from a checkpoint
+                log.debug("prefetch: stopping at trimmed entries", te);
+                return;
+            }
+            prefetched += entries.size();
+
+            Map<UUID, Long> previousAddresses = new HashMap<>();
+            nextAddresses.forEach((stream, address) -> {
+                ILogData entry = entries.get(address);
+                if (entry == null || !entry.containsStream(stream)) {
+                    return;
+                }
+                long backpointer = entry.getBackpointerMap().get(stream);
+                if (Address.isAddress(backpointer)
+                        && backpointer > streams.get(stream).getVersionUnsafe()) {
+                    previousAddresses.put(stream, backpointer);
                 }
+            });
+            nextAddresses = previousAddresses;
+        }
+    }
 
-                TransactionAbortedException tae = new TransactionAbortedException(txInfo,
-                        null, null, cause, e, context);
-                context.abortTransaction(tae);
-                throw tae;
-
-            } catch (Exception e) {
-                log.error("TXEnd[{}]: Unexpected exception", context, e);
-                TxResolutionInfo txInfo = new TxResolutionInfo(context.getTransactionID(),
-                        Token.UNINITIALIZED);
-                TransactionAbortedException tae = new TransactionAbortedException(txInfo,
-                        null, null, AbortCause.UNDEFINED, e, context);
-                context.abortTransaction(tae);
-                throw new UnrecoverableCorfuError("Unexpected exception during commit", e);
-            } finally {
-                TransactionalContext.removeContext();
+    private <T> void syncObject(VersionLockedObject<T> object, long timestamp) {
+        for (int x = 0; x < runtime.getParameters().getTrimRetry(); x++) {
+            try {
+                object.update(o -> {
+                    o.syncObjectUnsafe(timestamp);
+                    return null;
+                });
+                return;
+            } catch (TrimmedException te) {
+                log.warn("syncObject: Encountered a trim exception while syncing to {} on "
+                        + "attempt {}", timestamp, x);
+                // We encountered a TRIM during sync, reset the object
+                object.update(o -> {
+                    o.resetUnsafe();
+                    return null;
+                });
+            }
+        }
+        throw new TrimmedException();
+    }
+
+    /**
+     * Stop the threads committing the transactions ended with {@link #TXEndAsync()}, and
+     * the threads syncing the objects of {@link #syncAll(Object...)}. The transactions which
+     * were not committed yet are aborted.
+     */
+    public void shutdown() {
+        final ExecutorService commits;
+        final ExecutorService syncs;
+        synchronized (this) {
+            shutdown = true;
+            commits = commitExecutor;
+            syncs = syncExecutor;
+        }
+
+        if (commits != null) {
+            RejectedExecutionException e =
+                    new RejectedExecutionException("ObjectsView is shut down");
+            for (Runnable task : commits.shutdownNow()) {
+                ((AsyncCommit) task).reject(e);
+            }
+        }
+        if (syncs != null) {
+            // The callers waiting for the dropped syncs sync their objects themselves
+            RejectedExecutionException e =
+                    new RejectedExecutionException("ObjectsView is shut down");
+            for (Runnable task : syncs.shutdownNow()) {
+                ((SyncTask) task).future.completeExceptionally(e);
             }
         }
     }
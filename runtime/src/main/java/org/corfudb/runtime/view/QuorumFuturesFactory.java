@@ -10,7 +10,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.TreeMultimap;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -18,6 +20,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -103,6 +106,46 @@ public class QuorumFuturesFactory {
 
 
 
+    /**
+     * Get a future that completes with the results of the first n/2+1 futures that complete
+     * successfully, whether their values agree or not. It is completed exceptionally with a
+     * {@link QuorumUnreachableException} as soon as more than n/2 futures have failed.
+     *
+     * <p>Unlike the quorum future, the caller gets all the results of the majority, which is
+     * needed to aggregate values that legitimately differ across replicas (such as tails).</p>
+     *
+     * @param futures The N futures
+     * @return A future of the results of the first majority
+     */
+    public static <R> CompletableFuture<List<R>> getMajorityFuture(
+            CompletableFuture<R>[] futures) {
+        final int quorum = (futures.length / 2) + 1;
+        final CompletableFuture<List<R>> majority = new CompletableFuture<>();
+        final List<R> results = new ArrayList<>(quorum);
+        final AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<R> future : futures) {
+            future.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    int failed = failures.incrementAndGet();
+                    if (futures.length - failed < quorum) {
+                        majority.completeExceptionally(
+                                new QuorumUnreachableException(futures.length - failed, quorum));
+                    }
+                    return;
+                }
+                synchronized (results) {
+                    if (results.size() < quorum) {
+                        results.add(result);
+                        if (results.size() == quorum) {
+                            majority.complete(new ArrayList<>(results));
+                        }
+                    }
+                }
+            });
+        }
+        return majority;
+    }
+
     public static class CompositeFuture<R> implements Future<R> {
         private final Comparator<R> comparator;
         private final int quorum;
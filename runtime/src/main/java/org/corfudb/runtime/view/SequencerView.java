@@ -2,8 +2,14 @@ package org.corfudb.runtime.view;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.Lists;
+import lombok.Value;
+import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.protocols.wireprotocol.TokenRequest;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
+import org.corfudb.protocols.wireprotocol.TokenType;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.util.CFUtils;
@@ -12,9 +18,12 @@ import org.corfudb.util.MetricsUtils;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
 
 /**
  * Created by mwei on 12/10/15.
@@ -26,11 +35,22 @@ public class SequencerView extends AbstractView {
     private Timer sequencerNextOneStream;
     private Timer sequencerQuery;
     private Timer sequencerNextMultipleStream;
+    private Timer sequencerNextBatch;
     private Timer sequencerDeprecatedNextOneStream;
     private Timer sequencerDeprecatedNextMultipleStream;
     private Timer sequencerTrimCache;
     private static MetricRegistry metricRegistry = CorfuRuntime.getDefaultMetrics();
 
+    private static final int MAX_STREAM_TAIL_HINTS = 10_000;
+
+    /**
+     * The stream tails returned by {@link #queryStreamTails(UUID...)}, which tell the tails
+     * of the streams up to the global tail they were queried at.
+     */
+    private final Cache<UUID, StreamTailHint> streamTailHints = Caffeine.newBuilder()
+            .maximumSize(MAX_STREAM_TAIL_HINTS)
+            .build();
+
     public SequencerView(CorfuRuntime runtime) {
         super(runtime);
 
@@ -50,6 +70,8 @@ public class SequencerView extends AbstractView {
                 "particular-next");
         sequencerNextMultipleStream = metricRegistry.timer(CorfuComponent.CLIENT_SEQUENCER +
                 "multiple-next");
+        sequencerNextBatch = metricRegistry.timer(CorfuComponent.CLIENT_SEQUENCER +
+                "batch-next");
         sequencerDeprecatedNextOneStream = metricRegistry.timer(CorfuComponent.CLIENT_SEQUENCER +
                 "deprecated-particular-next");
         sequencerDeprecatedNextMultipleStream = metricRegistry.timer(CorfuComponent.CLIENT_SEQUENCER +
@@ -75,6 +97,58 @@ public class SequencerView extends AbstractView {
         }
     }
 
+    /**
+     * Query the tails of several streams and the global tail in a single request, and
+     * remember the stream tails, so that reading the streams up to that global tail doesn't
+     * query the sequencer again for each stream.
+     *
+     * @param streamIds the streams to query
+     * @return the global tail, and the tails of the streams in the same order
+     */
+    public TokenResponse queryStreamTails(UUID... streamIds) {
+        TokenResponse response = query(streamIds);
+        if (streamIds.length == 1) {
+            // The sequencer only returns the tail of the stream, which is also the last
+            // address the tail is known up to.
+            response = new TokenResponse(TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY,
+                    response.getToken(), Collections.emptyMap(),
+                    Collections.singletonList(response.getToken().getSequence()));
+        }
+
+        for (int i = 0; i < streamIds.length; i++) {
+            streamTailHints.put(streamIds[i],
+                    new StreamTailHint(response.getStreamTails().get(i), response.getToken()));
+        }
+        return response;
+    }
+
+    /**
+     * Get the tail of a stream returned by a recent {@link #queryStreamTails(UUID...)}, if it
+     * was queried at or after an address in the current epoch.
+     *
+     * @param streamId   the stream
+     * @param maxAddress the address the stream is read up to
+     * @return the last address of the stream up to maxAddress or after, or null if unknown
+     */
+    @Nullable
+    public Long getStreamTailHint(UUID streamId, long maxAddress) {
+        StreamTailHint hint = streamTailHints.getIfPresent(streamId);
+        if (hint == null || hint.getQueriedAt().getSequence() < maxAddress
+                || hint.getQueriedAt().getEpoch() != runtime.getLayoutView().getLayout().getEpoch()) {
+            return null;
+        }
+        return hint.getTail();
+    }
+
+    /**
+     * The tail of a stream, and the global tail it was queried at.
+     */
+    @Value
+    private static class StreamTailHint {
+        long tail;
+        Token queriedAt;
+    }
+
     /**
      * Return the next token in the sequencer for a particular stream.
      *
@@ -103,6 +177,20 @@ public class SequencerView extends AbstractView {
         }
     }
 
+    /**
+     * Acquire the tokens of several requests in a single round trip to the sequencer. The
+     * sequencer serves the requests in order, as if they had been sent one after the other.
+     *
+     * @param requests the token requests
+     * @return the token responses, in the order of the requests
+     */
+    public List<TokenResponse> nextBatch(List<TokenRequest> requests) {
+        try (Timer.Context context = MetricsUtils.getConditionalContext(sequencerNextBatch)) {
+            return layoutHelper(e -> CFUtils.getUninterruptibly(e.getPrimarySequencerClient()
+                    .nextTokens(requests)));
+        }
+    }
+
     /**
      * Return the next token in the sequencer for a particular stream.
      *
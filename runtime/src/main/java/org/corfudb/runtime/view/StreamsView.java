@@ -2,18 +2,28 @@ package org.corfudb.runtime.view;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.TreeMultimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,6 +32,8 @@ import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.protocols.wireprotocol.TokenType;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.clients.IClientRouter;
+import org.corfudb.runtime.clients.SequencerHandler;
 import org.corfudb.runtime.exceptions.AbortCause;
 import org.corfudb.runtime.exceptions.AppendException;
 import org.corfudb.runtime.exceptions.OverwriteException;
@@ -31,6 +43,7 @@ import org.corfudb.runtime.object.CorfuCompileProxy;
 import org.corfudb.runtime.object.ICorfuSMR;
 import org.corfudb.runtime.object.transactions.TransactionalContext;
 import org.corfudb.runtime.view.stream.IStreamView;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.Utils;
 
 /**
@@ -48,10 +61,208 @@ public class StreamsView extends AbstractView {
     @Getter
     Multimap<UUID, IStreamView> streamCache = Multimaps.synchronizedMultimap(HashMultimap.create());
 
+    /**
+     * The streams each tail listener is interested in.
+     */
+    private final Map<StreamTailListener, Set<UUID>> tailListeners = new ConcurrentHashMap<>();
+
+    /**
+     * Dispatches the tail advances pushed by the sequencer to the tail listeners.
+     */
+    private final Consumer<Map<UUID, Long>> tailDispatcher = this::dispatchTails;
+
+    /**
+     * The router of the sequencer the tail listeners are subscribed to, or null.
+     */
+    private IClientRouter tailSubscriptionRouter = null;
+
+    /**
+     * The endpoint of the sequencer the tail listeners are subscribed to, or null.
+     */
+    private volatile String tailSubscriptionSequencer = null;
+
+    /**
+     * Whether an update of the tail subscription is queued and has not started yet.
+     */
+    private final AtomicBoolean tailSubscriptionUpdatePending = new AtomicBoolean(false);
+
+    /**
+     * The thread which moves the tail subscription to a new primary sequencer.
+     */
+    private ExecutorService tailSubscriptionExecutor;
+
+    /**
+     * Whether the view is shut down.
+     */
+    private boolean shutdown = false;
+
+    /**
+     * Guards the tail subscription thread, apart from the subscription itself which is
+     * updated under the monitor of the view while it talks to the sequencer.
+     */
+    private final Object tailSubscriptionExecutorLock = new Object();
+
+    /**
+     * A listener of the tail advances of streams, pushed by the sequencer.
+     */
+    @FunctionalInterface
+    public interface StreamTailListener {
+        /**
+         * Called when the tails of some of the streams the listener is interested in
+         * advance. The tails are those of the tokens issued, so the entries may not be
+         * written yet. The notifications are hints for the readers tailing a stream: they
+         * are coalesced, and advances can be missed while the primary sequencer changes.
+         *
+         * @param streamTails the latest tail of each stream which advanced
+         */
+        void onTailsAdvanced(Map<UUID, Long> streamTails);
+    }
+
     public StreamsView(final CorfuRuntime runtime) {
         super(runtime);
     }
 
+    /**
+     * Add a listener of the tail advances of a set of streams, which the primary sequencer
+     * pushes to the runtime instead of the readers polling it. The listener is called with
+     * the current tails of the streams once subscribed.
+     *
+     * @param listener  The listener.
+     * @param streamIds The streams the listener is interested in.
+     */
+    public void addTailListener(@Nonnull StreamTailListener listener,
+                                @Nonnull UUID... streamIds) {
+        tailListeners.put(listener, ImmutableSet.copyOf(streamIds));
+        updateTailSubscription();
+    }
+
+    /**
+     * Remove a listener of the tail advances of streams.
+     *
+     * @param listener The listener.
+     */
+    public void removeTailListener(@Nonnull StreamTailListener listener) {
+        if (tailListeners.remove(listener) != null) {
+            updateTailSubscription();
+        }
+    }
+
+    /**
+     * Subscribe to the tail advances of the streams the tail listeners are interested in,
+     * on the current primary sequencer. This is called again when the layout changes, since
+     * the subscriptions don't move to a new primary sequencer.
+     */
+    public synchronized void updateTailSubscription() {
+        final Set<UUID> streams = new HashSet<>();
+        tailListeners.values().forEach(streams::addAll);
+        if (streams.isEmpty() && tailSubscriptionRouter == null) {
+            return;
+        }
+
+        layoutHelper(e -> {
+            IClientRouter router = runtime.getRouter(e.getLayout().getSequencers().get(0));
+            if (router != tailSubscriptionRouter) {
+                if (tailSubscriptionRouter != null) {
+                    tailSubscriptionRouter.getClient(SequencerHandler.class)
+                            .removeTailListener(tailDispatcher);
+                }
+                router.getClient(SequencerHandler.class).addTailListener(tailDispatcher);
+                tailSubscriptionRouter = router;
+            }
+            tailSubscriptionSequencer = e.getLayout().getSequencers().get(0);
+            CFUtils.getUninterruptibly(e.getPrimarySequencerClient().subscribeTails(streams));
+            return null;
+        });
+
+        if (streams.isEmpty()) {
+            tailSubscriptionRouter.getClient(SequencerHandler.class)
+                    .removeTailListener(tailDispatcher);
+            tailSubscriptionRouter = null;
+            tailSubscriptionSequencer = null;
+        }
+        log.debug("updateTailSubscription: subscribed to {} streams", streams.size());
+    }
+
+    /**
+     * Move the tail subscription to the primary sequencer of a new layout, if it changed.
+     * The update runs on a dedicated thread, and the layout changes received while an
+     * update is queued are coalesced into it.
+     *
+     * @param layout The new layout.
+     */
+    public void onLayoutChange(@Nonnull Layout layout) {
+        if (tailListeners.isEmpty()
+                || layout.getSequencers().get(0).equals(tailSubscriptionSequencer)) {
+            return;
+        }
+        if (!tailSubscriptionUpdatePending.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            getTailSubscriptionExecutor().execute(() -> {
+                tailSubscriptionUpdatePending.set(false);
+                try {
+                    updateTailSubscription();
+                } catch (Exception e) {
+                    log.warn("onLayoutChange: failed to update the tail subscription", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            tailSubscriptionUpdatePending.set(false);
+            log.debug("onLayoutChange: view is shut down, tail subscription not updated");
+        }
+    }
+
+    /**
+     * Get the thread which moves the tail subscription to a new primary sequencer.
+     *
+     * @return The tail subscription thread.
+     * @throws RejectedExecutionException If the view is shut down.
+     */
+    private ExecutorService getTailSubscriptionExecutor() {
+        synchronized (tailSubscriptionExecutorLock) {
+            if (shutdown) {
+                throw new RejectedExecutionException("StreamsView is shut down");
+            }
+            if (tailSubscriptionExecutor == null) {
+                tailSubscriptionExecutor = Executors.newSingleThreadExecutor(
+                        new ThreadFactoryBuilder()
+                                .setDaemon(true)
+                                .setNameFormat("tail-subscription-%d")
+                                .build());
+            }
+            return tailSubscriptionExecutor;
+        }
+    }
+
+    /**
+     * Stop the thread which moves the tail subscription to a new primary sequencer.
+     */
+    public void shutdown() {
+        synchronized (tailSubscriptionExecutorLock) {
+            shutdown = true;
+            if (tailSubscriptionExecutor != null) {
+                tailSubscriptionExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private void dispatchTails(Map<UUID, Long> streamTails) {
+        tailListeners.forEach((listener, streams) -> {
+            Map<UUID, Long> tails = new HashMap<>();
+            for (UUID stream : streams) {
+                Long tail = streamTails.get(stream);
+                if (tail != null) {
+                    tails.put(stream, tail);
+                }
+            }
+            if (!tails.isEmpty()) {
+                listener.onTailsAdvanced(tails);
+            }
+        });
+    }
+
     /**
      * Get a view on a stream. The view has its own pointer to the stream.
      *
@@ -121,9 +332,17 @@ public class StreamsView extends AbstractView {
     public long append(@Nonnull Object object, @Nullable TxResolutionInfo conflictInfo,
                        @Nonnull CacheOption cacheOption, @Nonnull UUID ... streamIDs) {
         // Go to the sequencer, grab an initial token.
-        TokenResponse tokenResponse = conflictInfo == null
-                ? runtime.getSequencerView().next(streamIDs) // Token w/o conflict info
-                : runtime.getSequencerView().next(conflictInfo, streamIDs); // Token w/ conflict info
+        TokenResponse tokenResponse;
+        if (conflictInfo == null) {
+            // Token w/o conflict info
+            tokenResponse = runtime.getSequencerView().next(streamIDs);
+        } else if (runtime.getParameters().isGroupCommitEnabled()) {
+            // Token w/ conflict info, acquired with those of the concurrent transactions
+            tokenResponse = runtime.getGroupCommitter().next(conflictInfo, streamIDs);
+        } else {
+            // Token w/ conflict info
+            tokenResponse = runtime.getSequencerView().next(conflictInfo, streamIDs);
+        }
 
         for (int x = 0; x < runtime.getParameters().getWriteRetry(); x++) {
 
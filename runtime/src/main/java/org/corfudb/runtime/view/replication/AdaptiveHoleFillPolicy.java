@@ -0,0 +1,196 @@
+package org.corfudb.runtime.view.replication;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.corfudb.runtime.exceptions.RetryExhaustedException;
+import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
+import org.corfudb.util.CorfuComponent;
+import org.corfudb.util.retry.ExponentialBackoffRetry;
+import org.corfudb.util.retry.IRetry;
+import org.corfudb.util.retry.RetryNeededException;
+
+/**
+ * A hole filling policy which waits for an unwritten address as long as the writes of the
+ * runtime usually take to complete, before requiring a hole fill.
+ *
+ * <p>The runtime records the latency of its writes, and the wait is a multiple of a high
+ * percentile of the recent latencies, bounded by a minimum and a maximum wait. Until enough
+ * writes were observed, the maximum wait is used, like {@link ReadWaitHoleFillPolicy}.
+ *
+ * <p>The address is peeked with an exponential backoff, and a hole fill also requires a
+ * minimum number of peeks: a reader paused (e.g. by the GC) for longer than the wait would
+ * otherwise hole fill on its first retry, and all the readers paused together would hole
+ * fill the addresses being written at once.
+ */
+@Slf4j
+public class AdaptiveHoleFillPolicy implements IHoleFillPolicy {
+
+    /**
+     * The percentile of the write latencies the wait is derived from.
+     */
+    static final double WRITE_LATENCY_PERCENTILE = 0.999;
+
+    /**
+     * The wait is this many times the write latency percentile.
+     */
+    static final int WAIT_FACTOR = 2;
+
+    /**
+     * The number of writes observed before the wait adapts to them.
+     */
+    static final int MIN_SAMPLES = 100;
+
+    /**
+     * The number of empty peeks of an address before it can be hole filled.
+     */
+    static final int MIN_PEEKS = 3;
+
+    private static final float BACKOFF_RANDOM_PORTION = .5f;
+
+    private static final String HOLE_FILL_METRIC =
+            CorfuComponent.ADDRESS_SPACE_VIEW + "hole-fill";
+
+    /**
+     * The wait when the write latencies are all short.
+     */
+    private final Duration minWait;
+
+    /**
+     * The wait when the write latencies are unknown or long.
+     */
+    private final Duration maxWait;
+
+    /**
+     * The cap of the backoff between consecutive peeks.
+     */
+    private final Duration retryWaitThreshold;
+
+    private final Histogram writeLatencies;
+
+    private final Meter holeFills;
+
+    private final Meter overwrites;
+
+    /**
+     * Create an AdaptiveHoleFillPolicy.
+     *
+     * @param minWait            The minimum time to wait before hole filling.
+     * @param maxWait            The maximum time to wait before hole filling.
+     * @param retryWaitThreshold The maximum time to wait between consecutive peeks.
+     * @param metrics            The metrics of the runtime.
+     */
+    public AdaptiveHoleFillPolicy(Duration minWait, Duration maxWait,
+                                  Duration retryWaitThreshold, MetricRegistry metrics) {
+        this.minWait = minWait.compareTo(maxWait) > 0 ? maxWait : minWait;
+        this.maxWait = maxWait;
+        this.retryWaitThreshold = retryWaitThreshold;
+
+        writeLatencies = metrics.histogram(HOLE_FILL_METRIC + ".write-latency");
+        holeFills = metrics.meter(HOLE_FILL_METRIC + ".hole-fills");
+        overwrites = metrics.meter(HOLE_FILL_METRIC + ".overwrites");
+        try {
+            metrics.register(HOLE_FILL_METRIC + ".wait",
+                    (Gauge<Long>) () -> getHoleFillWait().toMillis());
+        } catch (IllegalArgumentException e) {
+            // Re-registering metrics during test runs, not a problem
+        }
+    }
+
+    /**
+     * Record the latency of a successful write.
+     *
+     * @param latencyNanos the time the write took to complete, in nanoseconds
+     */
+    public void recordWrite(long latencyNanos) {
+        writeLatencies.update(latencyNanos);
+    }
+
+    /**
+     * Record a write that failed because its address was written by someone else
+     * (e.g. hole filled by a reader).
+     */
+    public void recordOverwrite() {
+        overwrites.mark();
+    }
+
+    /**
+     * Get the time to wait for an unwritten address before hole filling it.
+     *
+     * @return the current wait
+     */
+    public Duration getHoleFillWait() {
+        if (writeLatencies.getCount() < MIN_SAMPLES) {
+            return maxWait;
+        }
+
+        Snapshot snapshot = writeLatencies.getSnapshot();
+        long waitNanos = (long) (snapshot.getValue(WRITE_LATENCY_PERCENTILE) * WAIT_FACTOR);
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        return Duration.ofMillis(Math.max(minWait.toMillis(),
+                Math.min(maxWait.toMillis(), waitMillis)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ILogData peekUntilHoleFillRequired(long address, Function<Long, ILogData> peekFunction)
+            throws HoleFillRequiredException {
+        final Duration wait = getHoleFillWait();
+        final AtomicLong startTime = new AtomicLong();
+        final AtomicInteger peeks = new AtomicInteger();
+
+        try {
+            return IRetry.build(ExponentialBackoffRetry.class, RetryExhaustedException.class, () -> {
+
+                // Try the read
+                ILogData data = peekFunction.apply(address);
+                // If it was not null, we can return it.
+                if (data != null) {
+                    return data;
+                } else if (startTime.get() == 0) {
+                    startTime.set(System.currentTimeMillis());
+                } else if (peeks.get() >= MIN_PEEKS
+                        && System.currentTimeMillis() - startTime.get() >= wait.toMillis()) {
+                    throw new RetryExhaustedException("Retries Exhausted.");
+                }
+                peeks.incrementAndGet();
+
+                // Otherwise try again.
+                log.debug("peekUntilHoleFillRequired: Attempted read at address {}, "
+                        + "but data absent. Retrying.", address);
+                throw new RetryNeededException();
+            }).setOptions(x -> {
+                x.setMaxRetryThreshold(wait.compareTo(retryWaitThreshold) < 0
+                        ? wait : retryWaitThreshold);
+                x.setRandomPortion(BACKOFF_RANDOM_PORTION);
+            }).run();
+        } catch (InterruptedException ie) {
+            throw new UnrecoverableCorfuInterruptedError(ie);
+        } catch (RetryExhaustedException ree) {
+            // Retries exhausted. Hole filling.
+            log.debug("peekUntilHoleFillRequired: Address:{} empty after {}ms. Hole-filling.",
+                    address, wait.toMillis());
+        }
+
+        holeFills.mark();
+        throw new HoleFillRequiredException("No data after " + wait.toMillis() + "ms.");
+    }
+}
@@ -7,8 +7,16 @@
 package org.corfudb.runtime.view.replication;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -32,6 +40,7 @@ import org.corfudb.runtime.exceptions.QuorumUnreachableException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.ValueAdoptedException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
+import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.QuorumFuturesFactory;
 import org.corfudb.runtime.view.RuntimeLayout;
 import org.corfudb.util.CFUtils;
@@ -98,6 +107,103 @@ public class QuorumReplicationProtocol extends AbstractReplicationProtocol {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>All the addresses are read from every log unit in a single round, and the
+     * responses of the first majority to answer are used for the entries they agree on:
+     * such entries are on a majority, so they are committed. Only the other addresses
+     * (holes, entries which are trimmed or still being written) fall back to a quorum read
+     * of their own, which hole fills them if needed.
+     */
+    @Override
+    public Map<Long, ILogData> readAll(RuntimeLayout runtimeLayout, List<Long> globalAddresses) {
+        // Each stripe holds its own addresses, they are read from its log units in one request
+        Map<Layout.LayoutStripe, List<Long>> addressesByStripe = new LinkedHashMap<>();
+        for (long address : globalAddresses) {
+            addressesByStripe.computeIfAbsent(runtimeLayout.getLayout().getStripe(address),
+                    stripe -> new ArrayList<>()).add(address);
+        }
+
+        Map<Long, ILogData> returnResult = new TreeMap<>();
+        addressesByStripe.forEach((stripe, addresses) -> {
+            List<ReadResponse> responses = readMajority(runtimeLayout, stripe, addresses);
+            for (long address : addresses) {
+                ILogData value = getCommittedValue(responses, address);
+                if (value == null) {
+                    value = read(runtimeLayout, address);
+                }
+                returnResult.put(address, value);
+            }
+        });
+        return returnResult;
+    }
+
+    /**
+     * Read addresses from a majority of the log units of the stripe which holds them.
+     *
+     * @param runtimeLayout the layout to read with
+     * @param stripe        the stripe of the addresses
+     * @param addresses     the addresses to read
+     * @return the read responses of a majority of the log units, or an empty list if a
+     *         majority couldn't be reached
+     */
+    private List<ReadResponse> readMajority(RuntimeLayout runtimeLayout,
+                                            Layout.LayoutStripe stripe, List<Long> addresses) {
+        List<String> logServers = stripe.getLogServers();
+        int numUnits = logServers.size();
+        log.trace("readAll[{}]: quorum {}/{}", addresses, numUnits, numUnits);
+
+        CompletableFuture<ReadResponse>[] futures = new CompletableFuture[numUnits];
+        for (int i = 0; i < numUnits; i++) {
+            futures[i] = runtimeLayout.getLogUnitClient(logServers.get(i)).read(addresses);
+        }
+
+        try {
+            return CFUtils.getUninterruptibly(
+                    QuorumFuturesFactory.getMajorityFuture(futures),
+                    QuorumUnreachableException.class);
+        } catch (QuorumUnreachableException e) {
+            log.debug("readAll: Quorum unreachable, reading addresses one by one", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Long, ILogData> readRange(RuntimeLayout runtimeLayout, Set<Long> globalAddresses) {
+        return readAll(runtimeLayout, new ArrayList<>(new TreeSet<>(globalAddresses)));
+    }
+
+    /**
+     * Get the value of an address which all the responses of a majority agree on.
+     *
+     * @param responses the read responses of a majority of the log units
+     * @param address   the address
+     * @return the committed value, or null if the responses don't all have the same
+     *         written value
+     */
+    private ILogData getCommittedValue(List<ReadResponse> responses, long address) {
+        if (responses.isEmpty()) {
+            return null;
+        }
+
+        LogData committed = null;
+        for (ReadResponse response : responses) {
+            LogData value = response.getAddresses().get(address);
+            if (value == null || value.isTrimmed() || isEmptyType(value.getType())) {
+                return null;
+            }
+            if (committed != null && !Objects.equals(committed.getRank(), value.getRank())) {
+                return null;
+            }
+            committed = value;
+        }
+        return committed;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -226,6 +332,11 @@ public class QuorumReplicationProtocol extends AbstractReplicationProtocol {
             throw new UnrecoverableCorfuInterruptedError("Recovery interrupted", e);
         } catch (RuntimeException e) {
             throw e;
+        } finally {
+            // The serialized form of an adopted value was acquired here, return it to the pool
+            if (otherValueAdopted.get()) {
+                dh.getRef().releaseBuffer();
+            }
         }
 
     }
@@ -160,7 +160,7 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
     @Override
     protected ILogData read(final long address) {
         try {
-            return runtime.getAddressSpaceView().read(address);
+            return checkNotCompacted(runtime.getAddressSpaceView().read(address));
         } catch (TrimmedException te) {
             processTrimmedException(te);
             throw te;
@@ -174,7 +174,7 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
             Map<Long, ILogData> dataMap =
                     runtime.getAddressSpaceView().read(addresses);
             return addresses.stream()
-                    .map(x -> dataMap.get(x))
+                    .map(x -> checkNotCompacted(dataMap.get(x)))
                     .collect(Collectors.toList());
         } catch (TrimmedException te) {
             processTrimmedException(te);
@@ -182,6 +182,17 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
         }
     }
 
+    /**
+     * The payload of a compacted entry is only available through the checkpoints of its
+     * streams, so a stream reads it as trimmed and resolves itself from a checkpoint.
+     */
+    private ILogData checkNotCompacted(ILogData data) {
+        if (data.isCompacted()) {
+            throw new TrimmedException();
+        }
+        return data;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -414,7 +425,13 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
             latestTokenValue = context.resolvedQueue.ceiling(maxGlobal);
         }
 
-        // If we don't have a larger token in resolved, or the request was for
+        // If we don't have a larger token in resolved, use the tail of a recent
+        // query of several streams, if it covers maxGlobal.
+        if (latestTokenValue == null && maxGlobal != Address.MAX) {
+            latestTokenValue = runtime.getSequencerView().getStreamTailHint(context.id, maxGlobal);
+        }
+
+        // If we still don't have a token, or the request was for
         // a linearized read, fetch the token from the sequencer.
         if (latestTokenValue == null || maxGlobal == Address.MAX) {
             latestTokenValue = runtime.getSequencerView().query(context.id)
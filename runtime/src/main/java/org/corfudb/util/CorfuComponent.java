@@ -17,7 +17,9 @@ public enum CorfuComponent {
     // Infrastructure components
     INFRA_MSG_HANDLER("corfu.infrastructure.message-handler."),
     INFRA_SEQUENCER("corfu.infrastructure.sequencer."),
-    INFRA_STREAM_OPS("corfu.infrastructure.stream-ops.");
+    INFRA_LOG_UNIT("corfu.infrastructure.log-unit."),
+    INFRA_STREAM_OPS("corfu.infrastructure.stream-ops."),
+    INFRA_STATE_TRANSFER("corfu.infrastructure.state-transfer.");
 
     CorfuComponent(String value) {
         this.value = value;
@@ -14,6 +14,7 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -21,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.extern.slf4j.Slf4j;
@@ -32,8 +34,11 @@ import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.recovery.FastObjectLoader;
 import org.corfudb.recovery.RecoveryUtils;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.exceptions.QuorumUnreachableException;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.Layout;
+import org.corfudb.runtime.view.QuorumFuturesFactory;
+import org.corfudb.runtime.view.RuntimeLayout;
 
 import jdk.internal.org.objectweb.asm.ClassReader;
 import jdk.internal.org.objectweb.asm.tree.AbstractInsnNode;
@@ -495,25 +500,62 @@ public class Utils {
      * @param layout  Latest layout to get clients to fetch tails.
      * @return The max global log tail obtained from the log unit servers.
      */
-
     public static TailsResponse getTails(Layout layout, CorfuRuntime runtime) {
-        Set<TailsResponse> luResponses = new HashSet<>();
+        return getTails(layout, runtime, Address.NON_ADDRESS);
+    }
 
+    /**
+     * Fetches the max global log tail and the stream tails that have advanced past
+     * sinceAddress from the log unit cluster. The requests to all the stripes are
+     * sent before waiting on any of the responses, so the stripes are queried
+     * concurrently. In quorum replication, all the log units of a stripe are queried and
+     * the first majority to respond is aggregated.
+     *
+     * @param layout       Latest layout to get clients to fetch tails.
+     * @param sinceAddress Only stream tails greater than this address are collected.
+     * @return The max global log tail and stream tails obtained from the log unit servers.
+     */
+    public static TailsResponse getTails(Layout layout, CorfuRuntime runtime,
+                                         long sinceAddress) {
         Layout.LayoutSegment segment = layout.getLatestSegment();
+        List<CompletableFuture<TailsResponse>> futures = new ArrayList<>();
 
         // Query the tail of the head log unit in every stripe.
         if (segment.getReplicationMode().equals(Layout.ReplicationMode.CHAIN_REPLICATION)) {
+            RuntimeLayout runtimeLayout = runtime.getLayoutView().getRuntimeLayout(layout);
             for (Layout.LayoutStripe stripe : segment.getStripes()) {
-
-                TailsResponse res = CFUtils.getUninterruptibly(
-                        runtime.getLayoutView().getRuntimeLayout(layout)
-                                .getLogUnitClient(stripe.getLogServers().get(0))
-                                .getTail());
-                luResponses.add(res);
+                futures.add(runtimeLayout.getLogUnitClient(stripe.getLogServers().get(0))
+                        .getTail(sinceAddress));
             }
         } else if (segment.getReplicationMode()
                 .equals(Layout.ReplicationMode.QUORUM_REPLICATION)) {
-            throw new UnsupportedOperationException();
+            // Query all the log units of every stripe, and aggregate the tails of the first
+            // majority to respond. Every committed write is on a majority, which intersects
+            // the majority that responded, so the aggregate covers all the committed writes.
+            RuntimeLayout runtimeLayout = runtime.getLayoutView().getRuntimeLayout(layout);
+            List<CompletableFuture<List<TailsResponse>>> majorities = new ArrayList<>();
+            for (Layout.LayoutStripe stripe : segment.getStripes()) {
+                CompletableFuture<TailsResponse>[] stripeFutures =
+                        new CompletableFuture[stripe.getLogServers().size()];
+                for (int i = 0; i < stripeFutures.length; i++) {
+                    stripeFutures[i] = runtimeLayout
+                            .getLogUnitClient(stripe.getLogServers().get(i))
+                            .getTail(sinceAddress);
+                }
+                majorities.add(QuorumFuturesFactory.getMajorityFuture(stripeFutures));
+            }
+
+            Set<TailsResponse> luResponses = new HashSet<>();
+            for (CompletableFuture<List<TailsResponse>> majority : majorities) {
+                luResponses.addAll(CFUtils.getUninterruptibly(majority,
+                        QuorumUnreachableException.class));
+            }
+            return getTails(luResponses);
+        }
+
+        Set<TailsResponse> luResponses = new HashSet<>();
+        for (CompletableFuture<TailsResponse> future : futures) {
+            luResponses.add(CFUtils.getUninterruptibly(future));
         }
 
         return getTails(luResponses);
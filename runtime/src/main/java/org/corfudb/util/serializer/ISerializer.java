@@ -2,6 +2,7 @@ package org.corfudb.util.serializer;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Longs;
 
 import java.nio.ByteBuffer;
 import java.util.Map;
@@ -15,7 +16,6 @@ import de.javakaffee.kryoserializers.guava.ImmutableMapSerializer;
 import de.javakaffee.kryoserializers.guava.ImmutableMultimapSerializer;
 import de.javakaffee.kryoserializers.guava.ImmutableSetSerializer;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 
 import net.openhft.hashing.LongHashFunction;
 
@@ -136,15 +136,34 @@ public interface ISerializer {
         } else {
             // Otherwise, revert to having xx generate a hash by using the
             // serializer then hashing.
-            long hash;
-            ByteBuf b = Unpooled.buffer();
-            serialize(o, b);
-            hash = LongHashFunction.xx().hashBytes(b.nioBuffer());
-            b.release();
-            return Utils.longToBigEndianByteArray(hash);
+            return Utils.longToBigEndianByteArray(SerializedHasher.hash(this, o));
         }
     }
 
+    /** Given an object, generate a 64-bit fingerprint for it.
+     *  The fingerprints are used by Corfu for conflict resolution.
+     *
+     * The fingerprint is the {@link #hash(Object)} of the object read as a
+     * big-endian long, or the xxHash of the hash when it is not 8 bytes long,
+     * so that all the clients agree on the conflict keys. Strings and longs
+     * take the same value without allocating their hash. A serializer opts
+     * into a cheaper fingerprint of its objects by overriding this method.
+     *
+     * @param o The object to fingerprint.
+     * @return  The fingerprint of the object.
+     */
+    default long fingerprint(Object o) {
+        if (o instanceof String) {
+            return LongHashFunction.xx().hashChars((String) o);
+        } else if (o instanceof Long) {
+            return (Long) o;
+        }
+
+        byte[] hash = hash(o);
+        return hash.length == Long.BYTES
+                ? Longs.fromByteArray(hash) : LongHashFunction.xx().hashBytes(hash);
+    }
+
     /**
      * Clone an object through serialization.
      *
@@ -0,0 +1,612 @@
+package org.corfudb.util.serializer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.openhft.hashing.LongHashFunction;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.util.Utils;
+import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
+
+/**
+ * A compact binary serializer for plain Java objects.
+ *
+ * <p>Every class that is serialized as an object must be registered with a type id, which
+ * is written instead of the class name. The fields of a class are written as (tag, value)
+ * pairs, where the tag comes from the {@link Tag} annotation of the field. A class without
+ * tagged fields has all its non transient fields written, tagged with a hash of their names, so
+ * that adding, removing or reordering fields does not change the tags of the other fields.
+ * Renaming such a field changes its tag, so classes that evolve should tag their fields.
+ * Since the fields of an object are length-prefixed and tagged, a reader skips the fields it
+ * does not know, and leaves the fields missing from the payload to their default value.
+ *
+ * <p>Besides registered objects and enums, the serializer handles boxed primitives, strings,
+ * byte arrays, UUIDs, and lists, sets and maps of the above. Collections are read back as
+ * {@link ArrayList}, {@link HashSet} and {@link HashMap}, unless the field they are assigned
+ * to has another type with a no-argument constructor.
+ *
+ * <p>Registered objects are hashed field by field, without serializing them to a buffer.
+ *
+ * <p>The serializer must be registered through {@link Serializers#registerSerializer} with the
+ * same type, and the same classes registered with the same type ids, on every client.
+ */
+public class SchemaSerializer implements ISerializer {
+
+    /**
+     * Tags a field of a registered class. Tags must be unique within a class hierarchy, and
+     * must not be reused for a field of another type once data was written with them.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Tag {
+        int value();
+    }
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte BYTE = 2;
+    private static final byte SHORT = 3;
+    private static final byte CHAR = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte STRING = 9;
+    private static final byte BYTES = 10;
+    private static final byte UUID_VALUE = 11;
+    private static final byte LIST = 12;
+    private static final byte SET = 13;
+    private static final byte MAP = 14;
+    private static final byte ENUM = 15;
+    private static final byte OBJECT = 16;
+
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /** The number of bits of the tags derived from field names, which fit a 3 byte varint. */
+    private static final int NAME_TAG_BITS = 21;
+
+    private static final LongHashFunction xx = LongHashFunction.xx();
+
+    private final byte type;
+
+    private final ObjenesisStd objenesis = new ObjenesisStd(true);
+
+    private final Map<Class<?>, Schema> schemasByClass = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Schema> schemasById = new ConcurrentHashMap<>();
+
+    public SchemaSerializer(byte type) {
+        this.type = type;
+    }
+
+    @Override
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Register a class (or an enum) to be serialized by this serializer.
+     *
+     * @param typeId The id written in place of the class name.
+     * @param cls    The class to register.
+     */
+    public void registerType(int typeId, Class<?> cls) {
+        if (typeId < 0) {
+            throw new IllegalArgumentException("Type id must not be negative: " + typeId);
+        }
+
+        Schema schema = new Schema(typeId, cls);
+        Schema existing = schemasById.putIfAbsent(typeId, schema);
+        if (existing != null && existing.cls != cls) {
+            throw new IllegalArgumentException("Type id " + typeId + " is already registered to "
+                    + existing.cls.getName());
+        }
+        schemasByClass.put(cls, schema);
+    }
+
+    /**
+     * Deserialize an object from a given byte buffer.
+     *
+     * @param b The bytebuf to deserialize.
+     * @return The deserialized object.
+     */
+    @Override
+    public Object deserialize(ByteBuf b, CorfuRuntime rt) {
+        return readValue(b, b.readByte());
+    }
+
+    /**
+     * Serialize an object into a given byte buffer.
+     *
+     * @param o The object to serialize.
+     * @param b The bytebuf to serialize it into.
+     */
+    @Override
+    public void serialize(Object o, ByteBuf b) {
+        writeValue(o, b);
+    }
+
+    /**
+     * Hash registered objects field by field, and other objects as any serializer does.
+     *
+     * @param o The object to hash.
+     * @return The hashed object value, as a byte array.
+     */
+    @Override
+    public byte[] hash(Object o) {
+        if (schemasByClass.containsKey(o.getClass())) {
+            return Utils.longToBigEndianByteArray(hashValue(o));
+        }
+        return ISerializer.super.hash(o);
+    }
+
+    /**
+     * Fingerprint registered objects field by field, and other objects as any serializer does.
+     *
+     * @param o The object to fingerprint.
+     * @return The fingerprint of the object.
+     */
+    @Override
+    public long fingerprint(Object o) {
+        if (schemasByClass.containsKey(o.getClass())) {
+            return hashValue(o);
+        }
+        return ISerializer.super.fingerprint(o);
+    }
+
+    private void writeValue(Object o, ByteBuf b) {
+        if (o == null) {
+            b.writeByte(NULL);
+        } else if (o instanceof String) {
+            b.writeByte(STRING);
+            writeString((String) o, b);
+        } else if (o instanceof Integer) {
+            b.writeByte(INT);
+            writeVarLong(zigZag((Integer) o), b);
+        } else if (o instanceof Long) {
+            b.writeByte(LONG);
+            writeVarLong(zigZag((Long) o), b);
+        } else if (o instanceof UUID) {
+            b.writeByte(UUID_VALUE);
+            b.writeLong(((UUID) o).getMostSignificantBits());
+            b.writeLong(((UUID) o).getLeastSignificantBits());
+        } else if (o instanceof Boolean) {
+            b.writeByte(BOOLEAN);
+            b.writeBoolean((Boolean) o);
+        } else if (o instanceof Byte) {
+            b.writeByte(BYTE);
+            b.writeByte((Byte) o);
+        } else if (o instanceof Short) {
+            b.writeByte(SHORT);
+            b.writeShort((Short) o);
+        } else if (o instanceof Character) {
+            b.writeByte(CHAR);
+            b.writeChar((Character) o);
+        } else if (o instanceof Float) {
+            b.writeByte(FLOAT);
+            b.writeFloat((Float) o);
+        } else if (o instanceof Double) {
+            b.writeByte(DOUBLE);
+            b.writeDouble((Double) o);
+        } else if (o instanceof byte[]) {
+            b.writeByte(BYTES);
+            writeVarLong(((byte[]) o).length, b);
+            b.writeBytes((byte[]) o);
+        } else if (o instanceof List) {
+            b.writeByte(LIST);
+            writeCollection((List<?>) o, b);
+        } else if (o instanceof Set) {
+            b.writeByte(SET);
+            writeCollection((Set<?>) o, b);
+        } else if (o instanceof Map) {
+            b.writeByte(MAP);
+            Map<?, ?> map = (Map<?, ?>) o;
+            writeVarLong(map.size(), b);
+            map.forEach((k, v) -> {
+                writeValue(k, b);
+                writeValue(v, b);
+            });
+        } else {
+            Schema schema = getSchema(o.getClass());
+            if (schema.cls.isEnum()) {
+                b.writeByte(ENUM);
+                writeVarLong(schema.typeId, b);
+                writeVarLong(((Enum<?>) o).ordinal(), b);
+            } else {
+                b.writeByte(OBJECT);
+                writeVarLong(schema.typeId, b);
+                writeObject(schema, o, b);
+            }
+        }
+    }
+
+    private void writeCollection(Collection<?> collection, ByteBuf b) {
+        writeVarLong(collection.size(), b);
+        for (Object element : collection) {
+            writeValue(element, b);
+        }
+    }
+
+    private void writeObject(Schema schema, Object o, ByteBuf b) {
+        // Reserve the length of the fields, so that readers can skip the object.
+        int lengthIndex = b.writerIndex();
+        b.writeInt(0);
+        try {
+            for (FieldInfo field : schema.fields) {
+                writeVarLong(field.tag, b);
+                writeField(field, o, b);
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to serialize " + schema.cls.getName(), e);
+        }
+        b.setInt(lengthIndex, b.writerIndex() - lengthIndex - Integer.BYTES);
+    }
+
+    private void writeField(FieldInfo info, Object o, ByteBuf b) throws IllegalAccessException {
+        final Field field = info.field;
+        final Class<?> fieldType = field.getType();
+        // Read primitive fields without boxing them.
+        if (fieldType == int.class) {
+            b.writeByte(INT);
+            writeVarLong(zigZag(field.getInt(o)), b);
+        } else if (fieldType == long.class) {
+            b.writeByte(LONG);
+            writeVarLong(zigZag(field.getLong(o)), b);
+        } else if (fieldType == boolean.class) {
+            b.writeByte(BOOLEAN);
+            b.writeBoolean(field.getBoolean(o));
+        } else if (fieldType == double.class) {
+            b.writeByte(DOUBLE);
+            b.writeDouble(field.getDouble(o));
+        } else {
+            writeValue(field.get(o), b);
+        }
+    }
+
+    private Object readValue(ByteBuf b, byte valueType) {
+        switch (valueType) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return b.readBoolean();
+            case BYTE:
+                return b.readByte();
+            case SHORT:
+                return b.readShort();
+            case CHAR:
+                return b.readChar();
+            case INT:
+                return (int) unZigZag(readVarLong(b));
+            case LONG:
+                return unZigZag(readVarLong(b));
+            case FLOAT:
+                return b.readFloat();
+            case DOUBLE:
+                return b.readDouble();
+            case STRING:
+                return readString(b);
+            case BYTES:
+                byte[] bytes = new byte[(int) readVarLong(b)];
+                b.readBytes(bytes);
+                return bytes;
+            case UUID_VALUE:
+                return new UUID(b.readLong(), b.readLong());
+            case LIST:
+                int listSize = (int) readVarLong(b);
+                List<Object> list = new ArrayList<>(listSize);
+                for (int i = 0; i < listSize; i++) {
+                    list.add(readValue(b, b.readByte()));
+                }
+                return list;
+            case SET:
+                int setSize = (int) readVarLong(b);
+                Set<Object> set = new HashSet<>();
+                for (int i = 0; i < setSize; i++) {
+                    set.add(readValue(b, b.readByte()));
+                }
+                return set;
+            case MAP:
+                int mapSize = (int) readVarLong(b);
+                Map<Object, Object> map = new HashMap<>();
+                for (int i = 0; i < mapSize; i++) {
+                    map.put(readValue(b, b.readByte()), readValue(b, b.readByte()));
+                }
+                return map;
+            case ENUM:
+                Schema enumSchema = getSchema((int) readVarLong(b));
+                return enumSchema.cls.getEnumConstants()[(int) readVarLong(b)];
+            case OBJECT:
+                int typeId = (int) readVarLong(b);
+                int length = b.readInt();
+                Schema schema = schemasById.get(typeId);
+                if (schema == null) {
+                    throw new RuntimeException("Unregistered type id " + typeId);
+                }
+                return readObject(schema, b, b.readerIndex() + length);
+            default:
+                throw new RuntimeException("Unknown value type " + valueType);
+        }
+    }
+
+    private Object readObject(Schema schema, ByteBuf b, int end) {
+        Object o = schema.instantiator.newInstance();
+        try {
+            while (b.readerIndex() < end) {
+                int tag = (int) readVarLong(b);
+                byte valueType = b.readByte();
+                FieldInfo field = schema.getField(tag);
+                if (field == null) {
+                    // Written by a newer version of the class, skip it.
+                    skipValue(b, valueType);
+                    continue;
+                }
+                field.set(o, readValue(b, valueType));
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Unable to deserialize " + schema.cls.getName(), e);
+        }
+        return o;
+    }
+
+    private void skipValue(ByteBuf b, byte valueType) {
+        if (valueType == OBJECT) {
+            // The type of the object may not be registered, skip it without reading it.
+            readVarLong(b);
+            b.skipBytes(b.readInt());
+        } else {
+            readValue(b, valueType);
+        }
+    }
+
+    private long hashValue(Object o) {
+        if (o == null) {
+            return 0;
+        } else if (o instanceof String) {
+            return xx.hashChars((String) o);
+        } else if (o instanceof Long || o instanceof Integer || o instanceof Short
+                || o instanceof Byte) {
+            return mix(((Number) o).longValue(), LONG);
+        } else if (o instanceof Boolean) {
+            return mix((Boolean) o ? 1 : 0, BOOLEAN);
+        } else if (o instanceof Character) {
+            return mix((Character) o, CHAR);
+        } else if (o instanceof Float || o instanceof Double) {
+            return mix(Double.doubleToLongBits(((Number) o).doubleValue()), DOUBLE);
+        } else if (o instanceof UUID) {
+            return mix(((UUID) o).getMostSignificantBits(),
+                    ((UUID) o).getLeastSignificantBits());
+        } else if (o instanceof byte[]) {
+            return xx.hashBytes((byte[]) o);
+        } else if (o instanceof List) {
+            long hash = LIST;
+            for (Object element : (List<?>) o) {
+                hash = mix(hash, hashValue(element));
+            }
+            return hash;
+        } else if (o instanceof Set) {
+            // Sets and maps are hashed regardless of their iteration order.
+            long hash = 0;
+            for (Object element : (Set<?>) o) {
+                hash += hashValue(element);
+            }
+            return mix(hash, SET);
+        } else if (o instanceof Map) {
+            long hash = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+                hash += mix(hashValue(entry.getKey()), hashValue(entry.getValue()));
+            }
+            return mix(hash, MAP);
+        }
+
+        Schema schema = getSchema(o.getClass());
+        if (schema.cls.isEnum()) {
+            return mix(schema.typeId, ((Enum<?>) o).ordinal());
+        }
+
+        long hash = schema.typeId;
+        try {
+            for (FieldInfo info : schema.fields) {
+                final Field field = info.field;
+                final Class<?> fieldType = field.getType();
+                final long fieldHash;
+                if (fieldType == int.class) {
+                    fieldHash = mix(field.getInt(o), LONG);
+                } else if (fieldType == long.class) {
+                    fieldHash = mix(field.getLong(o), LONG);
+                } else {
+                    fieldHash = hashValue(field.get(o));
+                }
+                hash = mix(mix(hash, info.tag), fieldHash);
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to hash " + schema.cls.getName(), e);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * HASH_MULTIPLIER;
+        return h ^ (h >>> (Long.SIZE / 2));
+    }
+
+    private Schema getSchema(Class<?> cls) {
+        Schema schema = schemasByClass.get(cls);
+        if (schema == null) {
+            throw new RuntimeException("Unsupported class for serialization: " + cls);
+        }
+        return schema;
+    }
+
+    private Schema getSchema(int typeId) {
+        Schema schema = schemasById.get(typeId);
+        if (schema == null) {
+            throw new RuntimeException("Unregistered type id " + typeId);
+        }
+        return schema;
+    }
+
+    private static void writeString(String s, ByteBuf b) {
+        int lengthIndex = b.writerIndex();
+        b.writeInt(0);
+        int length = ByteBufUtil.writeUtf8(b, s);
+        b.setInt(lengthIndex, length);
+    }
+
+    private static String readString(ByteBuf b) {
+        int length = b.readInt();
+        String s = b.toString(b.readerIndex(), length, StandardCharsets.UTF_8);
+        b.skipBytes(length);
+        return s;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> (Long.SIZE - 1));
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(long value, ByteBuf b) {
+        while ((value & ~0x7FL) != 0) {
+            b.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        b.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuf b) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte current = b.readByte();
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new RuntimeException("Malformed variable length integer");
+    }
+
+    /**
+     * The fields of a registered class, in tag order.
+     */
+    private class Schema {
+        final int typeId;
+        final Class<?> cls;
+        final List<FieldInfo> fields = new ArrayList<>();
+        final Map<Integer, FieldInfo> fieldsByTag = new HashMap<>();
+        final ObjectInstantiator<?> instantiator;
+
+        Schema(int typeId, Class<?> cls) {
+            this.typeId = typeId;
+            this.cls = cls;
+            this.instantiator = cls.isEnum() ? null : objenesis.getInstantiatorOf(cls);
+            if (cls.isEnum()) {
+                return;
+            }
+
+            List<Field> allFields = new ArrayList<>();
+            for (Class<?> c = cls; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+                            && !field.isSynthetic()) {
+                        allFields.add(field);
+                    }
+                }
+            }
+
+            boolean tagged = allFields.stream().anyMatch(f -> f.isAnnotationPresent(Tag.class));
+            for (Field field : allFields) {
+                if (tagged && !field.isAnnotationPresent(Tag.class)) {
+                    continue;
+                }
+                int tag = tagged ? field.getAnnotation(Tag.class).value()
+                        : getNameTag(field.getName());
+                field.setAccessible(true);
+                FieldInfo info = new FieldInfo(tag, field);
+                if (fieldsByTag.put(tag, info) != null) {
+                    throw new IllegalArgumentException("Duplicate tag " + tag + " in "
+                            + cls.getName() + (tagged ? "" : ", tag the fields of the class"));
+                }
+                fields.add(info);
+            }
+            fields.sort(Comparator.comparingInt(f -> f.tag));
+        }
+
+        FieldInfo getField(int tag) {
+            return fieldsByTag.get(tag);
+        }
+    }
+
+    /**
+     * Get the tag of an untagged field, which only depends on the name of the field.
+     *
+     * @param name The name of the field.
+     * @return The tag of the field.
+     */
+    static int getNameTag(String name) {
+        return (int) (LongHashFunction.xx().hashChars(name) >>> (Long.SIZE - NAME_TAG_BITS));
+    }
+
+    /**
+     * A field of a registered class, and its tag.
+     */
+    private static class FieldInfo {
+        final int tag;
+        final Field field;
+
+        FieldInfo(int tag, Field field) {
+            this.tag = tag;
+            this.field = field;
+        }
+
+        /**
+         * Assign a deserialized value to the field, converting it to the type of the field
+         * if needed.
+         */
+        @SuppressWarnings("unchecked")
+        void set(Object o, Object value) throws ReflectiveOperationException {
+            final Class<?> fieldType = field.getType();
+            if (value == null) {
+                if (!fieldType.isPrimitive()) {
+                    field.set(o, null);
+                }
+            } else if (fieldType.isPrimitive() || fieldType.isInstance(value)) {
+                field.set(o, value);
+            } else if (value instanceof Collection && Collection.class.isAssignableFrom(fieldType)) {
+                Collection<Object> collection =
+                        (Collection<Object>) fieldType.getDeclaredConstructor().newInstance();
+                collection.addAll((Collection<Object>) value);
+                field.set(o, collection);
+            } else if (value instanceof Map && Map.class.isAssignableFrom(fieldType)) {
+                Map<Object, Object> map =
+                        (Map<Object, Object>) fieldType.getDeclaredConstructor().newInstance();
+                map.putAll((Map<Object, Object>) value);
+                field.set(o, map);
+            } else {
+                throw new IllegalArgumentException("Cannot assign " + value.getClass().getName()
+                        + " to " + field);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.corfudb.util.serializer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import net.openhft.hashing.LongHashFunction;
+
+/**
+ * Hashes objects by serializing them, reusing a buffer of the calling thread
+ * instead of allocating one for every hash.
+ */
+final class SerializedHasher {
+
+    /** Buffers for hashing that grew larger than this are shrunk back after use. */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    /** The buffer of each thread, objects are serialized into it for hashing. */
+    private static final ThreadLocal<ByteBuf> buffers = ThreadLocal.withInitial(Unpooled::buffer);
+
+    private SerializedHasher() {
+        // Prevent instantiation of this class
+    }
+
+    /**
+     * Serialize an object and hash it with xxHash.
+     *
+     * <p>The object is written after the bytes already in the buffer, which are left in place,
+     * so that a serializer can hash another object while it serializes one.
+     *
+     * @param serializer The serializer of the object.
+     * @param o          The object to hash.
+     * @return The hash of the serialized object.
+     */
+    static long hash(ISerializer serializer, Object o) {
+        ByteBuf b = buffers.get();
+        int start = b.writerIndex();
+        try {
+            serializer.serialize(o, b);
+            return LongHashFunction.xx().hashBytes(b.nioBuffer(start, b.writerIndex() - start));
+        } finally {
+            b.writerIndex(start);
+            if (start == 0 && b.capacity() > MAX_RETAINED_CAPACITY) {
+                b.capacity(MAX_RETAINED_CAPACITY);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.corfudb.infrastructure;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionControlTest extends AbstractCorfuTest {
+
+    private static final int LIMIT = 64;
+
+    private static final int HIGH_WATERMARK = 48;
+
+    private static final int LOW_WATERMARK = 32;
+
+    private AdmissionControl newAdmissionControl() {
+        return new AdmissionControl("test.admission", LIMIT, EnumSet.of(CorfuMsgType.WRITE));
+    }
+
+    private CorfuMsg write(UUID clientId) {
+        return new CorfuMsg(CorfuMsgType.WRITE).setClientID(clientId);
+    }
+
+    @Test
+    public void requestsAboveTheLimitAreRejected() {
+        AdmissionControl admissionControl = newAdmissionControl();
+        UUID client = UUID.randomUUID();
+
+        for (int i = 0; i < LIMIT; i++) {
+            assertThat(admissionControl.tryAdmit(write(client))).isTrue();
+        }
+        assertThat(admissionControl.tryAdmit(write(client))).isFalse();
+        assertThat(admissionControl.getInFlight()).isEqualTo(LIMIT);
+
+        // Requests which are not controlled are always admitted
+        assertThat(admissionControl.tryAdmit(new CorfuMsg(CorfuMsgType.PING)
+                .setClientID(client))).isTrue();
+
+        admissionControl.release(write(client));
+        assertThat(admissionControl.tryAdmit(write(client))).isTrue();
+    }
+
+    @Test
+    public void clientsAreLimitedToTheirFairShare() {
+        AdmissionControl admissionControl = newAdmissionControl();
+        UUID greedyClient = UUID.randomUUID();
+        UUID otherClient = UUID.randomUUID();
+
+        for (int i = 0; i < HIGH_WATERMARK; i++) {
+            assertThat(admissionControl.tryAdmit(write(greedyClient))).isTrue();
+        }
+
+        // Once another client has requests in flight, the limit is split between the two
+        assertThat(admissionControl.tryAdmit(write(otherClient))).isTrue();
+        assertThat(admissionControl.tryAdmit(write(greedyClient))).isFalse();
+        assertThat(admissionControl.tryAdmit(write(otherClient))).isTrue();
+
+        for (int i = 0; i < HIGH_WATERMARK - LOW_WATERMARK; i++) {
+            admissionControl.release(write(greedyClient));
+        }
+        assertThat(admissionControl.tryAdmit(write(greedyClient))).isFalse();
+        admissionControl.release(write(greedyClient));
+        assertThat(admissionControl.tryAdmit(write(greedyClient))).isTrue();
+    }
+
+    @Test
+    public void channelsArePausedAboveTheHighWatermark() {
+        AdmissionControl admissionControl = newAdmissionControl();
+        EmbeddedChannel channel = new EmbeddedChannel();
+        UUID client = UUID.randomUUID();
+
+        for (int i = 0; i < HIGH_WATERMARK - 1; i++) {
+            admissionControl.tryAdmit(write(client));
+        }
+        admissionControl.applyBackpressure(write(client), channel);
+        assertThat(channel.config().isAutoRead()).isTrue();
+
+        admissionControl.tryAdmit(write(client));
+        admissionControl.applyBackpressure(write(client), channel);
+        assertThat(channel.config().isAutoRead()).isFalse();
+
+        // The channel is read from again once the server is back to its low watermark
+        for (int i = 0; i < HIGH_WATERMARK - LOW_WATERMARK - 1; i++) {
+            admissionControl.release(write(client));
+        }
+        assertThat(channel.config().isAutoRead()).isFalse();
+        admissionControl.release(write(client));
+        assertThat(channel.config().isAutoRead()).isTrue();
+    }
+
+    @Test
+    public void controlRequestsDoNotPauseChannels() {
+        AdmissionControl admissionControl = newAdmissionControl();
+        EmbeddedChannel channel = new EmbeddedChannel();
+        UUID client = UUID.randomUUID();
+
+        for (int i = 0; i < HIGH_WATERMARK; i++) {
+            admissionControl.tryAdmit(write(client));
+        }
+        admissionControl.applyBackpressure(new CorfuMsg(CorfuMsgType.PING)
+                .setClientID(client), channel);
+        assertThat(channel.config().isAutoRead()).isTrue();
+    }
+
+    @Test
+    public void pausedChannelsAreReadFromAfterTheMaxPause() throws Exception {
+        AdmissionControl admissionControl = newAdmissionControl();
+        EmbeddedChannel channel = new EmbeddedChannel();
+        UUID client = UUID.randomUUID();
+
+        for (int i = 0; i < HIGH_WATERMARK; i++) {
+            admissionControl.tryAdmit(write(client));
+        }
+        admissionControl.applyBackpressure(write(client), channel);
+        assertThat(channel.config().isAutoRead()).isFalse();
+
+        // The server is still above its high watermark, but the control requests of the
+        // channel must not be held back any longer
+        Thread.sleep(AdmissionControl.MAX_PAUSE_MS * 2);
+        channel.runScheduledPendingTasks();
+        assertThat(channel.config().isAutoRead()).isTrue();
+    }
+
+    @Test
+    public void requestsRejectedByTheExecutorAreReleased() {
+        AdmissionControl admissionControl = newAdmissionControl();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        AbstractServer server = new AbstractServer() {
+            private final CorfuMsgHandler handler = new CorfuMsgHandler()
+                    .addHandler(CorfuMsgType.WRITE, (msg, ctx, r) -> { });
+
+            @Override
+            public CorfuMsgHandler getHandler() {
+                return handler;
+            }
+
+            @Override
+            public ExecutorService getExecutor(CorfuMsgType type) {
+                return executor;
+            }
+
+            @Override
+            public AdmissionControl getAdmissionControl() {
+                return admissionControl;
+            }
+        };
+        ServerContext serverContext = new ServerContextBuilder().build();
+        NettyServerRouter router = new NettyServerRouter(
+                Arrays.asList(new BaseServer(serverContext), server));
+        EmbeddedChannel channel = new EmbeddedChannel(router);
+
+        channel.writeInbound(write(UUID.randomUUID()).setEpoch(serverContext.getServerEpoch()));
+        assertThat(admissionControl.getInFlight()).isZero();
+    }
+}
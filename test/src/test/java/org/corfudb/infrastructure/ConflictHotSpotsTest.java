@@ -0,0 +1,61 @@
+package org.corfudb.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.corfudb.protocols.wireprotocol.ConflictHotSpot;
+import org.corfudb.protocols.wireprotocol.TokenResponse;
+import org.junit.Test;
+
+/**
+ * Tests the tracking of the conflicts which make transactions abort.
+ */
+public class ConflictHotSpotsTest {
+
+    private static final int CAPACITY = 2;
+
+    /**
+     * Check that an untracked conflict replaces the conflict with the lowest count, and that
+     * the count it inherits is reported as its error.
+     */
+    @Test
+    public void untrackedConflictReplacesLowestCount() {
+        ConflictHotSpots hotSpots = new ConflictHotSpots(CAPACITY);
+        UUID stream = UUID.randomUUID();
+        final long hot = 1L;
+        final long cold = 2L;
+        final long newcomer = 3L;
+        final int hotAborts = 5;
+
+        for (int i = 0; i < hotAborts; i++) {
+            hotSpots.recordConflict(stream, hot);
+        }
+        hotSpots.recordConflict(stream, cold);
+        hotSpots.recordConflict(stream, newcomer);
+        hotSpots.recordStreamConflict(stream);
+
+        List<ConflictHotSpot> top = hotSpots.getHotSpots(CAPACITY);
+        assertThat(top).hasSize(CAPACITY);
+        assertThat(top.get(0).getCount()).isEqualTo(hotAborts);
+        assertThat(top.get(0).getError()).isEqualTo(0L);
+        // The stream conflict replaced the newcomer, which had replaced the cold conflict
+        assertThat(top.get(1).getConflictKey()).isEqualTo(TokenResponse.NO_CONFLICT_KEY);
+        assertThat(top.get(1).getCount()).isEqualTo(CAPACITY + 1);
+        assertThat(top.get(1).getError()).isEqualTo(CAPACITY);
+        assertThat(hotSpots.getHotSpots(1)).containsExactly(top.get(0));
+    }
+
+    /**
+     * Check that a negative limit sent by a client returns no conflicts instead of failing.
+     */
+    @Test
+    public void nonPositiveLimitsReturnNoHotSpots() {
+        ConflictHotSpots hotSpots = new ConflictHotSpots(CAPACITY);
+        hotSpots.recordConflict(UUID.randomUUID(), 1L);
+
+        assertThat(hotSpots.getHotSpots(0)).isEmpty();
+        assertThat(hotSpots.getHotSpots(-1)).isEmpty();
+    }
+}
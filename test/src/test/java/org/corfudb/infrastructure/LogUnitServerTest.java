@@ -7,6 +7,7 @@ import org.corfudb.infrastructure.log.StreamLogFiles;
 import org.corfudb.protocols.wireprotocol.*;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.view.Address;
+import org.corfudb.util.Sleep;
 import org.corfudb.util.serializer.Serializers;
 import org.junit.Test;
 
@@ -82,6 +83,96 @@ public class LogUnitServerTest extends AbstractServerTest {
 
     }
 
+    @Test
+    public void messagesAreDispatchedByType() {
+        LogUnitServer s1 = new LogUnitServer(new ServerContextBuilder().build());
+
+        // Reads and writes don't share a pool, and neither shares the default executor
+        assertThat(s1.getExecutor(CorfuMsgType.READ_REQUEST))
+                .isSameAs(s1.getExecutor(CorfuMsgType.MULTIPLE_READ_REQUEST))
+                .isNotSameAs(s1.getExecutor(CorfuMsgType.WRITE))
+                .isNotSameAs(s1.getExecutor());
+        assertThat(s1.getExecutor(CorfuMsgType.WRITE))
+                .isSameAs(s1.getExecutor(CorfuMsgType.FILL_HOLE))
+                .isNotSameAs(s1.getExecutor());
+        assertThat(s1.getExecutor(CorfuMsgType.PREFIX_TRIM)).isSameAs(s1.getExecutor());
+
+        // Trim mark requests are handled on the event loop
+        assertThat(s1.getHandler().isInline(CorfuMsgType.TRIM_MARK_REQUEST)).isTrue();
+        assertThat(s1.getHandler().isInline(CorfuMsgType.READ_REQUEST)).isFalse();
+        s1.shutdown();
+    }
+
+    /**
+     * The tails are read without going through the batch writer, the requests of an epoch the
+     * server was sealed out of are still rejected.
+     */
+    @Test
+    public void tailRequestsOfAnOldEpochAreRejected() {
+        // The context seals through its own router, the router of the test keeps its epoch
+        TestServerRouter sealRouter = new TestServerRouter();
+        ServerContext sc = new ServerContextBuilder().setServerRouter(sealRouter).build();
+        LogUnitServer s1 = new LogUnitServer(sc);
+        setServer(s1);
+        rawWrite(0L, "0", "a");
+
+        sendMessage(CorfuMsgType.TAIL_REQUEST.msg());
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.TAIL_RESPONSE);
+        sendMessage(CorfuMsgType.TAIL_SINCE_REQUEST.payloadMsg(
+                new TailsRequest(Address.NON_ADDRESS)));
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.TAIL_RESPONSE);
+
+        // Seal the server, while the router of the test still accepts the old epoch
+        sc.setServerEpoch(1L, sealRouter);
+        sendMessage(CorfuMsgType.TAIL_REQUEST.msg());
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.WRONG_EPOCH);
+        sendMessage(CorfuMsgType.TAIL_SINCE_REQUEST.payloadMsg(
+                new TailsRequest(Address.NON_ADDRESS)));
+        assertThat(getLastMessage().getMsgType()).isEqualTo(CorfuMsgType.WRONG_EPOCH);
+        s1.shutdown();
+    }
+
+    @Test
+    public void sequentialReadsAreLoadedAhead() throws Exception {
+        final int numEntries = 50;
+        final long randomAddress = 20;
+        final long scannedAddress = 10;
+        LogUnitServer s1 = new LogUnitServer(new ServerContextBuilder()
+                .setLogPath(PARAMETERS.TEST_TEMP_DIR)
+                .setMemory(false)
+                .build());
+        this.router.reset();
+        this.router.addServer(s1);
+
+        for (long x = 0; x < numEntries; x++) {
+            rawWrite(x, Long.toString(x), "a");
+        }
+        sendMessage(CorfuMsgType.FLUSH_CACHE.msg());
+        LogUnitReadAhead readAhead = s1.getReadAhead();
+
+        // Random reads are not loaded ahead
+        sendMessage(CorfuMsgType.READ_REQUEST.payloadMsg(new ReadRequest(0L)));
+        sendMessage(CorfuMsgType.READ_REQUEST.payloadMsg(new ReadRequest(randomAddress)));
+        assertThat(readAhead.isLoaded(randomAddress + 1)).isFalse();
+
+        // A scan loads the next addresses, which are then served from the scan buffer
+        for (long x = 0; x < LogUnitReadAhead.SEQUENTIAL_THRESHOLD; x++) {
+            sendMessage(CorfuMsgType.READ_REQUEST.payloadMsg(new ReadRequest(x)));
+        }
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_MODERATE
+                && !readAhead.isLoaded(numEntries - 1); i++) {
+            Sleep.sleepUninterruptibly(PARAMETERS.TIMEOUT_VERY_SHORT);
+        }
+        assertThat(readAhead.isLoaded(numEntries - 1)).isTrue();
+
+        sendMessage(CorfuMsgType.READ_REQUEST.payloadMsg(new ReadRequest(scannedAddress)));
+        assertThat(readAhead.isLoaded(scannedAddress)).isFalse();
+        assertThat(s1).containsDataAtAddress(scannedAddress);
+        assertThat(((ReadResponse) getLastPayloadMessageAs(ReadResponse.class))
+                .getAddresses().get(scannedAddress).getPayload(null))
+                .isEqualTo(Long.toString(scannedAddress).getBytes());
+    }
+
     @Test
     public void checkThatWritesArePersisted()
             throws Exception {
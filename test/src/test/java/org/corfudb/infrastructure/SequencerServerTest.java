@@ -1,20 +1,29 @@
 package org.corfudb.infrastructure;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.corfudb.protocols.wireprotocol.ConflictHotSpot;
+import org.corfudb.protocols.wireprotocol.ConflictHotSpotsResponse;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.SequencerTailsRecoveryMsg;
 import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.protocols.wireprotocol.TokenBatchRequest;
+import org.corfudb.protocols.wireprotocol.TokenBatchResponse;
 import org.corfudb.protocols.wireprotocol.TokenRequest;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.protocols.wireprotocol.TokenType;
+import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.view.Address;
+import org.corfudb.util.Utils;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -129,6 +138,69 @@ public class SequencerServerTest extends AbstractServerTest {
         }
     }
 
+    /**
+     * Verifies that the requests of a batch are served in order, and that each transaction of
+     * a batch is checked against the transactions before it.
+     */
+    @Test
+    public void batchRequestsAreServedInOrder() {
+        UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+        Token snapshot = new Token(0L, Address.NON_ADDRESS);
+        Map<UUID, long[]> keyA = Collections.singletonMap(streamA,
+                new long[] {"a".hashCode()});
+        Map<UUID, long[]> keyB = Collections.singletonMap(streamA,
+                new long[] {"b".hashCode()});
+
+        List<TokenRequest> requests = Arrays.asList(
+                new TokenRequest(1L, Collections.singletonList(streamA),
+                        new TxResolutionInfo(UUID.randomUUID(), snapshot, keyA, keyA)),
+                // Conflicts with the first transaction of the batch
+                new TokenRequest(1L, Collections.singletonList(streamA),
+                        new TxResolutionInfo(UUID.randomUUID(), snapshot, keyA, keyA)),
+                new TokenRequest(1L, Collections.singletonList(streamA),
+                        new TxResolutionInfo(UUID.randomUUID(), snapshot, keyB, keyB)),
+                new TokenRequest(0L, Collections.singletonList(streamA)));
+        sendMessage(CorfuMsgType.TOKEN_BATCH_REQ.payloadMsg(new TokenBatchRequest(requests)));
+
+        List<TokenResponse> responses = getLastPayloadMessageAs(TokenBatchResponse.class)
+                .getResponses();
+        assertThat(responses).hasSize(requests.size());
+        assertThat(responses.get(0).getRespType()).isEqualTo(TokenType.NORMAL);
+        assertThat(responses.get(0).getSequence()).isEqualTo(0L);
+        assertThat(responses.get(1).getRespType()).isEqualTo(TokenType.TX_ABORT_CONFLICT);
+        assertThat(responses.get(2).getRespType()).isEqualTo(TokenType.NORMAL);
+        assertThat(responses.get(2).getSequence()).isEqualTo(1L);
+        assertThat(responses.get(2).getBackpointerMap()).containsEntry(streamA, 0L);
+        assertThat(responses.get(requests.size() - 1).getSequence()).isEqualTo(1L);
+    }
+
+    /**
+     * Verifies that the conflicts which made transactions abort are reported by the
+     * CONFLICT_HOT_SPOTS_REQUEST, with the abort reasons.
+     */
+    @Test
+    public void conflictHotSpotsAreReported() {
+        UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+        Token snapshot = new Token(0L, Address.NON_ADDRESS);
+        final long hotKey = "hot".hashCode();
+        Map<UUID, long[]> conflictSet = Collections.singletonMap(streamA, new long[] {hotKey});
+
+        final int numAborts = 3;
+        for (int i = 0; i <= numAborts; i++) {
+            sendMessage(CorfuMsgType.TOKEN_REQ.payloadMsg(new TokenRequest(1L,
+                    Collections.singletonList(streamA),
+                    new TxResolutionInfo(UUID.randomUUID(), snapshot, conflictSet, conflictSet))));
+        }
+
+        sendMessage(CorfuMsgType.CONFLICT_HOT_SPOTS_REQUEST.payloadMsg(1));
+        ConflictHotSpotsResponse response =
+                getLastPayloadMessageAs(ConflictHotSpotsResponse.class);
+        assertThat(response.getHotSpots()).containsExactly(new ConflictHotSpot(streamA,
+                Utils.longToBigEndianByteArray(hotKey), numAborts, 0L));
+        assertThat(response.getAbortCounts())
+                .containsExactly(entry(TokenType.TX_ABORT_CONFLICT, (long) numAborts));
+    }
+
     @Test
     public void checkBackpointersWork() {
         UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
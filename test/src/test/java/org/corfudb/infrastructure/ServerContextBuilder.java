@@ -21,6 +21,16 @@ public class ServerContextBuilder {
     String logPath = null;
     boolean noVerify = false;
     boolean noSync = false;
+    String logSegmentRecords = "10000";
+    String logSegmentPreallocation = "0";
+    String logOpenSegments = "256";
+    String logCompactionRate = "0";
+    String logSyncMode = "fsync";
+    String logDirs = null;
+    String logColdTier = null;
+    String readAhead = "256";
+    String readAheadBuffer = "64";
+    String admissionLimit = "4096";
 
     boolean tlsEnabled = false;
     boolean tlsMutualAuthEnabled = false;
@@ -39,6 +49,8 @@ public class ServerContextBuilder {
     int port = 9000;
     String seqCache = "1000";
     String batchSize = "100";
+    String stateTransferChunks = "4";
+    String stateTransferRate = "0";
     String managementBootstrapEndpoint = null;
     IServerRouter serverRouter;
     String numThreads = "0";
@@ -63,16 +75,32 @@ public class ServerContextBuilder {
                 .put("--HandshakeTimeout", handshakeTimeout)
                 .put("--sequencer-cache-size", seqCache)
                 .put("--batch-size", batchSize)
+                .put("--state-transfer-chunks", stateTransferChunks)
+                .put("--state-transfer-rate", stateTransferRate)
                 .put("--metadata-retention", retention);
         if (logPath != null) {
          builder.put("--log-path", logPath);
         }
+        if (logDirs != null) {
+            builder.put("--log-dirs", logDirs);
+        }
+        if (logColdTier != null) {
+            builder.put("--log-cold-tier", logColdTier);
+        }
         if (managementBootstrapEndpoint != null) {
             builder.put("--management-server", managementBootstrapEndpoint);
         }
          builder
                  .put("--no-verify", noVerify)
                  .put("--no-sync", noSync)
+                 .put("--log-segment-records", logSegmentRecords)
+                 .put("--log-segment-preallocation", logSegmentPreallocation)
+                 .put("--log-open-segments", logOpenSegments)
+                 .put("--log-compaction-rate", logCompactionRate)
+                 .put("--log-sync-mode", logSyncMode)
+                 .put("--read-ahead", readAhead)
+                 .put("--read-ahead-buffer", readAheadBuffer)
+                 .put("--admission-limit", admissionLimit)
                  .put("--address", address)
                  .put("--cache-heap-ratio", cacheSizeHeapRatio)
                  .put("--enable-tls", tlsEnabled)
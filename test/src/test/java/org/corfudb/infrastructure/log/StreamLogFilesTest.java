@@ -9,13 +9,18 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import org.apache.commons.io.FileUtils;
 import org.corfudb.AbstractCorfuTest;
@@ -23,9 +28,11 @@ import org.corfudb.format.Types;
 import org.corfudb.format.Types.Metadata;
 import org.corfudb.infrastructure.ServerContext;
 import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.protocols.logprotocol.CheckpointEntry;
 import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.view.Address;
@@ -38,6 +45,9 @@ import org.junit.Test;
  */
 public class StreamLogFilesTest extends AbstractCorfuTest {
 
+    // Compaction is off by default, the rate in MB/s to rewrite segments at
+    private static final String COMPACTION_RATE = "16";
+
     private String getDirPath() {
         return PARAMETERS.TEST_TEMP_DIR;
     }
@@ -93,6 +103,33 @@ public class StreamLogFilesTest extends AbstractCorfuTest {
         assertThat(writeEntries).isEqualTo(readEntries);
     }
 
+    @Test
+    public void testBackpointersArePersisted() throws Exception {
+        ServerContext sc = getContext();
+        StreamLog log = new StreamLogFiles(sc, false);
+
+        final long address0 = 0;
+        final long address1 = 1;
+        final long backpointer = 7L;
+        Map<UUID, Long> backpointers = new HashMap<>();
+        backpointers.put(UUID.randomUUID(), Address.NON_EXIST);
+        backpointers.put(UUID.randomUUID(), backpointer);
+
+        LogData single = getEntry(address0);
+        single.setBackpointerMap(backpointers);
+        log.append(address0, single);
+        LogData batched = getEntry(address1);
+        batched.setBackpointerMap(backpointers);
+        log.append(Collections.singletonList(batched));
+        log.sync(true);
+        log.close();
+
+        StreamLog log2 = new StreamLogFiles(sc, false);
+        assertThat(log2.read(address0).getBackpointerMap()).isEqualTo(backpointers);
+        assertThat(log2.read(address1).getBackpointerMap()).isEqualTo(backpointers);
+        assertThat(log2.read(address1).getStreams()).isEqualTo(backpointers.keySet());
+    }
+
     @Test
     public void testRangeWriteTrim() throws Exception {
         StreamLog log = new StreamLogFiles(getContext(), false);
@@ -702,4 +739,369 @@ public class StreamLogFilesTest extends AbstractCorfuTest {
         log = new StreamLogFiles(getContext(), false);
         assertThat(log.read(address0).getPayload(null)).isEqualTo(streamEntry);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testConfiguredSegmentSize() {
+        final int segmentRecords = 100;
+        final int numEntries = 250;
+        final int expectedSegments = 3;
+        ServerContext sc = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .build();
+        StreamLogFiles log = new StreamLogFiles(sc, false);
+        for (long x = 0; x < numEntries; x++) {
+            writeToLog(log, x);
+        }
+        log.close();
+
+        String logDir = sc.getServerConfig().get("--log-path") + File.separator + "log";
+        assertThat(new File(logDir).list()).hasSize(expectedSegments);
+
+        // The segment size of an existing log can't be changed
+        log = new StreamLogFiles(getContext(), false);
+        assertThat(readRange(0, numEntries, log)).doesNotContainNull();
+    }
+
+    @Test
+    public void testSyncModes() throws Exception {
+        final int numEntries = 10;
+        for (StreamLogFiles.SyncMode mode : StreamLogFiles.SyncMode.values()) {
+            String path = getDirPath() + File.separator + mode.name();
+            new File(path).mkdirs();
+            ServerContext sc = new ServerContextBuilder()
+                    .setLogPath(path)
+                    .setMemory(false)
+                    .setLogSegmentPreallocation("1")
+                    .setLogSyncMode(mode.name().toLowerCase())
+                    .build();
+            StreamLogFiles log = new StreamLogFiles(sc, false);
+            for (long x = 0; x < numEntries; x++) {
+                writeToLog(log, x);
+            }
+            log.sync(true);
+            log.close();
+
+            log = new StreamLogFiles(sc, false);
+            assertThat(readRange(0, numEntries, log)).doesNotContainNull();
+            log.close();
+        }
+    }
+
+    @Test
+    public void testSegmentsAreStripedAcrossDirectories() throws Exception {
+        final int segmentRecords = 10;
+        final int numDirs = 3;
+        final int numSegments = 6;
+        final int numEntries = segmentRecords * numSegments;
+        List<String> dirs = new ArrayList<>();
+        for (int i = 1; i < numDirs; i++) {
+            dirs.add(getDirPath() + File.separator + "disk" + i);
+        }
+
+        ServerContext sc = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .setLogDirs(String.join(",", dirs))
+                .build();
+        StreamLogFiles log = new StreamLogFiles(sc, false);
+        for (long x = 0; x < numEntries; x++) {
+            writeToLog(log, x);
+        }
+        assertThat(log.getChannelsToSync()).hasSize(numSegments);
+        log.sync(true);
+        assertThat(log.getChannelsToSync()).isEmpty();
+        log.close();
+
+        dirs.add(0, getDirPath());
+        for (int i = 0; i < numDirs; i++) {
+            File logDir = new File(dirs.get(i) + File.separator + "log");
+            assertThat(logDir.list()).containsExactlyInAnyOrder(
+                    i + ".log", (i + numDirs) + ".log");
+        }
+
+        // Segments are found after the directories are reordered
+        sc = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .setLogDirs(dirs.get(2) + "," + dirs.get(1))
+                .build();
+        log = new StreamLogFiles(sc, false);
+        assertThat(readRange(0, numEntries, log)).doesNotContainNull();
+        log.close();
+
+        // A directory holding segments can't be dropped from the configuration
+        final ServerContext missingDir = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .setLogDirs(dirs.get(1))
+                .build();
+        assertThatThrownBy(() -> new StreamLogFiles(missingDir, false))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining(new File(dirs.get(2), "log").getAbsolutePath());
+    }
+
+    /**
+     * The stream log options are optional.
+     */
+    @Test
+    public void testConfigDefaultsMissingOptions() {
+        StreamLogFiles.StreamLogConfig config =
+                StreamLogFiles.StreamLogConfig.parse(Collections.emptyMap());
+        assertThat(config.getSegmentRecords()).isEqualTo(RECORDS_PER_LOG_FILE);
+        assertThat(config.getSegmentPreallocation()).isPositive();
+        assertThat(config.getMaxOpenSegments()).isPositive();
+        assertThat(config.getCompactionRate()).isZero();
+        assertThat(config.getSyncMode()).isEqualTo(StreamLogFiles.SyncMode.FSYNC);
+        assertThat(config.getExtraLogDirs()).isEmpty();
+    }
+
+    @Test
+    public void testPreallocatedSegments() throws Exception {
+        final int numEntries = 10;
+        ServerContext sc = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentPreallocation("1")
+                .build();
+        StreamLogFiles log = new StreamLogFiles(sc, false);
+        for (long x = 0; x < numEntries; x++) {
+            writeToLog(log, x);
+        }
+        log.sync(true);
+
+        SegmentHandle sh = log.getSegmentHandles().iterator().next();
+        AddressMetaData last = sh.getKnownAddresses().get(numEntries - 1L);
+        long dataEnd = last.offset + last.length;
+        String segmentPath = sh.getFileName();
+        assertThat(new File(segmentPath).length()).isGreaterThan(dataEnd);
+        log.close();
+
+        // Simulate a write of the next record that was interrupted after its first bytes
+        final int tornBytes = 3;
+        RandomAccessFile segmentFile = new RandomAccessFile(segmentPath, "rw");
+        segmentFile.seek(dataEnd);
+        segmentFile.write(serializedHeader(), 0, tornBytes);
+        segmentFile.close();
+
+        // The preallocated space and the torn record are dropped on open
+        log = new StreamLogFiles(sc, false);
+        assertThat(readRange(0, numEntries, log)).doesNotContainNull();
+        writeToLog(log, numEntries);
+        log.close();
+
+        log = new StreamLogFiles(sc, false);
+        assertThat(readRange(0, numEntries + 1, log)).doesNotContainNull();
+    }
+
+    private byte[] serializedHeader() {
+        ByteBuffer buf = StreamLogFiles.getByteBufferWithMetaData(
+                Types.LogHeader.newBuilder().setVersion(StreamLogFiles.VERSION).build());
+        byte[] bytes = new byte[buf.remaining()];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testOpenSegmentsAreBounded() {
+        final int maxOpenSegments = 2;
+        final int segmentRecords = 10;
+        final int trimThreshold = 2;
+        final int numEntries = 50;
+        ServerContext sc = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .setLogOpenSegments(Integer.toString(maxOpenSegments))
+                .build();
+        StreamLogFiles log = new StreamLogFiles(sc, false);
+        for (long x = 0; x < numEntries; x++) {
+            writeToLog(log, x);
+            assertThat(log.getSegmentHandles().size()).isLessThanOrEqualTo(maxOpenSegments);
+        }
+
+        // Segments are synced before they are closed
+        assertThat(log.getChannelsToSync()).hasSize(maxOpenSegments);
+
+        // Closed segments are opened again when they are read
+        assertThat(readRange(0, numEntries, log)).doesNotContainNull();
+        assertThat(log.getSegmentHandles().size()).isLessThanOrEqualTo(maxOpenSegments);
+        assertThat(log.getTrimThreshold()).isEqualTo(trimThreshold);
+    }
+
+    @Test
+    public void testCompactionCompactsCheckpointedEntries() throws Exception {
+        final int segmentRecords = 10;
+        final int numEntries = 40;
+        final long checkpointAddress = 30;
+        final long checkpointStart = 25;
+        final long multiStreamAddress = 5;
+        final int payloadSize = 1024;
+        ServerContext sc = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .setLogCompactionRate(COMPACTION_RATE)
+                .build();
+        StreamLogFiles log = new StreamLogFiles(sc, false);
+
+        UUID streamA = UUID.randomUUID();
+        UUID streamB = UUID.randomUUID();
+        for (long x = 0; x < numEntries; x++) {
+            ByteBuf b = Unpooled.buffer();
+            Serializers.CORFU.serialize(new byte[payloadSize], b);
+            LogData ld = new LogData(DataType.DATA, b);
+            ld.setGlobalAddress(x);
+
+            Map<UUID, Long> backpointers = new HashMap<>();
+            if (x == checkpointAddress) {
+                ld.setCheckpointType(CheckpointEntry.CheckpointEntryType.END);
+                ld.setCheckpointId(UUID.randomUUID());
+                ld.setCheckpointedStreamId(streamA);
+                ld.setCheckpointedStreamStartLogAddress(checkpointStart);
+                backpointers.put(CorfuRuntime.getCheckpointStreamIdFromId(streamA),
+                        Address.NON_EXIST);
+            } else {
+                backpointers.put(streamA, x - 1);
+                if (x == multiStreamAddress) {
+                    backpointers.put(streamB, Address.NON_EXIST);
+                }
+            }
+            ld.setBackpointerMap(backpointers);
+            log.append(x, ld);
+        }
+        log.sync(true);
+
+        File firstSegment = new File(log.logDir + File.separator + "0.log");
+        long sizeBeforeCompaction = firstSegment.length();
+        log.compact();
+        assertThat(firstSegment.length()).isLessThan(sizeBeforeCompaction);
+
+        for (StreamLog streamLog : Arrays.asList(log, new StreamLogFiles(sc, false))) {
+            // Entries of stream A below the checkpoint are compacted but keep their backpointers
+            assertThat(streamLog.read(0).getType()).isEqualTo(DataType.COMPACTED);
+            assertThat(streamLog.read(checkpointStart - 1).getType())
+                    .isEqualTo(DataType.COMPACTED);
+            assertThat(streamLog.read(0).getBackpointerMap()).containsKey(streamA);
+
+            // Entries of a stream without checkpoint, and entries after the checkpoint are kept
+            assertThat(streamLog.read(multiStreamAddress).getType()).isEqualTo(DataType.DATA);
+            assertThat(streamLog.read(checkpointStart).getType()).isEqualTo(DataType.DATA);
+            assertThat(streamLog.read(checkpointAddress).hasCheckpointMetadata()).isTrue();
+            assertThat(streamLog.getTails().getStreamTails().get(streamA))
+                    .isEqualTo(numEntries - 1L);
+        }
+    }
+
+    @Test
+    public void testColdTierOffloadsCheckpointedSegments() throws Exception {
+        final int segmentRecords = 10;
+        final int numEntries = 40;
+        final long checkpointAddress = 30;
+        final long checkpointStart = 25;
+        final long trimAddress = 25;
+        final long coldAddress = 5;
+        String coldDir = getDirPath() + File.separator + "cold";
+        ServerContext sc = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .setLogColdTier(coldDir)
+                .build();
+        StreamLogFiles log = new StreamLogFiles(sc, false);
+
+        UUID streamA = UUID.randomUUID();
+        for (long x = 0; x < numEntries; x++) {
+            LogData ld = getEntry(x);
+            ld.setGlobalAddress(x);
+            if (x == checkpointAddress) {
+                ld.setCheckpointType(CheckpointEntry.CheckpointEntryType.END);
+                ld.setCheckpointId(UUID.randomUUID());
+                ld.setCheckpointedStreamId(streamA);
+                ld.setCheckpointedStreamStartLogAddress(checkpointStart);
+                ld.setBackpointerMap(Collections.singletonMap(
+                        CorfuRuntime.getCheckpointStreamIdFromId(streamA), Address.NON_EXIST));
+            } else {
+                ld.setBackpointerMap(Collections.singletonMap(streamA, x - 1));
+            }
+            log.append(x, ld);
+        }
+        log.sync(true);
+        log.compact();
+
+        // The first two segments are covered by the checkpoint and moved to the cold tier,
+        // the entries of the cold tier are kept as they are
+        assertThat(new File(log.logDir).list()).containsExactlyInAnyOrder(
+                "0.cold", "1.cold", "2.log", "3.log");
+        assertThat(new File(coldDir).list()).containsExactlyInAnyOrder("0.log", "1.log");
+
+        for (StreamLog streamLog : Arrays.asList(log, new StreamLogFiles(sc, false))) {
+            for (long x = 0; x < numEntries; x++) {
+                assertThat(streamLog.read(x).getType()).isEqualTo(DataType.DATA);
+            }
+            assertThat(streamLog.read(coldAddress).getPayload(null))
+                    .isEqualTo(getEntry(coldAddress).getPayload(null));
+            assertThat(streamLog.read(coldAddress).getBackpointerMap())
+                    .containsEntry(streamA, coldAddress - 1);
+            assertThatThrownBy(() -> streamLog.append(coldAddress, getEntry(coldAddress)))
+                    .isInstanceOf(OverwriteException.class);
+        }
+
+        // The tails of the offloaded segments are replayed from their indexes
+        assertThat(new StreamLogFiles(sc, false).getTails()).isEqualTo(log.getTails());
+
+        // Trimmed segments are deleted from the cold tier
+        log.prefixTrim(trimAddress);
+        log.compact();
+        assertThat(new File(log.logDir).list()).doesNotContain("0.cold");
+        assertThat(new File(coldDir).list()).containsExactly("1.log");
+    }
+
+    @Test
+    public void testTruncatedColdIndexFailsToLoad() throws Exception {
+        final int segmentRecords = 10;
+        final int numEntries = 30;
+        final long checkpointAddress = 20;
+        String coldDir = getDirPath() + File.separator + "cold";
+        ServerContext sc = new ServerContextBuilder()
+                .setLogPath(getDirPath())
+                .setMemory(false)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .setLogColdTier(coldDir)
+                .build();
+        StreamLogFiles log = new StreamLogFiles(sc, false);
+
+        UUID streamA = UUID.randomUUID();
+        for (long x = 0; x < numEntries; x++) {
+            LogData ld = getEntry(x);
+            ld.setGlobalAddress(x);
+            if (x == checkpointAddress) {
+                ld.setCheckpointType(CheckpointEntry.CheckpointEntryType.END);
+                ld.setCheckpointId(UUID.randomUUID());
+                ld.setCheckpointedStreamId(streamA);
+                ld.setCheckpointedStreamStartLogAddress(checkpointAddress);
+                ld.setBackpointerMap(Collections.singletonMap(
+                        CorfuRuntime.getCheckpointStreamIdFromId(streamA), Address.NON_EXIST));
+            } else {
+                ld.setBackpointerMap(Collections.singletonMap(streamA, x - 1));
+            }
+            log.append(x, ld);
+        }
+        log.sync(true);
+        log.compact();
+        log.close();
+
+        File index = new File(log.logDir + File.separator + "0" + ColdTier.INDEX_SUFFIX);
+        assertThat(index).exists();
+        try (RandomAccessFile file = new RandomAccessFile(index, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        assertThatThrownBy(() -> new StreamLogFiles(sc, false))
+                .hasCauseInstanceOf(IOException.class)
+                .hasStackTraceContaining("truncated");
+    }
+}
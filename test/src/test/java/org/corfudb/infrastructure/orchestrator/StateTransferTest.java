@@ -0,0 +1,167 @@
+package org.corfudb.infrastructure.orchestrator;
+
+import com.codahale.metrics.Counter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+import org.corfudb.infrastructure.ServerContext;
+import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.infrastructure.TestLayoutBuilder;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.view.AbstractViewTest;
+import org.corfudb.runtime.view.Address;
+import org.corfudb.runtime.view.Layout;
+import org.corfudb.runtime.view.stream.IStreamView;
+import org.corfudb.util.CorfuComponent;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the state transfer of a range of the log to another log unit.
+ */
+public class StateTransferTest extends AbstractViewTest {
+
+    private Layout layout;
+
+    private final Counter resumedAddresses = ServerContext.getMetrics()
+            .counter(CorfuComponent.INFRA_STATE_TRANSFER + "resumed-addresses");
+
+    private CorfuRuntime setup(int numEntries, int entrySize) {
+        addServer(SERVERS.PORT_0);
+        addServer(SERVERS.PORT_1);
+        layout = new TestLayoutBuilder()
+                .addLayoutServer(SERVERS.PORT_0)
+                .addSequencer(SERVERS.PORT_0)
+                .buildSegment()
+                .buildStripe()
+                .addLogUnit(SERVERS.PORT_0)
+                .addToSegment()
+                .addToLayout()
+                .build();
+        bootstrapAllServers(layout);
+
+        CorfuRuntime rt = getRuntime(layout).connect();
+        IStreamView stream = rt.getStreamsView().get(CorfuRuntime.getStreamID("stream"));
+        for (int i = 0; i < numEntries; i++) {
+            stream.append(new byte[entrySize]);
+        }
+        return rt;
+    }
+
+    private ReadResponse readDestination(CorfuRuntime rt, long start, long end) {
+        return rt.getLayoutView().getRuntimeLayout(layout)
+                .getLogUnitClient(getEndpoint(SERVERS.PORT_1))
+                .read(Range.closed(start, end - 1)).join();
+    }
+
+    /**
+     * Wait until the destination holds the range, the log unit acknowledges a range write
+     * before it is applied.
+     */
+    private void waitForDestination(CorfuRuntime rt, long start, long end) throws Exception {
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            if (readDestination(rt, start, end).getAddresses().values().stream()
+                    .allMatch(entry -> entry.getType() == DataType.DATA)) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+        }
+        assertThat(readDestination(rt, start, end).getAddresses().values())
+                .allMatch(entry -> entry.getType() == DataType.DATA);
+    }
+
+    /**
+     * A transfer resumes from the persisted progress of the same destinations and range,
+     * and clears the progress once it completes.
+     */
+    @Test
+    public void transferResumesFromProgress() throws Exception {
+        final int numEntries = 50;
+        final int entrySize = 16;
+        final long resumeAddress = 30;
+        CorfuRuntime rt = setup(numEntries, entrySize);
+
+        ServerContext sc = new ServerContextBuilder().build();
+        Set<String> endpoints = Collections.singleton(getEndpoint(SERVERS.PORT_1));
+        StateTransfer transfer = new StateTransfer(sc);
+
+        // A previous attempt transferred the addresses below the progress
+        transfer.transfer(rt, layout, endpoints, 0, resumeAddress);
+        waitForDestination(rt, 0, resumeAddress);
+        String transferId = StateTransfer.getTransferId(endpoints, 0, numEntries);
+        sc.setStateTransferProgress(transferId, resumeAddress);
+
+        final long resumedBefore = resumedAddresses.getCount();
+        transfer.transfer(rt, layout, endpoints, 0, numEntries);
+        transfer.shutdown();
+        assertThat(resumedAddresses.getCount() - resumedBefore).isEqualTo(resumeAddress);
+
+        waitForDestination(rt, 0, numEntries);
+        assertThat(sc.getStateTransferProgress(transferId)).isEqualTo(Address.NON_ADDRESS);
+    }
+
+    /**
+     * The progress is ignored if the destination lost the transferred addresses, as a node
+     * which is reset before it is healed does.
+     */
+    @Test
+    public void transferRestartsIfDestinationWasReset() throws Exception {
+        final int numEntries = 50;
+        final int entrySize = 16;
+        final long staleProgress = 30;
+        CorfuRuntime rt = setup(numEntries, entrySize);
+
+        ServerContext sc = new ServerContextBuilder().build();
+        Set<String> endpoints = Collections.singleton(getEndpoint(SERVERS.PORT_1));
+        String transferId = StateTransfer.getTransferId(endpoints, 0, numEntries);
+        sc.setStateTransferProgress(transferId, staleProgress);
+
+        final long resumedBefore = resumedAddresses.getCount();
+        StateTransfer transfer = new StateTransfer(sc);
+        transfer.transfer(rt, layout, endpoints, 0, numEntries);
+        transfer.shutdown();
+        assertThat(resumedAddresses.getCount()).isEqualTo(resumedBefore);
+
+        waitForDestination(rt, 0, numEntries);
+    }
+
+    /**
+     * The bandwidth of a transfer is capped by the configured rate.
+     */
+    @Test
+    public void transferIsThrottled() throws Exception {
+        final int numEntries = 40;
+        final int entrySize = 64 * 1024;
+        final long minDurationMs = 1000;
+        CorfuRuntime rt = setup(numEntries, entrySize);
+
+        ServerContext sc = new ServerContextBuilder().setStateTransferRate("1").build();
+        Set<String> endpoints = Collections.singleton(getEndpoint(SERVERS.PORT_1));
+        StateTransfer transfer = new StateTransfer(sc);
+
+        long start = System.nanoTime();
+        transfer.transfer(rt, layout, endpoints, 0, numEntries);
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        transfer.shutdown();
+
+        assertThat(durationMs).isGreaterThanOrEqualTo(minDurationMs);
+        waitForDestination(rt, 0, numEntries);
+    }
+
+    /**
+     * The state transfer options are optional.
+     */
+    @Test
+    public void configDefaultsMissingOptions() {
+        StateTransfer.StateTransferConfig config =
+                StateTransfer.StateTransferConfig.parse(ImmutableMap.of());
+        assertThat(config.getMaxChunksInFlight()).isPositive();
+        assertThat(config.getMaxBytesPerSecond()).isZero();
+    }
+}
@@ -0,0 +1,117 @@
+package org.corfudb.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.protobuf.ByteString;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.format.Types;
+import org.corfudb.infrastructure.ServerContext;
+import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.infrastructure.log.StreamLog;
+import org.corfudb.infrastructure.log.StreamLogFiles;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.junit.Test;
+
+/**
+ * Tests the migration of the log segments from version 2 to 3.
+ */
+public class LogFormat2to3Test extends AbstractCorfuTest {
+
+    private static final int SRC_VERSION = 2;
+
+    private final UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+
+    private final UUID streamB = UUID.nameUUIDFromBytes("streamB".getBytes());
+
+    private ServerContext getContext() {
+        return new ServerContextBuilder()
+                .setLogPath(PARAMETERS.TEST_TEMP_DIR)
+                .setMemory(false)
+                .build();
+    }
+
+    private String getSegmentPath() {
+        return PARAMETERS.TEST_TEMP_DIR + File.separator + "log" + File.separator + "0.log";
+    }
+
+    /**
+     * Write a version 2 segment, where the streams and backpointers of an entry are string keyed.
+     *
+     * @param numEntries the number of entries to write, starting at address 0
+     * @param partialEntry also write the metadata of an entry without its payload
+     */
+    private void writeV2Segment(int numEntries, boolean partialEntry) throws IOException {
+        File segment = new File(getSegmentPath());
+        segment.getParentFile().mkdirs();
+
+        try (FileChannel fc = FileChannel.open(segment.toPath(), EnumSet.of(
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE))) {
+            fc.write(StreamLogFiles.getByteBufferWithMetaData(Types.LogHeader.newBuilder()
+                    .setVersion(SRC_VERSION)
+                    .setVerifyChecksum(true)
+                    .build()));
+
+            for (long address = 0; address < numEntries; address++) {
+                Types.LogEntry entry = Types.LogEntry.newBuilder()
+                        .setDataType(Types.DataType.DATA)
+                        .setData(ByteString.copyFromUtf8("payload" + address))
+                        .setGlobalAddress(address)
+                        .addStreams(streamA.toString())
+                        .addStreams(streamB.toString())
+                        .putBackpointers(streamA.toString(), address - 1)
+                        .putBackpointers(streamB.toString(), address - 2)
+                        .build();
+                fc.write(StreamLogFiles.getByteBufferWithMetaData(entry));
+            }
+
+            if (partialEntry) {
+                Types.LogEntry entry = Types.LogEntry.newBuilder()
+                        .setDataType(Types.DataType.DATA)
+                        .setData(ByteString.copyFromUtf8("partial"))
+                        .setGlobalAddress(numEntries)
+                        .build();
+                fc.write(StreamLogFiles.getMetadata(entry).toByteString().asReadOnlyByteBuffer());
+            }
+
+            fc.force(true);
+        }
+    }
+
+    @Test
+    public void migratedLogOpensWithBackpointers() throws Exception {
+        final int numEntries = 10;
+        writeV2Segment(numEntries, true);
+
+        LogFormat2to3.migrateLUData(PARAMETERS.TEST_TEMP_DIR);
+
+        StreamLog log = new StreamLogFiles(getContext(), false);
+        for (long address = 0; address < numEntries; address++) {
+            LogData data = (LogData) log.read(address);
+            assertThat(data.getGlobalAddress()).isEqualTo(address);
+            assertThat(data.getData()).isEqualTo(("payload" + address).getBytes());
+            assertThat(data.getBackpointer(streamA)).isEqualTo(address - 1);
+            assertThat(data.getBackpointer(streamB)).isEqualTo(address - 2);
+        }
+
+        // The partially written entry is dropped by the migration
+        assertThat(log.read(numEntries)).isNull();
+    }
+
+    @Test
+    public void unmigratedLogNamesTheMigrationTool() throws Exception {
+        writeV2Segment(1, false);
+
+        assertThatThrownBy(() -> new StreamLogFiles(getContext(), false))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining(LogFormat2to3.class.getName());
+    }
+}
@@ -0,0 +1,44 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LogDataTest {
+
+    @Test
+    public void serializedFormIsReleasedWithTheLastHandle() {
+        LogData ld = new LogData(DataType.DATA, "payload".getBytes());
+        ByteBuf expected = Unpooled.buffer();
+        ld.doSerialize(expected);
+
+        ILogData.SerializationHandle first = ld.getSerializedForm();
+        ILogData.SerializationHandle second = ld.getSerializedForm();
+        assertThat(ld.getSizeEstimate()).isEqualTo(expected.readableBytes());
+
+        first.close();
+        ByteBuf serialized = Unpooled.buffer();
+        ld.doSerialize(serialized);
+        assertThat(serialized).isEqualTo(expected);
+
+        second.close();
+        serialized.clear();
+        ld.doSerialize(serialized);
+        assertThat(serialized).isEqualTo(expected);
+    }
+
+    @Test
+    public void serializedDataIsNotCopied() {
+        byte[] data = "payload".getBytes();
+        LogData ld = LogData.fromSerializedData(DataType.DATA, data);
+
+        assertThat(ld.getData()).isSameAs(data);
+
+        ByteBuf serialized = Unpooled.buffer();
+        ld.doSerialize(serialized);
+        LogData deserialized = new LogData(serialized);
+        assertThat(deserialized.getData()).isEqualTo(data);
+    }
+}
@@ -0,0 +1,34 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TxResolutionInfoTest {
+
+    @Test
+    public void fingerprintsAreSerializedAsLongs() {
+        UUID stream = UUID.randomUUID();
+        long[] fingerprints = {Long.MIN_VALUE, -1L, 0L, Long.MAX_VALUE};
+        Map<UUID, long[]> conflictSet = Collections.singletonMap(stream, fingerprints);
+        TxResolutionInfo txInfo = new TxResolutionInfo(UUID.randomUUID(), new Token(1L, 2L),
+                conflictSet, Collections.emptyMap());
+
+        ByteBuf buf = Unpooled.buffer();
+        txInfo.doSerialize(buf);
+        TxResolutionInfo deserialized = new TxResolutionInfo(buf);
+
+        assertThat(buf.isReadable()).isFalse();
+        assertThat(deserialized.getTXid()).isEqualTo(txInfo.getTXid());
+        assertThat(deserialized.getSnapshotTimestamp()).isEqualTo(txInfo.getSnapshotTimestamp());
+        assertThat(deserialized.getConflictSet()).containsOnlyKeys(stream);
+        assertThat(deserialized.getConflictSet().get(stream)).containsExactly(fingerprints);
+        assertThat(deserialized.getWriteConflictParams()).isEmpty();
+    }
+}
@@ -2,6 +2,8 @@ package org.corfudb.recovery;
 
 import org.assertj.core.data.MapEntry;
 import org.corfudb.CustomSerializer;
+import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.infrastructure.TestServerRouter;
 import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.IMetadata;
@@ -18,6 +20,7 @@ import org.corfudb.runtime.object.VersionLockedObject;
 import org.corfudb.runtime.object.transactions.TransactionType;
 import org.corfudb.runtime.view.AbstractViewTest;
 import org.corfudb.runtime.view.ObjectBuilder;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.serializer.ISerializer;
 import org.corfudb.util.serializer.Serializers;
 import org.junit.Test;
@@ -44,6 +47,8 @@ public class FastObjectLoaderTest extends AbstractViewTest {
     static final int NUMBER_OF_PUT = 100;
     static final int SOME = 3;
     static final int MORE = 5;
+    // Compaction is off by default, the rate in MB/s to rewrite segments at
+    static final String COMPACTION_RATE = "16";
 
 
     private int key_count = 0;
@@ -176,6 +181,39 @@ public class FastObjectLoaderTest extends AbstractViewTest {
      *
      * @throws Exception
      */
+    /**
+     * Test that the entries compacted by the log unit because they are covered by checkpoints
+     * stay readable, and are skipped by the loader.
+     */
+    @Test
+    public void canReadCompactedSegments() throws Exception {
+        final int segmentRecords = 10;
+        final int keysBeforeCheckpoint = 30;
+        addServer(SERVERS.PORT_0, new ServerContextBuilder()
+                .setMemory(false)
+                .setLogPath(PARAMETERS.TEST_TEMP_DIR)
+                .setLogSegmentRecords(Integer.toString(segmentRecords))
+                .setLogCompactionRate(COMPACTION_RATE)
+                .setServerRouter(new TestServerRouter())
+                .setPort(SERVERS.PORT_0)
+                .build());
+
+        populateMaps(1, getDefaultRuntime(), CorfuTable.class, true, keysBeforeCheckpoint);
+        checkPointAll(getDefaultRuntime());
+        populateMaps(1, getDefaultRuntime(), CorfuTable.class, false, segmentRecords);
+
+        LogUnitClient luc = getDefaultRuntime().getLayoutView().getRuntimeLayout()
+                .getLogUnitClient(getDefaultConfigurationString());
+        CFUtils.getUninterruptibly(luc.compact());
+        CFUtils.getUninterruptibly(luc.flushCache());
+        assertThat(getDefaultRuntime().getAddressSpaceView().fetch(0L).getType())
+                .isEqualTo(DataType.COMPACTED);
+
+        CorfuRuntime rt2 = Helpers.createNewRuntimeWithFastLoader(getDefaultConfigurationString());
+        assertThatMapsAreBuilt(rt2);
+        assertThatObjectCacheIsTheSameSize(getDefaultRuntime(), rt2);
+    }
+
     @Test
     public void canReadHoles() throws Exception {
         populateMaps(1, getDefaultRuntime(), CorfuTable.class, true,2);
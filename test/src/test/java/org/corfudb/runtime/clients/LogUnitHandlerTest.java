@@ -33,6 +33,7 @@ import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.IMetadata;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
@@ -41,6 +42,7 @@ import org.corfudb.runtime.exceptions.DataOutrankedException;
 import org.corfudb.runtime.exceptions.OverwriteCause;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.ValueAdoptedException;
+import org.corfudb.runtime.view.Address;
 import org.corfudb.util.serializer.Serializers;
 import org.junit.Test;
 
@@ -166,6 +168,34 @@ public class LogUnitHandlerTest extends AbstractClientTest {
         assertThat(entries).isEqualTo(readEntries);
     }
 
+    @Test
+    public void getTailsSinceAddress() throws Exception {
+        byte[] testString = "hello world".getBytes();
+        final UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+        final UUID streamB = UUID.nameUUIDFromBytes("streamB".getBytes());
+        final long address0 = 0;
+        final long address1 = 1;
+        final long address2 = 2;
+        client.write(address0, Collections.<UUID>emptySet(), null, testString,
+                ImmutableMap.of(streamA, Address.NON_ADDRESS)).get();
+        client.write(address1, Collections.<UUID>emptySet(), null, testString,
+                ImmutableMap.of(streamB, Address.NON_ADDRESS)).get();
+        client.write(address2, Collections.<UUID>emptySet(), null, testString,
+                ImmutableMap.of(streamA, address0)).get();
+
+        TailsResponse allTails = client.getTail().get();
+        assertThat(allTails.getLogTail()).isEqualTo(address2);
+        assertThat(allTails.getStreamTails())
+                .isEqualTo(ImmutableMap.of(streamA, address2, streamB, address1));
+
+        // Only streamA has been written to after address1
+        TailsResponse newTails = client.getTail(address1).get();
+        assertThat(newTails.getLogTail()).isEqualTo(address2);
+        assertThat(newTails.getStreamTails()).isEqualTo(ImmutableMap.of(streamA, address2));
+
+        assertThat(client.getTail(address2).get().getStreamTails()).isEmpty();
+    }
+
     @Test
     public void readingTrimmedAddress() throws Exception {
         byte[] testString = "hello world".getBytes();
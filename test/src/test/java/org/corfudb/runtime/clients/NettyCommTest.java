@@ -25,7 +25,11 @@ import java.net.ServerSocket;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Created by mwei on 3/28/16.
@@ -64,6 +68,29 @@ public class NettyCommTest extends AbstractCorfuTest {
             });
     }
 
+    @Test
+    public void nettyConcurrentRequestsComplete() throws Exception {
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(ServerContextBuilder.defaultContext(port));
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port);
+            },
+            (r, d) -> {
+                // Requests sent from many threads are written in batches
+                List<CompletableFuture<Boolean>> pings = IntStream
+                        .range(0, PARAMETERS.NUM_ITERATIONS_MODERATE)
+                        .parallel()
+                        .mapToObj(i -> getBaseClient(r).ping())
+                        .collect(Collectors.toList());
+                for (CompletableFuture<Boolean> ping : pings) {
+                    assertThat(ping.get()).isTrue();
+                }
+                assertThat(r.outstandingRequests.size()).isZero();
+            });
+    }
+
     @Test
     public void nettyServerClientPingableAfterFailure() throws Exception {
         runWithBaseServer(
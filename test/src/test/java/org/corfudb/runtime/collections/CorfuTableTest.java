@@ -6,9 +6,13 @@ import com.google.common.reflect.TypeToken;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.assertj.core.data.MapEntry;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.exceptions.TransactionAbortedException;
 import org.corfudb.runtime.view.AbstractViewTest;
 import org.junit.Test;
 
@@ -181,4 +185,66 @@ public class CorfuTableTest extends AbstractViewTest {
                 .containsExactly("a");
     }
 
+    private CorfuTable<String, String> openIndexedTable(CorfuRuntime runtime) {
+        return runtime.getObjectsView().build()
+                .setTypeToken(new TypeToken<CorfuTable<String, String>>() {})
+                .setArguments(new StringIndexer())
+                .setStreamName("test")
+                .open();
+    }
+
+    /**
+     * Look up an index value in a transaction, while another runtime writes to the table.
+     *
+     * @return whether the transaction committed
+     */
+    private boolean lookupCommits(CorfuTable<String, String> table, CorfuRuntime otherRuntime,
+                                  CorfuTable<String, String> otherTable,
+                                  Consumer<CorfuTable<String, String>> concurrentWrite) {
+        getDefaultRuntime().getObjectsView().TXBegin();
+        Collection<String> values = project(table.getByIndex(StringIndexer.BY_FIRST_LETTER, "a"));
+        CompletableFuture.runAsync(() -> {
+            otherRuntime.getObjectsView().TXBegin();
+            concurrentWrite.accept(otherTable);
+            otherRuntime.getObjectsView().TXEnd();
+        }).join();
+        table.put("count", Integer.toString(values.size()));
+        try {
+            getDefaultRuntime().getObjectsView().TXEnd();
+            return true;
+        } catch (TransactionAbortedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Verify that an index lookup in a transaction conflicts with the writes which change the
+     * records of the index value, and not with the writes of the other records.
+     */
+    @Test
+    public void indexLookupConflictsWithWritesToTheIndexValue() {
+        CorfuTable<String, String> table = openIndexedTable(getDefaultRuntime());
+        CorfuRuntime otherRuntime = getNewRuntime(getDefaultNode()).connect();
+        CorfuTable<String, String> otherTable = openIndexedTable(otherRuntime);
+        table.put("k1", "a");
+        table.put("k2", "b");
+
+        // Writes of records of other index values
+        assertThat(lookupCommits(table, otherRuntime, otherTable,
+                t -> t.put("k2", "bb"))).isTrue();
+        assertThat(lookupCommits(table, otherRuntime, otherTable,
+                t -> t.put("k3", "c"))).isTrue();
+
+        // A record mapped to the index value
+        assertThat(lookupCommits(table, otherRuntime, otherTable,
+                t -> t.put("k4", "ab"))).isFalse();
+        // A record of the index value mapped to another one
+        assertThat(lookupCommits(table, otherRuntime, otherTable,
+                t -> t.put("k1", "b"))).isFalse();
+        assertThat(lookupCommits(table, otherRuntime, otherTable,
+                t -> t.put("k4", "ac"))).isFalse();
+        // A record of the index value removed
+        assertThat(lookupCommits(table, otherRuntime, otherTable,
+                t -> t.remove("k4"))).isFalse();
+    }
 }
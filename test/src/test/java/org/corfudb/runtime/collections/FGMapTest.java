@@ -2,10 +2,12 @@ package org.corfudb.runtime.collections;
 
 import com.google.common.reflect.TypeToken;
 import lombok.Getter;
+import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.TransactionAbortedException;
 import org.corfudb.runtime.view.AbstractViewTest;
 import org.junit.Test;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -82,6 +84,48 @@ public class FGMapTest extends AbstractViewTest {
                 .hasSize(PARAMETERS.NUM_ITERATIONS_LOW);
     }
 
+    /**
+     * Check that a putAll updates all the partitions in a single log entry, and that the bulk
+     * operations of a new runtime read all the partitions.
+     */
+    @Test
+    public void bulkOperationsSpanAllPartitions() {
+        Map<String, String> testMap = getDefaultRuntime()
+                .getObjectsView()
+                .build()
+                .setStreamName("test")
+                .setTypeToken(new TypeToken<FGMap<String, String>>() {})
+                .open();
+
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            entries.put(Integer.toString(i), Integer.toString(i));
+        }
+        long tail = getRuntime().getSequencerView().query().getToken().getSequence();
+        testMap.putAll(entries);
+        assertThat(getRuntime().getSequencerView().query().getToken().getSequence())
+                .isEqualTo(tail + 1);
+
+        CorfuRuntime restarted = getNewRuntime(getDefaultNode()).connect();
+        Map<String, String> restartedMap = restarted
+                .getObjectsView()
+                .build()
+                .setStreamName("test")
+                .setTypeToken(new TypeToken<FGMap<String, String>>() {})
+                .open();
+
+        assertThat(restartedMap.size())
+                .isEqualTo(PARAMETERS.NUM_ITERATIONS_LOW);
+        assertThat(restartedMap.keySet())
+                .isEqualTo(entries.keySet());
+        assertThat(restartedMap.values())
+                .containsExactlyInAnyOrder(entries.values().toArray(new String[0]));
+        assertThat(restartedMap.entrySet())
+                .isEqualTo(entries.entrySet());
+        assertThat(restartedMap.containsValue("0"))
+                .isTrue();
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void canNestTX()
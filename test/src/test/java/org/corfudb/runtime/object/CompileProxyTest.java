@@ -1,17 +1,29 @@
 package org.corfudb.runtime.object;
 
 import com.google.common.reflect.TypeToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.assertj.core.data.MapEntry;
+import org.corfudb.protocols.logprotocol.LogEntry;
+import org.corfudb.protocols.logprotocol.MultiObjectSMREntry;
+import org.corfudb.protocols.logprotocol.MultiSMREntry;
+import org.corfudb.protocols.logprotocol.SMREntry;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.collections.SMRMap;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.view.AbstractViewTest;
+import org.corfudb.util.serializer.Serializers;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -449,4 +461,143 @@ public class CompileProxyTest extends AbstractViewTest {
 
     }
 
+    /**
+     * Compact method ids are opt-in, by default updates are written with the method name.
+     */
+    @Test
+    public void methodNamesAreWrittenByDefault() throws Exception {
+        final String streamName = "default";
+        Map<String, String> map = getDefaultRuntime().getObjectsView().build()
+                .setStreamName(streamName)
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        map.put("a", "1");
+
+        SMREntry entry = (SMREntry) getDefaultRuntime().getStreamsView()
+                .get(CorfuRuntime.getStreamID(streamName))
+                .next().getPayload(getDefaultRuntime());
+        ByteBuf buf = Unpooled.buffer();
+        entry.serialize(buf);
+        SMREntry deserialized = (SMREntry) LogEntry.deserialize(buf, getDefaultRuntime());
+        assertThat(deserialized.getMethodId()).isEqualTo(SMREntry.NO_METHOD_ID);
+        assertThat(deserialized.getSMRMethod()).isEqualTo("put");
+    }
+
+    /**
+     * The updates of a transaction are written with compact method ids, and a new runtime
+     * (which has to resolve the ids against the method table of the object) reads them back.
+     */
+    @Test
+    public void compactMethodIdsAreReplayed() throws Exception {
+        final String streamName = "compact";
+        final UUID streamId = CorfuRuntime.getStreamID(streamName);
+        getDefaultRuntime().getParameters().setCompactSmrMethodsEnabled(true);
+        Map<String, String> map = getDefaultRuntime().getObjectsView().build()
+                .setStreamName(streamName)
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        getDefaultRuntime().getObjectsView().TXBegin();
+        map.put("a", "1");
+        map.put("b", "2");
+        map.remove("a");
+        getDefaultRuntime().getObjectsView().TXEnd();
+
+        MultiObjectSMREntry entry = (MultiObjectSMREntry) getDefaultRuntime().getStreamsView()
+                .get(streamId).next().getPayload(getDefaultRuntime());
+        ByteBuf buf = Unpooled.buffer();
+        new MultiSMREntry(entry.getSMRUpdates(streamId)).serialize(buf);
+        final int compactSize = buf.readableBytes();
+        MultiSMREntry deserialized = (MultiSMREntry) LogEntry.deserialize(buf,
+                getDefaultRuntime());
+        assertThat(deserialized.getUpdates()).extracting(SMREntry::getMethodId)
+                .doesNotContain(SMREntry.NO_METHOD_ID);
+        assertThat(deserialized.getUpdates()).extracting(SMREntry::getSMRMethod)
+                .containsExactly("put", "put", "remove");
+
+        // The compact ids are smaller than the method names
+        List<SMREntry> named = deserialized.getUpdates().stream()
+                .map(x -> new SMREntry(x.getSMRMethod(), x.getSMRArguments(),
+                        x.getSerializerType()))
+                .collect(Collectors.toList());
+        ByteBuf namedBuf = Unpooled.buffer();
+        new MultiSMREntry(named).serialize(namedBuf);
+        assertThat(compactSize).isLessThan(namedBuf.readableBytes());
+
+        CorfuRuntime rt2 = getNewRuntime(getDefaultNode()).connect();
+        Map<String, String> map2 = rt2.getObjectsView().build()
+                .setStreamName(streamName)
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        assertThat(map2).containsOnly(MapEntry.entry("b", "2"));
+        rt2.shutdown();
+    }
+
+    /**
+     * Updates outside of a transaction keep their method name, a single update can't share
+     * the fingerprint of its method table with other updates.
+     */
+    @Test
+    public void singleUpdatesAreWrittenByName() throws Exception {
+        final String streamName = "single";
+        getDefaultRuntime().getParameters().setCompactSmrMethodsEnabled(true);
+        Map<String, String> map = getDefaultRuntime().getObjectsView().build()
+                .setStreamName(streamName)
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        map.put("a", "1");
+
+        SMREntry entry = (SMREntry) getDefaultRuntime().getStreamsView()
+                .get(CorfuRuntime.getStreamID(streamName))
+                .next().getPayload(getDefaultRuntime());
+        ByteBuf buf = Unpooled.buffer();
+        entry.serialize(buf);
+        SMREntry deserialized = (SMREntry) LogEntry.deserialize(buf, getDefaultRuntime());
+        assertThat(deserialized.getMethodId()).isEqualTo(SMREntry.NO_METHOD_ID);
+        assertThat(deserialized.getSMRMethod()).isEqualTo("put");
+    }
+
+    /**
+     * Compact ids written with another method table are rejected, rather than applied as the
+     * methods which happen to have the same ids.
+     */
+    @Test
+    public void compactMethodIdsOfAnotherTableAreRejected() throws Exception {
+        final String streamName = "unknown";
+        final long otherMethodTable = 1L;
+        List<SMREntry> updates = new ArrayList<>();
+        updates.add(new SMREntry("notAMethod", 0, otherMethodTable, new Object[]{"a", "1"},
+                Serializers.JSON));
+        getDefaultRuntime().getStreamsView().get(CorfuRuntime.getStreamID(streamName))
+                .append(new MultiSMREntry(updates));
+
+        Map<String, String> map = getDefaultRuntime().getObjectsView().build()
+                .setStreamName(streamName)
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        assertThatThrownBy(map::size)
+                .hasMessageContaining("Unknown upcall");
+    }
+
+    /**
+     * Entries that only carry the method name, as written by older clients, are still applied.
+     */
+    @Test
+    public void namedMethodsAreReplayed() throws Exception {
+        final String streamName = "named";
+        getDefaultRuntime().getStreamsView().get(CorfuRuntime.getStreamID(streamName))
+                .append(new SMREntry("put", new Object[]{"a", "1"},
+                        Serializers.JSON));
+
+        Map<String, String> map = getDefaultRuntime().getObjectsView().build()
+                .setStreamName(streamName)
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        assertThat(map).containsOnly(MapEntry.entry("a", "1"));
+    }
 }
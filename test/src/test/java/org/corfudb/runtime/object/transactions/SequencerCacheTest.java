@@ -47,7 +47,7 @@ public class SequencerCacheTest extends AbstractObjectTest {
         }
 
         SequencerServer sequencerServer = getSequencer(0);
-        Cache<String, Long> cache = sequencerServer.getConflictToGlobalTailCache();
+        Cache<Long, Long> cache = sequencerServer.getConflictToGlobalTailCache();
         assertThat(cache.asMap().size()).isEqualTo(numTxn);
         getDefaultRuntime().getAddressSpaceView().prefixTrim(trimAddress);
         assertThat(cache.asMap().size()).isEqualTo((int) trimAddress.getSequence());
@@ -0,0 +1,60 @@
+package org.corfudb.runtime.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.reflect.TypeToken;
+
+import java.util.Map;
+
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.collections.SMRMap;
+import org.corfudb.runtime.exceptions.TransactionAbortedException;
+import org.corfudb.util.CorfuComponent;
+import org.junit.Test;
+
+/**
+ * Tests the transactions committed with group commit enabled.
+ */
+public class GroupCommitterTest extends AbstractViewTest {
+
+    private static final String BATCH_SIZE_METRIC =
+            CorfuComponent.CLIENT_SEQUENCER + "group-commit.batch-size";
+
+    /**
+     * Check that the transactions committed concurrently each commit or abort on their own:
+     * every increment of a counter is retried until it commits, so none is lost.
+     */
+    @Test
+    public void concurrentTransactionsCommitOrAbortIndividually() throws Exception {
+        CorfuRuntime r = getDefaultRuntime();
+        r.getParameters().setGroupCommitEnabled(true);
+
+        Map<String, Integer> map = r.getObjectsView().build()
+                .setStreamName("counter")
+                .setTypeToken(new TypeToken<SMRMap<String, Integer>>() {})
+                .open();
+        map.put("counter", 0);
+
+        final int numThreads = PARAMETERS.CONCURRENCY_SOME;
+        final int numIncrements = PARAMETERS.NUM_ITERATIONS_LOW;
+        scheduleConcurrently(numThreads, t -> {
+            for (int i = 0; i < numIncrements; i++) {
+                while (true) {
+                    r.getObjectsView().TXBegin();
+                    map.put("counter", map.get("counter") + 1);
+                    try {
+                        r.getObjectsView().TXEnd();
+                        break;
+                    } catch (TransactionAbortedException e) {
+                        // Conflicted with another increment, retry
+                    }
+                }
+            }
+        });
+        executeScheduled(numThreads, PARAMETERS.TIMEOUT_LONG);
+
+        assertThat(map.get("counter")).isEqualTo(numThreads * numIncrements);
+        assertThat(r.getMetrics().getHistograms().get(BATCH_SIZE_METRIC).getCount())
+                .isGreaterThan(0L);
+    }
+}
@@ -8,10 +8,12 @@ import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.clients.TestRule;
 import org.corfudb.runtime.exceptions.OutrankedException;
 import org.corfudb.runtime.exceptions.QuorumUnreachableException;
+import org.corfudb.runtime.exceptions.ServerBusyException;
 import org.corfudb.runtime.exceptions.WrongClusterException;
 import org.corfudb.runtime.view.stream.IStreamView;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -19,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -660,4 +663,29 @@ public class LayoutViewTest extends AbstractViewTest {
         assertThat(alreadyProposedLayout3).isEqualTo(l2);
 
     }
+
+    /**
+     * A server which stays busy is retried a bounded number of times, and the caller
+     * then gets the busy exception.
+     */
+    @Test
+    public void serverBusyRetriesAreBounded() {
+        final int triggerLimit = 3;
+        final Duration busyRetryRate = Duration.ofMillis(1);
+        final Duration connectionRetryRate = Duration.ofMillis(4);
+        CorfuRuntime r = getDefaultRuntime();
+        r.getParameters().setSystemDownHandlerTriggerLimit(triggerLimit);
+        r.getParameters().setServerBusyRetryRate(busyRetryRate);
+        r.getParameters().setConnectionRetryRate(connectionRetryRate);
+
+        AtomicInteger attempts = new AtomicInteger();
+        assertThatThrownBy(() -> r.getLayoutView().layoutHelper(e -> {
+            attempts.incrementAndGet();
+            throw new ServerBusyException();
+        })).isInstanceOf(ServerBusyException.class);
+
+        // The backoff doubles up to the connection retry rate, then the retries are counted
+        final int rampUpAttempts = 2;
+        assertThat(attempts.get()).isEqualTo(rampUpAttempts + triggerLimit);
+    }
 }
@@ -6,10 +6,12 @@ import org.corfudb.protocols.logprotocol.MultiObjectSMREntry;
 import org.corfudb.protocols.logprotocol.MultiSMREntry;
 import org.corfudb.protocols.logprotocol.SMREntry;
 import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.collections.SMRMap;
 import org.corfudb.runtime.exceptions.TransactionAbortedException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.object.transactions.TransactionType;
 import org.corfudb.runtime.view.stream.IStreamView;
 import org.corfudb.util.serializer.Serializers;
 import org.junit.Test;
@@ -17,7 +19,10 @@ import org.junit.Test;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -206,4 +211,152 @@ public class ObjectsViewTest extends AbstractViewTest {
                 .containsEntry("b", "b");
     }
 
+    /** Check that a group of objects is synced to a single snapshot. */
+    @Test
+    public void syncAllSyncsObjectsToSnapshot() {
+        final int numEntries = 10;
+        CorfuRuntime writer = getDefaultRuntime();
+        Map<String, String> mapA = writer.getObjectsView().build()
+                .setStreamName("map a")
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+        Map<String, String> mapB = writer.getObjectsView().build()
+                .setStreamName("map b")
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+        for (int i = 0; i < numEntries; i++) {
+            mapA.put(Integer.toString(i), "a");
+            mapB.put(Integer.toString(i), "b");
+        }
+
+        CorfuRuntime reader = getNewRuntime(getDefaultNode()).connect();
+        Map<String, String> readerA = reader.getObjectsView().build()
+                .setStreamName("map a")
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+        Map<String, String> readerB = reader.getObjectsView().build()
+                .setStreamName("map b")
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        Token snapshot = reader.getObjectsView().syncAll(readerA, readerB);
+        assertThat(snapshot.getSequence()).isEqualTo(numEntries * 2 - 1);
+        assertThat(reader.getSequencerView()
+                .getStreamTailHint(CorfuRuntime.getStreamID("map a"), snapshot.getSequence()))
+                .isEqualTo(numEntries * 2 - 2);
+        assertThat(reader.getSequencerView()
+                .getStreamTailHint(CorfuRuntime.getStreamID("map b"), snapshot.getSequence()))
+                .isEqualTo(numEntries * 2 - 1);
+
+        // A transaction at the snapshot reads the synced objects
+        reader.getObjectsView().TXBuild()
+                .type(TransactionType.SNAPSHOT)
+                .snapshot(snapshot)
+                .build()
+                .begin();
+        assertThat(readerA).hasSize(numEntries).containsEntry("0", "a");
+        assertThat(readerB).hasSize(numEntries).containsEntry("0", "b");
+        reader.getObjectsView().TXEnd();
+
+        // A tail hint is not used past the global tail it was queried at
+        mapA.put("new", "a");
+        assertThat(reader.getSequencerView()
+                .getStreamTailHint(CorfuRuntime.getStreamID("map a"), snapshot.getSequence() + 1))
+                .isNull();
+        assertThat(readerA).containsEntry("new", "a");
+    }
+
+    /** Check that a transaction ended asynchronously commits or aborts through its future. */
+    @Test
+    public void txEndAsyncCompletesWithCommitAddress() {
+        CorfuRuntime r = getDefaultRuntime();
+        Map<String, String> map = r.getObjectsView().build()
+                .setStreamName("map a")
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        r.getObjectsView().TXBegin();
+        map.put("a", "a");
+        CompletableFuture<Long> commit = r.getObjectsView().TXEndAsync();
+        assertThat(r.getObjectsView().TXActive()).isFalse();
+        assertThat(commit.join()).isEqualTo(0L);
+        assertThat(map).containsEntry("a", "a");
+
+        // A conflicting transaction from another runtime aborts the transaction
+        CorfuRuntime other = getNewRuntime(getDefaultNode()).connect();
+        Map<String, String> otherMap = other.getObjectsView().build()
+                .setStreamName("map a")
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+
+        r.getObjectsView().TXBegin();
+        String a = map.get("a");
+        CompletableFuture.runAsync(() -> {
+            other.getObjectsView().TXBegin();
+            otherMap.put("a", "b");
+            other.getObjectsView().TXEnd();
+        }).join();
+        map.put("b", a);
+        CompletableFuture<Long> aborted = r.getObjectsView().TXEndAsync();
+        assertThatThrownBy(aborted::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TransactionAbortedException.class);
+        assertThat(map).containsEntry("a", "b").doesNotContainKey("b");
+    }
+
+    /**
+     * Check that transactions ended asynchronously after a shutdown abort, and give back
+     * their permits.
+     */
+    @Test
+    public void txEndAsyncAbortsAfterShutdown() {
+        getDefaultRuntime();
+        CorfuRuntime r = getNewRuntime(getDefaultNode()).connect();
+        r.getParameters().setMaxAsyncCommits(1);
+        Map<String, String> map = r.getObjectsView().build()
+                .setStreamName("map a")
+                .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                .open();
+        r.getObjectsView().shutdown();
+
+        final int numTransactions = 2;
+        for (int i = 0; i < numTransactions; i++) {
+            r.getObjectsView().TXBegin();
+            map.put("a", "a");
+            CompletableFuture<Long> aborted = r.getObjectsView().TXEndAsync();
+            assertThatThrownBy(aborted::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(TransactionAbortedException.class);
+        }
+        assertThat(map).doesNotContainKey("a");
+    }
+
+    /** Check that syncing objects in parallel completes when the objects view shuts down. */
+    @Test
+    public void syncAllCompletesDuringShutdown() throws Exception {
+        final int numObjects = 8;
+        getDefaultRuntime();
+        CorfuRuntime r = getNewRuntime(getDefaultNode()).connect();
+        r.getParameters().setSyncThreads(2);
+        Object[] maps = new Object[numObjects];
+        for (int i = 0; i < numObjects; i++) {
+            Map<String, String> map = r.getObjectsView().build()
+                    .setStreamName("map " + i)
+                    .setTypeToken(new TypeToken<SMRMap<String, String>>() {})
+                    .open();
+            map.put("a", Integer.toString(i));
+            maps[i] = map;
+        }
+
+        CompletableFuture<Token> sync = CompletableFuture.supplyAsync(
+                () -> r.getObjectsView().syncAll(maps));
+        r.getObjectsView().shutdown();
+        sync.get(PARAMETERS.TIMEOUT_NORMAL.toMillis(), TimeUnit.MILLISECONDS);
+
+        // Syncing after the shutdown syncs the objects from the caller
+        r.getObjectsView().syncAll(maps);
+        for (int i = 0; i < numObjects; i++) {
+            assertThat((Map<String, String>) maps[i]).containsEntry("a", Integer.toString(i));
+        }
+    }
 }
@@ -9,7 +9,9 @@ import org.corfudb.AbstractCorfuTest;
 import org.corfudb.runtime.exceptions.QuorumUnreachableException;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.*;
 
@@ -260,4 +262,39 @@ public class QuorumFuturesFactoryTest extends AbstractCorfuTest {
         assertTrue(result.isConflict());
     }
 
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMajorityFutureCompletesOnFirstMajority() throws Exception {
+        CompletableFuture<String> f1 = new CompletableFuture<>();
+        CompletableFuture<String> f2 = new CompletableFuture<>();
+        CompletableFuture<String> f3 = new CompletableFuture<>();
+        CompletableFuture<List<String>> result = QuorumFuturesFactory.getMajorityFuture(
+                new CompletableFuture[]{f1, f2, f3});
+        f1.complete("1");
+        assertFalse(result.isDone());
+        f3.complete("3");
+        assertEquals(Arrays.asList("1", "3"),
+                result.get(PARAMETERS.TIMEOUT_SHORT.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMajorityFutureFailsWhenMajorityFails() throws Exception {
+        CompletableFuture<String> f1 = new CompletableFuture<>();
+        CompletableFuture<String> f2 = new CompletableFuture<>();
+        CompletableFuture<String> f3 = new CompletableFuture<>();
+        CompletableFuture<List<String>> result = QuorumFuturesFactory.getMajorityFuture(
+                new CompletableFuture[]{f1, f2, f3});
+        f1.completeExceptionally(new NullPointerException());
+        f2.complete("2");
+        assertFalse(result.isDone());
+        f3.completeExceptionally(new NullPointerException());
+        try {
+            result.get(PARAMETERS.TIMEOUT_SHORT.toMillis(), TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof QuorumUnreachableException);
+        }
+    }
 }
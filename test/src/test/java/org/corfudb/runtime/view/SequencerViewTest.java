@@ -5,7 +5,12 @@ import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.runtime.CorfuRuntime;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -96,4 +101,57 @@ public class SequencerViewTest extends AbstractViewTest {
         assertThat(r.getSequencerView().next(streamB).getBackpointerMap())
                 .containsEntry(streamB, 1L);
     }
+
+    @Test
+    public void tailListenersAreNotifiedOfTailAdvances() throws Exception {
+        CorfuRuntime r = getDefaultRuntime();
+        UUID streamA = CorfuRuntime.getStreamID("streamA");
+        UUID streamB = CorfuRuntime.getStreamID("streamB");
+        final long firstTail = 0L;
+        final long lastTail = 2L;
+
+        r.getSequencerView().next(streamA);
+
+        BlockingQueue<Map<UUID, Long>> notifications = new LinkedBlockingQueue<>();
+        StreamsView.StreamTailListener listener = notifications::add;
+        r.getStreamsView().addTailListener(listener, streamA);
+
+        // The current tail is sent once subscribed
+        assertThat(notifications.poll(PARAMETERS.TIMEOUT_NORMAL.toMillis(), TimeUnit.MILLISECONDS))
+                .isEqualTo(Collections.singletonMap(streamA, firstTail));
+
+        // Only the advances of the subscribed streams are sent
+        r.getSequencerView().next(streamB);
+        r.getSequencerView().next(streamA);
+        assertThat(notifications.poll(PARAMETERS.TIMEOUT_NORMAL.toMillis(), TimeUnit.MILLISECONDS))
+                .isEqualTo(Collections.singletonMap(streamA, lastTail));
+
+        r.getStreamsView().removeTailListener(listener);
+        r.getSequencerView().next(streamA);
+        assertThat(notifications.poll(PARAMETERS.TIMEOUT_SHORT.toMillis(), TimeUnit.MILLISECONDS))
+                .isNull();
+    }
+
+    @Test
+    public void tailListenersAreNotResubscribedToTheSamePrimary() throws Exception {
+        CorfuRuntime r = getDefaultRuntime();
+        UUID streamA = CorfuRuntime.getStreamID("streamA");
+        final long firstTail = 0L;
+
+        r.getSequencerView().next(streamA);
+
+        BlockingQueue<Map<UUID, Long>> notifications = new LinkedBlockingQueue<>();
+        StreamsView.StreamTailListener listener = notifications::add;
+        r.getStreamsView().addTailListener(listener, streamA);
+        assertThat(notifications.poll(PARAMETERS.TIMEOUT_NORMAL.toMillis(), TimeUnit.MILLISECONDS))
+                .isEqualTo(Collections.singletonMap(streamA, firstTail));
+
+        // A subscription would send the current tail again, the primary sequencer is unchanged
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_VERY_LOW; i++) {
+            r.invalidateLayout();
+            r.getLayoutView().getLayout();
+        }
+        assertThat(notifications.poll(PARAMETERS.TIMEOUT_SHORT.toMillis(), TimeUnit.MILLISECONDS))
+                .isNull();
+    }
 }
@@ -0,0 +1,80 @@
+package org.corfudb.runtime.view.replication;
+
+import com.codahale.metrics.MetricRegistry;
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Test the hole fill policy that adapts to the write latency.
+ */
+public class AdaptiveHoleFillPolicyTest extends AbstractCorfuTest {
+
+    private static final Duration MIN_WAIT = Duration.ofMillis(10);
+    private static final Duration MAX_WAIT = Duration.ofSeconds(5);
+    private static final Duration RETRY_WAIT = Duration.ofMillis(5);
+    private static final long SLOW_WRITE_MILLIS = 40;
+
+    private AdaptiveHoleFillPolicy getPolicy(MetricRegistry metrics) {
+        return new AdaptiveHoleFillPolicy(MIN_WAIT, MAX_WAIT, RETRY_WAIT, metrics);
+    }
+
+    /** Check that the wait follows the write latencies, within its bounds. */
+    @Test
+    public void waitAdaptsToWriteLatency() {
+        AdaptiveHoleFillPolicy policy = getPolicy(new MetricRegistry());
+
+        // Not enough writes observed yet
+        assertThat(policy.getHoleFillWait()).isEqualTo(MAX_WAIT);
+
+        for (int i = 0; i < AdaptiveHoleFillPolicy.MIN_SAMPLES; i++) {
+            policy.recordWrite(TimeUnit.MICROSECONDS.toNanos(1));
+        }
+        assertThat(policy.getHoleFillWait()).isEqualTo(MIN_WAIT);
+
+        for (int i = 0; i < AdaptiveHoleFillPolicy.MIN_SAMPLES; i++) {
+            policy.recordWrite(TimeUnit.MILLISECONDS.toNanos(SLOW_WRITE_MILLIS));
+        }
+        assertThat(policy.getHoleFillWait())
+                .isEqualTo(Duration.ofMillis(SLOW_WRITE_MILLIS * AdaptiveHoleFillPolicy.WAIT_FACTOR));
+
+        for (int i = 0; i < AdaptiveHoleFillPolicy.MIN_SAMPLES; i++) {
+            policy.recordWrite(TimeUnit.MINUTES.toNanos(1));
+        }
+        assertThat(policy.getHoleFillWait()).isEqualTo(MAX_WAIT);
+    }
+
+    /** Check that an address is peeked a few times before being hole filled. */
+    @Test
+    public void holeFillRequiresMinimumPeeks() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        AdaptiveHoleFillPolicy policy = getPolicy(metrics);
+        for (int i = 0; i < AdaptiveHoleFillPolicy.MIN_SAMPLES; i++) {
+            policy.recordWrite(TimeUnit.MICROSECONDS.toNanos(1));
+        }
+
+        AtomicInteger peeks = new AtomicInteger();
+        assertThatThrownBy(() -> policy.peekUntilHoleFillRequired(0L, a -> {
+            peeks.incrementAndGet();
+            return null;
+        })).isInstanceOf(HoleFillRequiredException.class);
+        assertThat(peeks.get()).isGreaterThan(AdaptiveHoleFillPolicy.MIN_PEEKS);
+        assertThat(metrics.getMeters().values().stream()
+                .mapToLong(m -> m.getCount()).sum()).isEqualTo(1L);
+
+        // Data written in between is returned
+        ILogData data = new LogData(DataType.HOLE);
+        AtomicInteger attempts = new AtomicInteger();
+        assertThat(policy.peekUntilHoleFillRequired(0L,
+                a -> attempts.incrementAndGet() > 1 ? data : null)).isSameAs(data);
+    }
+}
@@ -17,14 +17,21 @@ import org.corfudb.protocols.wireprotocol.WriteMode;
 import org.corfudb.protocols.wireprotocol.WriteRequest;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.clients.LogUnitClient;
+import org.corfudb.runtime.clients.TestRule;
 import org.corfudb.runtime.exceptions.DataOutrankedException;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.view.Layout;
+import org.corfudb.runtime.view.RuntimeLayout;
 import org.corfudb.runtime.view.stream.IStreamView;
+import org.corfudb.util.Utils;
 import org.corfudb.util.serializer.Serializers;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -74,6 +81,82 @@ public class QuorumReplicationProtocolTest extends AbstractReplicationProtocolTe
 
 
 
+    /** Check that a bulk read returns the committed entries from a single round, and
+     * hole fills the unwritten addresses.
+     */
+    @Test
+    public void readAllHoleFillsUnwrittenAddresses() {
+        setupNodes();
+
+        final CorfuRuntime r = getDefaultRuntime();
+        final IReplicationProtocol rp = getProtocol();
+        final RuntimeLayout runtimeLayout = r.getLayoutView().getRuntimeLayout();
+        final long holeAddress = 1L;
+        final long lastAddress = 2L;
+
+        rp.write(runtimeLayout, getLogData(0L, "0".getBytes()));
+        rp.write(runtimeLayout, getLogData(lastAddress, "2".getBytes()));
+
+        Map<Long, ILogData> read = rp.readAll(runtimeLayout,
+                Arrays.asList(0L, holeAddress, lastAddress));
+        assertThat(read.get(0L).getPayload(r)).isEqualTo("0".getBytes());
+        assertThat(read.get(holeAddress).getType()).isEqualTo(DataType.HOLE);
+        assertThat(read.get(lastAddress).getPayload(r)).isEqualTo("2".getBytes());
+
+        // The log tail is collected from a majority of the log units
+        assertThat(Utils.getTails(runtimeLayout.getLayout(), r).getLogTail())
+                .isEqualTo(lastAddress);
+    }
+
+    /** Check that a bulk read of a striped layout reads each stripe from its own log units,
+     * without falling back to reading the addresses one by one.
+     */
+    @Test
+    public void readAllReadsEachStripe() {
+        addServer(SERVERS.PORT_0);
+        addServer(SERVERS.PORT_1);
+        bootstrapAllServers(new TestLayoutBuilder()
+                .addLayoutServer(SERVERS.PORT_0)
+                .addSequencer(SERVERS.PORT_0)
+                .buildSegment()
+                .setReplicationMode(Layout.ReplicationMode.QUORUM_REPLICATION)
+                .buildStripe()
+                .addLogUnit(SERVERS.PORT_0)
+                .addToSegment()
+                .buildStripe()
+                .addLogUnit(SERVERS.PORT_1)
+                .addToSegment()
+                .addToLayout()
+                .build());
+        getRuntime().setCacheDisabled(true);
+
+        final CorfuRuntime r = getDefaultRuntime();
+        final IReplicationProtocol rp = getProtocol();
+        final RuntimeLayout runtimeLayout = r.getLayoutView().getRuntimeLayout();
+        final int numAddresses = 4;
+        List<Long> addresses = new ArrayList<>();
+        for (long address = 0; address < numAddresses; address++) {
+            rp.write(runtimeLayout, getLogData(address, Long.toString(address).getBytes()));
+            addresses.add(address);
+        }
+
+        AtomicInteger singleReads = new AtomicInteger();
+        TestRule countSingleReads = new TestRule().matches(m -> {
+            if (m.getMsgType() == CorfuMsgType.READ_REQUEST) {
+                singleReads.incrementAndGet();
+            }
+            return false;
+        });
+        addClientRule(r, countSingleReads);
+
+        Map<Long, ILogData> read = rp.readAll(runtimeLayout, addresses);
+        for (long address : addresses) {
+            assertThat(read.get(address).getPayload(r))
+                    .isEqualTo(Long.toString(address).getBytes());
+        }
+        assertThat(singleReads.get()).isZero();
+    }
+
     @Override
     public void overwriteThrowsException()
             throws Exception {
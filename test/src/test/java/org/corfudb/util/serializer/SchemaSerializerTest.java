@@ -0,0 +1,264 @@
+package org.corfudb.util.serializer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Longs;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.openhft.hashing.LongHashFunction;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.util.Utils;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests the schema based serializer.
+ */
+public class SchemaSerializerTest {
+
+    private static final byte SERIALIZER_TYPE = 20;
+    private static final int PERSON_TYPE = 1;
+    private static final int ADDRESS_TYPE = 2;
+    private static final int COLOR_TYPE = 3;
+    private static final int ZIP = 94301;
+    private static final int ADDRESS_TAG = 3;
+
+    enum Color {
+        RED, GREEN
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Address {
+        String city;
+        int zip;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Person {
+        String name;
+        long id;
+        boolean active;
+        UUID uuid;
+        Color color;
+        Address address;
+        List<String> tags;
+        Map<String, Integer> scores;
+        Set<Long> ids;
+        byte[] blob;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class RecordV1 {
+        @SchemaSerializer.Tag(1)
+        String key;
+        @SchemaSerializer.Tag(2)
+        int value;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class RecordV2 {
+        @SchemaSerializer.Tag(1)
+        String key;
+        @SchemaSerializer.Tag(2)
+        int value;
+        @SchemaSerializer.Tag(ADDRESS_TAG)
+        Address address;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class UntaggedV1 {
+        String key;
+        int value;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class UntaggedV2 {
+        String added;
+        String key;
+        int value;
+    }
+
+    private SchemaSerializer newSerializer() {
+        SchemaSerializer serializer = new SchemaSerializer(SERIALIZER_TYPE);
+        serializer.registerType(PERSON_TYPE, Person.class);
+        serializer.registerType(ADDRESS_TYPE, Address.class);
+        serializer.registerType(COLOR_TYPE, Color.class);
+        return serializer;
+    }
+
+    private Person newPerson() {
+        return new Person("alice", -1L, true, UUID.randomUUID(), Color.GREEN,
+                new Address("Palo Alto", ZIP), ImmutableList.of("a", "b"),
+                ImmutableMap.of("x", 1, "y", 2), Sets.newHashSet(1L, 2L),
+                new byte[]{1, 2});
+    }
+
+    private Object roundTrip(ISerializer writer, ISerializer reader, Object o) {
+        ByteBuf buf = Unpooled.buffer();
+        writer.serialize(o, buf);
+        Object result = reader.deserialize(buf, null);
+        assertThat(buf.readableBytes()).isZero();
+        return result;
+    }
+
+    @Test
+    public void serializesRegisteredObjects() {
+        SchemaSerializer serializer = newSerializer();
+        Person person = newPerson();
+
+        assertThat(roundTrip(serializer, serializer, person)).isEqualTo(person);
+        assertThat(roundTrip(serializer, serializer, "hello")).isEqualTo("hello");
+        assertThat(roundTrip(serializer, serializer, Long.MIN_VALUE)).isEqualTo(Long.MIN_VALUE);
+        assertThat(roundTrip(serializer, serializer, null)).isNull();
+    }
+
+    @Test
+    public void unregisteredClassesAreRejected() {
+        SchemaSerializer serializer = new SchemaSerializer(SERIALIZER_TYPE);
+        assertThatThrownBy(() -> serializer.serialize(newPerson(), Unpooled.buffer()))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    public void tagsAllowSchemaEvolution() {
+        SchemaSerializer v1 = new SchemaSerializer(SERIALIZER_TYPE);
+        v1.registerType(1, RecordV1.class);
+        SchemaSerializer v2 = new SchemaSerializer(SERIALIZER_TYPE);
+        v2.registerType(1, RecordV2.class);
+        v2.registerType(2, Address.class);
+
+        // A reader with the old schema skips the new field.
+        assertThat(roundTrip(v2, v1, new RecordV2("k", 1, new Address("SF", 1))))
+                .isEqualTo(new RecordV1("k", 1));
+        // A reader with the new schema leaves the missing field to its default.
+        assertThat(roundTrip(v1, v2, new RecordV1("k", 1)))
+                .isEqualTo(new RecordV2("k", 1, null));
+    }
+
+    @Test
+    public void hashesRegisteredObjectsByValue() {
+        SchemaSerializer serializer = newSerializer();
+        Person person = newPerson();
+        Person copy = (Person) roundTrip(serializer, serializer, person);
+
+        Set<Long> reordered = new LinkedHashSet<>();
+        reordered.add(2L);
+        reordered.add(1L);
+        copy.setIds(reordered);
+
+        assertThat(serializer.hash(copy)).isEqualTo(serializer.hash(person));
+        assertThat(serializer.fingerprint(copy)).isEqualTo(serializer.fingerprint(person));
+
+        copy.setName("bob");
+        assertThat(serializer.hash(copy)).isNotEqualTo(serializer.hash(person));
+        assertThat(serializer.fingerprint(copy)).isNotEqualTo(serializer.fingerprint(person));
+    }
+
+    @Test
+    public void hashesUnregisteredObjectsThroughTheSerializer() {
+        ISerializer serializer = Serializers.JSON;
+        Set<String> set = new HashSet<>();
+        set.add("a");
+
+        assertThat(serializer.hash(set)).isEqualTo(serializer.hash(new HashSet<>(set)));
+    }
+
+    /**
+     * The serializers which don't opt into their own fingerprints fingerprint an object by its
+     * hash, so that the conflict keys don't depend on the client version.
+     */
+    @Test
+    public void fingerprintsFollowTheHash() {
+        ISerializer serializer = Serializers.JSON;
+        Set<String> set = new HashSet<>();
+        set.add("a");
+
+        for (Object o : ImmutableList.of("a", 1L, 1, UUID.randomUUID(), set)) {
+            byte[] hash = serializer.hash(o);
+            long expected = hash.length == Long.BYTES
+                    ? Longs.fromByteArray(hash) : LongHashFunction.xx().hashBytes(hash);
+            assertThat(serializer.fingerprint(o)).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * A serializer can hash an object while it serializes another one on the same thread.
+     */
+    @Test
+    public void hashesObjectsWhileSerializing() {
+        ISerializer serializer = new ISerializer() {
+            @Override
+            public byte getType() {
+                return SERIALIZER_TYPE;
+            }
+
+            @Override
+            public Object deserialize(ByteBuf b, CorfuRuntime rt) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void serialize(Object o, ByteBuf b) {
+                for (Object element : (List<?>) o) {
+                    if (element instanceof List) {
+                        b.writeBytes(hash(element));
+                    } else {
+                        b.writeBytes(element.toString().getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        };
+        List<Object> nested = ImmutableList.of("a", ImmutableList.of("b", "c"), "d");
+
+        ByteBuf b = Unpooled.buffer();
+        serializer.serialize(nested, b);
+        long expected = LongHashFunction.xx().hashBytes(b.nioBuffer());
+        b.release();
+
+        assertThat(serializer.hash(nested)).isEqualTo(Utils.longToBigEndianByteArray(expected));
+    }
+
+    /**
+     * The tags of untagged fields are derived from their names, so adding a field does not
+     * shift the tags of the other fields.
+     */
+    @Test
+    public void untaggedFieldsSurviveAddedFields() {
+        SchemaSerializer v1 = new SchemaSerializer(SERIALIZER_TYPE);
+        v1.registerType(PERSON_TYPE, UntaggedV1.class);
+        SchemaSerializer v2 = new SchemaSerializer(SERIALIZER_TYPE);
+        v2.registerType(PERSON_TYPE, UntaggedV2.class);
+
+        UntaggedV2 upgraded = (UntaggedV2) roundTrip(v1, v2, new UntaggedV1("k", ZIP));
+        assertThat(upgraded).isEqualTo(new UntaggedV2(null, "k", ZIP));
+
+        UntaggedV1 downgraded = (UntaggedV1) roundTrip(v2, v1, new UntaggedV2("a", "k", ZIP));
+        assertThat(downgraded).isEqualTo(new UntaggedV1("k", ZIP));
+    }
+}